@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -323,6 +323,29 @@ public class AbstractCompletionTest extends TestCase {
 		assertNoProposal(selector, contents, preSelection);
 	}
 
+	/**
+	 * Creates a CU with a method containing <code>before</code>, then runs code assist and returns
+	 * the proposals.
+	 *
+	 * @param before the contents of the method body line before code completion is run
+	 * @return the proposals
+	 * @throws CoreException if a failure happened during code assist
+	 * @since 3.12
+	 */
+	protected ICompletionProposal[] computeMethodBodyProposals(String before) throws CoreException {
+		StringBuffer contents= new StringBuffer();
+		IRegion preSelection= assembleMethodBodyTestCUExtractSelection(contents, before, fBeforeImports);
+
+		fCU= createCU(getAnonymousTestPackage(), contents.toString());
+		fEditor= (JavaEditor) EditorUtility.openInEditor(fCU);
+		try {
+			return collectProposals(preSelection);
+		} finally {
+			EditorTestHelper.closeEditor(fEditor);
+			fEditor= null;
+		}
+	}
+
 	private void assertProposal(String selector, StringBuffer contents, IRegion preSelection, StringBuffer result, IRegion expectedSelection) throws CoreException {
 		fCU= createCU(getAnonymousTestPackage(), contents.toString());
 		fEditor= (JavaEditor) EditorUtility.openInEditor(fCU);
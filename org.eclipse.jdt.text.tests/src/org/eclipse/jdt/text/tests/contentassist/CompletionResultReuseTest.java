@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.contentassist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+import org.eclipse.jdt.text.tests.performance.EditorTestHelper;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.text.tests.Accessor;
+
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.contentassist.ICompletionProposal;
+import org.eclipse.jface.text.contentassist.ICompletionProposalExtension2;
+import org.eclipse.jface.text.source.ISourceViewer;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+
+import org.eclipse.jdt.ui.text.java.JavaContentAssistInvocationContext;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.javaeditor.EditorUtility;
+import org.eclipse.jdt.internal.ui.javaeditor.JavaEditor;
+import org.eclipse.jdt.internal.ui.text.java.JavaCompletionProposalComputer;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests that {@link JavaCompletionProposalComputer} only filters the proposals of the previous
+ * computation, see {@link JavaCompletionProposalComputer#PREF_REUSE_RESULTS}, while nothing but
+ * the prefix of the completion has been extended.
+ *
+ * @since 3.12
+ */
+public class CompletionResultReuseTest extends TestCase {
+	private static final Class<CompletionResultReuseTest> THIS= CompletionResultReuseTest.class;
+
+	private static final String PREFIX= "Stri";
+
+	public static Test setUpTest(Test test) {
+		return new CompletionTestSetup(test);
+	}
+
+	public static Test suite() {
+		return setUpTest(new TestSuite(THIS));
+	}
+
+	private ICompilationUnit fCU;
+	private JavaEditor fEditor;
+	private IDocument fDocument;
+	private ISourceViewer fViewer;
+	private JavaCompletionProposalComputer fComputer;
+	/** The offset at the end of the prefix */
+	private int fOffset;
+
+	@Override
+	protected void setUp() throws Exception {
+		JavaPlugin.getDefault().getPreferenceStore().setValue(JavaCompletionProposalComputer.PREF_REUSE_RESULTS, true);
+
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class Reuse {\n");
+		buf.append("    void foo() {\n");
+		buf.append("        ").append(PREFIX).append("\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		fCU= CompletionTestSetup.getAnonymousTestPackage().createCompilationUnit("Reuse.java", buf.toString(), false, null);
+		fEditor= (JavaEditor) EditorUtility.openInEditor(fCU);
+		fDocument= fEditor.getDocumentProvider().getDocument(fEditor.getEditorInput());
+		fViewer= fEditor.getViewer();
+		fOffset= buf.indexOf(PREFIX) + PREFIX.length();
+		fViewer.setSelectedRange(fOffset, 0);
+
+		JavaProjectHelper.mustPerformDummySearch();
+		fComputer= new JavaCompletionProposalComputer();
+		fComputer.sessionStarted();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fComputer.sessionEnded();
+		JavaPlugin.getDefault().getPreferenceStore().setToDefault(JavaCompletionProposalComputer.PREF_REUSE_RESULTS);
+		EditorTestHelper.closeEditor(fEditor);
+		JavaProjectHelper.delete(fCU);
+		JavaProjectHelper.emptyDisplayLoop();
+	}
+
+	private List<ICompletionProposal> compute(JavaCompletionProposalComputer computer, int offset) {
+		JavaContentAssistInvocationContext context= new JavaContentAssistInvocationContext(fViewer, offset, fEditor);
+		return computer.computeCompletionProposals(context, new NullProgressMonitor());
+	}
+
+	/**
+	 * Inserts text into the document and validates the proposals with the change, like the
+	 * proposal popup does while it is shown.
+	 */
+	private void type(int offset, String text, List<ICompletionProposal> proposals) throws Exception {
+		DocumentEvent event= new DocumentEvent(fDocument, offset, 0, text);
+		fDocument.replace(offset, 0, text);
+		fViewer.setSelectedRange(offset + text.length(), 0);
+		for (int i= 0; i < proposals.size(); i++) {
+			ICompletionProposal proposal= proposals.get(i);
+			if (proposal instanceof ICompletionProposalExtension2)
+				((ICompletionProposalExtension2) proposal).validate(fDocument, offset + text.length(), event);
+		}
+	}
+
+	private static List<String> getDisplayStrings(List<ICompletionProposal> proposals) {
+		List<String> strings= new ArrayList<>();
+		for (int i= 0; i < proposals.size(); i++)
+			strings.add(proposals.get(i).getDisplayString());
+		Collections.sort(strings);
+		return strings;
+	}
+
+	private static void assertNotReused(List<ICompletionProposal> previous, List<ICompletionProposal> proposals) {
+		assertFalse(proposals.isEmpty());
+		for (int i= 0; i < proposals.size(); i++)
+			assertFalse(proposals.get(i).getDisplayString(), previous.contains(proposals.get(i)));
+	}
+
+	public void testPrefixExtended() throws Exception {
+		List<ICompletionProposal> previous= compute(fComputer, fOffset);
+		assertFalse(previous.isEmpty());
+
+		type(fOffset, "n", previous);
+		List<ICompletionProposal> proposals= compute(fComputer, fOffset + 1);
+
+		assertFalse(proposals.isEmpty());
+		assertTrue(previous.containsAll(proposals));
+		assertTrue(proposals.size() < previous.size());
+
+		// same proposals as a new computation
+		JavaCompletionProposalComputer computer= new JavaCompletionProposalComputer();
+		computer.sessionStarted();
+		try {
+			assertEquals(getDisplayStrings(compute(computer, fOffset + 1)), getDisplayStrings(proposals));
+		} finally {
+			computer.sessionEnded();
+		}
+	}
+
+	public void testPrefixExtendedInJob() throws Exception {
+		List<ICompletionProposal> previous= compute(fComputer, fOffset);
+
+		type(fOffset, "n", previous);
+		// the selection is read in the UI thread, the computer runs in a job
+		final JavaContentAssistInvocationContext context= new JavaContentAssistInvocationContext(fViewer, fOffset + 1, fEditor);
+		context.getSelectedRange();
+		final List<List<ICompletionProposal>> result= new ArrayList<>();
+		Job job= new Job("compute proposals") {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				result.add(fComputer.computeCompletionProposals(context, monitor));
+				return Status.OK_STATUS;
+			}
+		};
+		job.schedule();
+		job.join();
+
+		assertEquals(1, result.size());
+		List<ICompletionProposal> proposals= result.get(0);
+		assertFalse(proposals.isEmpty());
+		assertTrue(previous.containsAll(proposals));
+	}
+
+	public void testDisabled() throws Exception {
+		JavaPlugin.getDefault().getPreferenceStore().setToDefault(JavaCompletionProposalComputer.PREF_REUSE_RESULTS);
+		List<ICompletionProposal> previous= compute(fComputer, fOffset);
+
+		type(fOffset, "n", previous);
+		assertNotReused(previous, compute(fComputer, fOffset + 1));
+	}
+
+	public void testTextChangedElsewhere() throws Exception {
+		List<ICompletionProposal> previous= compute(fComputer, fOffset);
+
+		fDocument.replace(fDocument.getLength(), 0, "// changed\n");
+		type(fOffset, "n", previous);
+		assertNotReused(previous, compute(fComputer, fOffset + 1));
+	}
+
+	public void testSelection() throws Exception {
+		List<ICompletionProposal> previous= compute(fComputer, fOffset);
+
+		type(fOffset, "n", previous);
+		fViewer.setSelectedRange(fOffset - PREFIX.length(), 2);
+		assertNotReused(previous, compute(fComputer, fOffset + 1));
+	}
+
+	public void testNotValidatedByPopup() throws Exception {
+		List<ICompletionProposal> previous= compute(fComputer, fOffset);
+
+		// the replacement lengths of the proposals do not match the document
+		fDocument.replace(fOffset, 0, "n");
+		fViewer.setSelectedRange(fOffset + 1, 0);
+		List<ICompletionProposal> proposals= compute(fComputer, fOffset + 1);
+		assertNotReused(previous, proposals);
+	}
+
+	public void testTimeout() throws Exception {
+		Accessor accessor= new Accessor(fComputer, JavaCompletionProposalComputer.class);
+		Object timeoutMonitor= accessor.get("fTimeoutProgressMonitor");
+		NullProgressMonitor cancelled= new NullProgressMonitor();
+		cancelled.setCanceled(true);
+		accessor.set("fTimeoutProgressMonitor", cancelled);
+		try {
+			compute(fComputer, fOffset);
+		} finally {
+			accessor.set("fTimeoutProgressMonitor", timeoutMonitor);
+		}
+		assertNotNull(fComputer.getErrorMessage());
+		// the incomplete result is not kept
+		assertNull(accessor.get("fLastResult"));
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.jdt.text.tests.contentassist;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -36,6 +37,7 @@ import junit.framework.TestSuite;
 public class ContentAssistHistoryTest extends TestCase {
 	private static final Class<ContentAssistHistoryTest> THIS= ContentAssistHistoryTest.class;
 
+	private static final String HASH_SET= "java.util.HashSet";
 	private static final String LINKED_LIST= "java.util.LinkedList";
 	private static final String ARRAY_LIST= "java.util.ArrayList";
 	private static final String ITERABLE= "java.lang.Iterable";
@@ -52,6 +54,7 @@ public class ContentAssistHistoryTest extends TestCase {
 	private static IType fgListT;
 	private static IType fgArrayListT;
 	private static IType fgLinkedListT;
+	private static IType fgHashSetT;
 
 
 	public ContentAssistHistoryTest(String name) {
@@ -79,6 +82,7 @@ public class ContentAssistHistoryTest extends TestCase {
 				fgListT= project.findType(LIST);
 				fgArrayListT= project.findType(ARRAY_LIST);
 				fgLinkedListT= project.findType(LINKED_LIST);
+				fgHashSetT= project.findType(HASH_SET);
 			}
 		};
 	}
@@ -240,6 +244,85 @@ public class ContentAssistHistoryTest extends TestCase {
 		assertEqualMap(map(LIST, list(ARRAY_LIST), COLLECTION, list(ARRAY_LIST), ITERABLE, list(ARRAY_LIST), CHAR_SEQUENCE, list(STRING)), loaded.getEntireHistory());
 	}
 
+	public void testLoadXMLKeepsRecency() throws Exception {
+		// the right hand sides are stored least recently used first
+		StringBuffer buf= new StringBuffer();
+		buf.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+		buf.append("<history maxLHS=\"100\" maxRHS=\"10\">");
+		buf.append("<lhs name=\"" + COLLECTION + "\">");
+		buf.append("<rhs name=\"" + LINKED_LIST + "\"/>");
+		buf.append("<rhs name=\"" + HASH_SET + "\"/>");
+		buf.append("<rhs name=\"" + ARRAY_LIST + "\"/>");
+		buf.append("</lhs>");
+		buf.append("</history>");
+
+		Preferences prefs= new Preferences();
+		String key= "myKey";
+		prefs.setValue(key, buf.toString());
+		ContentAssistHistory loaded= ContentAssistHistory.load(prefs, key);
+
+		RHSHistory rhs= loaded.getHistory(COLLECTION);
+		float linkedList= rhs.getRank(LINKED_LIST);
+		float hashSet= rhs.getRank(HASH_SET);
+		assertEquals(1.0F, rhs.getRank(ARRAY_LIST), 0.0F);
+		assertTrue("most recent type must rank highest", hashSet < 1.0F);
+		assertTrue("least recent type must rank lowest", linkedList > 0.0F && linkedList < hashSet);
+
+		// a selection after the migration outranks the migrated selections
+		loaded.remember(fgCollectionT, fgLinkedListT);
+		rhs= loaded.getHistory(COLLECTION);
+		assertEquals(1.0F, rhs.getRank(LINKED_LIST), 0.0F);
+		assertTrue(rhs.getRank(HASH_SET) < rhs.getRank(ARRAY_LIST));
+	}
+
+	public void testLoadStoreBinary() throws Exception {
+		ContentAssistHistory history= new ContentAssistHistory();
+
+		history.remember(fgListT, fgArrayListT);
+		history.remember(fgCharSequenceT, fgStringT);
+		history.remember(fgCharSequenceT, fgStringT);
+		history.remember(fgCharSequenceT, fgStringBufferT);
+
+		File file= File.createTempFile("history", ".dat");
+		try {
+			ContentAssistHistory.store(history, file);
+			ContentAssistHistory loaded= ContentAssistHistory.load(file);
+
+			assertEqualMap(map(LIST, list(ARRAY_LIST), COLLECTION, list(ARRAY_LIST), ITERABLE, list(ARRAY_LIST), CHAR_SEQUENCE, list(STRING, STRING_BUFFER)), loaded.getEntireHistory());
+			RHSHistory rhs= loaded.getHistory(CHAR_SEQUENCE);
+			assertEquals(history.getHistory(CHAR_SEQUENCE).getRank(STRING), rhs.getRank(STRING), 0.0F);
+			assertEquals(history.getHistory(CHAR_SEQUENCE).getRank(STRING_BUFFER), rhs.getRank(STRING_BUFFER), 0.0F);
+		} finally {
+			file.delete();
+		}
+	}
+
+	public void testRankByFrequency() {
+		ContentAssistHistory history= new ContentAssistHistory();
+
+		history.remember(fgCharSequenceT, fgStringT);
+		history.remember(fgCharSequenceT, fgStringT);
+		history.remember(fgCharSequenceT, fgStringBufferT);
+
+		RHSHistory rhs= history.getHistory(CHAR_SEQUENCE);
+		assertEquals("order not correct", list(STRING, STRING_BUFFER), rhs.getTypes());
+		assertEquals(1.0F, rhs.getRank(STRING), 0.0F);
+		float rank= rhs.getRank(STRING_BUFFER);
+		assertTrue("most frequent type must rank highest", rank > 0.0F && rank < 1.0F);
+		assertEquals(0.0F, rhs.getRank(LINKED_LIST), 0.0F);
+	}
+
+	public void testCapSizeEvictsLowestScore() {
+		ContentAssistHistory history= new ContentAssistHistory(5, 2);
+
+		history.remember(fgCollectionT, fgArrayListT);
+		history.remember(fgCollectionT, fgArrayListT);
+		history.remember(fgCollectionT, fgLinkedListT);
+		history.remember(fgCollectionT, fgHashSetT);
+
+		assertEquals(list(ARRAY_LIST, HASH_SET), history.getHistory(COLLECTION).getTypes());
+	}
+
 	private static void assertEqualMap(Map<String, List<String>> expected, Map<String, RHSHistory> actual) {
 		assertEqualMap("", expected, actual);
 	}
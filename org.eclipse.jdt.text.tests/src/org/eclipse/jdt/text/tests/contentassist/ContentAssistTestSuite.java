@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2014 IBM Corporation and others.
+ * Copyright (c) 2005, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -37,6 +37,8 @@ public class ContentAssistTestSuite {
 		suite.addTest(SpecialMethodsCompletionTest.suite());
 		suite.addTest(CodeCompletionTest.suite());
 		suite.addTest(CodeCompletionTest18.suite());
+		suite.addTest(ParallelCompletionTest.suite());
+		suite.addTest(CompletionResultReuseTest.suite());
 		//$JUnit-END$
 
 		return suite;
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.contentassist;
+
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.contentassist.ICompletionProposal;
+
+import org.eclipse.jdt.internal.ui.text.java.CompletionProposalCategory;
+import org.eclipse.jdt.internal.ui.text.java.CompletionProposalComputerDescriptor;
+import org.eclipse.jdt.internal.ui.text.java.CompletionProposalComputerRegistry;
+import org.eclipse.jdt.internal.ui.text.java.ContentAssistProcessor;
+import org.eclipse.jdt.internal.ui.text.java.LazyJavaTypeCompletionProposal;
+import org.eclipse.jdt.internal.ui.text.template.contentassist.TemplateProposal;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Content assist with the proposal computers running concurrently, see
+ * {@link ContentAssistProcessor#PREF_PARALLEL_COMPUTERS}.
+ *
+ * @since 3.12
+ */
+public class ParallelCompletionTest extends AbstractCompletionTest {
+	private static final Class<ParallelCompletionTest> THIS= ParallelCompletionTest.class;
+
+	private static final String JAVA_ALL_COMPUTER= "org.eclipse.jdt.ui.JavaAllCompletionProposalComputer";
+	private static final String TEMPLATE_COMPUTER= "org.eclipse.jdt.ui.TemplateProposalComputer";
+
+	public static Test setUpTest(Test test) {
+		return new CompletionTestSetup(test);
+	}
+
+	public static Test suite() {
+		return setUpTest(new TestSuite(THIS, suiteName(THIS)));
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		getJDTUIPrefs().setValue(ContentAssistProcessor.PREF_PARALLEL_COMPUTERS, true);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		getJDTUIPrefs().setToDefault(ContentAssistProcessor.PREF_PARALLEL_COMPUTERS);
+		super.tearDown();
+	}
+
+	public void testJavaLang() throws Exception {
+		assertMethodBodyProposal("S|", "String ", "String|");
+	}
+
+	public void testAutoImport() throws Exception {
+		expectImport("java.util.Random");
+		assertMethodBodyProposal("R|", "Random ", "Random|");
+	}
+
+	public void testAutoImportZeroPrefix() throws Exception {
+		addImport("java.util.Random");
+		expectImport("java.util.Random");
+		assertMethodBodyProposal("Random r= new R|", "Random()", "Random r= new Random()|"); // fills RHS cache
+
+		assertMethodBodyProposal("Random r= new |", "Random ", "Random r= new Random|"); // tests RHS cache
+	}
+
+	public void testMethodWithParam() throws Exception {
+		assertMethodBodyProposal("e", "equals(", "equals(|)");
+	}
+
+	private static CompletionProposalComputerDescriptor getDescriptor(String id) {
+		for (CompletionProposalCategory category : CompletionProposalComputerRegistry.getDefault().getProposalCategories()) {
+			for (CompletionProposalComputerDescriptor descriptor : category.getComputerDescriptors(IDocument.DEFAULT_CONTENT_TYPE)) {
+				if (id.equals(descriptor.getId()))
+					return descriptor;
+			}
+		}
+		fail("no computer " + id);
+		return null;
+	}
+
+	public void testProposalsOfComputersInJobs() throws Exception {
+		// the Java computer runs in a job, the template computer in the calling thread
+		assertTrue(getDescriptor(JAVA_ALL_COMPUTER).isConcurrent());
+		assertFalse(getDescriptor(TEMPLATE_COMPUTER).isConcurrent());
+
+		ICompletionProposal[] proposals= computeMethodBodyProposals("sys|");
+		boolean hasTypeProposal= false;
+		boolean hasTemplateProposal= false;
+		for (int i= 0; i < proposals.length; i++) {
+			String displayString= proposals[i].getDisplayString();
+			if (proposals[i] instanceof LazyJavaTypeCompletionProposal && displayString.startsWith("System "))
+				hasTypeProposal= true;
+			if (proposals[i] instanceof TemplateProposal && displayString.startsWith("sysout"))
+				hasTemplateProposal= true;
+		}
+		assertTrue("no proposal of the computer in a job", hasTypeProposal);
+		assertTrue("no proposal of the computer in the calling thread", hasTemplateProposal);
+	}
+
+	public void testFieldThisQualification() throws Exception {
+		addMembers("private String qqqString;");
+		addLocalVariables("String qqqString;");
+		assertMethodBodyProposal("q|", "this.qqqString", "this.qqqString|");
+	}
+}
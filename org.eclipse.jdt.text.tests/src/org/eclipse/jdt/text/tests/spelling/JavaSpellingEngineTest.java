@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.spelling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Region;
+import org.eclipse.jface.text.rules.FastPartitioner;
+
+import org.eclipse.ui.texteditor.spelling.ISpellingProblemCollector;
+import org.eclipse.ui.texteditor.spelling.SpellingProblem;
+
+import org.eclipse.jdt.ui.PreferenceConstants;
+import org.eclipse.jdt.ui.text.IJavaPartitions;
+
+import org.eclipse.jdt.internal.ui.text.FastJavaPartitionScanner;
+import org.eclipse.jdt.internal.ui.text.spelling.JavaSpellingEngine;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.DefaultSpellChecker;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellCheckIterator;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellEventListener;
+
+/**
+ * Tests the cache of the spell events of unchanged partitions in {@link JavaSpellingEngine}.
+ *
+ * @since 3.12
+ */
+public class JavaSpellingEngineTest extends TestCase {
+
+	private static class TestEngine extends JavaSpellingEngine {
+		public void check(IDocument document, ISpellChecker checker, ISpellingProblemCollector collector) {
+			check(document, new IRegion[] { new Region(0, document.getLength()) }, checker, collector, null);
+		}
+	}
+
+	private static class CountingSpellChecker extends DefaultSpellChecker {
+		int fExecuted;
+
+		public CountingSpellChecker() {
+			super(PreferenceConstants.getPreferenceStore(), Locale.US);
+		}
+
+		@Override
+		public void execute(ISpellEventListener listener, ISpellCheckIterator iterator) {
+			fExecuted++;
+			super.execute(listener, iterator);
+		}
+	}
+
+	private static class Collector implements ISpellingProblemCollector {
+		List<String> fProblems= new ArrayList<>();
+
+		@Override
+		public void accept(SpellingProblem problem) {
+			fProblems.add(problem.getOffset() + ":" + problem.getLength()); //$NON-NLS-1$
+		}
+
+		@Override
+		public void beginCollecting() {
+		}
+
+		@Override
+		public void endCollecting() {
+		}
+	}
+
+	private static final String WORD= "Wrongwort"; //$NON-NLS-1$
+
+	public static Test suite() {
+		return new TestSuite(JavaSpellingEngineTest.class);
+	}
+
+	private SpellCheckEngineTestCase.TestDictionary fDictionary;
+	private CountingSpellChecker fChecker;
+	private TestEngine fEngine;
+	private IDocument fDocument;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fDictionary= new SpellCheckEngineTestCase.TestDictionary();
+		fDictionary.addWord(SpellCheckEngineTestCase.TRUCK);
+		fDictionary.addWord(SpellCheckEngineTestCase.LORRY);
+		fChecker= new CountingSpellChecker();
+		fChecker.addDictionary(fDictionary);
+		fEngine= new TestEngine();
+
+		fDocument= new Document("/** Truck " + WORD + " */\nclass A {\n\t// Lorry " + WORD + "\n}\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		String[] types= new String[] {
+			IJavaPartitions.JAVA_DOC,
+			IJavaPartitions.JAVA_MULTI_LINE_COMMENT,
+			IJavaPartitions.JAVA_SINGLE_LINE_COMMENT,
+			IJavaPartitions.JAVA_STRING,
+			IJavaPartitions.JAVA_CHARACTER,
+			IDocument.DEFAULT_CONTENT_TYPE
+		};
+		FastPartitioner partitioner= new FastPartitioner(new FastJavaPartitionScanner(), types);
+		partitioner.connect(fDocument);
+		fDocument.setDocumentPartitioner(IJavaPartitions.JAVA_PARTITIONING, partitioner);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fDictionary.unload();
+		super.tearDown();
+	}
+
+	private List<String> check() {
+		Collector collector= new Collector();
+		fEngine.check(fDocument, fChecker, collector);
+		return collector.fProblems;
+	}
+
+	private List<String> getExpectedProblems() {
+		List<String> problems= new ArrayList<>();
+		String contents= fDocument.get();
+		for (int offset= contents.indexOf(WORD); offset != -1; offset= contents.indexOf(WORD, offset + 1))
+			problems.add(offset + ":" + WORD.length()); //$NON-NLS-1$
+		return problems;
+	}
+
+	public void testUnchangedPartitionsAreNotCheckedAgain() throws Exception {
+		assertEquals(getExpectedProblems(), check());
+		assertEquals(2, fChecker.fExecuted);
+
+		// nothing changed
+		assertEquals(getExpectedProblems(), check());
+		assertEquals(2, fChecker.fExecuted);
+
+		// both partitions moved, but their contents are unchanged
+		fDocument.replace(0, 0, "\n\n"); //$NON-NLS-1$
+		assertEquals(getExpectedProblems(), check());
+		assertEquals(2, fChecker.fExecuted);
+
+		// only the changed partition is checked again
+		int offset= fDocument.get().indexOf("Lorry"); //$NON-NLS-1$
+		fDocument.replace(offset, 0, WORD + " "); //$NON-NLS-1$
+		assertEquals(getExpectedProblems(), check());
+		assertEquals(3, fChecker.fExecuted);
+	}
+
+	public void testCacheIsDroppedWhenDictionaryChanges() throws Exception {
+		assertEquals(2, check().size());
+		assertEquals(2, fChecker.fExecuted);
+
+		fDictionary.addWord(WORD);
+		assertEquals(0, check().size());
+		assertEquals(4, fChecker.fExecuted);
+	}
+
+	public void testCacheIsNotSharedByCheckers() throws Exception {
+		assertEquals(2, check().size());
+		assertEquals(2, fChecker.fExecuted);
+
+		CountingSpellChecker checker= fChecker;
+		fChecker= new CountingSpellChecker();
+		fChecker.addDictionary(fDictionary);
+		assertEquals(getExpectedProblems(), check());
+		assertEquals(2, fChecker.fExecuted);
+		assertEquals(2, checker.fExecuted);
+	}
+
+	public void testCacheIsDroppedWhenPreferencesChange() throws Exception {
+		assertEquals(2, check().size());
+		assertEquals(2, fChecker.fExecuted);
+
+		boolean ignoreUpper= PreferenceConstants.getPreferenceStore().getBoolean(PreferenceConstants.SPELLING_IGNORE_UPPER);
+		PreferenceConstants.getPreferenceStore().setValue(PreferenceConstants.SPELLING_IGNORE_UPPER, !ignoreUpper);
+		try {
+			check();
+			assertEquals(4, fChecker.fExecuted);
+		} finally {
+			PreferenceConstants.getPreferenceStore().setValue(PreferenceConstants.SPELLING_IGNORE_UPPER, ignoreUpper);
+		}
+	}
+}
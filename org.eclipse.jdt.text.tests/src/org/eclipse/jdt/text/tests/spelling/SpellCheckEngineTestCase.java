@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,8 +10,14 @@
  *******************************************************************************/
 package org.eclipse.jdt.text.tests.spelling;
 
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Locale;
 import java.util.Set;
@@ -20,11 +26,13 @@ import org.eclipse.jface.preference.IPreferenceStore;
 
 import org.eclipse.jdt.ui.PreferenceConstants;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.text.spelling.SpellCheckEngine;
 import org.eclipse.jdt.internal.ui.text.spelling.engine.AbstractSpellDictionary;
 import org.eclipse.jdt.internal.ui.text.spelling.engine.DefaultPhoneticDistanceAlgorithm;
 import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellCheckEngine;
 import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.PersistentSpellDictionary;
 import org.eclipse.jdt.internal.ui.text.spelling.engine.RankedWordProposal;
 
 import junit.framework.Test;
@@ -178,6 +186,26 @@ public class SpellCheckEngineTestCase extends TestCase {
 		assertFalse(checker.isCorrect(LORRY));
 	}
 
+	public void testCachedWords() {
+		fPreferences.setValue(PreferenceConstants.SPELLING_LOCALE, Locale.US.toString());
+		final ISpellChecker checker= fEngine.getSpellChecker();
+		assertNotNull(checker);
+
+		assertFalse(checker.isCorrect(LORRY));
+		long stamp= checker.getModificationStamp();
+		assertEquals(stamp, checker.getModificationStamp());
+
+		fUSDictionary.addWord(LORRY);
+		assertTrue(checker.isCorrect(LORRY));
+		assertTrue(stamp != checker.getModificationStamp());
+
+		Set<RankedWordProposal> proposals= checker.getProposals(TRUCK, false);
+		assertTrue(contains(proposals, TRUCK));
+		proposals.iterator().next().setRank(Integer.MIN_VALUE);
+		proposals= checker.getProposals(TRUCK, false);
+		assertTrue(proposals.iterator().next().getRank() != Integer.MIN_VALUE);
+	}
+
 	public void testUKSpellChecker() {
 		fPreferences.setValue(PreferenceConstants.SPELLING_LOCALE, Locale.UK.toString());
 		final ISpellChecker checker= fEngine.getSpellChecker();
@@ -262,4 +290,114 @@ public class SpellCheckEngineTestCase extends TestCase {
 		assertTrue(proposals.size() >= 1);
 		assertTrue(proposals.iterator().next().getRank() == - DefaultPhoneticDistanceAlgorithm.COST_CASE);
 	}
+
+	public void testCompiledDictionary() throws Exception {
+		Set<File> images= getImages();
+		File file= createWordList(TRUCK, LORRY, LASTWAGEN);
+		try {
+			URL url= file.toURI().toURL();
+
+			// the first dictionary parses the word list and writes the image
+			PersistentSpellDictionary parsed= new PersistentSpellDictionary(url);
+			assertTrue(parsed.isCorrect(TRUCK));
+			assertFalse(parsed.isCorrect(GLOBAL));
+			assertEquals(1, getNewImages(images).size());
+
+			// the second dictionary maps the image
+			PersistentSpellDictionary mapped= new PersistentSpellDictionary(url);
+			assertTrue(mapped.isCorrect(TRUCK));
+			assertTrue(mapped.isCorrect(LORRY));
+			assertTrue(mapped.isCorrect(LASTWAGEN));
+			assertFalse(mapped.isCorrect(GLOBAL));
+			assertTrue(contains(mapped.getProposals("Truk", false), TRUCK)); //$NON-NLS-1$
+
+			mapped.addWord(GLOBAL);
+			assertTrue(mapped.isCorrect(GLOBAL));
+			assertTrue(mapped.isCorrect(TRUCK));
+		} finally {
+			file.delete();
+			deleteNewImages(images);
+		}
+	}
+
+	public void testCompiledDictionariesAreSeparate() throws Exception {
+		Set<File> images= getImages();
+		File first= createWordList(TRUCK);
+		File second= createWordList(LORRY);
+		try {
+			assertTrue(new PersistentSpellDictionary(first.toURI().toURL()).isCorrect(TRUCK));
+			assertTrue(new PersistentSpellDictionary(second.toURI().toURL()).isCorrect(LORRY));
+			assertEquals(2, getNewImages(images).size());
+
+			// both images are mapped and neither overwrote the other
+			PersistentSpellDictionary mappedFirst= new PersistentSpellDictionary(first.toURI().toURL());
+			PersistentSpellDictionary mappedSecond= new PersistentSpellDictionary(second.toURI().toURL());
+			assertTrue(mappedFirst.isCorrect(TRUCK));
+			assertFalse(mappedFirst.isCorrect(LORRY));
+			assertTrue(mappedSecond.isCorrect(LORRY));
+			assertFalse(mappedSecond.isCorrect(TRUCK));
+			assertEquals(2, getNewImages(images).size());
+		} finally {
+			first.delete();
+			second.delete();
+			deleteNewImages(images);
+		}
+	}
+
+	public void testUnusedCompiledDictionaryIsDeleted() throws Exception {
+		Set<File> images= getImages();
+		File folder= getImageFolder();
+		folder.mkdirs();
+		File unused= new File(folder, "unused.dict"); //$NON-NLS-1$
+		File file= createWordList(TRUCK);
+		try {
+			try (Writer writer= new FileWriter(unused)) {
+				writer.write(GLOBAL);
+			}
+			assertTrue(unused.setLastModified(System.currentTimeMillis() - 60 * 24 * 60 * 60 * 1000L));
+
+			// writing a new image deletes the images that have not been used for a long time
+			assertTrue(new PersistentSpellDictionary(file.toURI().toURL()).isCorrect(TRUCK));
+			assertFalse(unused.exists());
+			assertEquals(1, getNewImages(images).size());
+		} finally {
+			unused.delete();
+			file.delete();
+			deleteNewImages(images);
+		}
+	}
+
+	private static File createWordList(String... words) throws IOException {
+		File file= File.createTempFile("words", ".dictionary"); //$NON-NLS-1$ //$NON-NLS-2$
+		try (Writer writer= new FileWriter(file)) {
+			for (int i= 0; i < words.length; i++) {
+				writer.write(words[i] + "\n"); //$NON-NLS-1$
+			}
+		}
+		return file;
+	}
+
+	private static File getImageFolder() {
+		return JavaPlugin.getDefault().getStateLocation().append("spelling").toFile(); //$NON-NLS-1$
+	}
+
+	private static Set<File> getImages() {
+		Set<File> images= new HashSet<>();
+		File[] files= getImageFolder().listFiles();
+		if (files != null)
+			images.addAll(Arrays.asList(files));
+		return images;
+	}
+
+	private static Set<File> getNewImages(Set<File> images) {
+		Set<File> newImages= getImages();
+		newImages.removeAll(images);
+		return newImages;
+	}
+
+	private static void deleteNewImages(Set<File> images) {
+		for (Iterator<File> iter= getNewImages(images).iterator(); iter.hasNext();) {
+			iter.next().delete();
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -26,6 +26,7 @@ public class SpellingTestSuite {
 		TestSuite suite = new TestSuite(SpellingTestSuite.class.getName());
 		//$JUnit-BEGIN$
 		suite.addTest(SpellCheckEngineTestCase.suite());
+		suite.addTest(JavaSpellingEngineTest.suite());
 		//$JUnit-END$
 		return suite;
 	}
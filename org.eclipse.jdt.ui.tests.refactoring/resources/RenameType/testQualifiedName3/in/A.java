@@ -0,0 +1,4 @@
+package p;
+
+class A {
+}
\ No newline at end of file
@@ -0,0 +1,4 @@
+package p;
+
+class B {
+}
\ No newline at end of file
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,7 +14,9 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.regex.Pattern;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IAdaptable;
@@ -22,7 +24,11 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Platform;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+
+import org.eclipse.jface.preference.IPreferenceStore;
 
 import org.eclipse.ltk.core.refactoring.Refactoring;
 import org.eclipse.ltk.core.refactoring.RefactoringDescriptor;
@@ -49,9 +55,12 @@ import org.eclipse.jdt.internal.core.refactoring.descriptors.RefactoringSignatur
 import org.eclipse.jdt.internal.corext.refactoring.rename.RenameTypeProcessor;
 import org.eclipse.jdt.internal.corext.refactoring.rename.RenamingNameSuggestor;
 import org.eclipse.jdt.internal.corext.refactoring.tagging.INameUpdating;
+import org.eclipse.jdt.internal.corext.refactoring.util.QualifiedNameIndex;
 
 import org.eclipse.jdt.ui.tests.refactoring.infra.DebugUtils;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
@@ -1205,6 +1214,82 @@ public class RenameTypeTests extends RefactoringTest {
 		helperQualifiedName("Transient", "TransientEquipment", "mapping.hbm.xml", "*.xml");
 	}
 
+	public void testQualifiedName3() throws Exception {
+		IPreferenceStore store= JavaPlugin.getDefault().getPreferenceStore();
+		store.setValue(QualifiedNameIndex.PREF_USE_QUALIFIED_NAME_INDEX, true);
+		try {
+			helperQualifiedName("A", "B", "build.xml", "*.xml");
+		} finally {
+			store.setToDefault(QualifiedNameIndex.PREF_USE_QUALIFIED_NAME_INDEX);
+		}
+	}
+
+	public void testQualifiedNameIndexChangedFile() throws Exception {
+		IProject project= getPackageP().getJavaProject().getProject();
+		IFile file= project.getFile("index.xml");
+		file.create(new ByteArrayInputStream("<class name=\"p.A\"/>".getBytes()), true, null);
+		try {
+			QualifiedNameIndex index= QualifiedNameIndex.getDefault();
+			Pattern filePattern= Pattern.compile(".*\\.xml");
+			IResource[] roots= new IResource[] { project };
+			assertTrue(Arrays.asList(index.findCandidates("p.A", roots, filePattern, new NullProgressMonitor())).contains(file));
+
+			file.setContents(new ByteArrayInputStream("<class name=\"p.C\"/>".getBytes()), true, false, null);
+			assertFalse(Arrays.asList(index.findCandidates("p.A", roots, filePattern, new NullProgressMonitor())).contains(file));
+			assertTrue(Arrays.asList(index.findCandidates("p.C", roots, filePattern, new NullProgressMonitor())).contains(file));
+		} finally {
+			file.delete(true, null);
+		}
+	}
+
+	public void testTextualMatchesInManyFiles() throws Exception {
+		// enough compilation units to scan them on several threads
+		int count= 80;
+		IPackageFragment pack= getPackageP();
+		ICompilationUnit cu= pack.createCompilationUnit("A.java", "package p;\npublic class A {\n}\n", false, null);
+		for (int i= 0; i < count; i++) {
+			String source= i % 2 == 0 ? "package p;\n// see A\nclass C" + i + " {\n\tString s= \"A\";\n}\n" : "package p;\nclass C" + i + " {\n}\n";
+			pack.createCompilationUnit("C" + i + ".java", source, false, null);
+		}
+		ICompilationUnit workingCopy= pack.getCompilationUnit("C1.java");
+		workingCopy.becomeWorkingCopy(null);
+		try {
+			workingCopy.getBuffer().setContents("package p;\n/* unsaved A */\nclass C1 {\n}\n");
+
+			RenameJavaElementDescriptor descriptor= createRefactoringDescriptor(getType(cu, "A"), "B");
+			descriptor.setUpdateTextualOccurrences(true);
+			assertEquals("was supposed to pass", null, performRefactoring(descriptor));
+
+			for (int i= 0; i < count; i++) {
+				String expected;
+				if (i == 1)
+					expected= "package p;\n/* unsaved B */\nclass C1 {\n}\n";
+				else if (i % 2 == 0)
+					expected= "package p;\n// see B\nclass C" + i + " {\n\tString s= \"B\";\n}\n";
+				else
+					expected= "package p;\nclass C" + i + " {\n}\n";
+				assertEqualLines("C" + i, expected, pack.getCompilationUnit("C" + i + ".java").getSource());
+			}
+		} finally {
+			workingCopy.discardWorkingCopy();
+		}
+	}
+
+	public void testTextualMatchesInUTF16File() throws Exception {
+		IPackageFragment pack= getPackageP();
+		ICompilationUnit cu= pack.createCompilationUnit("A.java", "package p;\npublic class A {\n}\n", false, null);
+		// the encoded name does not occur in the bytes of the file
+		IFile file= ((IFolder) pack.getResource()).getFile("C.java");
+		file.create(new ByteArrayInputStream("package p;\n// see A\nclass C {\n}\n".getBytes("UTF-16")), true, null);
+		file.setCharset("UTF-16", null);
+
+		RenameJavaElementDescriptor descriptor= createRefactoringDescriptor(getType(cu, "A"), "B");
+		descriptor.setUpdateTextualOccurrences(true);
+		assertEquals("was supposed to pass", null, performRefactoring(descriptor));
+
+		assertEqualLines("package p;\n// see B\nclass C {\n}\n", pack.getCompilationUnit("C.java").getSource());
+	}
+
 	private void helperQualifiedName(String oldName, String newName, String textFileName, String filePatterns) throws Exception {
 		ICompilationUnit cu= createCUfromTestFile(getPackageP(), oldName);
 		IType classA= getType(cu, oldName);
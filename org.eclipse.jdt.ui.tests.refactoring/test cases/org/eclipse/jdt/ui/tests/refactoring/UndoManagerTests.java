@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,10 +13,24 @@ package org.eclipse.jdt.ui.tests.refactoring;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import org.eclipse.core.commands.operations.IOperationHistory;
+import org.eclipse.core.commands.operations.OperationHistoryFactory;
+
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+
+import org.eclipse.text.edits.ReplaceEdit;
+
+import org.eclipse.jface.text.Document;
 
+import org.eclipse.ltk.core.refactoring.Change;
+import org.eclipse.ltk.core.refactoring.DocumentChange;
 import org.eclipse.ltk.core.refactoring.IUndoManager;
+import org.eclipse.ltk.core.refactoring.NullChange;
 import org.eclipse.ltk.core.refactoring.RefactoringCore;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringPreferenceConstants;
 import org.eclipse.ltk.internal.core.refactoring.UndoManager2;
 
 public class UndoManagerTests extends RefactoringTest {
@@ -157,4 +171,89 @@ public class UndoManagerTests extends RefactoringTest {
 		RefactoringCore.getUndoManager().flush();
 		checkState(false, false, 0, 0);
 	}
+
+	public void test10() throws Exception{
+		IUndoManager undoManager= RefactoringCore.getUndoManager();
+		assertEquals(0, undoManager.getUndoMemoryUsage());
+		performRefactoring(new NullRefactoring());
+		assertTrue("undo memory", undoManager.getUndoMemoryUsage() > 0);
+		performUndo();
+		assertTrue("redo memory", undoManager.getUndoMemoryUsage() > 0);
+		undoManager.flush();
+		assertEquals(0, undoManager.getUndoMemoryUsage());
+	}
+
+	public void test11() throws Exception{
+		IEclipsePreferences preferences= InstanceScope.INSTANCE.getNode(RefactoringCorePlugin.getPluginId());
+		preferences.putInt(RefactoringPreferenceConstants.PREFERENCE_UNDO_MEMORY_BUDGET, 3);
+		try {
+			IUndoManager undoManager= RefactoringCore.getUndoManager();
+			for (int i= 0; i < 3; i++) {
+				Change change= new NullChange("change" + i);
+				undoManager.aboutToPerformChange(change);
+				undoManager.changePerformed(change, true);
+				undoManager.addUndo("undo" + i, createUndo(1000));
+			}
+			// each undo retains more than 2 KB, so only the most recent one fits into 3 KB
+			checkState(true, false, 1, 0);
+			assertEquals("undo2", undoManager.peekUndoName());
+			long usage= undoManager.getUndoMemoryUsage();
+			assertTrue("usage over budget", usage > 2000 && usage <= 3 * 1024);
+		} finally {
+			preferences.remove(RefactoringPreferenceConstants.PREFERENCE_UNDO_MEMORY_BUDGET);
+		}
+	}
+
+	public void test12() throws Exception{
+		IEclipsePreferences preferences= InstanceScope.INSTANCE.getNode(RefactoringCorePlugin.getPluginId());
+		preferences.putInt(RefactoringPreferenceConstants.PREFERENCE_UNDO_MEMORY_BUDGET, 3);
+		IOperationHistory history= OperationHistoryFactory.getOperationHistory();
+		int limit= history.getLimit(RefactoringCorePlugin.getUndoContext());
+		try {
+			IUndoManager undoManager= RefactoringCore.getUndoManager();
+			final int[] disposed= new int[3];
+			for (int i= 0; i < 3; i++) {
+				final int index= i;
+				Change change= new NullChange("change" + i);
+				undoManager.aboutToPerformChange(change);
+				undoManager.changePerformed(change, true);
+				DocumentChange undo= new DocumentChange("undo", new Document()) {
+					@Override
+					public void dispose() {
+						disposed[index]++;
+						super.dispose();
+					}
+				};
+				undo.setEdit(new ReplaceEdit(0, 0, createText(1000)));
+				undoManager.addUndo("undo" + i, undo);
+			}
+			// the discarded undos are disposed once, the kept one is not disposed
+			checkState(true, false, 1, 0);
+			assertEquals(1, disposed[0]);
+			assertEquals(1, disposed[1]);
+			assertEquals(0, disposed[2]);
+			assertEquals(limit, history.getLimit(RefactoringCorePlugin.getUndoContext()));
+
+			undoManager.flush();
+			assertEquals(1, disposed[0]);
+			assertEquals(1, disposed[1]);
+			assertEquals(1, disposed[2]);
+		} finally {
+			preferences.remove(RefactoringPreferenceConstants.PREFERENCE_UNDO_MEMORY_BUDGET);
+		}
+	}
+
+	private static Change createUndo(int length) {
+		DocumentChange change= new DocumentChange("undo", new Document());
+		change.setEdit(new ReplaceEdit(0, 0, createText(length)));
+		return change;
+	}
+
+	private static String createText(int length) {
+		StringBuffer buf= new StringBuffer();
+		for (int i= 0; i < length; i++) {
+			buf.append('x');
+		}
+		return buf.toString();
+	}
 }
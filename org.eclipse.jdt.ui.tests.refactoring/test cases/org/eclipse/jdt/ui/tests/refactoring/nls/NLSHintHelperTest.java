@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,9 @@
 package org.eclipse.jdt.ui.tests.refactoring.nls;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Properties;
 
 import junit.framework.Test;
@@ -51,6 +54,8 @@ import org.eclipse.jdt.core.dom.TypeDeclaration;
 
 import org.eclipse.jdt.internal.corext.refactoring.nls.AccessorClassReference;
 import org.eclipse.jdt.internal.corext.refactoring.nls.NLSHintHelper;
+import org.eclipse.jdt.internal.corext.refactoring.nls.PropertiesFileCache;
+import org.eclipse.jdt.internal.corext.refactoring.nls.PropertiesFileCache.PropertiesFile;
 
 import org.eclipse.jdt.ui.SharedASTProvider;
 import org.eclipse.jdt.ui.tests.core.ProjectTestSetup;
@@ -167,6 +172,74 @@ public class NLSHintHelperTest extends TestCase {
 		}
 	}
 
+	public void testFindInChangedDirtyBuffer() throws Exception {
+		ITextFileBufferManager manager= FileBuffers.getTextFileBufferManager();
+		assertNotNull(manager);
+
+		IPath nonExistentPath= fJProject.getProject().getFullPath().append("" + System.currentTimeMillis());
+		manager.connect(nonExistentPath, LocationKind.NORMALIZE, null);
+		try {
+			ITextFileBuffer buffer= manager.getTextFileBuffer(nonExistentPath, LocationKind.NORMALIZE);
+			buffer.getDocument().set("newKey= newValue");
+
+			IFile nonExistentFile= ResourcesPlugin.getWorkspace().getRoot().getFile(nonExistentPath);
+			PropertiesFile file= NLSHintHelper.getPropertiesFile(nonExistentFile);
+			assertEquals("newValue", file.getProperty("newKey"));
+			assertSame(file, NLSHintHelper.getPropertiesFile(nonExistentFile));
+
+			// the properties are copied, changing them does not change the cached file
+			Properties properties= NLSHintHelper.getProperties(nonExistentFile);
+			properties.setProperty("newKey", "modified");
+			assertEquals("newValue", file.getProperty("newKey"));
+			assertEquals("newValue", NLSHintHelper.getProperties(nonExistentFile).getProperty("newKey"));
+			try {
+				file.getKeys().add("modified");
+				fail();
+			} catch (UnsupportedOperationException e) {
+				// expected
+			}
+
+			buffer.getDocument().replace(8, 0, "changed");
+			file= NLSHintHelper.getPropertiesFile(nonExistentFile);
+			assertEquals("changednewValue", file.getProperty("newKey"));
+		} finally {
+			manager.disconnect(nonExistentPath, LocationKind.NORMALIZE, null);
+		}
+	}
+
+	public void testKeyRegions() throws Exception {
+		ITextFileBufferManager manager= FileBuffers.getTextFileBufferManager();
+		assertNotNull(manager);
+
+		IPath nonExistentPath= fJProject.getProject().getFullPath().append("" + System.currentTimeMillis());
+		manager.connect(nonExistentPath, LocationKind.NORMALIZE, null);
+		try {
+			ITextFileBuffer buffer= manager.getTextFileBuffer(nonExistentPath, LocationKind.NORMALIZE);
+			StringBuffer buf= new StringBuffer();
+			buf.append("# key= comment\n");
+			buf.append("  first= 1\n");
+			buf.append("escaped\\ key\\u0041=2\n");
+			buf.append("continued= 3\\\n");
+			buf.append("  first= not a key\n");
+			buf.append("first:4\n");
+			String text= buf.toString();
+			buffer.getDocument().set(text);
+
+			IFile nonExistentFile= ResourcesPlugin.getWorkspace().getRoot().getFile(nonExistentPath);
+			PropertiesFile file= PropertiesFileCache.getDefault().getPropertiesFile(nonExistentFile);
+			assertEquals("4", file.getProperty("first"));
+			assertEquals("2", file.getProperty("escaped keyA"));
+			assertEquals(new HashSet<>(Arrays.asList("first", "escaped keyA", "continued")), file.getKeys());
+			assertNull(file.getKeyRegion("key"));
+			assertEquals(new Region(text.lastIndexOf("first:4"), 5), file.getKeyRegion("first"));
+			assertEquals(new Region(text.indexOf("escaped"), 18), file.getKeyRegion("escaped keyA"));
+			assertEquals("escaped\\ key\\u0041", file.getKeyText("escaped keyA"));
+			assertEquals(Collections.singleton("first"), file.getDuplicateKeys());
+		} finally {
+			manager.disconnect(nonExistentPath, LocationKind.NORMALIZE, null);
+		}
+	}
+
 	public void testFindInFile() {
 		ITextFileBufferManager manager= FileBuffers.getTextFileBufferManager();
 		assertNotNull(manager);
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.performance.views;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+
+import org.eclipse.test.OrderedTestSuite;
+import org.eclipse.test.performance.Dimension;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaModelException;
+
+import org.eclipse.jdt.ui.JavaElementLabels;
+import org.eclipse.jdt.ui.tests.performance.JdtPerformanceTestCase;
+import org.eclipse.jdt.ui.tests.performance.SWTTestProject;
+
+import org.eclipse.jdt.internal.ui.util.CoreUtility;
+import org.eclipse.jdt.internal.ui.viewsupport.JavaElementLabelBatch;
+
+public class JavaElementLabelsPerfTest extends JdtPerformanceTestCase {
+
+	private static final long FLAGS= JavaElementLabels.ALL_DEFAULT | JavaElementLabels.ALL_POST_QUALIFIED;
+
+	private static final int RUNS= 10;
+
+	private static class MyTestSetup extends TestSetup {
+		private SWTTestProject fTestProject;
+		private boolean fAutoBuilding;
+
+		public MyTestSetup(Test test) {
+			super(test);
+		}
+
+		@Override
+		protected void setUp() throws Exception {
+			super.setUp();
+			fAutoBuilding= CoreUtility.setAutoBuilding(false);
+			fTestProject= new SWTTestProject();
+			fgMembers= collectMembers(fTestProject);
+		}
+
+		@Override
+		protected void tearDown() throws Exception {
+			fgMembers= null;
+			fTestProject.delete();
+			CoreUtility.setAutoBuilding(fAutoBuilding);
+			super.tearDown();
+		}
+	}
+
+	private static IJavaElement[] fgMembers;
+
+	public static Test suite() {
+		OrderedTestSuite testSuite= new OrderedTestSuite(
+				JavaElementLabelsPerfTest.class,
+				new String[] {
+					"testElementLabels",
+					"testBatchElementLabels",
+				});
+		return new MyTestSetup(testSuite);
+	}
+
+	public static Test setUpTest(Test someTest) {
+		return new MyTestSetup(someTest);
+	}
+
+	public JavaElementLabelsPerfTest(String name) {
+		super(name);
+	}
+
+	private static IJavaElement[] collectMembers(SWTTestProject project) throws JavaModelException {
+		List<IJavaElement> members= new ArrayList<>();
+		IPackageFragmentRoot[] roots= project.getProject().getPackageFragmentRoots();
+		for (int i= 0; i < roots.length; i++) {
+			if (roots[i].getKind() != IPackageFragmentRoot.K_SOURCE)
+				continue;
+			IJavaElement[] packages= roots[i].getChildren();
+			for (int j= 0; j < packages.length; j++) {
+				ICompilationUnit[] units= ((IPackageFragment) packages[j]).getCompilationUnits();
+				for (int k= 0; k < units.length; k++) {
+					IType[] types= units[k].getAllTypes();
+					for (int l= 0; l < types.length; l++) {
+						members.add(types[l]);
+						addAll(members, types[l].getMethods());
+						addAll(members, types[l].getFields());
+					}
+				}
+			}
+		}
+		return members.toArray(new IJavaElement[members.size()]);
+	}
+
+	private static void addAll(List<IJavaElement> list, IJavaElement[] elements) {
+		for (int i= 0; i < elements.length; i++) {
+			list.add(elements[i]);
+		}
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		System.out.println("starting " + JavaElementLabelsPerfTest.class.getName() + "#" + getName());
+		super.setUp();
+	}
+
+	public void testElementLabels() throws Exception {
+		tagAsSummary("Java element labels", Dimension.ELAPSED_PROCESS);
+		joinBackgroudActivities();
+		for (int i= 0; i < RUNS; i++) {
+			long start= System.nanoTime();
+			startMeasuring();
+			for (int j= 0; j < fgMembers.length; j++) {
+				JavaElementLabels.getElementLabel(fgMembers[j], FLAGS);
+			}
+			stopMeasuring();
+			printThroughput(start);
+		}
+		commitMeasurements();
+		assertPerformanceInRelativeBand(Dimension.ELAPSED_PROCESS, -100, +10);
+	}
+
+	public void testBatchElementLabels() throws Exception {
+		tagAsSummary("Java element labels (batch)", Dimension.ELAPSED_PROCESS);
+		joinBackgroudActivities();
+		for (int i= 0; i < RUNS; i++) {
+			long start= System.nanoTime();
+			startMeasuring();
+			new JavaElementLabelBatch(FLAGS).getElementLabels(fgMembers);
+			stopMeasuring();
+			printThroughput(start);
+		}
+		commitMeasurements();
+		assertPerformanceInRelativeBand(Dimension.ELAPSED_PROCESS, -100, +10);
+	}
+
+	private void printThroughput(long start) {
+		long nanos= Math.max(1, System.nanoTime() - start);
+		System.out.println(getName() + ": " + fgMembers.length + " labels, " + (fgMembers.length * 1000000000L / nanos) + " labels/s");
+	}
+}
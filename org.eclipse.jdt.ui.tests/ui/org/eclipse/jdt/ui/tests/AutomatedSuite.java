@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -25,6 +25,7 @@ import org.eclipse.jdt.ui.tests.callhierarchy.CallHierarchyContentProviderTest;
 import org.eclipse.jdt.ui.tests.core.CoreTests;
 import org.eclipse.jdt.ui.tests.jarexport.JarExportTests;
 import org.eclipse.jdt.ui.tests.model.ContentProviderTests;
+import org.eclipse.jdt.ui.tests.packageHover.JavadocContentCacheTest;
 import org.eclipse.jdt.ui.tests.packageHover.PackageJavadocTests;
 import org.eclipse.jdt.ui.tests.packageview.PackageExplorerTests;
 import org.eclipse.jdt.ui.tests.quickfix.QuickFixTest;
@@ -74,6 +75,7 @@ public class AutomatedSuite extends TestSuite {
 
 		addTest(JarExportTests.suite());
 		addTest(PackageJavadocTests.suite());
+		addTest(JavadocContentCacheTest.suite());
 	}
 }
 
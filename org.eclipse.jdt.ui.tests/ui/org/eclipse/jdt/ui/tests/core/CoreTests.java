@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -61,6 +61,8 @@ public class CoreTests extends TestCase {
 		suite.addTest(TypeHierarchyTest.suite());
 		suite.addTest(TypeRulesTest.suite());
 		suite.addTest(TypeInfoTest.suite());
+		suite.addTest(FilteredTypesSelectionDialogTest.suite());
+		suite.addTest(OpenTypeCacheTest.suite());
 		suite.addTest(StringsTest.suite());
 		suite.addTest(IndentManipulationTest.suite());
 		suite.addTest(SelectionHistoryTest.suite());
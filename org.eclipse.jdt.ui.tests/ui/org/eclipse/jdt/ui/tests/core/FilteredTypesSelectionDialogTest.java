@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.core;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+import org.eclipse.jdt.testplugin.util.DisplayHelper;
+
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Table;
+
+import org.eclipse.jface.dialogs.IDialogSettings;
+
+import org.eclipse.ui.PlatformUI;
+
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.SearchEngine;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.dialogs.FilteredTypesSelectionDialog;
+
+/**
+ * Tests the Open Type dialog with and without the limit to the best matches.
+ *
+ * @since 3.12
+ */
+public class FilteredTypesSelectionDialogTest extends TestCase {
+
+	private static final Class<FilteredTypesSelectionDialogTest> THIS= FilteredTypesSelectionDialogTest.class;
+
+	private static final String DIALOG_SETTINGS= "org.eclipse.jdt.internal.ui.dialogs.FilteredTypesSelectionDialog";
+
+	private static final String LIMIT_MATCHES= "LimitMatches";
+
+	/** More types than the number of best matches shown by the dialog */
+	private static final int TYPE_COUNT= 1100;
+
+	private static final int MAX_BEST_MATCHES= 1000;
+
+	public static Test suite() {
+		return setUpTest(new TestSuite(THIS));
+	}
+
+	public static Test setUpTest(Test test) {
+		return new ProjectTestSetup(test);
+	}
+
+	private IJavaProject fProject;
+	private IPackageFragmentRoot fSourceFolder;
+	private boolean fLimitMatches;
+
+	@Override
+	protected void setUp() throws Exception {
+		fProject= ProjectTestSetup.getProject();
+		fSourceFolder= JavaProjectHelper.addSourceContainer(fProject, "src");
+		IPackageFragment pack= fSourceFolder.createPackageFragment("p", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package p;\n");
+		for (int i= 0; i < TYPE_COUNT; i++)
+			buf.append("class Zq").append(getNumber(i)).append(" {}\n");
+		pack.createCompilationUnit("Types.java", buf.toString(), false, null);
+		fLimitMatches= getDialogSettings().getBoolean(LIMIT_MATCHES);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		getDialogSettings().put(LIMIT_MATCHES, fLimitMatches);
+		JavaProjectHelper.clear(fProject, ProjectTestSetup.getDefaultClasspath());
+	}
+
+	private static String getNumber(int i) {
+		String number= String.valueOf(i);
+		while (number.length() < 4)
+			number= "0" + number;
+		return number;
+	}
+
+	private static IDialogSettings getDialogSettings() {
+		IDialogSettings settings= JavaPlugin.getDefault().getDialogSettings().getSection(DIALOG_SETTINGS);
+		if (settings == null)
+			settings= JavaPlugin.getDefault().getDialogSettings().addNewSection(DIALOG_SETTINGS);
+		return settings;
+	}
+
+	private static Table findTable(Control control) {
+		if (control instanceof Table)
+			return (Table) control;
+		if (control instanceof Composite) {
+			Control[] children= ((Composite) control).getChildren();
+			for (int i= 0; i < children.length; i++) {
+				Table table= findTable(children[i]);
+				if (table != null)
+					return table;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Opens the dialog with the pattern matching all test types and waits until
+	 * the list shows the expected number of types.
+	 *
+	 * @param expected the expected number of types in the list
+	 * @return the labels of the first and the last type in the list
+	 */
+	private String[] search(final int expected) {
+		FilteredTypesSelectionDialog dialog= new FilteredTypesSelectionDialog(JavaPlugin.getActiveWorkbenchShell(), false,
+				PlatformUI.getWorkbench().getProgressService(), SearchEngine.createJavaSearchScope(new IJavaElement[] { fSourceFolder }),
+				IJavaSearchConstants.TYPE);
+		dialog.setInitialPattern("Zq");
+		dialog.setBlockOnOpen(false);
+		dialog.open();
+		try {
+			final Table table= findTable(dialog.getShell());
+			assertNotNull(table);
+			Display display= table.getDisplay();
+			boolean shown= new DisplayHelper() {
+				@Override
+				protected boolean condition() {
+					return table.getItemCount() >= expected;
+				}
+			}.waitForCondition(display, 30 * 1000, 100);
+			assertTrue("list shows " + table.getItemCount() + " types", shown);
+			// the search may still be running, later matches must not show up
+			DisplayHelper.sleep(display, 1000);
+			assertEquals(expected, table.getItemCount());
+			return new String[] { table.getItem(0).getText(), table.getItem(expected - 1).getText() };
+		} finally {
+			dialog.close();
+		}
+	}
+
+	public void testAllMatches() throws Exception {
+		getDialogSettings().put(LIMIT_MATCHES, false);
+		String[] labels= search(TYPE_COUNT);
+		assertTrue(labels[0], labels[0].startsWith("Zq0000"));
+		assertTrue(labels[1], labels[1].startsWith("Zq" + getNumber(TYPE_COUNT - 1)));
+	}
+
+	public void testBestMatches() throws Exception {
+		getDialogSettings().put(LIMIT_MATCHES, true);
+		String[] labels= search(MAX_BEST_MATCHES);
+		// only the best matches by the sort order of the list are kept
+		assertTrue(labels[0], labels[0].startsWith("Zq0000"));
+		assertTrue(labels[1], labels[1].startsWith("Zq" + getNumber(MAX_BEST_MATCHES - 1)));
+	}
+}
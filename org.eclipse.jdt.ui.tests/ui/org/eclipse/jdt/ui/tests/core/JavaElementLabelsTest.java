@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -32,6 +32,8 @@ import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.ui.JavaElementLabels;
 import org.eclipse.jdt.ui.PreferenceConstants;
 
+import org.eclipse.jdt.internal.ui.viewsupport.JavaElementLabelBatch;
+
 
 public class JavaElementLabelsTest extends CoreTests {
 
@@ -662,4 +664,37 @@ public class JavaElementLabelsTest extends CoreTests {
 		lab= JavaElementLabels.getTextLabel(foo2, JavaElementLabels.ALL_DEFAULT | JavaElementLabels.ALL_FULLY_QUALIFIED | JavaElementLabels.M_PARAMETER_ANNOTATIONS);
 		assertEqualString(lab, "org.test.Annotations.foo2(@Ann(value=\"\", cl=Annotations.class, ints={1, 2, -19}, ch='\\u0000', sh=32767, r=@Retention(value=RetentionPolicy.SOURCE)) String)");
 	}
+
+	public void testBatchLabels() throws Exception {
+
+		IPackageFragmentRoot sourceFolder= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+
+		IPackageFragment pack1= sourceFolder.createPackageFragment("org.test", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package org.test;\n");
+		buf.append("import java.util.*;\n");
+		buf.append("public class Batch<E> {\n");
+		buf.append("    Map<String, List<E>> map;\n");
+		buf.append("    List<E> list;\n");
+		buf.append("    public Map<String, List<E>> foo(List<E> l, String... varargs) {\n");
+		buf.append("        return null;\n");
+		buf.append("    }\n");
+		buf.append("    public void bar(Map<String, List<E>> m, List<? extends E> l, int[][] ints) {\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		String content= buf.toString();
+		ICompilationUnit cu= pack1.createCompilationUnit("Batch.java", content, false, null);
+
+		IType type= cu.getType("Batch");
+		IJavaElement[] elements= { type, type.getField("map"), type.getField("list"), type.getMethods()[0], type.getMethods()[1], type.getField("map") };
+		long flags= JavaElementLabels.ALL_DEFAULT | JavaElementLabels.F_APP_TYPE_SIGNATURE | JavaElementLabels.M_APP_RETURNTYPE | JavaElementLabels.ALL_POST_QUALIFIED;
+
+		String[] labels= new JavaElementLabelBatch(flags).getElementLabels(elements);
+		assertEquals(elements.length, labels.length);
+		for (int i= 0; i < elements.length; i++) {
+			assertEqualString(labels[i], JavaElementLabels.getElementLabel(elements[i], flags));
+		}
+		assertEqualString(labels[3], "foo(List<E>, String...) : Map<String, List<E>> - org.test.Batch");
+		assertEqualString(labels[4], "bar(Map<String, List<E>>, List<? extends E>, int[][]) - org.test.Batch");
+	}
 }
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.TypeNameMatch;
+
+import org.eclipse.jdt.internal.corext.util.OpenTypeCache;
+import org.eclipse.jdt.internal.corext.util.TypeInfoFilter;
+
+/**
+ * Tests that the {@link OpenTypeCache} follows the changes of compilation units.
+ *
+ * @since 3.12
+ */
+public class OpenTypeCacheTest extends TestCase {
+
+	private static final Class<OpenTypeCacheTest> THIS= OpenTypeCacheTest.class;
+
+	public static Test suite() {
+		return setUpTest(new TestSuite(THIS));
+	}
+
+	public static Test setUpTest(Test test) {
+		return new ProjectTestSetup(test);
+	}
+
+	private IJavaProject fProject;
+	private IPackageFragmentRoot fSourceFolder;
+	private IPackageFragment fPackage;
+
+	@Override
+	protected void setUp() throws Exception {
+		fProject= ProjectTestSetup.getProject();
+		fSourceFolder= JavaProjectHelper.addSourceContainer(fProject, "src");
+		fPackage= fSourceFolder.createPackageFragment("p", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("public class ZxA {\n");
+		buf.append("    public class ZxInner {}\n");
+		buf.append("}\n");
+		fPackage.createCompilationUnit("ZxA.java", buf.toString(), false, null);
+		buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("public class ZxB {\n");
+		buf.append("}\n");
+		fPackage.createCompilationUnit("ZxB.java", buf.toString(), false, null);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		JavaProjectHelper.clear(fProject, ProjectTestSetup.getDefaultClasspath());
+		OpenTypeCache.getDefault().waitForUpdate();
+	}
+
+	private List<String> getCachedTypes(int elementKind) throws Exception {
+		OpenTypeCache cache= OpenTypeCache.getDefault();
+		cache.waitForUpdate();
+		TypeInfoFilter filter= new TypeInfoFilter("Zx", SearchEngine.createJavaSearchScope(new IJavaElement[] { fSourceFolder }), elementKind, null);
+		TypeNameMatch[] matches= cache.getFilteredTypeInfos(filter);
+		List<String> names= new ArrayList<>();
+		for (int i= 0; i < matches.length; i++)
+			names.add(matches[i].getFullyQualifiedName());
+		Collections.sort(names);
+		return names;
+	}
+
+	private List<String> getCachedTypes() throws Exception {
+		return getCachedTypes(IJavaSearchConstants.TYPE);
+	}
+
+	public void testInitialTypes() throws Exception {
+		assertEquals(Arrays.asList("p.ZxA", "p.ZxA.ZxInner", "p.ZxB"), getCachedTypes());
+	}
+
+	public void testAddedCompilationUnit() throws Exception {
+		getCachedTypes();
+
+		StringBuffer buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("class ZxC {\n");
+		buf.append("}\n");
+		buf.append("class ZxD {\n");
+		buf.append("}\n");
+		fPackage.createCompilationUnit("ZxC.java", buf.toString(), false, null);
+
+		assertEquals(Arrays.asList("p.ZxA", "p.ZxA.ZxInner", "p.ZxB", "p.ZxC", "p.ZxD"), getCachedTypes());
+	}
+
+	public void testChangedCompilationUnit() throws Exception {
+		getCachedTypes();
+
+		StringBuffer buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("public class ZxA {\n");
+		buf.append("    public class ZxOther {}\n");
+		buf.append("}\n");
+		fPackage.createCompilationUnit("ZxA.java", buf.toString(), true, null);
+
+		// the types of the unchanged compilation unit are kept
+		assertEquals(Arrays.asList("p.ZxA", "p.ZxA.ZxOther", "p.ZxB"), getCachedTypes());
+	}
+
+	public void testChangedModifiers() throws Exception {
+		assertEquals(Collections.emptyList(), getCachedTypes(IJavaSearchConstants.INTERFACE));
+
+		ICompilationUnit cu= fPackage.getCompilationUnit("ZxB.java");
+		StringBuffer buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("public interface ZxB {\n");
+		buf.append("}\n");
+		cu.getBuffer().setContents(buf.toString());
+		cu.save(null, true);
+
+		assertEquals(Arrays.asList("p.ZxB"), getCachedTypes(IJavaSearchConstants.INTERFACE));
+	}
+
+	public void testRemovedCompilationUnit() throws Exception {
+		getCachedTypes();
+
+		fPackage.getCompilationUnit("ZxA.java").delete(true, null);
+
+		assertEquals(Arrays.asList("p.ZxB"), getCachedTypes());
+	}
+
+	public void testRemovedSourceFolder() throws Exception {
+		getCachedTypes();
+
+		JavaProjectHelper.removeSourceContainer(fProject, "src");
+
+		assertEquals(Collections.emptyList(), getCachedTypes());
+	}
+}
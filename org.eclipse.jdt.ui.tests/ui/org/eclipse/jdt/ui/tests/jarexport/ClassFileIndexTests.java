@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.jarexport;
+
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+
+import org.eclipse.jdt.ui.tests.core.ProjectTestSetup;
+
+import org.eclipse.jdt.internal.ui.jarpackager.ClassFileIndex;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+
+public class ClassFileIndexTests extends TestCase {
+
+	private static final Class<ClassFileIndexTests> THIS= ClassFileIndexTests.class;
+
+	public static Test suite() {
+		return setUpTest(new TestSuite(THIS));
+	}
+
+	public static Test setUpTest(Test test) {
+		return new ProjectTestSetup(test);
+	}
+
+	private IJavaProject fProject;
+	private IFolder fOutputFolder;
+
+	@Override
+	protected void setUp() throws Exception {
+		fProject= ProjectTestSetup.getProject();
+		IPackageFragmentRoot root= JavaProjectHelper.addSourceContainer(fProject, "src");
+		IPackageFragment fragment= root.createPackageFragment("p", true, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("public class A {\n");
+		buf.append("    Object o= new Object() {\n");
+		buf.append("    };\n");
+		buf.append("}\n");
+		fragment.createCompilationUnit("A.java", buf.toString(), true, null);
+		buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("public class B {\n");
+		buf.append("}\n");
+		fragment.createCompilationUnit("B.java", buf.toString(), true, null);
+		fProject.getProject().build(IncrementalProjectBuilder.FULL_BUILD, null);
+		fOutputFolder= ResourcesPlugin.getWorkspace().getRoot().getFolder(fProject.getOutputLocation()).getFolder("p");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fProject.getProject().refreshLocal(IResource.DEPTH_INFINITE, null);
+		JavaProjectHelper.clear(fProject, ProjectTestSetup.getDefaultClasspath());
+	}
+
+	private ClassFileIndex.FolderIndex getFolderIndex() throws Exception {
+		return ClassFileIndex.getDefault().getFolderIndex(fOutputFolder, new NullProgressMonitor());
+	}
+
+	private static void assertClassFiles(ClassFileIndex.FolderIndex index, String sourceName, String[] expected) {
+		List<IFile> classFiles= index.getClassFiles(sourceName);
+		if (expected.length == 0) {
+			assertNull(sourceName, classFiles);
+			return;
+		}
+		assertNotNull(sourceName, classFiles);
+		assertEquals(sourceName, expected.length, classFiles.size());
+		for (int i= 0; i < expected.length; i++) {
+			boolean found= false;
+			for (int j= 0; j < classFiles.size(); j++)
+				found|= classFiles.get(j).getName().equals(expected[i]);
+			assertTrue(expected[i], found);
+		}
+	}
+
+	public void testSourceNames() throws Exception {
+		ClassFileIndex.FolderIndex index= getFolderIndex();
+		assertClassFiles(index, "A.java", new String[] { "A.class", "A$1.class" });
+		assertClassFiles(index, "B.java", new String[] { "B.class" });
+		assertNull(index.getClassFileWithoutSource());
+
+		// a second lookup uses the indexed source names
+		index= getFolderIndex();
+		assertClassFiles(index, "A.java", new String[] { "A.class", "A$1.class" });
+		assertClassFiles(index, "B.java", new String[] { "B.class" });
+	}
+
+	public void testChangedClassFile() throws Exception {
+		assertClassFiles(getFolderIndex(), "B.java", new String[] { "B.class" });
+
+		// the class file now has a different source attribute and a new stamp
+		IFile classFile= fOutputFolder.getFile("A$1.class");
+		classFile.setContents(fOutputFolder.getFile("B.class").getContents(), IResource.NONE, null);
+
+		ClassFileIndex.FolderIndex index= getFolderIndex();
+		assertClassFiles(index, "A.java", new String[] { "A.class" });
+		assertClassFiles(index, "B.java", new String[] { "B.class", "A$1.class" });
+	}
+
+	public void testDeletedClassFile() throws Exception {
+		assertClassFiles(getFolderIndex(), "A.java", new String[] { "A.class", "A$1.class" });
+
+		fOutputFolder.getFile("A$1.class").delete(true, null);
+
+		assertClassFiles(getFolderIndex(), "A.java", new String[] { "A.class" });
+	}
+
+	public void testPersistence() throws Exception {
+		assertClassFiles(getFolderIndex(), "B.java", new String[] { "B.class" });
+		// saves the index
+		ClassFileIndex.shutdown();
+
+		// overwrite the class file behind the workspace's back, so that its stamps and length are unchanged
+		IFile classFile= fOutputFolder.getFile("B.class");
+		int length= (int) classFile.getLocation().toFile().length();
+		try (OutputStream stream= new FileOutputStream(classFile.getLocation().toFile())) {
+			// not a class file
+			stream.write(new byte[length]);
+		}
+
+		// the reloaded index does not read the class file again
+		assertClassFiles(getFolderIndex(), "B.java", new String[] { "B.class" });
+
+		// once the workspace knows about the change, the class file is read again and is invalid
+		classFile.refreshLocal(IResource.DEPTH_ZERO, null);
+		assertClassFiles(getFolderIndex(), "B.java", new String[0]);
+	}
+
+	public void testChangedLength() throws Exception {
+		assertClassFiles(getFolderIndex(), "B.java", new String[] { "B.class" });
+
+		// the stamps of the class file are unchanged, but not its length
+		IFile classFile= fOutputFolder.getFile("B.class");
+		try (OutputStream stream= new FileOutputStream(classFile.getLocation().toFile())) {
+			stream.write(new byte[3]);
+		}
+
+		assertClassFiles(getFolderIndex(), "B.java", new String[0]);
+	}
+
+	public void testRecreatedWhileShutdown() throws Exception {
+		assertClassFiles(getFolderIndex(), "A.java", new String[] { "A.class", "A$1.class" });
+		ClassFileIndex.shutdown();
+
+		// like a clean build, without deltas for the index
+		IFile classFile= fOutputFolder.getFile("A$1.class");
+		classFile.delete(true, null);
+		classFile.create(fOutputFolder.getFile("B.class").getContents(), true, null);
+
+		ClassFileIndex.FolderIndex index= getFolderIndex();
+		assertClassFiles(index, "A.java", new String[] { "A.class" });
+		assertClassFiles(index, "B.java", new String[] { "B.class", "A$1.class" });
+	}
+}
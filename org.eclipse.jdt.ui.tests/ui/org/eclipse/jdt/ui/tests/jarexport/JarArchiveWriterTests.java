@@ -0,0 +1,277 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.jarexport;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.eclipse.jdt.internal.ui.jarpackager.JarArchiveReader;
+import org.eclipse.jdt.internal.ui.jarpackager.JarArchiveWriter;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Writes archives with {@link JarArchiveWriter} and reads them back with
+ * {@link ZipFile}, which uses the central directory, and with
+ * {@link ZipInputStream}, which uses the local headers.
+ */
+public class JarArchiveWriterTests extends TestCase {
+
+	private static final Class<JarArchiveWriterTests> THIS= JarArchiveWriterTests.class;
+
+	public static Test suite() {
+		return new TestSuite(THIS);
+	}
+
+	private File fFile;
+
+	@Override
+	protected void setUp() throws Exception {
+		fFile= File.createTempFile("archive", ".jar");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fFile.delete();
+	}
+
+	private static byte[] createContents(Random random, int size, boolean compressible) {
+		byte[] contents= new byte[size];
+		if (compressible) {
+			for (int i= 0; i < size; i++)
+				contents[i]= (byte) ('a' + random.nextInt(4));
+		} else {
+			random.nextBytes(contents);
+		}
+		return contents;
+	}
+
+	private static ZipEntry createEntry(String name, int method) {
+		ZipEntry entry= new ZipEntry(name);
+		entry.setMethod(method);
+		entry.setTime(System.currentTimeMillis());
+		return entry;
+	}
+
+	private static byte[] read(InputStream stream) throws IOException {
+		ByteArrayOutputStream output= new ByteArrayOutputStream();
+		byte[] buffer= new byte[8192];
+		int count;
+		while ((count= stream.read(buffer)) != -1)
+			output.write(buffer, 0, count);
+		return output.toByteArray();
+	}
+
+	private static long getCrc(byte[] contents) {
+		CRC32 crc= new CRC32();
+		crc.update(contents);
+		return crc.getValue();
+	}
+
+	/**
+	 * Checks that the archive contains exactly the given entries in the given
+	 * order, both in the central directory and in the local headers.
+	 */
+	private void assertArchive(List<String> names, List<byte[]> contents, List<Integer> methods) throws IOException {
+		try (ZipFile zip= new ZipFile(fFile)) {
+			assertEquals(names.size(), zip.size());
+			int index= 0;
+			for (Enumeration<? extends ZipEntry> entries= zip.entries(); entries.hasMoreElements(); index++) {
+				ZipEntry entry= entries.nextElement();
+				byte[] expected= contents.get(index);
+				assertEquals(names.get(index), entry.getName());
+				assertEquals(entry.getName(), methods.get(index).intValue(), entry.getMethod());
+				assertEquals(entry.getName(), expected.length, entry.getSize());
+				assertEquals(entry.getName(), getCrc(expected), entry.getCrc());
+				try (InputStream stream= zip.getInputStream(entry)) {
+					assertTrue(entry.getName(), Arrays.equals(expected, read(stream)));
+				}
+			}
+		}
+		try (ZipInputStream zip= new ZipInputStream(new FileInputStream(fFile))) {
+			int index= 0;
+			for (ZipEntry entry= zip.getNextEntry(); entry != null; entry= zip.getNextEntry(), index++) {
+				assertEquals(names.get(index), entry.getName());
+				assertTrue(entry.getName(), Arrays.equals(contents.get(index), read(zip)));
+				// the CRC of stored entries is only known from the local header
+				assertEquals(entry.getName(), getCrc(contents.get(index)), entry.getCrc());
+			}
+			assertEquals(names.size(), index);
+		}
+	}
+
+	public void testStreamedEntries() throws Exception {
+		Random random= new Random(33);
+		List<String> names= new ArrayList<>();
+		List<byte[]> contents= new ArrayList<>();
+		List<Integer> methods= new ArrayList<>();
+		names.add("small.txt");
+		contents.add(createContents(random, 2000, true));
+		methods.add(Integer.valueOf(ZipEntry.DEFLATED));
+		names.add("large-deflated.bin");
+		contents.add(createContents(random, JarArchiveWriter.MAX_BUFFERED_ENTRY_SIZE + 500000, true));
+		methods.add(Integer.valueOf(ZipEntry.DEFLATED));
+		names.add("large-stored.bin");
+		contents.add(createContents(random, JarArchiveWriter.MAX_BUFFERED_ENTRY_SIZE + 1, false));
+		methods.add(Integer.valueOf(ZipEntry.STORED));
+		names.add("after.txt");
+		contents.add(createContents(random, 100, true));
+		methods.add(Integer.valueOf(ZipEntry.STORED));
+
+		JarArchiveWriter writer= new JarArchiveWriter(fFile);
+		try {
+			for (int i= 0; i < names.size(); i++)
+				writer.putEntry(createEntry(names.get(i), methods.get(i).intValue()), new ByteArrayInputStream(contents.get(i)));
+		} finally {
+			writer.close();
+		}
+		assertArchive(names, contents, methods);
+	}
+
+	public void testZip64EntryCount() throws Exception {
+		int count= 0x10000 + 10;
+		List<String> names= new ArrayList<>(count);
+		List<byte[]> contents= new ArrayList<>(count);
+		List<Integer> methods= new ArrayList<>(count);
+		JarArchiveWriter writer= new JarArchiveWriter(fFile);
+		try {
+			for (int i= 0; i < count; i++) {
+				String name= "entry" + i + ".txt";
+				byte[] data= String.valueOf(i).getBytes("UTF-8");
+				int method= i % 2 == 0 ? ZipEntry.STORED : ZipEntry.DEFLATED;
+				names.add(name);
+				contents.add(data);
+				methods.add(Integer.valueOf(method));
+				writer.putEntry(createEntry(name, method), new ByteArrayInputStream(data));
+			}
+		} finally {
+			writer.close();
+		}
+		assertArchive(names, contents, methods);
+	}
+
+	public void testParallelDeflate() throws Exception {
+		Random random= new Random(42);
+		int count= 300;
+		List<String> names= new ArrayList<>(count);
+		List<byte[]> contents= new ArrayList<>(count);
+		List<Integer> methods= new ArrayList<>(count);
+		JarArchiveWriter writer= new JarArchiveWriter(fFile);
+		try {
+			for (int i= 0; i < count; i++) {
+				String name= "p" + (i % 7) + "/Entry" + i + ".class";
+				// mix tiny entries compressed on the calling thread with large ones compressed on workers
+				byte[] data= createContents(random, i % 10 == 0 ? 100 : 4096 + random.nextInt(200000), i % 3 != 0);
+				names.add(name);
+				contents.add(data);
+				methods.add(Integer.valueOf(ZipEntry.DEFLATED));
+				writer.putEntry(createEntry(name, ZipEntry.DEFLATED), new ByteArrayInputStream(data));
+			}
+		} finally {
+			writer.close();
+		}
+		assertArchive(names, contents, methods);
+	}
+
+	public void testIdenticalEntryIsSkipped() throws Exception {
+		byte[] data= "contents".getBytes("UTF-8");
+		JarArchiveWriter writer= new JarArchiveWriter(fFile);
+		try {
+			writer.putEntry(createEntry("a.txt", ZipEntry.DEFLATED), new ByteArrayInputStream(data));
+			// same name, CRC and size, e.g. the same class in two libraries of a fat JAR
+			ZipEntry duplicate= createEntry("a.txt", ZipEntry.DEFLATED);
+			duplicate.setCrc(getCrc(data));
+			duplicate.setSize(data.length);
+			writer.putEntry(duplicate, new ByteArrayInputStream(data));
+		} finally {
+			writer.close();
+		}
+		assertArchive(Arrays.asList("a.txt"), Arrays.asList(data), Arrays.asList(Integer.valueOf(ZipEntry.DEFLATED)));
+	}
+
+	public void testDuplicateEntryIsRejected() throws Exception {
+		byte[] data= "contents".getBytes("UTF-8");
+		byte[] other= "other contents".getBytes("UTF-8");
+		JarArchiveWriter writer= new JarArchiveWriter(fFile);
+		try {
+			writer.putEntry(createEntry("a.txt", ZipEntry.DEFLATED), new ByteArrayInputStream(data));
+			ZipEntry duplicate= createEntry("a.txt", ZipEntry.DEFLATED);
+			duplicate.setCrc(getCrc(other));
+			duplicate.setSize(other.length);
+			try {
+				writer.putEntry(duplicate, new ByteArrayInputStream(other));
+				fail("different contents must not be skipped");
+			} catch (ZipException e) {
+				// expected
+			}
+			// without CRC and size the entry cannot be compared
+			try {
+				writer.putEntry(createEntry("a.txt", ZipEntry.DEFLATED), new ByteArrayInputStream(data));
+				fail("entries without CRC must not be skipped");
+			} catch (ZipException e) {
+				// expected
+			}
+		} finally {
+			writer.close();
+		}
+		assertArchive(Arrays.asList("a.txt"), Arrays.asList(data), Arrays.asList(Integer.valueOf(ZipEntry.DEFLATED)));
+	}
+
+	public void testIdenticalRawEntryIsSkipped() throws Exception {
+		Random random= new Random(34);
+		byte[] data= createContents(random, 10000, true);
+		JarArchiveWriter writer= new JarArchiveWriter(fFile);
+		try {
+			writer.putEntry(createEntry("a.txt", ZipEntry.DEFLATED), new ByteArrayInputStream(data));
+		} finally {
+			writer.close();
+		}
+
+		File copy= File.createTempFile("copy", ".jar");
+		try {
+			try (ZipFile source= new ZipFile(fFile); JarArchiveReader reader= new JarArchiveReader(fFile)) {
+				ZipEntry entry= source.getEntry("a.txt");
+				long offset= reader.getDataOffset("a.txt");
+				JarArchiveWriter copyWriter= new JarArchiveWriter(copy);
+				try {
+					assertTrue(copyWriter.putRawEntry(entry, reader.getChannel(), offset));
+					assertFalse(copyWriter.putRawEntry(entry, reader.getChannel(), offset));
+				} finally {
+					copyWriter.close();
+				}
+			}
+			try (ZipFile zip= new ZipFile(copy)) {
+				assertEquals(1, zip.size());
+				try (InputStream stream= zip.getInputStream(zip.getEntry("a.txt"))) {
+					assertTrue(Arrays.equals(data, read(stream)));
+				}
+			}
+		} finally {
+			copy.delete();
+		}
+	}
+}
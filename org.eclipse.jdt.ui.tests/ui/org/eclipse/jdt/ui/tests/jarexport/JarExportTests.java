@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 IBM Corporation and others.
+ * Copyright (c) 2007, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,6 +21,8 @@ public class JarExportTests {
 		//$JUnit-BEGIN$
 		suite.addTest(PlainJarExportTests.suite());
 		suite.addTest(FatJarExportTests.suite());
+		suite.addTest(JarArchiveWriterTests.suite());
+		suite.addTest(ClassFileIndexTests.suite());
 		//$JUnit-END$
 		return suite;
 	}
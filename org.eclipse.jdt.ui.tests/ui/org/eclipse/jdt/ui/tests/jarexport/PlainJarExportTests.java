@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2015 IBM Corporation and others.
+ * Copyright (c) 2008, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,7 +10,12 @@
  *******************************************************************************/
 package org.eclipse.jdt.ui.tests.jarexport;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -27,6 +32,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
 
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.ResourcesPlugin;
 
 import org.eclipse.ui.IWorkbenchWindow;
@@ -134,6 +140,107 @@ public class PlainJarExportTests extends TestCase {
 		assertEquals(expected.toString(), entries.toString());
 	}
 	
+	public void testExportUncompressed() throws Exception {
+		JarPackageData data= createJarPackageData();
+
+		data.setElements(new Object[] { fCU });
+		data.setExportClassFiles(true);
+		data.setCompress(false);
+
+		ZipFile jar= createArchive(data);
+		ArrayList<String> entries= getSortedEntries(jar);
+		for (Enumeration<? extends ZipEntry> entriesEnum= jar.entries(); entriesEnum.hasMoreElements(); ) {
+			ZipEntry entry= entriesEnum.nextElement();
+			assertEquals(entry.getName(), ZipEntry.STORED, entry.getMethod());
+			assertEquals(entry.getName(), entry.getSize(), entry.getCompressedSize());
+		}
+		jar.close();
+		List<String> expected= Arrays.asList(new String[] {
+				"META-INF/MANIFEST.MF\n",
+				"org/eclipse/jdt/ui/test/Main$1.class\n",
+				"org/eclipse/jdt/ui/test/Main$MainInner.class\n",
+				"org/eclipse/jdt/ui/test/Main.class\n",
+		});
+		assertEquals(expected.toString(), entries.toString());
+	}
+
+	public void testExportIncremental() throws Exception {
+		JarPackageData data= createJarPackageData();
+
+		data.setElements(new Object[] { fCU });
+		data.setExportClassFiles(true);
+		data.setIncremental(true);
+
+		ZipFile jar= createArchive(data);
+		ArrayList<String> entries= getSortedEntries(jar);
+		long mainSize= jar.getEntry("org/eclipse/jdt/ui/test/Main.class").getSize();
+		jar.close();
+
+		// the second export copies the unchanged entries from the first one
+		jar= createArchive(data);
+		assertEquals(entries.toString(), getSortedEntries(jar).toString());
+		ZipEntry mainEntry= jar.getEntry("org/eclipse/jdt/ui/test/Main.class");
+		assertEquals(mainSize, mainEntry.getSize());
+		jar.close();
+
+		File previous= new File(data.getAbsoluteJarLocation().toOSString() + ".previous");
+		assertFalse(previous.exists());
+	}
+
+	public void testExportIncrementalChangedSource() throws Exception {
+		JarPackageData data= createJarPackageData();
+
+		data.setElements(new Object[] { fCU });
+		data.setExportClassFiles(true);
+		data.setIncremental(true);
+
+		ZipFile jar= createArchive(data);
+		byte[] mainContents= getContents(jar, "org/eclipse/jdt/ui/test/Main.class");
+		byte[] innerContents= getContents(jar, "org/eclipse/jdt/ui/test/Main$MainInner.class");
+		jar.close();
+
+		String source= fCU.getSource();
+		int offset= source.indexOf("    public static void main");
+		fCU.getBuffer().replace(offset, 0, "    public int field= 1;\n");
+		fCU.save(null, true);
+
+		// the changed class is exported again, the unchanged inner class is copied
+		jar= createArchive(data);
+		byte[] newMainContents= getContents(jar, "org/eclipse/jdt/ui/test/Main.class");
+		assertFalse(Arrays.equals(mainContents, newMainContents));
+		assertTrue(Arrays.equals(getOutputContents("org/eclipse/jdt/ui/test/Main.class"), newMainContents));
+		assertTrue(Arrays.equals(innerContents, getContents(jar, "org/eclipse/jdt/ui/test/Main$MainInner.class")));
+		jar.close();
+	}
+
+	public void testExportIncrementalSameTimeStamp() throws Exception {
+		JarPackageData data= createJarPackageData();
+
+		data.setElements(new Object[] { fCU });
+		data.setExportClassFiles(true);
+		data.setIncremental(true);
+
+		ZipFile jar= createArchive(data);
+		byte[] mainContents= getContents(jar, "org/eclipse/jdt/ui/test/Main.class");
+		jar.close();
+
+		// replace the class file without changing its time stamp
+		File mainFile= getOutputFile("org/eclipse/jdt/ui/test/Main.class").getLocation().toFile();
+		byte[] innerContents= getOutputContents("org/eclipse/jdt/ui/test/Main$MainInner.class");
+		long lastModified= mainFile.lastModified();
+		try (OutputStream stream= new FileOutputStream(mainFile)) {
+			stream.write(innerContents);
+		}
+		assertTrue(mainFile.setLastModified(lastModified));
+
+		data.setBuildIfNeeded(false);
+		jar= createArchive(data);
+		byte[] newMainContents= getContents(jar, "org/eclipse/jdt/ui/test/Main.class");
+		jar.close();
+		assertFalse(Arrays.equals(mainContents, newMainContents));
+		assertTrue(Arrays.equals(innerContents, newMainContents));
+	}
+
 	//https://bugs.eclipse.org/bugs/show_bug.cgi?id=229052
 	public void testExternalClassFolder() throws Exception {
 		JarPackageData data= createJarPackageData();
@@ -178,6 +285,33 @@ public class PlainJarExportTests extends TestCase {
 		return JarPackagerUtil.getArchiveFile(data.getJarLocation());
 	}
 
+	private IFile getOutputFile(String name) throws CoreException {
+		return ResourcesPlugin.getWorkspace().getRoot().getFolder(fProject.getOutputLocation()).getFile(name);
+	}
+
+	private byte[] getOutputContents(String name) throws Exception {
+		try (InputStream stream= getOutputFile(name).getContents(true)) {
+			return readFully(stream);
+		}
+	}
+
+	private static byte[] getContents(ZipFile jar, String name) throws IOException {
+		ZipEntry entry= jar.getEntry(name);
+		assertNotNull(name, entry);
+		try (InputStream stream= jar.getInputStream(entry)) {
+			return readFully(stream);
+		}
+	}
+
+	private static byte[] readFully(InputStream stream) throws IOException {
+		ByteArrayOutputStream output= new ByteArrayOutputStream();
+		byte[] buffer= new byte[8192];
+		int count;
+		while ((count= stream.read(buffer)) != -1)
+			output.write(buffer, 0, count);
+		return output.toByteArray();
+	}
+
 	private static ArrayList<String> getSortedEntries(ZipFile jar) {
 		ArrayList<String> entries= new ArrayList<>();
 		for (Enumeration<? extends ZipEntry> entriesEnum= jar.entries(); entriesEnum.hasMoreElements(); ) {
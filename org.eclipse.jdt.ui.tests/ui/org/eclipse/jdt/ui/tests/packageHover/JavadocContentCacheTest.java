@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.packageHover;
+
+import java.io.File;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+import org.eclipse.jdt.testplugin.JavaTestPlugin;
+
+import org.eclipse.core.runtime.Path;
+
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.ui.tests.core.ProjectTestSetup;
+
+import org.eclipse.jdt.internal.ui.text.javadoc.JavadocContentCache;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests that the {@link JavadocContentCache} answers repeated requests for the Javadoc of
+ * library elements from the cache, and drops it when the source attachment or the classpath of
+ * the library changes.
+ */
+public class JavadocContentCacheTest extends TestCase {
+
+	private static final String PACKAGE_DOC= "This is the package documentation for org.eclipse.jdt.ui.tests";
+
+	private IJavaProject fJProject1;
+	private IPackageFragmentRoot fJarRoot;
+	private File fSourceArchive;
+
+	public JavadocContentCacheTest(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return setUpTest(new TestSuite(JavadocContentCacheTest.class));
+	}
+
+	public static Test setUpTest(Test test) {
+		return new ProjectTestSetup(test);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		fJProject1= ProjectTestSetup.getProject();
+
+		File classArchive= JavaTestPlugin.getDefault().getFileInPlugin(new Path("/testresources/PackageJavadocTests/testData.zip"));
+		fSourceArchive= JavaTestPlugin.getDefault().getFileInPlugin(new Path("/testresources/PackageJavadocTests/testData_src.zip"));
+		assertTrue("test data not found", classArchive != null && classArchive.exists() && fSourceArchive != null && fSourceArchive.exists());
+
+		// without source attachment and Javadoc location, the package has no Javadoc
+		fJarRoot= JavaProjectHelper.addLibraryWithImport(fJProject1, new Path(classArchive.getAbsolutePath()), null, null);
+		assertTrue(fJarRoot.exists());
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		// the attached source is remembered for the path of the library
+		if (fJarRoot.exists())
+			fJarRoot.attachSource(null, null, null);
+		JavaProjectHelper.clear(fJProject1, ProjectTestSetup.getDefaultClasspath());
+	}
+
+	private String getPackageDoc() throws Exception {
+		IPackageFragment packageFragment= fJarRoot.getPackageFragment("org.eclipse.jdt.ui.tests");
+		assertTrue(packageFragment.exists());
+		return JavadocContentCache.getDefault().getHTMLContent(packageFragment);
+	}
+
+	public void testCachedContent() throws Exception {
+		fJarRoot.attachSource(new Path(fSourceArchive.getAbsolutePath()), null, null);
+
+		String content= getPackageDoc();
+		assertNotNull(content);
+		assertTrue(content, content.contains(PACKAGE_DOC));
+		// answered from the cache
+		assertSame(content, getPackageDoc());
+	}
+
+	public void testSourceAttached() throws Exception {
+		assertNull(getPackageDoc());
+
+		fJarRoot.attachSource(new Path(fSourceArchive.getAbsolutePath()), null, null);
+		String content= getPackageDoc();
+		assertNotNull(content);
+		assertTrue(content, content.contains(PACKAGE_DOC));
+	}
+
+	public void testSourceDetached() throws Exception {
+		fJarRoot.attachSource(new Path(fSourceArchive.getAbsolutePath()), null, null);
+		assertNotNull(getPackageDoc());
+
+		fJarRoot.attachSource(null, null, null);
+		assertNull(getPackageDoc());
+	}
+
+	public void testClasspathChanged() throws Exception {
+		assertNull(getPackageDoc());
+
+		// attaches the source through the classpath entry of the library
+		IClasspathEntry[] rawClasspath= fJProject1.getRawClasspath();
+		for (int i= 0; i < rawClasspath.length; i++) {
+			if (rawClasspath[i].getPath().equals(fJarRoot.getPath()))
+				rawClasspath[i]= JavaCore.newLibraryEntry(fJarRoot.getPath(), new Path(fSourceArchive.getAbsolutePath()), null);
+		}
+		fJProject1.setRawClasspath(rawClasspath, null);
+
+		String content= getPackageDoc();
+		assertNotNull(content);
+		assertTrue(content, content.contains(PACKAGE_DOC));
+	}
+}
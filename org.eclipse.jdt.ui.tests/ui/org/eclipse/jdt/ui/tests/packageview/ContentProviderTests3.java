@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -43,6 +43,7 @@ import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 
+import org.eclipse.jdt.internal.ui.packageview.PackageExplorerContentProvider;
 import org.eclipse.jdt.internal.ui.util.CoreUtility;
 
 
@@ -276,6 +277,29 @@ public class ContentProviderTests3 extends TestCase {
 		assertEquals("No refreshes", 0, fMyPart.getRefreshedObject().size()); //$NON-NLS-1$
 	}
 
+	public void testMergePendingUpdates() throws Exception {
+		final IElementChangedListener listener= (IElementChangedListener) fProvider;
+
+		//send the deltas from another thread, so that the updates are queued for the display
+		Thread thread= new Thread() {
+			@Override
+			public void run() {
+				IJavaElementDelta delta= TestDelta.createCUDelta(new ICompilationUnit[]{fCU2}, fPack6, IJavaElementDelta.REMOVED);
+				listener.elementChanged(new ElementChangedEvent(delta, ElementChangedEvent.POST_CHANGE));
+				delta= TestDelta.createDelta(fPack4, IJavaElementDelta.REMOVED);
+				listener.elementChanged(new ElementChangedEvent(delta, ElementChangedEvent.POST_CHANGE));
+			}
+		};
+		thread.start();
+		thread.join();
+		((PackageExplorerContentProvider) fProvider).runPendingUpdates();
+
+		// the refresh of the source folder covers the removed CU
+		assertFalse("No remove happened", fMyPart.hasRemoveHappened()); //$NON-NLS-1$
+		assertTrue("Correct Refresh", fMyPart.wasObjectRefreshed(fRoot1)); //$NON-NLS-1$
+		assertEquals("Single refresh", 1, fMyPart.getRefreshedObject().size()); //$NON-NLS-1$
+	}
+
 
 	/*
 	 * @see TestCase#setUp()
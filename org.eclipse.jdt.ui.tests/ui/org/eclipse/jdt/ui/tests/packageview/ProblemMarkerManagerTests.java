@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.packageview;
+
+import java.io.ByteArrayInputStream;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.jdt.internal.ui.viewsupport.IProblemChangedListener;
+import org.eclipse.jdt.internal.ui.viewsupport.ProblemMarkerManager;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests that the problem severities cached by the {@link ProblemMarkerManager}
+ * follow marker changes and projects being closed and opened.
+ */
+public class ProblemMarkerManagerTests extends TestCase {
+
+	private IProject fProject;
+	private IFolder fFolder;
+	private IFile fFile;
+
+	private ProblemMarkerManager fManager;
+	private IProblemChangedListener fListener;
+
+	@Override
+	protected void setUp() throws Exception {
+		// a project without builders, so that only the markers of the test exist
+		fProject= ResourcesPlugin.getWorkspace().getRoot().getProject("ProblemMarkerManagerTests");
+		fProject.create(null);
+		fProject.open(null);
+		IFolder src= fProject.getFolder("src");
+		src.create(true, true, null);
+		fFolder= src.getFolder("p");
+		fFolder.create(true, true, null);
+		fFile= fFolder.getFile("file.txt");
+		fFile.create(new ByteArrayInputStream(new byte[0]), true, null);
+
+		fManager= new ProblemMarkerManager();
+		fListener= new IProblemChangedListener() {
+			@Override
+			public void problemsChanged(IResource[] changedResources, boolean isMarkerChange) {
+				// the cache is only used while there are listeners
+			}
+		};
+		fManager.addListener(fListener);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fManager.removeListener(fListener);
+		JavaProjectHelper.delete(fProject);
+	}
+
+	private IMarker createMarker(IResource resource, int severity) throws Exception {
+		IMarker marker= resource.createMarker(IMarker.PROBLEM);
+		marker.setAttribute(IMarker.SEVERITY, severity);
+		return marker;
+	}
+
+	private void assertSeverity(int expected, IResource resource) throws Exception {
+		assertEquals(resource.getFullPath().toString(), expected, fManager.findMaxProblemSeverity(resource));
+		// a second query is answered from the cache
+		assertEquals(resource.getFullPath().toString(), expected, fManager.findMaxProblemSeverity(resource));
+	}
+
+	public void testMarkerChanges() throws Exception {
+		assertSeverity(-1, fProject);
+		assertSeverity(-1, fFolder);
+
+		IMarker marker= createMarker(fFile, IMarker.SEVERITY_WARNING);
+		assertSeverity(IMarker.SEVERITY_WARNING, fProject);
+		assertSeverity(IMarker.SEVERITY_WARNING, fFolder);
+		assertSeverity(IMarker.SEVERITY_WARNING, fFile);
+
+		marker.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_ERROR);
+		assertSeverity(IMarker.SEVERITY_ERROR, fProject);
+		assertSeverity(IMarker.SEVERITY_ERROR, fFolder);
+
+		marker.delete();
+		assertSeverity(-1, fProject);
+		assertSeverity(-1, fFolder);
+		assertSeverity(-1, fFile);
+	}
+
+	public void testChildContainersFromParentQuery() throws Exception {
+		IMarker marker= createMarker(fFile, IMarker.SEVERITY_INFO);
+		createMarker(fProject, IMarker.SEVERITY_WARNING);
+		// caches the severities of the folders below the project as well
+		assertSeverity(IMarker.SEVERITY_WARNING, fProject);
+		assertSeverity(IMarker.SEVERITY_INFO, fFolder);
+		assertSeverity(IMarker.SEVERITY_INFO, fFolder.getParent());
+
+		marker.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_ERROR);
+		assertSeverity(IMarker.SEVERITY_ERROR, fFolder);
+		assertSeverity(IMarker.SEVERITY_ERROR, fFolder.getParent());
+		assertSeverity(IMarker.SEVERITY_ERROR, fProject);
+	}
+
+	public void testProjectClosedAndOpened() throws Exception {
+		IWorkspaceRoot root= ResourcesPlugin.getWorkspace().getRoot();
+		// markers of other projects in the workspace
+		int otherSeverity= root.findMaxProblemSeverity(IMarker.PROBLEM, true, IResource.DEPTH_INFINITE);
+
+		createMarker(fFile, IMarker.SEVERITY_ERROR);
+		assertSeverity(IMarker.SEVERITY_ERROR, fProject);
+		assertSeverity(IMarker.SEVERITY_ERROR, root);
+
+		// markers of closed projects are not found
+		fProject.close(null);
+		assertSeverity(otherSeverity, root);
+
+		fProject.open(null);
+		int severity= fProject.findMaxProblemSeverity(IMarker.PROBLEM, true, IResource.DEPTH_INFINITE);
+		assertSeverity(severity, fProject);
+		assertSeverity(severity, fFolder);
+		assertSeverity(Math.max(otherSeverity, severity), root);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -4359,6 +4359,85 @@ public class AdvancedQuickAssistTest extends QuickFixTest {
 		assertNumberOfProposals(proposals, 0);
 	}
 	
+	public void testConvertSwitchToIfFallThrough() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E {\n");
+		buf.append("    public void foo(int a) {\n");
+		buf.append("        switch (a) {\n");
+		buf.append("            case 1:\n");
+		buf.append("                System.out.println(1);\n");
+		buf.append("            case 2:\n");
+		buf.append("                System.out.println(2);\n");
+		buf.append("                break;\n");
+		buf.append("            default:\n");
+		buf.append("                System.out.println(-1);\n");
+		buf.append("        }\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		ICompilationUnit cu= pack1.createCompilationUnit("E.java", buf.toString(), false, null);
+
+		int offset= buf.toString().indexOf("switch");
+		AssistContext context= getCorrectionContext(cu, offset, 0);
+		assertNoErrors(context);
+		List<IJavaCompletionProposal> proposals= collectAssists(context, false);
+
+		assertNumberOfProposals(proposals, 0);
+	}
+
+	public void testConvertSwitchToIfPreviewAndResult() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E {\n");
+		buf.append("    public void foo(int a) {\n");
+		buf.append("        switch (a) {\n");
+		buf.append("            case 1:\n");
+		buf.append("                System.out.println(1);\n");
+		buf.append("                break;\n");
+		buf.append("            case 2:\n");
+		buf.append("                System.out.println(2);\n");
+		buf.append("                return;\n");
+		buf.append("            default:\n");
+		buf.append("                System.out.println(-1);\n");
+		buf.append("        }\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		String original= buf.toString();
+		ICompilationUnit cu= pack1.createCompilationUnit("E.java", original, false, null);
+
+		int offset= original.indexOf("switch");
+		AssistContext context= getCorrectionContext(cu, offset, 0);
+		assertNoErrors(context);
+		List<IJavaCompletionProposal> proposals= collectAssists(context, false);
+
+		assertNumberOfProposals(proposals, 1);
+		assertCorrectLabels(proposals);
+
+		buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E {\n");
+		buf.append("    public void foo(int a) {\n");
+		buf.append("        if (a == 1) {\n");
+		buf.append("            System.out.println(1);\n");
+		buf.append("        } else if (a == 2) {\n");
+		buf.append("            System.out.println(2);\n");
+		buf.append("            return;\n");
+		buf.append("        } else {\n");
+		buf.append("            System.out.println(-1);\n");
+		buf.append("        }\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		String expected= buf.toString();
+
+		// the rewrite is created for the preview, the change is the same when it is applied
+		CUCorrectionProposal proposal= (CUCorrectionProposal) proposals.get(0);
+		assertEqualString(getPreviewContent(proposal), expected);
+		assertEqualString(cu.getSource(), original);
+		assertEqualString(performChange(proposal), expected);
+	}
+
 	public void testConvertIfToSwitch1() throws Exception {
 		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
 		StringBuffer buf= new StringBuffer();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -6767,6 +6767,43 @@ public class AssistQuickFixTest extends QuickFixTest {
 		assertExpectedExistInProposals(proposals, new String[] { expected1, expected2, expected3, expected4 });
 	}
 
+	public void testConvertToStringBufferPreviewAndResult() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class A {\n");
+		buf.append("    public void foo() {\n");
+		buf.append("        int stringBuilder = 5;\n");
+		buf.append("        String strX = \"foo\"+\"bar\";\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		String original= buf.toString();
+		ICompilationUnit cu= pack1.createCompilationUnit("A.java", original, false, null);
+
+		AssistContext context= getCorrectionContext(cu, original.indexOf("\"+\""), 0);
+		List<IJavaCompletionProposal> proposals= collectAssists(context, false);
+
+		buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class A {\n");
+		buf.append("    public void foo() {\n");
+		buf.append("        int stringBuilder = 5;\n");
+		buf.append("        StringBuilder stringBuilder2 = new StringBuilder();\n");
+		buf.append("        stringBuilder2.append(\"foo\");\n");
+		buf.append("        stringBuilder2.append(\"bar\");\n");
+		buf.append("        String strX = stringBuilder2.toString();\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		String expected= buf.toString();
+
+		// the rewrite and the buffer name are computed for the preview, the change is the same when it is applied
+		CUCorrectionProposal proposal= (CUCorrectionProposal) findProposalByCommandId(QuickAssistProcessor.CONVERT_TO_STRING_BUFFER_ID, proposals);
+		assertNotNull(proposal);
+		assertEqualString(getPreviewContent(proposal), expected);
+		assertEqualString(cu.getSource(), original);
+		assertEqualString(performChange(proposal), expected);
+	}
+
 	public void testConvertToStringBufferInIfStatement() throws Exception {
 		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
 		StringBuffer buf= new StringBuffer();
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.quickfix;
+
+import java.util.Map;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+
+import org.eclipse.text.tests.Accessor;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaModelMarker;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.compiler.IProblem;
+
+import org.eclipse.jdt.ui.tests.core.ProjectTestSetup;
+
+import org.eclipse.jdt.internal.ui.text.correction.JavaCorrectionProcessor;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the cached results of
+ * {@link JavaCorrectionProcessor#hasCorrections(ICompilationUnit, int, String)}, using the
+ * contributed <code>MyQuickFixProcessor</code> that is only enabled for <code>A.java</code> and
+ * source level 1.5 and above.
+ */
+public class HasCorrectionsTest extends TestCase {
+
+	private static final Class<HasCorrectionsTest> THIS= HasCorrectionsTest.class;
+
+	private static final String MARKER_TYPE= IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER;
+
+	private IJavaProject fJProject1;
+	private IPackageFragment fPackage;
+
+	public HasCorrectionsTest(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return setUpTest(new TestSuite(THIS));
+	}
+
+	public static Test setUpTest(Test test) {
+		return new ProjectTestSetup(test);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		fJProject1= ProjectTestSetup.getProject();
+		IPackageFragmentRoot sourceFolder= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+		fPackage= sourceFolder.createPackageFragment("test1", false, null);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		JavaProjectHelper.clear(fJProject1, ProjectTestSetup.getDefaultClasspath());
+	}
+
+	private ICompilationUnit createCompilationUnit(String name) throws Exception {
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class ").append(name).append(" {\n");
+		buf.append("    public int foo() {\n");
+		buf.append("        return 99999999999999999;\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		return fPackage.createCompilationUnit(name + ".java", buf.toString(), false, null);
+	}
+
+	public void testCachedResults() throws Exception {
+		ICompilationUnit a= createCompilationUnit("A");
+		ICompilationUnit b= createCompilationUnit("B");
+
+		assertTrue(JavaCorrectionProcessor.hasCorrections(a, IProblem.NumericValueOutOfRange, MARKER_TYPE));
+		assertFalse(JavaCorrectionProcessor.hasCorrections(b, IProblem.NumericValueOutOfRange, MARKER_TYPE));
+
+		// answered from the cache
+		assertTrue(JavaCorrectionProcessor.hasCorrections(a, IProblem.NumericValueOutOfRange, MARKER_TYPE));
+		assertFalse(JavaCorrectionProcessor.hasCorrections(b, IProblem.NumericValueOutOfRange, MARKER_TYPE));
+
+		// the processor does not handle other marker types
+		assertFalse(JavaCorrectionProcessor.hasCorrections(a, IProblem.NumericValueOutOfRange, "org.eclipse.jdt.ui.tests.unknownMarker"));
+	}
+
+	public void testSourceLevelChanged() throws Exception {
+		ICompilationUnit a= createCompilationUnit("A");
+		assertTrue(JavaCorrectionProcessor.hasCorrections(a, IProblem.NumericValueOutOfRange, MARKER_TYPE));
+
+		String sourceLevel= fJProject1.getOption(JavaCore.COMPILER_SOURCE, false);
+		fJProject1.setOption(JavaCore.COMPILER_SOURCE, JavaCore.VERSION_1_4);
+		try {
+			// the processor requires source level 1.5
+			assertFalse(JavaCorrectionProcessor.hasCorrections(a, IProblem.NumericValueOutOfRange, MARKER_TYPE));
+		} finally {
+			fJProject1.setOption(JavaCore.COMPILER_SOURCE, sourceLevel);
+		}
+		assertTrue(JavaCorrectionProcessor.hasCorrections(a, IProblem.NumericValueOutOfRange, MARKER_TYPE));
+	}
+
+	public void testProjectDescriptionChanged() throws Exception {
+		ICompilationUnit a= createCompilationUnit("A");
+		assertTrue(JavaCorrectionProcessor.hasCorrections(a, IProblem.NumericValueOutOfRange, MARKER_TYPE));
+
+		IProject project= fJProject1.getProject();
+		Map<?, ?> natures= (Map<?, ?>) new Accessor(null, JavaCorrectionProcessor.class).get("fgProjectNatures");
+		assertTrue(natures.containsKey(project));
+
+		// the natures are read again after the description changed
+		IProjectDescription description= project.getDescription();
+		String comment= description.getComment();
+		description.setComment("changed");
+		project.setDescription(description, null);
+		try {
+			assertFalse(natures.containsKey(project));
+			assertTrue(JavaCorrectionProcessor.hasCorrections(a, IProblem.NumericValueOutOfRange, MARKER_TYPE));
+			assertTrue(natures.containsKey(project));
+		} finally {
+			description.setComment(comment);
+			project.setDescription(description, null);
+		}
+	}
+
+	public void testShutdown() throws Exception {
+		ICompilationUnit a= createCompilationUnit("A");
+		assertTrue(JavaCorrectionProcessor.hasCorrections(a, IProblem.NumericValueOutOfRange, MARKER_TYPE));
+
+		// drops the cache and the processors, they are created again on demand
+		JavaCorrectionProcessor.shutdown();
+		assertTrue(JavaCorrectionProcessor.hasCorrections(a, IProblem.NumericValueOutOfRange, MARKER_TYPE));
+		assertFalse(JavaCorrectionProcessor.hasCorrections(createCompilationUnit("B"), IProblem.NumericValueOutOfRange, MARKER_TYPE));
+	}
+}
@@ -21,6 +21,7 @@ import org.eclipse.jdt.testplugin.StringAsserts;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 
 import org.eclipse.core.resources.IFile;
 
@@ -30,6 +31,8 @@ import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
 
+import org.eclipse.ltk.core.refactoring.Change;
+import org.eclipse.ltk.core.refactoring.PerformChangeOperation;
 import org.eclipse.ltk.core.refactoring.TextFileChange;
 
 import org.eclipse.jdt.core.ICompilationUnit;
@@ -102,6 +105,8 @@ public class QuickFixTest extends TestCase {
 		suite.addTest(AdvancedQuickAssistTest18.suite());
 		suite.addTest(CleanUpTestCase.suite());
 		suite.addTest(QuickFixEnablementTest.suite());
+		suite.addTest(ParallelQuickFixTest.suite());
+		suite.addTest(HasCorrectionsTest.suite());
 		suite.addTest(SurroundWithTemplateTest.suite());
 		suite.addTest(TypeParameterMismatchTest.suite());
 		suite.addTest(PropertiesFileQuickAssistTest.suite());
@@ -450,6 +455,22 @@ public class QuickFixTest extends TestCase {
 		return proposal.getPreviewContent();
 	}
 
+	/**
+	 * Performs the change of the given proposal without an editor.
+	 *
+	 * @param proposal the proposal
+	 * @return the source of the compilation unit after the change
+	 * @throws CoreException if the change could not be performed
+	 */
+	protected static String performChange(CUCorrectionProposal proposal) throws CoreException {
+		Change change= proposal.getChange();
+		change.initializeValidationData(new NullProgressMonitor());
+		PerformChangeOperation operation= new PerformChangeOperation(change);
+		operation.run(null);
+		assertTrue("change not executed", operation.changeExecuted());
+		return proposal.getCompilationUnit().getSource();
+	}
+
 	protected static String getWizardPreviewContent(NewCUUsingWizardProposal newCUWizard) throws CoreException, BadLocationException {
 		newCUWizard.setShowDialog(false);
 		newCUWizard.apply(null);
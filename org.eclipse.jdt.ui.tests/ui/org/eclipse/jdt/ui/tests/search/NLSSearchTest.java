@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2011 IBM Corporation and others.
+ * Copyright (c) 2006, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -42,6 +42,8 @@ import org.eclipse.jdt.core.IPackageFragmentRoot;
 
 import org.eclipse.jdt.ui.tests.core.ProjectTestSetup;
 
+import org.eclipse.jdt.internal.ui.refactoring.nls.search.NLSKeyReferenceIndex;
+
 
 public class NLSSearchTest extends TestCase {
 
@@ -635,4 +637,135 @@ public class NLSSearchTest extends TestCase {
 		NLSSearchTestHelper.assertNumberOfProblems(accessor, propertiesFile, 1);
 	}
 
+
+	public void testChangedClientAfterSearch() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test;\n");
+		buf.append("import java.util.MissingResourceException;\n");
+		buf.append("import java.util.ResourceBundle;\n");
+		buf.append("public class Accessor {\n");
+		buf.append("    private static final String BUNDLE_NAME = \"test.Accessor\"; //$NON-NLS-1$\n");
+		buf.append("    private static final ResourceBundle RESOURCE_BUNDLE = ResourceBundle.getBundle(BUNDLE_NAME);\n");
+		buf.append("    private Accessor() {}\n");
+		buf.append("    public static String getString(String key) {\n");
+		buf.append("        try {\n");
+		buf.append("            return RESOURCE_BUNDLE.getString(key);\n");
+		buf.append("        } catch (MissingResourceException e) {\n");
+		buf.append("            return '!' + key + '!';\n");
+		buf.append("        }\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		ICompilationUnit accessor= pack1.createCompilationUnit("Accessor.java", buf.toString(), false, null);
+
+		buf= new StringBuffer();
+		buf.append("package test;\n");
+		buf.append("public class Client {\n");
+		buf.append("    public String s1= Accessor.getString(\"Client.s1\"); //$NON-NLS-1$\n");
+		buf.append("}\n");
+		ICompilationUnit client= pack1.createCompilationUnit("Client.java", buf.toString(), false, null);
+
+		buf= new StringBuffer();
+		buf.append("Client.s1=s1\n");
+		IFile propertiesFile= write((IFolder)pack1.getCorrespondingResource(), buf.toString(), "Accessor.properties");
+
+		NLSSearchTestHelper.assertNumberOfProblems(accessor, propertiesFile, 0);
+
+		// the key references of the changed client must not be taken from the previous search
+		buf= new StringBuffer();
+		buf.append("package test;\n");
+		buf.append("public class Client {\n");
+		buf.append("    public String s2= Accessor.getString(\"Client.s2\"); //$NON-NLS-1$\n");
+		buf.append("}\n");
+		client= pack1.createCompilationUnit("Client.java", buf.toString(), true, null);
+
+		NLSSearchTestHelper.assertHasUndefinedKey(accessor, propertiesFile, "Client.s2", (IFile)client.getCorrespondingResource(), false);
+	}
+
+	public void testChangedAccessorAfterSearch() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test;\n");
+		buf.append("import org.eclipse.osgi.util.NLS;\n");
+		buf.append("public class Accessor extends NLS {\n");
+		buf.append("    public static class Inner {}\n");
+		buf.append("    private Accessor() {}\n");
+		buf.append("    private static final String BUNDLE_NAME = \"test.Accessor\"; //$NON-NLS-1$\n");
+		buf.append("    static {NLS.initializeMessages(BUNDLE_NAME, Accessor.class);}\n");
+		buf.append("}\n");
+		ICompilationUnit accessor= pack1.createCompilationUnit("Accessor.java", buf.toString(), false, null);
+
+		buf= new StringBuffer();
+		buf.append("package test;\n");
+		buf.append("public class Client {\n");
+		buf.append("    public Object o= Accessor.Inner.class;\n");
+		buf.append("}\n");
+		ICompilationUnit client= pack1.createCompilationUnit("Client.java", buf.toString(), false, null);
+
+		IFile propertiesFile= write((IFolder)pack1.getCorrespondingResource(), "", "Accessor.properties");
+
+		NLSSearchTestHelper.assertHasUndefinedKey(accessor, propertiesFile, "Inner", (IFile)client.getCorrespondingResource(), false);
+
+		// an interface is not a key, the unchanged client must be resolved against the changed accessor
+		buf= new StringBuffer();
+		buf.append("package test;\n");
+		buf.append("import org.eclipse.osgi.util.NLS;\n");
+		buf.append("public class Accessor extends NLS {\n");
+		buf.append("    public static interface Inner {}\n");
+		buf.append("    private Accessor() {}\n");
+		buf.append("    private static final String BUNDLE_NAME = \"test.Accessor\"; //$NON-NLS-1$\n");
+		buf.append("    static {NLS.initializeMessages(BUNDLE_NAME, Accessor.class);}\n");
+		buf.append("}\n");
+		accessor= pack1.createCompilationUnit("Accessor.java", buf.toString(), true, null);
+
+		NLSSearchTestHelper.assertNumberOfProblems(accessor, propertiesFile, 0);
+	}
+
+	public void testRecreatedClientWhileShutdown() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test;\n");
+		buf.append("import java.util.MissingResourceException;\n");
+		buf.append("import java.util.ResourceBundle;\n");
+		buf.append("public class Accessor {\n");
+		buf.append("    private static final String BUNDLE_NAME = \"test.Accessor\"; //$NON-NLS-1$\n");
+		buf.append("    private static final ResourceBundle RESOURCE_BUNDLE = ResourceBundle.getBundle(BUNDLE_NAME);\n");
+		buf.append("    private Accessor() {}\n");
+		buf.append("    public static String getString(String key) {\n");
+		buf.append("        try {\n");
+		buf.append("            return RESOURCE_BUNDLE.getString(key);\n");
+		buf.append("        } catch (MissingResourceException e) {\n");
+		buf.append("            return '!' + key + '!';\n");
+		buf.append("        }\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		ICompilationUnit accessor= pack1.createCompilationUnit("Accessor.java", buf.toString(), false, null);
+
+		buf= new StringBuffer();
+		buf.append("package test;\n");
+		buf.append("public class Client {\n");
+		buf.append("    public String s1= Accessor.getString(\"Client.s1\"); //$NON-NLS-1$\n");
+		buf.append("}\n");
+		ICompilationUnit client= pack1.createCompilationUnit("Client.java", buf.toString(), false, null);
+
+		buf= new StringBuffer();
+		buf.append("Client.s1=s1\n");
+		IFile propertiesFile= write((IFolder)pack1.getCorrespondingResource(), buf.toString(), "Accessor.properties");
+
+		NLSSearchTestHelper.assertNumberOfProblems(accessor, propertiesFile, 0);
+		// saves the index, which then receives no deltas
+		NLSKeyReferenceIndex.shutdown();
+
+		// same length, and the recreated file may have the same modification stamp
+		client.delete(true, null);
+		buf= new StringBuffer();
+		buf.append("package test;\n");
+		buf.append("public class Client {\n");
+		buf.append("    public String s2= Accessor.getString(\"Client.s2\"); //$NON-NLS-1$\n");
+		buf.append("}\n");
+		client= pack1.createCompilationUnit("Client.java", buf.toString(), false, null);
+
+		NLSSearchTestHelper.assertHasUndefinedKey(accessor, propertiesFile, "Client.s2", (IFile)client.getCorrespondingResource(), false);
+	}
+
 }
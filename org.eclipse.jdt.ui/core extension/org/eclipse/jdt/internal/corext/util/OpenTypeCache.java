@@ -0,0 +1,569 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IClassFile;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.WorkingCopyOwner;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.TypeNameMatch;
+import org.eclipse.jdt.core.search.TypeNameMatchRequestor;
+
+import org.eclipse.jdt.internal.corext.CorextMessages;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
+/**
+ * Cache of the names of all types in the workspace, used by the open type
+ * dialog to show matches right after startup, while the search indexes are not
+ * ready yet.
+ * <p>
+ * The cache is a compact snapshot: every name is stored once in a dictionary,
+ * and each type is a row of dictionary indices in primitive arrays. The
+ * snapshot is built by a background search and saved across sessions. When
+ * Java element deltas change the types of compilation units, only the types of
+ * these compilation units are read again from the Java model. Other changes,
+ * like classpath changes, build the snapshot again with a search. The cached
+ * types may no longer exist, so clients have to confirm them with a real
+ * search.
+ * </p>
+ *
+ * @since 3.12
+ */
+public class OpenTypeCache {
+
+	/**
+	 * The immutable type names of a snapshot. Each type is described by the
+	 * entries at the same index in the <code>int</code> arrays.
+	 */
+	private static final class Snapshot {
+
+		/** The handle identifiers of the package fragment roots */
+		private final String[] fRoots;
+		/** The package names */
+		private final String[] fPackages;
+		/** The simple type names, type qualified names and file names */
+		private final String[] fNames;
+
+		private final int[] fRootIds;
+		private final int[] fPackageIds;
+		/** The name of the compilation unit or class file */
+		private final int[] fFileIds;
+		/** The type qualified name, e.g. <code>Outer.Inner</code> */
+		private final int[] fQualifiedNameIds;
+		private final int[] fSimpleNameIds;
+		private final int[] fModifiers;
+
+		public Snapshot(String[] roots, String[] packages, String[] names, int[] rootIds, int[] packageIds, int[] fileIds, int[] qualifiedNameIds, int[] simpleNameIds, int[] modifiers) {
+			fRoots= roots;
+			fPackages= packages;
+			fNames= names;
+			fRootIds= rootIds;
+			fPackageIds= packageIds;
+			fFileIds= fileIds;
+			fQualifiedNameIds= qualifiedNameIds;
+			fSimpleNameIds= simpleNameIds;
+			fModifiers= modifiers;
+		}
+
+		public int size() {
+			return fRootIds.length;
+		}
+	}
+
+	/**
+	 * Collects the types found by a search into a new snapshot.
+	 */
+	private static final class SnapshotBuilder extends TypeNameMatchRequestor {
+
+		private static final int ROW_LENGTH= 6;
+
+		private final Map<String, Integer> fRootIds= new HashMap<>();
+		private final List<String> fRoots= new ArrayList<>();
+		private final Map<String, Integer> fPackageIds= new HashMap<>();
+		private final List<String> fPackages= new ArrayList<>();
+		private final Map<String, Integer> fNameIds= new HashMap<>();
+		private final List<String> fNames= new ArrayList<>();
+
+		/** The rows of the types, {@link #ROW_LENGTH} values per type */
+		private int[] fRows= new int[ROW_LENGTH * 1024];
+		private int fSize;
+
+		@Override
+		public void acceptTypeNameMatch(TypeNameMatch match) {
+			IType type= match.getType();
+			IJavaElement file= type.getCompilationUnit();
+			if (file == null)
+				file= type.getClassFile();
+			if (file == null)
+				return;
+			add(match.getPackageFragmentRoot().getHandleIdentifier(), match.getPackageName(), file.getElementName(), match.getTypeQualifiedName(), match.getSimpleTypeName(),
+					match.getModifiers());
+		}
+
+		/**
+		 * Adds the type at the given index of another snapshot.
+		 *
+		 * @param snapshot the snapshot
+		 * @param i the index of the type
+		 */
+		public void add(Snapshot snapshot, int i) {
+			add(snapshot.fRoots[snapshot.fRootIds[i]], snapshot.fPackages[snapshot.fPackageIds[i]], snapshot.fNames[snapshot.fFileIds[i]],
+					snapshot.fNames[snapshot.fQualifiedNameIds[i]], snapshot.fNames[snapshot.fSimpleNameIds[i]], snapshot.fModifiers[i]);
+		}
+
+		private void add(String root, String packageName, String fileName, String qualifiedName, String simpleName, int modifiers) {
+			if (fSize * ROW_LENGTH == fRows.length)
+				fRows= Arrays.copyOf(fRows, fRows.length * 2);
+			int row= fSize * ROW_LENGTH;
+			fRows[row]= intern(fRootIds, fRoots, root);
+			fRows[row + 1]= intern(fPackageIds, fPackages, packageName);
+			fRows[row + 2]= intern(fNameIds, fNames, fileName);
+			fRows[row + 3]= intern(fNameIds, fNames, qualifiedName);
+			fRows[row + 4]= intern(fNameIds, fNames, simpleName);
+			fRows[row + 5]= modifiers;
+			fSize++;
+		}
+
+		private static int intern(Map<String, Integer> ids, List<String> names, String name) {
+			Integer id= ids.get(name);
+			if (id == null) {
+				id= Integer.valueOf(names.size());
+				ids.put(name, id);
+				names.add(name);
+			}
+			return id.intValue();
+		}
+
+		public Snapshot createSnapshot() {
+			int[][] columns= new int[ROW_LENGTH][fSize];
+			for (int i= 0; i < fSize; i++) {
+				for (int j= 0; j < ROW_LENGTH; j++)
+					columns[j][i]= fRows[i * ROW_LENGTH + j];
+			}
+			return new Snapshot(fRoots.toArray(new String[fRoots.size()]), fPackages.toArray(new String[fPackages.size()]), fNames.toArray(new String[fNames.size()]),
+					columns[0], columns[1], columns[2], columns[3], columns[4], columns[5]);
+		}
+	}
+
+	private class TypeDeltaListener implements IElementChangedListener {
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			Set<ICompilationUnit> units= new HashSet<>();
+			boolean fullUpdate= collectChanges(event.getDelta(), units);
+			if (!fullUpdate && units.isEmpty())
+				return;
+			synchronized (fPendingUnits) {
+				fFullUpdate|= fullUpdate;
+				fPendingUnits.addAll(units);
+				fullUpdate= fFullUpdate;
+			}
+			fUpdateJob.schedule(fullUpdate ? UPDATE_DELAY : INCREMENTAL_UPDATE_DELAY);
+		}
+
+		/**
+		 * Collects the compilation units whose types may have been added,
+		 * removed or changed.
+		 *
+		 * @param delta the Java element delta
+		 * @param units the collected compilation units
+		 * @return <code>true</code> if the delta may change types outside of
+		 *         compilation units and the snapshot must be built again
+		 */
+		private boolean collectChanges(IJavaElementDelta delta, Set<ICompilationUnit> units) {
+			IJavaElement element= delta.getElement();
+			boolean isChanged= delta.getKind() == IJavaElementDelta.CHANGED;
+			int flags= delta.getFlags();
+			switch (element.getElementType()) {
+				case IJavaElement.JAVA_MODEL:
+					return collectChanges(delta.getAffectedChildren(), units);
+				case IJavaElement.JAVA_PROJECT:
+					if (!isChanged || (flags & (IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED)) != 0)
+						return true;
+					return collectChanges(delta.getAffectedChildren(), units);
+				case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+					if (!isChanged || (flags & (IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH)) != 0)
+						return true;
+					return collectChanges(delta.getAffectedChildren(), units);
+				case IJavaElement.PACKAGE_FRAGMENT:
+					if (!isChanged)
+						return true;
+					return collectChanges(delta.getAffectedChildren(), units);
+				case IJavaElement.CLASS_FILE:
+					return true;
+				case IJavaElement.COMPILATION_UNIT:
+					ICompilationUnit unit= (ICompilationUnit) element;
+					if (!JavaModelUtil.isPrimary(unit))
+						return false;
+					if (!isChanged || (flags & (IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_FINE_GRAINED)) == IJavaElementDelta.F_CONTENT
+							|| affectsTypes(delta.getAffectedChildren()))
+						units.add(unit);
+					return false;
+				default:
+					return false;
+			}
+		}
+
+		private boolean collectChanges(IJavaElementDelta[] children, Set<ICompilationUnit> units) {
+			boolean fullUpdate= false;
+			for (int i= 0; i < children.length && !fullUpdate; i++)
+				fullUpdate= collectChanges(children[i], units);
+			return fullUpdate;
+		}
+
+		/**
+		 * Computes whether the deltas of the children of a compilation unit add
+		 * or remove types, or change their modifiers.
+		 *
+		 * @param children the deltas of the children
+		 * @return <code>true</code> if the types of the compilation unit must
+		 *         be read again
+		 */
+		private boolean affectsTypes(IJavaElementDelta[] children) {
+			for (int i= 0; i < children.length; i++) {
+				IJavaElementDelta child= children[i];
+				if (child.getElement().getElementType() != IJavaElement.TYPE)
+					continue;
+				if (child.getKind() != IJavaElementDelta.CHANGED || (child.getFlags() & IJavaElementDelta.F_MODIFIERS) != 0)
+					return true;
+				if (affectsTypes(child.getAffectedChildren()))
+					return true;
+			}
+			return false;
+		}
+	}
+
+	private class UpdateJob extends Job {
+		public UpdateJob() {
+			super(CorextMessages.OpenTypeCache_update_job);
+			setSystem(true);
+			setPriority(Job.DECORATE);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			Set<ICompilationUnit> units;
+			boolean fullUpdate;
+			synchronized (fPendingUnits) {
+				units= new HashSet<>(fPendingUnits);
+				fPendingUnits.clear();
+				fullUpdate= fFullUpdate;
+				fFullUpdate= false;
+			}
+			Snapshot snapshot= fSnapshot;
+			if (fullUpdate || snapshot == null) {
+				SnapshotBuilder builder= new SnapshotBuilder();
+				try {
+					new SearchEngine((WorkingCopyOwner) null).searchAllTypeNames(null, SearchPattern.R_EXACT_MATCH, null, SearchPattern.R_EXACT_MATCH,
+							IJavaSearchConstants.TYPE, SearchEngine.createWorkspaceScope(), builder, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+				} catch (JavaModelException e) {
+					JavaPlugin.log(e);
+					return Status.OK_STATUS;
+				} catch (OperationCanceledException e) {
+					synchronized (fPendingUnits) {
+						fFullUpdate= true;
+					}
+					return Status.CANCEL_STATUS;
+				}
+				fSnapshot= builder.createSnapshot();
+			} else if (!units.isEmpty()) {
+				fSnapshot= update(snapshot, units);
+			}
+			fDirty= true;
+			return Status.OK_STATUS;
+		}
+	}
+
+	/**
+	 * Creates a snapshot in which the types of the given compilation units are
+	 * replaced by their current types in the Java model.
+	 *
+	 * @param snapshot the snapshot to update
+	 * @param units the changed compilation units
+	 * @return the updated snapshot
+	 */
+	private static Snapshot update(Snapshot snapshot, Set<ICompilationUnit> units) {
+		Set<List<String>> unitKeys= new HashSet<>();
+		Set<String> fileNames= new HashSet<>();
+		for (Iterator<ICompilationUnit> iter= units.iterator(); iter.hasNext();) {
+			ICompilationUnit unit= iter.next();
+			IJavaElement root= unit.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+			unitKeys.add(Arrays.asList(root.getHandleIdentifier(), unit.getParent().getElementName(), unit.getElementName()));
+			fileNames.add(unit.getElementName());
+		}
+		// compare the full key only for the types in files with a changed name
+		BitSet changedNames= new BitSet(snapshot.fNames.length);
+		for (int i= 0; i < snapshot.fNames.length; i++) {
+			if (fileNames.contains(snapshot.fNames[i]))
+				changedNames.set(i);
+		}
+
+		SnapshotBuilder builder= new SnapshotBuilder();
+		for (int i= 0, size= snapshot.size(); i < size; i++) {
+			if (changedNames.get(snapshot.fFileIds[i])
+					&& unitKeys.contains(Arrays.asList(snapshot.fRoots[snapshot.fRootIds[i]], snapshot.fPackages[snapshot.fPackageIds[i]], snapshot.fNames[snapshot.fFileIds[i]])))
+				continue;
+			builder.add(snapshot, i);
+		}
+		for (Iterator<ICompilationUnit> iter= units.iterator(); iter.hasNext();) {
+			ICompilationUnit unit= iter.next();
+			if (!unit.exists())
+				continue;
+			try {
+				IType[] types= unit.getAllTypes();
+				for (int i= 0; i < types.length; i++)
+					builder.acceptTypeNameMatch(SearchEngine.createTypeNameMatch(types[i], types[i].getFlags()));
+			} catch (JavaModelException e) {
+				JavaPlugin.log(e);
+			}
+		}
+		return builder.createSnapshot();
+	}
+
+	private static final String FILE_NAME= "OpenTypeCache.dat"; //$NON-NLS-1$
+
+	private static final int FORMAT_VERSION= 1;
+
+	/**
+	 * The delay in milliseconds before the cache is updated, so that a burst of
+	 * changes results in a single update.
+	 */
+	private static final long UPDATE_DELAY= 10000;
+
+	/**
+	 * The delay in milliseconds before the types of changed compilation units
+	 * are updated.
+	 */
+	private static final long INCREMENTAL_UPDATE_DELAY= 1000;
+
+	private static OpenTypeCache fgInstance;
+
+	public static synchronized OpenTypeCache getDefault() {
+		if (fgInstance == null) {
+			fgInstance= new OpenTypeCache();
+			fgInstance.load();
+			JavaCore.addElementChangedListener(fgInstance.fDeltaListener, ElementChangedEvent.POST_CHANGE);
+			// the types may have changed while the workbench was not running
+			fgInstance.fUpdateJob.schedule(UPDATE_DELAY);
+		}
+		return fgInstance;
+	}
+
+	public static synchronized void shutdown() {
+		if (fgInstance != null) {
+			JavaCore.removeElementChangedListener(fgInstance.fDeltaListener);
+			fgInstance.fUpdateJob.cancel();
+			fgInstance.save();
+			fgInstance= null;
+		}
+	}
+
+	private final IElementChangedListener fDeltaListener= new TypeDeltaListener();
+
+	private final UpdateJob fUpdateJob= new UpdateJob();
+
+	/** The compilation units to update, guarded by itself */
+	private final Set<ICompilationUnit> fPendingUnits= new HashSet<>();
+
+	/** Whether the snapshot must be built again, guarded by {@link #fPendingUnits} */
+	private boolean fFullUpdate= true;
+
+	/** The current snapshot, or <code>null</code> if none has been built yet */
+	private volatile Snapshot fSnapshot;
+
+	private volatile boolean fDirty;
+
+	private OpenTypeCache() {
+	}
+
+	/**
+	 * Runs a scheduled update of the cache immediately and waits until it is
+	 * done.
+	 *
+	 * @throws InterruptedException if the thread was interrupted while waiting
+	 */
+	public void waitForUpdate() throws InterruptedException {
+		fUpdateJob.wakeUp();
+		fUpdateJob.join();
+	}
+
+	/**
+	 * Returns the cached types that match the given filter, like
+	 * {@link OpenTypeHistory#getFilteredTypeInfos(TypeInfoFilter)}. The types
+	 * may no longer exist, and types that were added recently may be missing.
+	 *
+	 * @param filter the filter
+	 * @return the matching types, or an empty array if the cache has not been
+	 *         built yet
+	 */
+	public TypeNameMatch[] getFilteredTypeInfos(TypeInfoFilter filter) {
+		Snapshot snapshot= fSnapshot;
+		if (snapshot == null)
+			return new TypeNameMatch[0];
+
+		// match each name once, instead of once per type
+		BitSet testedNames= new BitSet(snapshot.fNames.length);
+		BitSet matchingNames= new BitSet(snapshot.fNames.length);
+		IPackageFragmentRoot[] roots= new IPackageFragmentRoot[snapshot.fRoots.length];
+		List<TypeNameMatch> result= new ArrayList<>();
+		for (int i= 0, size= snapshot.size(); i < size; i++) {
+			int nameId= snapshot.fSimpleNameIds[i];
+			if (!testedNames.get(nameId)) {
+				testedNames.set(nameId);
+				if (filter.matchesSimpleTypeName(snapshot.fNames[nameId]))
+					matchingNames.set(nameId);
+			}
+			if (!matchingNames.get(nameId))
+				continue;
+
+			int rootId= snapshot.fRootIds[i];
+			IPackageFragmentRoot root= roots[rootId];
+			if (root == null) {
+				IJavaElement element= JavaCore.create(snapshot.fRoots[rootId]);
+				if (!(element instanceof IPackageFragmentRoot))
+					continue;
+				root= roots[rootId]= (IPackageFragmentRoot) element;
+			}
+			IType type= createType(root, snapshot.fPackages[snapshot.fPackageIds[i]], snapshot.fNames[snapshot.fFileIds[i]], snapshot.fNames[snapshot.fQualifiedNameIds[i]]);
+			TypeNameMatch match= SearchEngine.createTypeNameMatch(type, snapshot.fModifiers[i]);
+			if (filter.matchesHistoryElement(match) && !TypeFilter.isFiltered(match.getFullyQualifiedName()))
+				result.add(match);
+		}
+		return result.toArray(new TypeNameMatch[result.size()]);
+	}
+
+	private static IType createType(IPackageFragmentRoot root, String packageName, String fileName, String qualifiedName) {
+		IPackageFragment fragment= root.getPackageFragment(packageName);
+		if (!JavaCore.isJavaLikeFileName(fileName)) {
+			IClassFile classFile= fragment.getClassFile(fileName);
+			return classFile.getType();
+		}
+		ICompilationUnit cu= fragment.getCompilationUnit(fileName);
+		int start= 0;
+		int end= qualifiedName.indexOf('.');
+		IType type= cu.getType(end == -1 ? qualifiedName : qualifiedName.substring(0, end));
+		while (end != -1) {
+			start= end + 1;
+			end= qualifiedName.indexOf('.', start);
+			type= type.getType(end == -1 ? qualifiedName.substring(start) : qualifiedName.substring(start, end));
+		}
+		return type;
+	}
+
+	private File getCacheFile() {
+		return JavaPlugin.getDefault().getStateLocation().append(FILE_NAME).toFile();
+	}
+
+	private void load() {
+		File file= getCacheFile();
+		if (!file.exists())
+			return;
+		try (DataInputStream in= new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != FORMAT_VERSION)
+				return;
+			String[] roots= readStrings(in);
+			String[] packages= readStrings(in);
+			String[] names= readStrings(in);
+			int size= in.readInt();
+			int[] rootIds= readInts(in, size);
+			int[] packageIds= readInts(in, size);
+			int[] fileIds= readInts(in, size);
+			int[] qualifiedNameIds= readInts(in, size);
+			int[] simpleNameIds= readInts(in, size);
+			int[] modifiers= readInts(in, size);
+			fSnapshot= new Snapshot(roots, packages, names, rootIds, packageIds, fileIds, qualifiedNameIds, simpleNameIds, modifiers);
+		} catch (IOException e) {
+			JavaPlugin.log(e);
+		}
+	}
+
+	private static String[] readStrings(DataInputStream in) throws IOException {
+		String[] strings= new String[in.readInt()];
+		for (int i= 0; i < strings.length; i++)
+			strings[i]= in.readUTF();
+		return strings;
+	}
+
+	private static int[] readInts(DataInputStream in, int size) throws IOException {
+		int[] ints= new int[size];
+		for (int i= 0; i < size; i++)
+			ints[i]= in.readInt();
+		return ints;
+	}
+
+	private void save() {
+		Snapshot snapshot= fSnapshot;
+		if (!fDirty || snapshot == null)
+			return;
+		try (DataOutputStream out= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(getCacheFile())))) {
+			out.writeInt(FORMAT_VERSION);
+			writeStrings(out, snapshot.fRoots);
+			writeStrings(out, snapshot.fPackages);
+			writeStrings(out, snapshot.fNames);
+			out.writeInt(snapshot.size());
+			writeInts(out, snapshot.fRootIds);
+			writeInts(out, snapshot.fPackageIds);
+			writeInts(out, snapshot.fFileIds);
+			writeInts(out, snapshot.fQualifiedNameIds);
+			writeInts(out, snapshot.fSimpleNameIds);
+			writeInts(out, snapshot.fModifiers);
+			fDirty= false;
+		} catch (IOException e) {
+			JavaPlugin.log(e);
+		}
+	}
+
+	private static void writeStrings(DataOutputStream out, String[] strings) throws IOException {
+		out.writeInt(strings.length);
+		for (int i= 0; i < strings.length; i++)
+			out.writeUTF(strings[i]);
+	}
+
+	private static void writeInts(DataOutputStream out, int[] ints) throws IOException {
+		for (int i= 0; i < ints.length; i++)
+			out.writeInt(ints[i]);
+	}
+}
@@ -0,0 +1,383 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
+/**
+ * Base class of the indexes that store an entry per workspace file in the
+ * state location of the plug-in. Subclasses define how an entry is read and
+ * written and which files are indexed.
+ * <p>
+ * The index is loaded and registered as resource change listener by
+ * {@link #open()}, and saved by {@link #close()}. Resource deltas
+ * remove the entries of deleted and changed files, subclasses can compute
+ * the entries of changed files again in {@link #fileChanged(IFile)}. Entries
+ * of closed or deleted projects are not saved.
+ * </p>
+ * <p>
+ * Deltas are only received while the index is open, so subclasses store the
+ * {@link FileState} of a file in its entry and compare it with the file
+ * before the entry is used.
+ * </p>
+ *
+ * @param <E> the type of the entries
+ * @since 3.12
+ */
+public abstract class PersistentFileIndex<E> implements IResourceChangeListener {
+
+	/**
+	 * The state of a file when its entry was computed. Modification stamps
+	 * start again when a file is deleted and created again, e.g. by a clean
+	 * build, so the local time stamp and the length of the file are compared
+	 * as well.
+	 */
+	public static final class FileState {
+
+		private final long fModificationStamp;
+		private final long fLocalTimeStamp;
+		private final long fLength;
+
+		private FileState(long modificationStamp, long localTimeStamp, long length) {
+			fModificationStamp= modificationStamp;
+			fLocalTimeStamp= localTimeStamp;
+			fLength= length;
+		}
+
+		/**
+		 * Returns the current state of the given file.
+		 *
+		 * @param file the file
+		 * @return the state, or <code>null</code> if the file does not exist
+		 *         in the file system
+		 */
+		public static FileState create(IFile file) {
+			long stamp= file.getModificationStamp();
+			long localTimeStamp= file.getLocalTimeStamp();
+			if (stamp == IResource.NULL_STAMP || localTimeStamp == IResource.NULL_STAMP)
+				return null;
+			long length= getLength(file);
+			if (length == -1)
+				return null;
+			return new FileState(stamp, localTimeStamp, length);
+		}
+
+		/**
+		 * Returns whether the given file is still in this state. The length
+		 * is only fetched from the file system if the stamps are equal.
+		 *
+		 * @param file the file
+		 * @return <code>true</code> if the file has not changed
+		 */
+		public boolean matches(IFile file) {
+			return fModificationStamp == file.getModificationStamp() && fLocalTimeStamp == file.getLocalTimeStamp() && fLength == getLength(file);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof FileState))
+				return false;
+			FileState other= (FileState) obj;
+			return fModificationStamp == other.fModificationStamp && fLocalTimeStamp == other.fLocalTimeStamp && fLength == other.fLength;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) (fModificationStamp ^ fLocalTimeStamp ^ fLength);
+		}
+
+		public static FileState read(DataInputStream in) throws IOException {
+			return new FileState(in.readLong(), in.readLong(), in.readLong());
+		}
+
+		public void write(DataOutputStream out) throws IOException {
+			out.writeLong(fModificationStamp);
+			out.writeLong(fLocalTimeStamp);
+			out.writeLong(fLength);
+		}
+
+		private static long getLength(IFile file) {
+			URI location= file.getLocationURI();
+			if (location == null)
+				return -1;
+			try {
+				IFileInfo info= EFS.getStore(location).fetchInfo();
+				return info.exists() ? info.getLength() : -1;
+			} catch (CoreException e) {
+				return -1;
+			}
+		}
+	}
+
+	private final String fFileName;
+	private final int fFormatVersion;
+
+	/** The indexed files, guarded by <code>this</code> */
+	private final Map<IPath, E> fEntries= new HashMap<>();
+
+	private boolean fDirty;
+
+	/**
+	 * Creates a new index.
+	 *
+	 * @param fileName the name of the file in the state location
+	 * @param formatVersion the version of the file format, an index stored
+	 *            with another version is dropped
+	 */
+	protected PersistentFileIndex(String fileName, int formatVersion) {
+		fFileName= fileName;
+		fFormatVersion= formatVersion;
+	}
+
+	/**
+	 * Loads the index and starts listening to resource changes.
+	 */
+	protected void open() {
+		load();
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+	}
+
+	/**
+	 * Stops listening to resource changes and saves the index.
+	 */
+	protected void close() {
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+		save();
+	}
+
+	/**
+	 * Returns whether the index contains entries for the given file. Deltas of
+	 * other files are ignored.
+	 *
+	 * @param file the file
+	 * @return <code>true</code> if the file may be indexed
+	 */
+	protected abstract boolean isIndexed(IResource file);
+
+	/**
+	 * Reads an entry written by {@link #writeEntry(DataOutputStream, Object)}.
+	 *
+	 * @param in the input stream
+	 * @return the entry
+	 * @throws IOException if the entry cannot be read
+	 */
+	protected abstract E readEntry(DataInputStream in) throws IOException;
+
+	/**
+	 * Writes an entry.
+	 *
+	 * @param out the output stream
+	 * @param entry the entry
+	 * @throws IOException if the entry cannot be written
+	 */
+	protected abstract void writeEntry(DataOutputStream out, E entry) throws IOException;
+
+	/**
+	 * Returns the entry of the given file.
+	 *
+	 * @param path the full path of the file
+	 * @return the entry, or <code>null</code> if the file is not indexed
+	 */
+	protected synchronized E get(IPath path) {
+		return fEntries.get(path);
+	}
+
+	/**
+	 * Sets the entry of the given file.
+	 *
+	 * @param path the full path of the file
+	 * @param entry the entry
+	 */
+	protected synchronized void put(IPath path, E entry) {
+		E old= fEntries.put(path, entry);
+		if (old != null)
+			entryRemoved(path, old);
+		entryAdded(path, entry);
+		fDirty= true;
+	}
+
+	/**
+	 * Removes the entry of the given file.
+	 *
+	 * @param path the full path of the file
+	 * @return <code>true</code> if the file had an entry
+	 */
+	protected synchronized boolean remove(IPath path) {
+		E entry= fEntries.remove(path);
+		if (entry == null)
+			return false;
+		entryRemoved(path, entry);
+		fDirty= true;
+		return true;
+	}
+
+	/**
+	 * Marks the index as changed after an entry has been modified in place.
+	 */
+	protected synchronized void setDirty() {
+		fDirty= true;
+	}
+
+	/**
+	 * Called with the lock of the index held after an entry has been added.
+	 * Subclasses that maintain derived data can extend this method.
+	 *
+	 * @param path the full path of the file
+	 * @param entry the added entry
+	 */
+	protected void entryAdded(IPath path, E entry) {
+		// nothing to do
+	}
+
+	/**
+	 * Called with the lock of the index held after an entry has been removed.
+	 * Subclasses that maintain derived data can extend this method.
+	 *
+	 * @param path the full path of the file
+	 * @param entry the removed entry
+	 */
+	protected void entryRemoved(IPath path, E entry) {
+		// nothing to do
+	}
+
+	/**
+	 * Called without the lock of the index after the entry of a file has been
+	 * removed because the contents of the file changed. Subclasses can compute
+	 * the entry again in the background instead of when it is needed.
+	 *
+	 * @param file the changed file
+	 */
+	protected void fileChanged(IFile file) {
+		// nothing to do
+	}
+
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta= event.getDelta();
+		if (delta == null)
+			return;
+		try {
+			delta.accept(new IResourceDeltaVisitor() {
+				@Override
+				public boolean visit(IResourceDelta child) throws CoreException {
+					IResource resource= child.getResource();
+					if (resource.getType() != IResource.FILE)
+						return true;
+					if (!isIndexed(resource))
+						return false;
+					int kind= child.getKind();
+					if (kind == IResourceDelta.REMOVED) {
+						remove(resource.getFullPath());
+					} else if (kind == IResourceDelta.CHANGED && (child.getFlags() & IResourceDelta.CONTENT) != 0) {
+						if (remove(resource.getFullPath()))
+							fileChanged((IFile) resource);
+					}
+					return false;
+				}
+			});
+		} catch (CoreException e) {
+			JavaPlugin.log(e);
+		}
+	}
+
+	private File getIndexFile() {
+		return JavaPlugin.getDefault().getStateLocation().append(fFileName).toFile();
+	}
+
+	private synchronized void load() {
+		File file= getIndexFile();
+		if (!file.exists())
+			return;
+		try (DataInputStream in= new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != fFormatVersion)
+				return;
+			int entries= in.readInt();
+			for (int i= 0; i < entries; i++) {
+				IPath path= new Path(in.readUTF());
+				put(path, readEntry(in));
+			}
+			fDirty= false;
+		} catch (IOException e) {
+			JavaPlugin.log(e);
+			clear();
+		}
+	}
+
+	private synchronized void clear() {
+		for (Iterator<Map.Entry<IPath, E>> iter= fEntries.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry<IPath, E> entry= iter.next();
+			iter.remove();
+			entryRemoved(entry.getKey(), entry.getValue());
+		}
+		fDirty= false;
+	}
+
+	private void save() {
+		IWorkspaceRoot root= ResourcesPlugin.getWorkspace().getRoot();
+		List<Map.Entry<IPath, E>> entries;
+		synchronized (this) {
+			if (!fDirty)
+				return;
+			entries= new ArrayList<>(fEntries.size());
+			for (Iterator<Map.Entry<IPath, E>> iter= fEntries.entrySet().iterator(); iter.hasNext();) {
+				Map.Entry<IPath, E> entry= iter.next();
+				// entries of closed or deleted projects are not kept across sessions
+				if (root.getFile(entry.getKey()).getProject().isAccessible())
+					entries.add(new AbstractMap.SimpleImmutableEntry<>(entry));
+			}
+			fDirty= false;
+		}
+		try (DataOutputStream out= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(getIndexFile())))) {
+			out.writeInt(fFormatVersion);
+			out.writeInt(entries.size());
+			for (Iterator<Map.Entry<IPath, E>> iter= entries.iterator(); iter.hasNext();) {
+				Map.Entry<IPath, E> entry= iter.next();
+				out.writeUTF(entry.getKey().toString());
+				writeEntry(out, entry.getValue());
+			}
+		} catch (IOException e) {
+			JavaPlugin.log(e);
+			setDirty();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -165,11 +165,21 @@ public class TypeInfoFilter {
 		return fFilterExtension.select(fAdapter);
 	}
 
-	private boolean matchesName(TypeNameMatch type) {
+	/**
+	 * Checks whether the given simple type name matches the name pattern of this filter.
+	 *
+	 * @param simpleTypeName the simple type name
+	 * @return <code>true</code> if the name matches
+	 */
+	public boolean matchesSimpleTypeName(String simpleTypeName) {
 		if (fText.length() == 0) {
 			return true; //empty pattern matches all names
 		}
-		return fNameMatcher.matches(type.getSimpleTypeName());
+		return fNameMatcher.matches(simpleTypeName);
+	}
+
+	private boolean matchesName(TypeNameMatch type) {
+		return matchesSimpleTypeName(type.getSimpleTypeName());
 	}
 
 	private boolean matchesPackage(TypeNameMatch type) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -1553,6 +1553,8 @@ public final class RefactoringCoreMessages extends NLS {
 
 	public static String QualifiedNameFinder_update_name;
 
+	public static String QualifiedNameIndex_update_job;
+
 	public static String QualifiedNameSearchResult_change_name;
 
 	public static String ReadOnlyResourceFinder_0;
@@ -2341,6 +2343,8 @@ public final class RefactoringCoreMessages extends NLS {
 
 	public static String TargetProvider_method_declaration_not_unique;
 
+	public static String TextMatchUpdater_scanning;
+
 	public static String TextMatchUpdater_searching;
 
 	public static String TextMatchUpdater_textualMatches_description;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,9 +10,7 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.refactoring.nls;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -24,12 +22,6 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IStorage;
 
-import org.eclipse.core.filebuffers.FileBuffers;
-import org.eclipse.core.filebuffers.ITextFileBuffer;
-import org.eclipse.core.filebuffers.ITextFileBufferManager;
-import org.eclipse.core.filebuffers.LocationKind;
-
-import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.Region;
 
@@ -63,11 +55,11 @@ import org.eclipse.jdt.core.dom.TypeLiteral;
 import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
 
 import org.eclipse.jdt.internal.corext.dom.Bindings;
+import org.eclipse.jdt.internal.corext.refactoring.nls.PropertiesFileCache.PropertiesFile;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 
 import org.eclipse.jdt.ui.SharedASTProvider;
 
-import org.eclipse.jdt.internal.ui.JavaPlugin;
 
 public class NLSHintHelper {
 
@@ -416,8 +408,8 @@ public class NLSHintHelper {
 	}
 
 	/**
-	 * Reads the properties from the given storage and
-	 * returns it.
+	 * Reads the properties from the resource bundle of the given
+	 * accessor class reference and returns a copy of them.
 	 *
 	 * @param javaProject the Java project
 	 * @param accessorClassReference the accessor class reference
@@ -435,49 +427,37 @@ public class NLSHintHelper {
 
 	/**
 	 * Reads the properties from the given storage and
-	 * returns it.
+	 * returns a copy of them.
 	 *
 	 * @param storage the storage
 	 * @return the properties or <code>null</code> if it was not successfully read
 	 */
 	public static Properties getProperties(IStorage storage) {
+		PropertiesFile file= getPropertiesFile(storage);
+		return file != null ? file.copyProperties() : null;
+	}
+
+	/**
+	 * Reads the given storage and returns its parsed contents. The contents
+	 * are shared with other clients of the {@link PropertiesFileCache}.
+	 *
+	 * @param storage the storage
+	 * @return the parsed contents or <code>null</code> if it was not successfully read
+	 * @since 3.12
+	 */
+	public static PropertiesFile getPropertiesFile(IStorage storage) {
 		if (storage == null)
 			return null;
 
-		Properties props= new Properties();
-		InputStream is= null;
-
-		ITextFileBufferManager manager= FileBuffers.getTextFileBufferManager();
 		try {
-			if (manager != null) {
-				ITextFileBuffer buffer= manager.getTextFileBuffer(storage.getFullPath(), LocationKind.NORMALIZE);
-				if (buffer != null) {
-					IDocument document= buffer.getDocument();
-					is= new ByteArrayInputStream(document.get().getBytes());
-				}
-			}
-
-			// Fallback: read from storage
-			if (is == null)
-				is= storage.getContents();
-
-			props.load(is);
-
+			return PropertiesFileCache.getDefault().getPropertiesFile(storage);
 		} catch (IOException e) {
 			// sorry no properties
 			return null;
 		} catch (CoreException e) {
 			// sorry no properties
 			return null;
-		} finally {
-			if (is != null) try {
-				is.close();
-			} catch (IOException e) {
-				// return properties anyway but log
-				JavaPlugin.log(e);
-			}
 		}
-		return props;
 	}
 
 }
@@ -0,0 +1,413 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.refactoring.nls;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.eclipse.core.runtime.CoreException;
+
+import org.eclipse.core.resources.IEncodedStorage;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IStorage;
+
+import org.eclipse.core.filebuffers.FileBuffers;
+import org.eclipse.core.filebuffers.ITextFileBuffer;
+import org.eclipse.core.filebuffers.ITextFileBufferManager;
+import org.eclipse.core.filebuffers.LocationKind;
+
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Region;
+
+import org.eclipse.jdt.core.IJarEntryResource;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+
+/**
+ * Cache of parsed properties files, shared by the NLS hover, hyperlink and
+ * search so that a large properties file is not read and parsed again for
+ * every lookup.
+ * <p>
+ * The contents are read from the text file buffer if one is connected,
+ * otherwise from the storage. A cached file is parsed again when the
+ * modification stamp of its document, file or archive changes. Storages
+ * without such a stamp are not cached.
+ * </p>
+ *
+ * @since 3.12
+ */
+public class PropertiesFileCache {
+
+	/**
+	 * The parsed contents of a properties file.
+	 */
+	public static final class PropertiesFile {
+
+		/** The properties of the file, never modified after parsing as the file is shared */
+		private final Properties fProperties;
+		private final Set<String> fKeys;
+		/** The key regions by key, for the last definition of each key */
+		private final Map<String, KeyRegion> fKeyRegions;
+		private final Set<String> fDuplicateKeys;
+
+		private PropertiesFile(Properties properties, Map<String, KeyRegion> keyRegions, Set<String> duplicateKeys) {
+			fProperties= properties;
+			fKeys= Collections.unmodifiableSet(properties.stringPropertyNames());
+			fKeyRegions= keyRegions;
+			fDuplicateKeys= duplicateKeys;
+		}
+
+		/**
+		 * Returns the value of the given key.
+		 *
+		 * @param key the unescaped key
+		 * @return the value, or <code>null</code> if the key is not defined
+		 */
+		public String getProperty(String key) {
+			return fProperties.getProperty(key);
+		}
+
+		/**
+		 * Returns the keys that are defined in the file.
+		 *
+		 * @return the unmodifiable set of keys
+		 */
+		public Set<String> getKeys() {
+			return fKeys;
+		}
+
+		/**
+		 * Returns a copy of the properties of the file, for callers that need
+		 * a {@link Properties} object.
+		 *
+		 * @return a new properties object that can be modified by the caller
+		 */
+		public Properties copyProperties() {
+			Properties properties= new Properties();
+			properties.putAll(fProperties);
+			return properties;
+		}
+
+		/**
+		 * Returns the region of the given key in the file. If the key is
+		 * defined more than once, the region of the definition whose value is
+		 * used is returned.
+		 *
+		 * @param key the unescaped key
+		 * @return the region of the key, or <code>null</code> if the key is not
+		 *         defined
+		 */
+		public IRegion getKeyRegion(String key) {
+			return fKeyRegions.get(key);
+		}
+
+		/**
+		 * Returns the given key as it is written in the file, with escape
+		 * sequences and line continuations.
+		 *
+		 * @param key the unescaped key
+		 * @return the text of the key region, or <code>null</code> if the key
+		 *         is not defined
+		 */
+		public String getKeyText(String key) {
+			KeyRegion region= fKeyRegions.get(key);
+			return region != null ? region.fText : null;
+		}
+
+		/**
+		 * Returns the keys that are defined more than once.
+		 *
+		 * @return the unmodifiable set of duplicate keys
+		 */
+		public Set<String> getDuplicateKeys() {
+			return fDuplicateKeys;
+		}
+	}
+
+	private static final class KeyRegion extends Region {
+
+		private final String fText;
+
+		public KeyRegion(int offset, String text) {
+			super(offset, text.length());
+			fText= text;
+		}
+	}
+
+	private static final class CacheEntry {
+
+		/** The document the file was read from, or <code>null</code> if it was read from the storage */
+		private final WeakReference<IDocument> fDocument;
+		private final long fStamp;
+		private final PropertiesFile fFile;
+
+		public CacheEntry(IDocument document, long stamp, PropertiesFile file) {
+			fDocument= document != null ? new WeakReference<>(document) : null;
+			fStamp= stamp;
+			fFile= file;
+		}
+
+		public boolean isValid(IDocument document, long stamp) {
+			if (fStamp != stamp)
+				return false;
+			if (fDocument == null)
+				return document == null;
+			return fDocument.get() == document;
+		}
+	}
+
+	private static final int CACHE_SIZE= 16;
+
+	private static final long UNKNOWN_STAMP= IResource.NULL_STAMP;
+
+	private static final String DEFAULT_CHARSET= "ISO-8859-1"; //$NON-NLS-1$
+
+	private static PropertiesFileCache fgInstance;
+
+	public static synchronized PropertiesFileCache getDefault() {
+		if (fgInstance == null)
+			fgInstance= new PropertiesFileCache();
+		return fgInstance;
+	}
+
+	private final Map<IStorage, CacheEntry> fEntries= new LinkedHashMap<IStorage, CacheEntry>(CACHE_SIZE, 0.75f, true) {
+		private static final long serialVersionUID= 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<IStorage, CacheEntry> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	private PropertiesFileCache() {
+	}
+
+	/**
+	 * Returns the parsed contents of the given properties file.
+	 *
+	 * @param storage the properties file
+	 * @return the parsed contents
+	 * @throws CoreException if the storage cannot be accessed
+	 * @throws IOException if the contents cannot be read
+	 * @throws IllegalArgumentException if the file contains a malformed
+	 *             Unicode escape sequence
+	 */
+	public PropertiesFile getPropertiesFile(IStorage storage) throws CoreException, IOException {
+		IDocument document= null;
+		ITextFileBufferManager manager= FileBuffers.getTextFileBufferManager();
+		if (manager != null) {
+			ITextFileBuffer buffer= manager.getTextFileBuffer(storage.getFullPath(), LocationKind.NORMALIZE);
+			if (buffer != null)
+				document= buffer.getDocument();
+		}
+
+		long stamp;
+		if (document != null)
+			stamp= document instanceof IDocumentExtension4 ? ((IDocumentExtension4) document).getModificationStamp() : UNKNOWN_STAMP;
+		else
+			stamp= getModificationStamp(storage);
+
+		if (stamp != UNKNOWN_STAMP) {
+			synchronized (this) {
+				CacheEntry entry= fEntries.get(storage);
+				if (entry != null && entry.isValid(document, stamp))
+					return entry.fFile;
+			}
+		}
+
+		PropertiesFile file= parse(document != null ? document.get() : readContents(storage));
+		if (stamp != UNKNOWN_STAMP) {
+			synchronized (this) {
+				fEntries.put(storage, new CacheEntry(document, stamp, file));
+			}
+		}
+		return file;
+	}
+
+	private static long getModificationStamp(IStorage storage) {
+		if (storage instanceof IFile)
+			return ((IFile) storage).getModificationStamp();
+		if (storage instanceof IJarEntryResource) {
+			IPackageFragmentRoot root= ((IJarEntryResource) storage).getPackageFragmentRoot();
+			if (root == null)
+				return UNKNOWN_STAMP;
+			IResource resource= root.getResource();
+			if (resource != null)
+				return resource.getModificationStamp();
+			File archive= root.getPath().toFile();
+			return archive.isFile() ? archive.lastModified() : UNKNOWN_STAMP;
+		}
+		return UNKNOWN_STAMP;
+	}
+
+	private static String readContents(IStorage storage) throws CoreException, IOException {
+		String charset= null;
+		if (storage instanceof IEncodedStorage)
+			charset= ((IEncodedStorage) storage).getCharset();
+		if (charset == null)
+			charset= DEFAULT_CHARSET;
+		try (InputStream stream= storage.getContents(); Reader reader= new InputStreamReader(stream, charset)) {
+			StringBuilder text= new StringBuilder();
+			char[] buffer= new char[8192];
+			int count;
+			while ((count= reader.read(buffer)) != -1)
+				text.append(buffer, 0, count);
+			return text.toString();
+		}
+	}
+
+	/**
+	 * Parses the given properties file contents. The values are loaded with
+	 * {@link Properties#load(Reader)}, the keys are scanned again to find their
+	 * regions, following the same syntax.
+	 *
+	 * @param text the contents
+	 * @return the parsed contents
+	 * @throws IOException if the contents cannot be read
+	 */
+	private static PropertiesFile parse(String text) throws IOException {
+		Properties properties= new Properties();
+		properties.load(new StringReader(text));
+
+		Map<String, KeyRegion> keyRegions= new HashMap<>(properties.size() * 4 / 3 + 1);
+		Set<String> duplicateKeys= new HashSet<>();
+		StringBuilder key= new StringBuilder();
+		int length= text.length();
+		int i= 0;
+		while (i < length) {
+			char c= text.charAt(i);
+			if (isWhitespace(c) || isLineTerminator(c)) {
+				i++;
+				continue;
+			}
+			if (c == '#' || c == '!') {
+				while (i < length && !isLineTerminator(text.charAt(i)))
+					i++;
+				continue;
+			}
+
+			int keyStart= i;
+			key.setLength(0);
+			while (i < length) {
+				c= text.charAt(i);
+				if (c == '=' || c == ':' || isWhitespace(c) || isLineTerminator(c))
+					break;
+				if (c != '\\') {
+					key.append(c);
+					i++;
+				} else if (i + 1 == length) {
+					i++;
+				} else if (isLineTerminator(text.charAt(i + 1))) {
+					i= skipContinuation(text, i + 1);
+				} else {
+					i= unescape(text, i + 1, key);
+				}
+			}
+			String keyText= text.substring(keyStart, i);
+			String keyString= keyText.contentEquals(key) ? keyText : key.toString();
+			if (keyRegions.put(keyString, new KeyRegion(keyStart, keyText)) != null)
+				duplicateKeys.add(keyString);
+
+			// skip the value
+			while (i < length) {
+				c= text.charAt(i);
+				if (isLineTerminator(c))
+					break;
+				if (c == '\\' && i + 1 < length && isLineTerminator(text.charAt(i + 1)))
+					i= skipContinuation(text, i + 1);
+				else
+					i+= c == '\\' ? 2 : 1;
+			}
+		}
+		return new PropertiesFile(properties, keyRegions, duplicateKeys.isEmpty() ? Collections.<String> emptySet() : Collections.unmodifiableSet(duplicateKeys));
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\f';
+	}
+
+	private static boolean isLineTerminator(char c) {
+		return c == '\r' || c == '\n';
+	}
+
+	/**
+	 * Skips the line terminator at the given position and the leading white
+	 * space of the continuation line.
+	 *
+	 * @param text the text
+	 * @param i the position of the line terminator
+	 * @return the position after the leading white space
+	 */
+	private static int skipContinuation(String text, int i) {
+		int length= text.length();
+		if (text.charAt(i) == '\r' && i + 1 < length && text.charAt(i + 1) == '\n')
+			i++;
+		i++;
+		while (i < length && isWhitespace(text.charAt(i)))
+			i++;
+		return i;
+	}
+
+	/**
+	 * Appends the escaped character at the given position.
+	 *
+	 * @param text the text
+	 * @param i the position after the backslash
+	 * @param result the buffer to append the character to
+	 * @return the position after the escape sequence
+	 */
+	private static int unescape(String text, int i, StringBuilder result) {
+		char c= text.charAt(i);
+		switch (c) {
+			case 't':
+				result.append('\t');
+				break;
+			case 'n':
+				result.append('\n');
+				break;
+			case 'r':
+				result.append('\r');
+				break;
+			case 'f':
+				result.append('\f');
+				break;
+			case 'u':
+				if (i + 5 <= text.length()) {
+					try {
+						result.append((char) Integer.parseInt(text.substring(i + 1, i + 5), 16));
+						return i + 5;
+					} catch (NumberFormatException e) {
+						// not reached, Properties#load rejects malformed escapes
+					}
+				}
+				result.append(c);
+				break;
+			default:
+				result.append(c);
+				break;
+		}
+		return i + 1;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,8 +14,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.ibm.icu.text.Collator;
 
@@ -39,6 +40,8 @@ import org.eclipse.jdt.internal.ui.viewsupport.BasicElementLabels;
 public class PropertyFileDocumentModel {
 
 	private List<KeyValuePairModell> fKeyValuePairs;
+	/** The first pair with each key, or <code>null</code> if not computed yet */
+	private Map<String, KeyValuePairModell> fKeyIndex;
     private String fLineDelimiter;
 
     public PropertyFileDocumentModel(IDocument document) {
@@ -60,13 +63,18 @@ public class PropertyFileDocumentModel {
 	 * @return the pair with the key or <b>null</b> if no such pair.
 	 */
     public KeyValuePair getKeyValuePair(String key) {
-    	for (int i= 0; i < fKeyValuePairs.size(); i++) {
-            KeyValuePairModell keyValuePair = fKeyValuePairs.get(i);
-            if (keyValuePair.getKey().equals(key)) {
-            	return keyValuePair;
-            }
+    	return findKeyValuePair(key);
+    }
+
+    private KeyValuePairModell findKeyValuePair(String key) {
+    	if (fKeyIndex == null) {
+    		fKeyIndex= new HashMap<>(fKeyValuePairs.size() * 4 / 3 + 1);
+    		for (int i= fKeyValuePairs.size() - 1; i >= 0; i--) {
+    			KeyValuePairModell keyValuePair= fKeyValuePairs.get(i);
+    			fKeyIndex.put(keyValuePair.fKey, keyValuePair);
+    		}
     	}
-    	return null;
+    	return fKeyIndex.get(key);
     }
 
     private InsertEdit insert(KeyValuePair keyValuePair) {
@@ -101,6 +109,7 @@ public class PropertyFileDocumentModel {
         keyValuePairModell.fOffset= offset;
         keyValuePairModell.fLength= text.length();
         fKeyValuePairs.add(index, keyValuePairModell);
+        fKeyIndex= null;
 		return new InsertEdit(offset, text);
     }
 
@@ -131,24 +140,18 @@ public class PropertyFileDocumentModel {
     }
 
     public DeleteEdit remove(String key) {
-    	for (Iterator<KeyValuePairModell> iter = fKeyValuePairs.iterator(); iter.hasNext();) {
-            KeyValuePairModell keyValuePair = iter.next();
-            if (keyValuePair.fKey.equals(key)) {
-            	return new DeleteEdit(keyValuePair.fOffset, keyValuePair.getLength());
-            }
-        }
-        return null;
+    	KeyValuePairModell keyValuePair= findKeyValuePair(key);
+    	if (keyValuePair == null)
+    		return null;
+    	return new DeleteEdit(keyValuePair.fOffset, keyValuePair.getLength());
     }
 
     public ReplaceEdit replace(KeyValuePair toReplace, KeyValuePair replaceWith) {
-        for (Iterator<KeyValuePairModell> iter = fKeyValuePairs.iterator(); iter.hasNext();) {
-            KeyValuePairModell keyValuePair = iter.next();
-            if (keyValuePair.fKey.equals(toReplace.getKey())) {
-                String newText= new KeyValuePairModell(replaceWith).getKeyValueText();
-                return new ReplaceEdit(keyValuePair.fOffset, keyValuePair.getLength(), newText);
-            }
-        }
-        return null;
+    	KeyValuePairModell keyValuePair= findKeyValuePair(toReplace.getKey());
+    	if (keyValuePair == null)
+    		return null;
+    	String newText= new KeyValuePairModell(replaceWith).getKeyValueText();
+    	return new ReplaceEdit(keyValuePair.fOffset, keyValuePair.getLength(), newText);
     }
 
     private int findInsertPosition(KeyValuePairModell keyValuePair) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -65,8 +65,30 @@ public class RefactoringScanner {
 		fQualifier= qualifier;
 	}
 
+	/**
+	 * @return the name to search for
+	 */
+	public String getName() {
+		return fName;
+	}
+
+	/**
+	 * @return the qualifier of the name
+	 */
+	public String getQualifier() {
+		return fQualifier;
+	}
+
 	public void scan(ICompilationUnit cu)	throws JavaModelException {
-		char[] chars= cu.getBuffer().getCharacters();
+		scan(cu.getBuffer().getCharacters());
+	}
+
+	/**
+	 * Scans the given contents of a compilation unit.
+	 *
+	 * @param chars the contents
+	 */
+	public void scan(char[] chars) {
 		fMatches= new HashSet<>();
 		fScanner= ToolFactory.createScanner(true, true, false, true);
 		fScanner.setSource(chars);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,18 +10,31 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.refactoring.rename;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
@@ -37,8 +50,10 @@ import org.eclipse.ltk.core.refactoring.GroupCategorySet;
 
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaModelStatusConstants;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
 import org.eclipse.jdt.core.search.SearchMatch;
 
@@ -58,12 +73,193 @@ class TextMatchUpdater {
 			RefactoringCoreMessages.TextMatchUpdater_textualMatches_name,
 			RefactoringCoreMessages.TextMatchUpdater_textualMatches_description));
 
+	/** The minimal number of compilation units to scan on several threads */
+	private static final int PARALLEL_SCAN_THRESHOLD= 64;
+
+	private static final int MAX_SCAN_THREADS= 8;
+
+	private static final char BYTE_ORDER_MARK= '\uFEFF';
+
+	/**
+	 * Reads the files of compilation units for scanning. If the name is encoded
+	 * like in US-ASCII, the raw bytes are searched for the name before they are
+	 * decoded, so that files without the name are neither decoded nor
+	 * tokenized. Files in other encodings, e.g. UTF-16, are always decoded.
+	 */
+	private static final class NameFilter {
+
+		private final String fName;
+		private final char[] fNameChars;
+		private final byte[] fAsciiName;
+		private final Map<String, byte[]> fEncodedNames= new HashMap<>();
+
+		NameFilter(String name) {
+			fName= name;
+			fNameChars= name.toCharArray();
+			fAsciiName= toAscii(name);
+		}
+
+		/**
+		 * Returns whether the given contents contain the name.
+		 *
+		 * @param contents the contents
+		 * @return <code>true</code> if the contents contain the name
+		 */
+		boolean containsName(char[] contents) {
+			return CharOperation.indexOf(fNameChars, contents, true) != -1;
+		}
+
+		/**
+		 * Reads the contents of the given file. Safe to call from several
+		 * threads, since it reads the file and not the buffer of the
+		 * compilation unit.
+		 *
+		 * @param file the file of a compilation unit that is not a working copy
+		 * @return the contents of the file, or <code>null</code> if the file
+		 *         does not contain the name
+		 * @throws JavaModelException if the file could not be read
+		 */
+		char[] readContents(IFile file) throws JavaModelException {
+			try {
+				byte[] bytes;
+				try (InputStream stream= file.getContents(true)) {
+					bytes= readAll(stream);
+				}
+				String charset= file.getCharset();
+				byte[] pattern= getEncodedName(charset);
+				if (pattern != null && !contains(bytes, pattern))
+					return null;
+				String contents= new String(bytes, charset);
+				// the buffer of a compilation unit does not contain the byte order mark
+				if (contents.length() > 0 && contents.charAt(0) == BYTE_ORDER_MARK)
+					contents= contents.substring(1);
+				return contents.toCharArray();
+			} catch (CoreException e) {
+				throw new JavaModelException(e);
+			} catch (IOException e) {
+				throw new JavaModelException(e, IJavaModelStatusConstants.IO_EXCEPTION);
+			}
+		}
+
+		/**
+		 * Returns the bytes to search for in files with the given charset.
+		 *
+		 * @param charset the charset of a file
+		 * @return the encoded name, or <code>null</code> if the charset does not
+		 *         encode the name like US-ASCII and the file must be decoded
+		 */
+		private byte[] getEncodedName(String charset) {
+			if (fAsciiName == null)
+				return null;
+			synchronized (fEncodedNames) {
+				if (fEncodedNames.containsKey(charset))
+					return fEncodedNames.get(charset);
+				byte[] encoded;
+				try {
+					encoded= fName.getBytes(charset);
+					// e.g. UTF-16 and UTF-32 write a byte order mark and several bytes per character
+					if (!Arrays.equals(encoded, fAsciiName))
+						encoded= null;
+				} catch (UnsupportedEncodingException e) {
+					encoded= null;
+				}
+				fEncodedNames.put(charset, encoded);
+				return encoded;
+			}
+		}
+
+		private static byte[] toAscii(String name) {
+			if (name.length() == 0)
+				return null;
+			byte[] result= new byte[name.length()];
+			for (int i= 0; i < result.length; i++) {
+				char ch= name.charAt(i);
+				if (ch >= 0x80)
+					return null;
+				result[i]= (byte) ch;
+			}
+			return result;
+		}
+
+		private static byte[] readAll(InputStream stream) throws IOException {
+			ByteArrayOutputStream result= new ByteArrayOutputStream();
+			byte[] buffer= new byte[8192];
+			int read;
+			while ((read= stream.read(buffer)) != -1)
+				result.write(buffer, 0, read);
+			return result.toByteArray();
+		}
+
+		private static boolean contains(byte[] bytes, byte[] pattern) {
+			int last= bytes.length - pattern.length;
+			outer: for (int i= 0; i <= last; i++) {
+				for (int j= 0; j < pattern.length; j++) {
+					if (bytes[i + j] != pattern[j])
+						continue outer;
+				}
+				return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Scans the next unscanned compilation unit until all units have been
+	 * scanned. Each job owns a {@link RefactoringScanner}.
+	 */
+	private final class ScanJob extends Job {
+
+		private final List<ICompilationUnit> fUnits;
+		private final char[][] fBufferContents;
+		private final Set<TextMatch>[] fResult;
+		private final AtomicInteger fNext;
+		private final AtomicInteger fDone;
+		private final CountDownLatch fLatch;
+		private volatile Exception fException;
+
+		ScanJob(List<ICompilationUnit> units, char[][] bufferContents, Set<TextMatch>[] result, AtomicInteger next, AtomicInteger done, CountDownLatch latch) {
+			super(RefactoringCoreMessages.TextMatchUpdater_scanning);
+			fUnits= units;
+			fBufferContents= bufferContents;
+			fResult= result;
+			fNext= next;
+			fDone= done;
+			fLatch= latch;
+			setSystem(true);
+		}
+
+		/**
+		 * @return the exception that stopped the job, or <code>null</code>
+		 */
+		Exception getException() {
+			return fException;
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			try {
+				RefactoringScanner scanner= new RefactoringScanner(fScanner.getName(), fScanner.getQualifier());
+				int i;
+				while (!monitor.isCanceled() && (i= fNext.getAndIncrement()) < fResult.length) {
+					fResult[i]= scan(scanner, fUnits.get(i), fBufferContents[i]);
+					fDone.incrementAndGet();
+				}
+			} catch (JavaModelException | RuntimeException e) {
+				fException= e;
+			} finally {
+				fLatch.countDown();
+			}
+			return Status.OK_STATUS;
+		}
+	}
+
 	private final IJavaSearchScope fScope;
 	private final TextChangeManager fManager;
 	private final SearchResultGroup[] fReferences;
 	private final boolean fOnlyQualified;
 
 	private final RefactoringScanner fScanner;
+	private final NameFilter fNameFilter;
 	private final String fNewName;
 	private final int fCurrentNameLength;
 
@@ -79,6 +275,7 @@ class TextMatchUpdater {
 		fNewName= newName;
 		fCurrentNameLength= currentName.length();
 		fScanner= new RefactoringScanner(currentName, currentQualifier);
+		fNameFilter= new NameFilter(currentName);
 	}
 
 	static void perform(IProgressMonitor pm, IJavaSearchScope scope, String currentName, String currentQualifier, String newName, TextChangeManager manager, SearchResultGroup[] references, boolean onlyQualified) throws JavaModelException{
@@ -93,12 +290,27 @@ class TextMatchUpdater {
 		try{
 			IProject[] projectsInScope= getProjectsInScope();
 
-			pm.beginTask("", projectsInScope.length); //$NON-NLS-1$
+			pm.beginTask("", 2 * projectsInScope.length); //$NON-NLS-1$
 
+			List<ICompilationUnit> units= new ArrayList<>();
 			for (int i =0 ; i < projectsInScope.length; i++){
 				if (pm.isCanceled())
 					throw new OperationCanceledException();
-				addTextMatches(projectsInScope[i], new SubProgressMonitor(pm, 1));
+				collectCompilationUnits(projectsInScope[i], units, new SubProgressMonitor(pm, 1));
+			}
+
+			char[][] bufferContents= readBufferContents(units);
+			IProgressMonitor scanMonitor= new SubProgressMonitor(pm, projectsInScope.length);
+			Set<TextMatch>[] matches;
+			int threads= Math.min(Runtime.getRuntime().availableProcessors(), MAX_SCAN_THREADS);
+			if (threads > 1 && units.size() >= PARALLEL_SCAN_THRESHOLD)
+				matches= scanParallel(units, bufferContents, threads, scanMonitor);
+			else
+				matches= scanSequential(units, bufferContents, scanMonitor);
+
+			for (int i= 0; i < units.size(); i++) {
+				if (matches[i] != null)
+					addCuTextMatches(units.get(i), matches[i]);
 			}
 		} finally{
 			pm.done();
@@ -120,7 +332,7 @@ class TextMatchUpdater {
 		return projectsInScope.toArray(new IProject[projectsInScope.size()]);
 	}
 
-	private void addTextMatches(IResource resource, IProgressMonitor pm) throws JavaModelException{
+	private void collectCompilationUnits(IResource resource, List<ICompilationUnit> units, IProgressMonitor pm) throws JavaModelException{
 		try{
 			String task= RefactoringCoreMessages.TextMatchUpdater_searching + resource.getFullPath();
 			if (resource instanceof IFile){
@@ -132,7 +344,7 @@ class TextMatchUpdater {
 					return;
 				if (! fScope.encloses(element))
 					return;
-				addCuTextMatches((ICompilationUnit) element);
+				units.add((ICompilationUnit) element);
 
 			} else if (resource instanceof IContainer){
 				IResource[] members= ((IContainer) resource).members();
@@ -142,7 +354,7 @@ class TextMatchUpdater {
 					if (pm.isCanceled())
 						throw new OperationCanceledException();
 
-					addTextMatches(members[i], new SubProgressMonitor(pm, 1));
+					collectCompilationUnits(members[i], units, new SubProgressMonitor(pm, 1));
 				}
 			}
 		} catch (JavaModelException e){
@@ -154,12 +366,121 @@ class TextMatchUpdater {
 		}
 	}
 
-	private void addCuTextMatches(ICompilationUnit cu) throws JavaModelException{
-		fScanner.scan(cu);
-		Set<TextMatch> matches= fScanner.getMatches(); //Set of TextMatch
+	/**
+	 * Reads the buffers of the compilation units that cannot be read from their
+	 * files, i.e. working copies. Buffers are only accessed from the calling
+	 * thread.
+	 *
+	 * @param units the compilation units
+	 * @return the buffer contents per compilation unit, or <code>null</code>
+	 *         for units that are read from their files
+	 * @throws JavaModelException if a buffer could not be read
+	 */
+	private char[][] readBufferContents(List<ICompilationUnit> units) throws JavaModelException {
+		char[][] result= new char[units.size()][];
+		for (int i= 0; i < result.length; i++) {
+			ICompilationUnit cu= units.get(i);
+			if (cu.isWorkingCopy() || !(cu.getResource() instanceof IFile))
+				result[i]= cu.getBuffer().getCharacters();
+		}
+		return result;
+	}
+
+	private Set<TextMatch>[] scanSequential(List<ICompilationUnit> units, char[][] bufferContents, IProgressMonitor pm) throws JavaModelException {
+		@SuppressWarnings("unchecked")
+		Set<TextMatch>[] result= new Set[units.size()];
+		try {
+			pm.beginTask("", units.size()); //$NON-NLS-1$
+			for (int i= 0; i < result.length; i++) {
+				if (pm.isCanceled())
+					throw new OperationCanceledException();
+				result[i]= scan(fScanner, units.get(i), bufferContents[i]);
+				pm.worked(1);
+			}
+		} finally {
+			pm.done();
+		}
+		return result;
+	}
+
+	/**
+	 * Scans the given compilation units in several {@link ScanJob}s.
+	 *
+	 * @param units the compilation units to scan
+	 * @param bufferContents the contents of the units that are not read from
+	 *            their files, see {@link #readBufferContents(List)}
+	 * @param threads the number of jobs
+	 * @param pm the progress monitor
+	 * @return the matches per compilation unit, or <code>null</code> for units without matches
+	 * @throws JavaModelException if a compilation unit could not be read
+	 */
+	private Set<TextMatch>[] scanParallel(List<ICompilationUnit> units, char[][] bufferContents, int threads, IProgressMonitor pm) throws JavaModelException {
+		@SuppressWarnings("unchecked")
+		Set<TextMatch>[] result= new Set[units.size()];
+		AtomicInteger next= new AtomicInteger();
+		AtomicInteger done= new AtomicInteger();
+		CountDownLatch latch= new CountDownLatch(threads);
+		List<ScanJob> jobs= new ArrayList<>(threads);
+		for (int t= 0; t < threads; t++)
+			jobs.add(new ScanJob(units, bufferContents, result, next, done, latch));
+		boolean finished= false;
+		try {
+			pm.beginTask("", units.size()); //$NON-NLS-1$
+			for (Iterator<ScanJob> iter= jobs.iterator(); iter.hasNext();)
+				iter.next().schedule();
+			int reported= 0;
+			while (!finished) {
+				if (pm.isCanceled())
+					throw new OperationCanceledException();
+				finished= latch.await(100, TimeUnit.MILLISECONDS);
+				int current= done.get();
+				pm.worked(current - reported);
+				reported= current;
+				for (Iterator<ScanJob> iter= jobs.iterator(); iter.hasNext();) {
+					Exception exception= iter.next().getException();
+					if (exception instanceof JavaModelException)
+						throw (JavaModelException) exception;
+					if (exception != null)
+						throw (RuntimeException) exception;
+				}
+			}
+		} catch (InterruptedException e) {
+			throw new OperationCanceledException();
+		} finally {
+			if (!finished) {
+				for (Iterator<ScanJob> iter= jobs.iterator(); iter.hasNext();)
+					iter.next().cancel();
+			}
+			pm.done();
+		}
+		return result;
+	}
+
+	/**
+	 * Scans the given compilation unit for textual matches. Files that do not
+	 * contain the current name are skipped without tokenizing them.
+	 *
+	 * @param scanner the scanner to use
+	 * @param cu the compilation unit to scan
+	 * @param bufferContents the contents of the buffer, or <code>null</code> to
+	 *            read the file of the compilation unit
+	 * @return the matches, or <code>null</code> if there are no matches
+	 * @throws JavaModelException if the compilation unit could not be read
+	 */
+	private Set<TextMatch> scan(RefactoringScanner scanner, ICompilationUnit cu, char[] bufferContents) throws JavaModelException {
+		char[] contents= bufferContents;
+		if (contents == null)
+			contents= fNameFilter.readContents((IFile) cu.getResource());
+		if (contents == null || !fNameFilter.containsName(contents))
+			return null;
+		scanner.scan(contents);
+		Set<TextMatch> matches= scanner.getMatches();
 		if (matches.size() == 0)
-			return;
+			return null;
+		return matches;
+	}
 
+	private void addCuTextMatches(ICompilationUnit cu, Set<TextMatch> matches) {
 		removeReferences(cu, matches);
 		if (matches.size() != 0)
 			addTextUpdates(cu, matches);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,6 +21,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.SubProgressMonitor;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -45,6 +46,7 @@ import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.internal.corext.refactoring.RefactoringCoreMessages;
 import org.eclipse.jdt.internal.corext.refactoring.changes.TextChangeCompatibility;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.util.PatternConstructor;
 
 public class QualifiedNameFinder {
@@ -141,17 +143,35 @@ public class QualifiedNameFinder {
 		TextSearchEngine engine= TextSearchEngine.create();
 		Pattern searchPattern= PatternConstructor.createPattern(pattern, true, false);
 
-		engine.search(createScope(filePatterns, root), collector, searchPattern, monitor);
+		IResource[] roots= getRoots(root);
+		Pattern filePattern= getFilePattern(filePatterns);
+		if (pattern.indexOf('.') != -1 && QualifiedNameIndex.isEnabled()) {
+			// only verify the files that the index reports as candidates
+			monitor.beginTask("", 2); //$NON-NLS-1$
+			try {
+				IResource[] candidates;
+				try {
+					candidates= QualifiedNameIndex.getDefault().findCandidates(pattern, roots, filePattern, new SubProgressMonitor(monitor, 1));
+				} catch (CoreException e) {
+					JavaPlugin.log(e);
+					candidates= roots;
+				}
+				if (candidates.length > 0)
+					engine.search(TextSearchScope.newSearchScope(candidates, filePattern, false), collector, searchPattern, new SubProgressMonitor(monitor, 1));
+			} finally {
+				monitor.done();
+			}
+			return;
+		}
+
+		engine.search(TextSearchScope.newSearchScope(roots, filePattern, false), collector, searchPattern, monitor);
 	}
 
-	private static TextSearchScope createScope(String filePatterns, IProject root) {
+	private static IResource[] getRoots(IProject root) {
 		HashSet<IProject> res= new HashSet<>();
 		res.add(root);
 		addReferencingProjects(root, res);
-		IResource[] resArr= res.toArray(new IResource[res.size()]);
-		Pattern filePattern= getFilePattern(filePatterns);
-
-		return TextSearchScope.newSearchScope(resArr, filePattern, false);
+		return res.toArray(new IResource[res.size()]);
 	}
 
 	private static Pattern getFilePattern(String filePatterns) {
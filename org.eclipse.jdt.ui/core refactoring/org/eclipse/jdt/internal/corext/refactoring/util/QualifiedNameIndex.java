@@ -0,0 +1,341 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.refactoring.util;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.IResourceProxyVisitor;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.core.filebuffers.FileBuffers;
+import org.eclipse.core.filebuffers.ITextFileBuffer;
+import org.eclipse.core.filebuffers.LocationKind;
+
+import org.eclipse.jdt.internal.corext.refactoring.RefactoringCoreMessages;
+import org.eclipse.jdt.internal.corext.util.PersistentFileIndex;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
+/**
+ * Persistent index of the dotted names (like <code>org.eclipse.Foo</code>) contained in
+ * non-Java files. It is used by {@link QualifiedNameFinder} to restrict the text search to
+ * the files that may contain a qualified name.
+ * <p>
+ * Files are re-tokenized when they differ from the indexed {@link PersistentFileIndex.FileState}.
+ * Resource deltas remove deleted files, changed files that were indexed are re-tokenized in a
+ * background job. Files are read and tokenized without holding the lock of the index.
+ * </p>
+ */
+public class QualifiedNameIndex extends PersistentFileIndex<QualifiedNameIndex.FileEntry> {
+
+	/** Preference key to enable the index */
+	public static final String PREF_USE_QUALIFIED_NAME_INDEX= "org.eclipse.jdt.ui.refactoring.qualifiedNameIndex"; //$NON-NLS-1$
+
+	private static final String FILE_NAME= "QualifiedNameIndex.dat"; //$NON-NLS-1$
+
+	private static final int FORMAT_VERSION= 2;
+
+	private static QualifiedNameIndex fgInstance;
+
+	static class FileEntry {
+
+		private final FileState fState;
+		private final String[] fNames;
+
+		public FileEntry(FileState state, String[] names) {
+			fState= state;
+			fNames= names;
+		}
+	}
+
+	public static boolean isEnabled() {
+		return JavaPlugin.getDefault().getPreferenceStore().getBoolean(PREF_USE_QUALIFIED_NAME_INDEX);
+	}
+
+	public static synchronized QualifiedNameIndex getDefault() {
+		if (fgInstance == null) {
+			fgInstance= new QualifiedNameIndex();
+			fgInstance.open();
+		}
+		return fgInstance;
+	}
+
+	public static synchronized void shutdown() {
+		if (fgInstance != null) {
+			fgInstance.close();
+			fgInstance= null;
+		}
+	}
+
+	/** Dotted names to the files containing them, sorted for prefix lookup, guarded by <code>this</code> */
+	private final TreeMap<String, Set<IPath>> fNames= new TreeMap<>();
+
+	/** The changed files to tokenize in the background, guarded by itself */
+	private final Set<IFile> fChangedFiles= new LinkedHashSet<>();
+
+	private final Job fUpdateJob;
+
+	private QualifiedNameIndex() {
+		super(FILE_NAME, FORMAT_VERSION);
+		fUpdateJob= new Job(RefactoringCoreMessages.QualifiedNameIndex_update_job) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				while (!monitor.isCanceled()) {
+					IFile file;
+					synchronized (fChangedFiles) {
+						if (fChangedFiles.isEmpty())
+							return Status.OK_STATUS;
+						Iterator<IFile> iter= fChangedFiles.iterator();
+						file= iter.next();
+						iter.remove();
+					}
+					if (file.exists())
+						index(file);
+				}
+				return Status.CANCEL_STATUS;
+			}
+		};
+		fUpdateJob.setSystem(true);
+		fUpdateJob.setPriority(Job.DECORATE);
+	}
+
+	@Override
+	protected void close() {
+		fUpdateJob.cancel();
+		super.close();
+	}
+
+	/**
+	 * Returns the files below the given roots whose names match the file pattern and which may
+	 * contain the qualified name. Files open in a dirty editor are always returned.
+	 *
+	 * @param qualifiedName the qualified name, must contain a '.'
+	 * @param roots the resources to search
+	 * @param filePattern the pattern for file names
+	 * @param monitor the progress monitor
+	 * @return the candidate files
+	 * @throws CoreException if the resources could not be visited
+	 */
+	public IFile[] findCandidates(String qualifiedName, IResource[] roots, Pattern filePattern, IProgressMonitor monitor) throws CoreException {
+		monitor.beginTask("", roots.length + 1); //$NON-NLS-1$
+		try {
+			Set<IFile> candidates= new HashSet<>();
+			for (int i= 0; i < roots.length; i++) {
+				if (monitor.isCanceled())
+					throw new OperationCanceledException();
+				update(roots[i], filePattern, candidates);
+				monitor.worked(1);
+			}
+
+			Set<IPath> paths= new HashSet<>();
+			synchronized (this) {
+				SortedMap<String, Set<IPath>> tail= fNames.tailMap(qualifiedName);
+				for (Iterator<Map.Entry<String, Set<IPath>>> iter= tail.entrySet().iterator(); iter.hasNext();) {
+					Map.Entry<String, Set<IPath>> entry= iter.next();
+					String name= entry.getKey();
+					if (!name.startsWith(qualifiedName))
+						break;
+					if (name.length() == qualifiedName.length() || name.charAt(qualifiedName.length()) == '.')
+						paths.addAll(entry.getValue());
+				}
+			}
+			IWorkspaceRoot root= ResourcesPlugin.getWorkspace().getRoot();
+			for (Iterator<IPath> iter= paths.iterator(); iter.hasNext();) {
+				IPath path= iter.next();
+				IFile file= root.getFile(path);
+				if (isInScope(file, roots) && filePattern.matcher(file.getName()).matches())
+					candidates.add(file);
+			}
+			monitor.worked(1);
+			return candidates.toArray(new IFile[candidates.size()]);
+		} finally {
+			monitor.done();
+		}
+	}
+
+	@Override
+	protected boolean isIndexed(IResource file) {
+		return true;
+	}
+
+	@Override
+	protected void fileChanged(IFile file) {
+		synchronized (fChangedFiles) {
+			fChangedFiles.add(file);
+		}
+		fUpdateJob.schedule();
+	}
+
+	private static boolean isInScope(IFile file, IResource[] roots) {
+		IPath path= file.getFullPath();
+		for (int i= 0; i < roots.length; i++) {
+			if (roots[i].getFullPath().isPrefixOf(path))
+				return true;
+		}
+		return false;
+	}
+
+	private void update(IResource root, final Pattern filePattern, final Set<IFile> dirtyFiles) throws CoreException {
+		final List<IFile> changed= new ArrayList<>();
+		root.accept(new IResourceProxyVisitor() {
+			@Override
+			public boolean visit(IResourceProxy proxy) throws CoreException {
+				if (proxy.getType() != IResource.FILE)
+					return true;
+				if (proxy.isDerived() || !filePattern.matcher(proxy.getName()).matches())
+					return false;
+				IPath path= proxy.requestFullPath();
+				ITextFileBuffer buffer= FileBuffers.getTextFileBufferManager().getTextFileBuffer(path, LocationKind.IFILE);
+				if (buffer != null && buffer.isDirty()) {
+					dirtyFiles.add((IFile) proxy.requestResource());
+					return false;
+				}
+				FileEntry entry= get(path);
+				IFile file= (IFile) proxy.requestResource();
+				if (entry == null || !entry.fState.matches(file))
+					changed.add(file);
+				return false;
+			}
+		}, IResource.NONE);
+
+		for (Iterator<IFile> iter= changed.iterator(); iter.hasNext();)
+			index(iter.next());
+	}
+
+	/**
+	 * Tokenizes the given file and sets its entry. The state of the file is
+	 * taken before it is read, so that a concurrent change is detected later.
+	 *
+	 * @param file the file
+	 */
+	private void index(IFile file) {
+		FileState state= FileState.create(file);
+		if (state == null)
+			return;
+		String[] names;
+		try {
+			names= tokenize(file);
+		} catch (IOException e) {
+			// unreadable files cannot contain matches
+			names= new String[0];
+		} catch (CoreException e) {
+			names= new String[0];
+		}
+		put(file.getFullPath(), new FileEntry(state, names));
+	}
+
+	/**
+	 * Collects the maximal runs of Java identifier characters and dots that
+	 * start with an identifier and contain at least one dot.
+	 *
+	 * @param file the file to tokenize
+	 * @return the dotted names in the file
+	 * @throws CoreException if the file could not be accessed
+	 * @throws IOException if the file could not be read
+	 */
+	private static String[] tokenize(IFile file) throws CoreException, IOException {
+		Set<String> names= new HashSet<>();
+		try (Reader reader= new BufferedReader(new InputStreamReader(file.getContents(true), file.getCharset()))) {
+			StringBuffer name= new StringBuffer();
+			boolean dotted= false;
+			boolean skip= false;
+			int ch;
+			do {
+				ch= reader.read();
+				if (ch != -1 && (ch == '.' || Character.isJavaIdentifierPart(ch))) {
+					if (name.length() == 0 && !skip && !Character.isJavaIdentifierStart(ch))
+						skip= true;
+					if (!skip) {
+						name.append((char) ch);
+						dotted|= ch == '.';
+					}
+				} else {
+					if (dotted)
+						names.add(name.toString());
+					name.setLength(0);
+					dotted= false;
+					skip= false;
+				}
+			} while (ch != -1);
+		}
+		return names.toArray(new String[names.size()]);
+	}
+
+	@Override
+	protected void entryAdded(IPath path, FileEntry entry) {
+		for (int i= 0; i < entry.fNames.length; i++) {
+			Set<IPath> paths= fNames.get(entry.fNames[i]);
+			if (paths == null) {
+				paths= new HashSet<>(2);
+				fNames.put(entry.fNames[i], paths);
+			}
+			paths.add(path);
+		}
+	}
+
+	@Override
+	protected void entryRemoved(IPath path, FileEntry entry) {
+		for (int i= 0; i < entry.fNames.length; i++) {
+			Set<IPath> paths= fNames.get(entry.fNames[i]);
+			if (paths != null) {
+				paths.remove(path);
+				if (paths.isEmpty())
+					fNames.remove(entry.fNames[i]);
+			}
+		}
+	}
+
+	@Override
+	protected FileEntry readEntry(DataInputStream in) throws IOException {
+		FileState state= FileState.read(in);
+		String[] names= new String[in.readInt()];
+		for (int k= 0; k < names.length; k++) {
+			names[k]= in.readUTF();
+		}
+		return new FileEntry(state, names);
+	}
+
+	@Override
+	protected void writeEntry(DataOutputStream out, FileEntry entry) throws IOException {
+		entry.fState.write(out);
+		out.writeInt(entry.fNames.length);
+		for (int i= 0; i < entry.fNames.length; i++) {
+			out.writeUTF(entry.fNames[i]);
+		}
+	}
+}
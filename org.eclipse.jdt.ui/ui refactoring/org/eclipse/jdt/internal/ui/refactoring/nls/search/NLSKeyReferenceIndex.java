@@ -0,0 +1,253 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.refactoring.nls.search;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.internal.corext.util.PersistentFileIndex;
+
+/**
+ * Persistent index of the NLS key references found by the
+ * {@link NLSSearchResultRequestor}. For every reference to an accessor class
+ * in a compilation unit, it stores the key that is accessed, so that searching
+ * for broken externalized strings again does not scan and resolve the
+ * unchanged compilation units.
+ * <p>
+ * The references of a compilation unit are dropped when the file differs from
+ * the indexed {@link PersistentFileIndex.FileState}. As a key may be resolved
+ * against the accessor class, a reference is also dropped when the file of the
+ * accessor class changed since the reference was indexed. Resource deltas
+ * remove deleted and changed compilation units. The references of a changed
+ * compilation unit are only found again by the next search, since they are
+ * reported by the Java search engine.
+ * </p>
+ *
+ * @since 3.12
+ */
+public class NLSKeyReferenceIndex extends PersistentFileIndex<NLSKeyReferenceIndex.ReferencesEntry> {
+
+	/**
+	 * A reference to an accessor class and the key it accesses.
+	 */
+	public static final class KeyReference {
+
+		/** The reference does not access a key, e.g. an import or the accessor itself */
+		public static final int NONE= 0;
+		/** The reference accesses a key that cannot be determined */
+		public static final int UNKNOWN_KEY= 1;
+		/** The reference accesses the key {@link #getKey()} */
+		public static final int KEY= 2;
+
+		private final int fOffset;
+		private final int fLength;
+		private final int fKind;
+		private final String fKey;
+		private final int fKeyOffset;
+		private final int fKeyLength;
+
+		public KeyReference(int offset, int length, int kind, String key, int keyOffset, int keyLength) {
+			fOffset= offset;
+			fLength= length;
+			fKind= kind;
+			fKey= key;
+			fKeyOffset= keyOffset;
+			fKeyLength= keyLength;
+		}
+
+		public int getKind() {
+			return fKind;
+		}
+
+		/**
+		 * @return the key, or <code>null</code> if the kind is not {@link #KEY}
+		 */
+		public String getKey() {
+			return fKey;
+		}
+
+		public int getKeyOffset() {
+			return fKeyOffset;
+		}
+
+		public int getKeyLength() {
+			return fKeyLength;
+		}
+	}
+
+	/**
+	 * The references of a compilation unit.
+	 */
+	static class ReferencesEntry {
+
+		private final FileState fState;
+		/** The references by the offset of the accessor class reference */
+		private final Map<Integer, AccessorReference> fReferences= new HashMap<>();
+
+		public ReferencesEntry(FileState state) {
+			fState= state;
+		}
+	}
+
+	/**
+	 * A reference together with the state of the accessor class it was
+	 * computed with.
+	 */
+	private static class AccessorReference {
+
+		private final KeyReference fReference;
+		private final IPath fAccessorPath;
+		private final FileState fAccessorState;
+
+		public AccessorReference(KeyReference reference, IPath accessorPath, FileState accessorState) {
+			fReference= reference;
+			fAccessorPath= accessorPath;
+			fAccessorState= accessorState;
+		}
+	}
+
+	private static final String FILE_NAME= "NLSKeyReferenceIndex.dat"; //$NON-NLS-1$
+
+	private static final int FORMAT_VERSION= 3;
+
+	private static NLSKeyReferenceIndex fgInstance;
+
+	public static synchronized NLSKeyReferenceIndex getDefault() {
+		if (fgInstance == null) {
+			fgInstance= new NLSKeyReferenceIndex();
+			fgInstance.open();
+		}
+		return fgInstance;
+	}
+
+	public static synchronized void shutdown() {
+		if (fgInstance != null) {
+			fgInstance.close();
+			fgInstance= null;
+		}
+	}
+
+	private NLSKeyReferenceIndex() {
+		super(FILE_NAME, FORMAT_VERSION);
+	}
+
+	/**
+	 * Returns the indexed reference at the given position.
+	 *
+	 * @param file the compilation unit file
+	 * @param offset the offset of the reference to the accessor class
+	 * @param length the length of the reference to the accessor class
+	 * @param accessorFile the file that contains the accessor class
+	 * @return the reference, or <code>null</code> if it is not indexed or the
+	 *         file or the accessor file have changed since it was indexed
+	 */
+	public KeyReference getReference(IFile file, int offset, int length, IFile accessorFile) {
+		IPath path= file.getFullPath();
+		ReferencesEntry entry= get(path);
+		if (entry == null)
+			return null;
+		if (!entry.fState.matches(file)) {
+			remove(path);
+			return null;
+		}
+		AccessorReference reference;
+		synchronized (this) {
+			reference= entry.fReferences.get(Integer.valueOf(offset));
+		}
+		if (reference == null || reference.fReference.fLength != length)
+			return null;
+		if (!reference.fAccessorPath.equals(accessorFile.getFullPath()) || !reference.fAccessorState.matches(accessorFile))
+			return null;
+		return reference.fReference;
+	}
+
+	/**
+	 * Adds a reference to the index.
+	 *
+	 * @param file the compilation unit file
+	 * @param state the state of the file that was read to find the reference,
+	 *            see {@link PersistentFileIndex.FileState#create(IFile)}
+	 * @param accessorFile the file that contains the accessor class
+	 * @param accessorState the state of the accessor file when the reference
+	 *            was found
+	 * @param reference the reference
+	 */
+	public synchronized void addReference(IFile file, FileState state, IFile accessorFile, FileState accessorState, KeyReference reference) {
+		if (state == null || accessorState == null)
+			return;
+		IPath path= file.getFullPath();
+		ReferencesEntry entry= get(path);
+		if (entry == null || !entry.fState.equals(state)) {
+			entry= new ReferencesEntry(state);
+			put(path, entry);
+		}
+		entry.fReferences.put(Integer.valueOf(reference.fOffset), new AccessorReference(reference, accessorFile.getFullPath(), accessorState));
+		setDirty();
+	}
+
+	@Override
+	protected boolean isIndexed(IResource file) {
+		return JavaCore.isJavaLikeFileName(file.getName());
+	}
+
+	@Override
+	protected ReferencesEntry readEntry(DataInputStream in) throws IOException {
+		ReferencesEntry entry= new ReferencesEntry(FileState.read(in));
+		int references= in.readInt();
+		for (int j= 0; j < references; j++) {
+			int offset= in.readInt();
+			int length= in.readInt();
+			int kind= in.readByte();
+			String key= kind == KeyReference.KEY ? in.readUTF() : null;
+			int keyOffset= in.readInt();
+			int keyLength= in.readInt();
+			IPath accessorPath= new Path(in.readUTF());
+			FileState accessorState= FileState.read(in);
+			KeyReference reference= new KeyReference(offset, length, kind, key, keyOffset, keyLength);
+			entry.fReferences.put(Integer.valueOf(offset), new AccessorReference(reference, accessorPath, accessorState));
+		}
+		return entry;
+	}
+
+	@Override
+	protected void writeEntry(DataOutputStream out, ReferencesEntry entry) throws IOException {
+		// references are added to existing entries with the lock held
+		synchronized (this) {
+			entry.fState.write(out);
+			out.writeInt(entry.fReferences.size());
+			for (Iterator<AccessorReference> iter= entry.fReferences.values().iterator(); iter.hasNext();) {
+				AccessorReference accessorReference= iter.next();
+				KeyReference reference= accessorReference.fReference;
+				out.writeInt(reference.fOffset);
+				out.writeInt(reference.fLength);
+				out.writeByte(reference.fKind);
+				if (reference.fKind == KeyReference.KEY)
+					out.writeUTF(reference.fKey);
+				out.writeInt(reference.fKeyOffset);
+				out.writeInt(reference.fKeyLength);
+				out.writeUTF(accessorReference.fAccessorPath.toString());
+				accessorReference.fAccessorState.write(out);
+			}
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -85,7 +85,7 @@ public class NLSSearchQuery implements ISearchQuery {
 				SearchPattern pattern= SearchPattern.createPattern(wrapperClass, IJavaSearchConstants.REFERENCES, SearchUtils.GENERICS_AGNOSTIC_MATCH_RULE);
 				SearchParticipant[] participants= new SearchParticipant[] {SearchEngine.getDefaultSearchParticipant()};
 
-				NLSSearchResultRequestor requestor= new NLSSearchResultRequestor(propertieFile, fResult);
+				NLSSearchResultRequestor requestor= new NLSSearchResultRequestor(wrapperClass, propertieFile, fResult);
 				try {
 					SearchEngine engine= new SearchEngine();
 					engine.search(pattern, participants, fScope, requestor, new SubProgressMonitor(monitor, 4));
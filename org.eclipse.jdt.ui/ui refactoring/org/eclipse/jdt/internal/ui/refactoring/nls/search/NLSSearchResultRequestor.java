@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,11 +10,8 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.refactoring.nls.search;
 
-import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.Enumeration;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
@@ -25,11 +22,7 @@ import org.eclipse.core.runtime.IStatus;
 
 import org.eclipse.core.resources.IFile;
 
-import org.eclipse.core.filebuffers.FileBuffers;
-import org.eclipse.core.filebuffers.ITextFileBuffer;
-import org.eclipse.core.filebuffers.ITextFileBufferManager;
-import org.eclipse.core.filebuffers.LocationKind;
-
+import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.Position;
 
 import org.eclipse.search.ui.text.Match;
@@ -41,6 +34,7 @@ import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.ISourceReference;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.Signature;
 import org.eclipse.jdt.core.ToolFactory;
 import org.eclipse.jdt.core.compiler.IScanner;
@@ -49,11 +43,13 @@ import org.eclipse.jdt.core.compiler.InvalidInputException;
 import org.eclipse.jdt.core.search.SearchMatch;
 import org.eclipse.jdt.core.search.SearchRequestor;
 
-import org.eclipse.jdt.internal.corext.refactoring.nls.PropertyFileDocumentModel;
+import org.eclipse.jdt.internal.corext.refactoring.nls.PropertiesFileCache;
+import org.eclipse.jdt.internal.corext.refactoring.nls.PropertiesFileCache.PropertiesFile;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
+import org.eclipse.jdt.internal.corext.util.PersistentFileIndex.FileState;
 
-import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.JavaUIStatus;
+import org.eclipse.jdt.internal.ui.refactoring.nls.search.NLSKeyReferenceIndex.KeyReference;
 import org.eclipse.jdt.internal.ui.util.StringMatcher;
 
 
@@ -72,11 +68,15 @@ class NLSSearchResultRequestor extends SearchRequestor {
 	private static final String NO_KEY= new String();
 
 	private NLSSearchResult fResult;
+	private IJavaElement fAccessorClass;
+	private IFile fAccessorFile;
 	private IFile fPropertiesFile;
-	private Properties fProperties;
+	private PropertiesFile fPropertiesFileContents;
+	private Set<String> fPropertyNames;
 	private HashSet<String> fUsedPropertyNames;
 
-	public NLSSearchResultRequestor(IFile propertiesFile, NLSSearchResult result) {
+	public NLSSearchResultRequestor(IJavaElement accessorClass, IFile propertiesFile, NLSSearchResult result) {
+		fAccessorClass= accessorClass;
 		fPropertiesFile= propertiesFile;
 		fResult= result;
 	}
@@ -87,7 +87,30 @@ class NLSSearchResultRequestor extends SearchRequestor {
 	@Override
 	public void beginReporting() {
 		loadProperties();
-		fUsedPropertyNames= new HashSet<>(fProperties.size());
+		fUsedPropertyNames= new HashSet<>(fPropertyNames.size());
+		fAccessorFile= getAccessorFile(fAccessorClass);
+	}
+
+	/**
+	 * Returns the file that contains the accessor class.
+	 *
+	 * @param accessorClass the accessor class
+	 * @return the compilation unit or archive file, or <code>null</code> if
+	 *         the accessor class is not in a workspace file or the compilation
+	 *         unit has unsaved changes
+	 */
+	private static IFile getAccessorFile(IJavaElement accessorClass) {
+		try {
+			ICompilationUnit unit= (ICompilationUnit) accessorClass.getAncestor(IJavaElement.COMPILATION_UNIT);
+			if (unit != null)
+				return !unit.hasUnsavedChanges() && unit.getResource() instanceof IFile ? (IFile) unit.getResource() : null;
+			IJavaElement root= accessorClass.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+			if (root != null && root.getResource() instanceof IFile)
+				return (IFile) root.getResource();
+		} catch (JavaModelException e) {
+			// don't use the index
+		}
+		return null;
 	}
 
 	/*
@@ -115,46 +138,90 @@ class NLSSearchResultRequestor extends SearchRequestor {
 		if (javaElement.getElementType() == IJavaElement.TYPE)
 			return; //classes extending the accessor class and workaround for bug 61286
 
+		KeyReference reference= findKeyReference(javaElement, offset, length);
+		if (reference.getKind() == KeyReference.NONE)
+			return;
+
+		// found reference to NLS Wrapper - now check if the key is there:
+		//TODO: What to do if argument string not found? Currently adds a match with type name.
+		String key= reference.getKind() == KeyReference.KEY ? reference.getKey() : NO_KEY;
+		if (isKeyDefined(key))
+			return;
+
+		ICompilationUnit[] allCompilationUnits= JavaModelUtil.getAllCompilationUnits(new IJavaElement[] {javaElement});
+		Object element= javaElement;
+		if (allCompilationUnits != null && allCompilationUnits.length == 1)
+			element= allCompilationUnits[0];
+
+		fResult.addMatch(new Match(element, reference.getKeyOffset(), reference.getKeyLength()));
+	}
+
+	/**
+	 * Returns the key reference of the given accessor class reference, from the
+	 * {@link NLSKeyReferenceIndex} if neither the compilation unit nor the
+	 * accessor class have changed since it was indexed.
+	 *
+	 * @param javaElement the element enclosing the accessor class reference
+	 * @param offset the offset of the accessor class reference
+	 * @param length the length of the accessor class reference
+	 * @return the key reference
+	 * @throws CoreException if a problem occurs while accessing the element
+	 */
+	private KeyReference findKeyReference(IJavaElement javaElement, int offset, int length) throws CoreException {
+		IFile file= null;
+		FileState state= null;
+		FileState accessorState= null;
+		ICompilationUnit unit= (ICompilationUnit) javaElement.getAncestor(IJavaElement.COMPILATION_UNIT);
+		if (fAccessorFile != null && unit != null && !unit.hasUnsavedChanges() && unit.getResource() instanceof IFile) {
+			file= (IFile) unit.getResource();
+			state= FileState.create(file);
+			accessorState= FileState.create(fAccessorFile);
+			KeyReference reference= NLSKeyReferenceIndex.getDefault().getReference(file, offset, length, fAccessorFile);
+			if (reference != null)
+				return reference;
+		}
+
+		KeyReference reference= computeKeyReference(javaElement, offset, length);
+		if (file != null)
+			NLSKeyReferenceIndex.getDefault().addReference(file, state, fAccessorFile, accessorState, reference);
+		return reference;
+	}
+
+	private KeyReference computeKeyReference(IJavaElement javaElement, int offset, int length) throws CoreException {
 		// heuristic: ignore matches in resource bundle name field:
 		if (javaElement.getElementType() == IJavaElement.FIELD) {
 			IField field= (IField) javaElement;
 			String source= field.getSource();
 			if (source != null && fgGetClassNameMatcher.match(source))
-				return;
+				return new KeyReference(offset, length, KeyReference.NONE, null, offset, length);
 		}
 
 		if (javaElement instanceof ISourceReference) {
 			String source= ((ISourceReference) javaElement).getSource();
 			if (source != null) {
 				if (source.indexOf("NLS.initializeMessages") != -1) //$NON-NLS-1$
-					return;
+					return new KeyReference(offset, length, KeyReference.NONE, null, offset, length);
 			}
 		}
 
-		// found reference to NLS Wrapper - now check if the key is there:
 		Position mutableKeyPosition= new Position(offset, length);
-		//TODO: What to do if argument string not found? Currently adds a match with type name.
 		String key= findKey(mutableKeyPosition, javaElement);
-		if (key == null || isKeyDefined(key))
-			return;
-
-		ICompilationUnit[] allCompilationUnits= JavaModelUtil.getAllCompilationUnits(new IJavaElement[] {javaElement});
-		Object element= javaElement;
-		if (allCompilationUnits != null && allCompilationUnits.length == 1)
-			element= allCompilationUnits[0];
-
-		fResult.addMatch(new Match(element, mutableKeyPosition.getOffset(), mutableKeyPosition.getLength()));
+		if (key == null)
+			return new KeyReference(offset, length, KeyReference.NONE, null, offset, length);
+		if (key == NO_KEY)
+			return new KeyReference(offset, length, KeyReference.UNKNOWN_KEY, null, mutableKeyPosition.getOffset(), mutableKeyPosition.getLength());
+		return new KeyReference(offset, length, KeyReference.KEY, key, mutableKeyPosition.getOffset(), mutableKeyPosition.getLength());
 	}
 
 	public void reportUnusedPropertyNames(IProgressMonitor pm) {
 		//Don't use endReporting() for long running operation.
-		pm.beginTask("", fProperties.size()); //$NON-NLS-1$
+		pm.beginTask("", fPropertyNames.size()); //$NON-NLS-1$
 		boolean hasUnused= false;
 		pm.setTaskName(NLSSearchMessages.NLSSearchResultRequestor_searching);
 		FileEntry groupElement= new FileEntry(fPropertiesFile, NLSSearchMessages.NLSSearchResultCollector_unusedKeys);
 
-		for (Enumeration<?> enumeration= fProperties.propertyNames(); enumeration.hasMoreElements();) {
-			String propertyName= (String) enumeration.nextElement();
+		for (Iterator<String> iter= fPropertyNames.iterator(); iter.hasNext();) {
+			String propertyName= iter.next();
 			if (!fUsedPropertyNames.contains(propertyName)) {
 				addMatch(groupElement, propertyName);
 				hasUnused= true;
@@ -169,25 +236,11 @@ class NLSSearchResultRequestor extends SearchRequestor {
 
 
 	private void addMatch(FileEntry groupElement, String propertyName) {
-		/*
-		 * TODO (bug 63794): Should read in .properties file with our own reader and not
-		 * with Properties.load(InputStream) . Then, we can remember start position and
-		 * original version (not interpreting escape characters) for each property.
-		 *
-		 * The current workaround is to escape the key again before searching in the
-		 * .properties file. However, this can fail if the key is escaped in a different
-		 * manner than what PropertyFileDocumentModel.unwindEscapeChars(.) produces.
-		 */
-		String escapedPropertyName= PropertyFileDocumentModel.escape(propertyName, false);
-		int start= findPropertyNameStartPosition(escapedPropertyName);
-		int length;
-		if (start == -1) { // not found -> report at beginning
-			start= 0;
-			length= 0;
-		} else {
-			length= escapedPropertyName.length();
-		}
-		fResult.addMatch(new Match(groupElement, start, length));
+		IRegion region= fPropertiesFileContents != null ? fPropertiesFileContents.getKeyRegion(propertyName) : null;
+		if (region == null) // not found -> report at beginning
+			fResult.addMatch(new Match(groupElement, 0, 0));
+		else
+			fResult.addMatch(new Match(groupElement, region.getOffset(), region.getLength()));
 	}
 
 	/**
@@ -202,14 +255,14 @@ class NLSSearchResultRequestor extends SearchRequestor {
 			return false;
 
 		fUsedPropertyNames.add(key);
-		if (fProperties.getProperty(key) != null) {
+		if (fPropertyNames.contains(key)) {
 			return true;
 		}
 		return false;
 	}
 
 	public boolean hasPropertyKey(String key) {
-		return fProperties.containsKey(key);
+		return fPropertyNames.contains(key);
 	}
 
 	public boolean isUsedPropertyKey(String key) {
@@ -316,122 +369,32 @@ class NLSSearchResultRequestor extends SearchRequestor {
 		}
 	}
 
-	/**
-	 * Finds the start position in the property file. We assume that
-	 * the key is the first match on a line.
-	 *
-	 * @param propertyName the property name
-	 * @return	the start position of the property name in the file, -1 if not found
-	 */
-	private int findPropertyNameStartPosition(String propertyName) {
-		// Fix for http://dev.eclipse.org/bugs/show_bug.cgi?id=19319
-		InputStream stream= null;
-		LineReader lineReader= null;
-		String encoding;
-		try {
-			encoding= fPropertiesFile.getCharset();
-		} catch (CoreException e1) {
-			encoding= "ISO-8859-1";  //$NON-NLS-1$
-		}
-		try {
-			stream= createInputStream(fPropertiesFile);
-			lineReader= new LineReader(stream, encoding);
-		} catch (CoreException cex) {
-			// failed to get input stream
-			JavaPlugin.log(cex);
-			return -1;
-		} catch (IOException e) {
-			if (stream != null) {
-				try {
-					stream.close();
-				} catch (IOException ce) {
-					JavaPlugin.log(ce);
-				}
-			}
-			return -1;
-		}
-		int start= 0;
-		try {
-			StringBuffer buf= new StringBuffer(80);
-			int eols= lineReader.readLine(buf);
-			int keyLength= propertyName.length();
-			while (eols > 0) {
-				String line= buf.toString();
-				int i= line.indexOf(propertyName);
-				int charPos= i + keyLength;
-				char terminatorChar= 0;
-				boolean hasNoValue= (charPos >= line.length());
-				if (i > -1 && !hasNoValue)
-					terminatorChar= line.charAt(charPos);
-				if (line.trim().startsWith(propertyName) &&
-						(hasNoValue || Character.isWhitespace(terminatorChar) || terminatorChar == '=')) {
-					start += line.indexOf(propertyName);
-					eols= -17; // found key
-				} else {
-					start += line.length() + eols;
-					buf.setLength(0);
-					eols= lineReader.readLine(buf);
-				}
-			}
-			if (eols != -17)
-				start= -1; //key not found in file. See bug 63794. This can happen if the key contains escaped characters.
-		} catch (IOException ex) {
-			JavaPlugin.log(ex);
-			return -1;
-		} finally {
-			try {
-				lineReader.close();
-			} catch (IOException ex) {
-				JavaPlugin.log(ex);
-			}
-		}
-		return start;
-	}
-
 	private void loadProperties() {
-		Set<Object> duplicateKeys= new HashSet<>();
-		fProperties= new Properties(duplicateKeys);
-		InputStream stream;
 		try {
-			stream= new BufferedInputStream(createInputStream(fPropertiesFile));
+			fPropertiesFileContents= PropertiesFileCache.getDefault().getPropertiesFile(fPropertiesFile);
 		} catch (CoreException ex) {
-			fProperties= new Properties();
-			return;
-		}
-		try {
-			fProperties.load(stream);
+			fPropertiesFileContents= null;
 		} catch (IOException ex) {
-			fProperties= new Properties();
-			return;
-		} finally {
-			try {
-				stream.close();
-			} catch (IOException ex) {
-			}
-			reportDuplicateKeys(duplicateKeys);
+			fPropertiesFileContents= null;
+		} catch (IllegalArgumentException ex) {
+			fPropertiesFileContents= null;
 		}
-	}
-
-	private InputStream createInputStream(IFile propertiesFile) throws CoreException {
-		ITextFileBufferManager manager= FileBuffers.getTextFileBufferManager();
-		if (manager != null) {
-			ITextFileBuffer buffer= manager.getTextFileBuffer(propertiesFile.getFullPath(), LocationKind.IFILE);
-			if (buffer != null) {
-				return new ByteArrayInputStream(buffer.getDocument().get().getBytes());
-			}
+		if (fPropertiesFileContents == null) {
+			fPropertyNames= Collections.emptySet();
+			return;
 		}
-
-		return propertiesFile.getContents();
+		fPropertyNames= fPropertiesFileContents.getKeys();
+		reportDuplicateKeys(fPropertiesFileContents.getDuplicateKeys());
 	}
 
-	private void reportDuplicateKeys(Set<Object> duplicateKeys) {
+	private void reportDuplicateKeys(Set<String> duplicateKeys) {
 		if (duplicateKeys.size() == 0)
 			return;
 
 		FileEntry groupElement= new FileEntry(fPropertiesFile, NLSSearchMessages.NLSSearchResultCollector_duplicateKeys);
-		Iterator<Object> iter= duplicateKeys.iterator();
+		Iterator<String> iter= duplicateKeys.iterator();
 		while (iter.hasNext()) {
-			String propertyName= (String) iter.next();
+			String propertyName= iter.next();
 			addMatch(groupElement, propertyName);
 		}
 		fResult.addFileEntryGroup(groupElement);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Hashtable;
 import java.util.Iterator;
@@ -35,6 +36,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 
 import org.eclipse.core.resources.IFile;
@@ -85,10 +87,12 @@ import org.eclipse.jdt.core.manipulation.JavaManipulation;
 
 import org.eclipse.jdt.internal.corext.fix.CleanUpRegistry;
 import org.eclipse.jdt.internal.corext.javadoc.JavaDocLocations;
+import org.eclipse.jdt.internal.corext.refactoring.util.QualifiedNameIndex;
 import org.eclipse.jdt.internal.corext.template.java.AbstractJavaContextType;
 import org.eclipse.jdt.internal.corext.template.java.CodeTemplateContextType;
 import org.eclipse.jdt.internal.corext.template.java.JavaContextType;
 import org.eclipse.jdt.internal.corext.template.java.SWTContextType;
+import org.eclipse.jdt.internal.corext.util.OpenTypeCache;
 import org.eclipse.jdt.internal.corext.util.OpenTypeHistory;
 import org.eclipse.jdt.internal.corext.util.QualifiedTypeNameHistory;
 import org.eclipse.jdt.internal.corext.util.TypeFilter;
@@ -98,6 +102,7 @@ import org.eclipse.jdt.ui.JavaUI;
 import org.eclipse.jdt.ui.PreferenceConstants;
 import org.eclipse.jdt.ui.text.JavaTextTools;
 
+import org.eclipse.jdt.internal.ui.jarpackager.ClassFileIndex;
 import org.eclipse.jdt.internal.ui.javaeditor.ASTProvider;
 import org.eclipse.jdt.internal.ui.javaeditor.ClassFileDocumentProvider;
 import org.eclipse.jdt.internal.ui.javaeditor.CompilationUnitDocumentProvider;
@@ -108,10 +113,13 @@ import org.eclipse.jdt.internal.ui.javaeditor.saveparticipant.SaveParticipantReg
 import org.eclipse.jdt.internal.ui.preferences.MembersOrderPreferenceCache;
 import org.eclipse.jdt.internal.ui.preferences.formatter.FormatterProfileStore;
 import org.eclipse.jdt.internal.ui.propertiesfileeditor.PropertiesFileDocumentProvider;
+import org.eclipse.jdt.internal.ui.refactoring.nls.search.NLSKeyReferenceIndex;
 import org.eclipse.jdt.internal.ui.text.PreferencesAdapter;
+import org.eclipse.jdt.internal.ui.text.correction.JavaCorrectionProcessor;
 import org.eclipse.jdt.internal.ui.text.folding.JavaFoldingStructureProviderRegistry;
 import org.eclipse.jdt.internal.ui.text.java.ContentAssistHistory;
 import org.eclipse.jdt.internal.ui.text.java.hover.JavaEditorTextHoverDescriptor;
+import org.eclipse.jdt.internal.ui.text.javadoc.JavadocContentCache;
 import org.eclipse.jdt.internal.ui.text.spelling.SpellCheckEngine;
 import org.eclipse.jdt.internal.ui.viewsupport.ImageDescriptorRegistry;
 import org.eclipse.jdt.internal.ui.viewsupport.ImagesOnFileSystemRegistry;
@@ -153,6 +161,11 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 	 * @since 3.0
 	 */
 	private static final String CODE_TEMPLATES_MIGRATION_KEY= "org.eclipse.jdt.ui.text.code_templates_migrated"; //$NON-NLS-1$
+	/**
+	 * The name of the file in the state location that stores the content assist history
+	 * @since 3.12
+	 */
+	private static final String CONTENT_ASSIST_HISTORY_FILE= "ContentAssistHistory.dat"; //$NON-NLS-1$
 
 	public static boolean DEBUG_AST_PROVIDER;
 
@@ -252,10 +265,23 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 	private IDocumentProvider fPropertiesFileDocumentProvider;
 
 	/**
-	 * Content assist history.
+	 * Content assist history, set once it has been loaded.
 	 * @since 3.2
 	 */
-	private ContentAssistHistory fContentAssistHistory;
+	private volatile ContentAssistHistory fContentAssistHistory;
+
+	/**
+	 * Guards loading and storing the content assist history, so that the
+	 * file I/O does not hold the lock of the plug-in.
+	 * @since 3.12
+	 */
+	private final Object fContentAssistHistoryLock= new Object();
+
+	/**
+	 * Whether the content assist history is being loaded in the background.
+	 * @since 3.12
+	 */
+	private volatile boolean fContentAssistHistoryLoading;
 
 	/**
 	 * The save participant registry.
@@ -610,9 +636,13 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 				fTypeFilter= null;
 			}
 
-			if (fContentAssistHistory != null) {
-				ContentAssistHistory.store(fContentAssistHistory, getPluginPreferences(), PreferenceConstants.CODEASSIST_LRU_HISTORY);
-				fContentAssistHistory= null;
+			synchronized (fContentAssistHistoryLock) {
+				if (fContentAssistHistory != null) {
+					ContentAssistHistory.store(fContentAssistHistory, getContentAssistHistoryFile());
+					// the history has been migrated from the preferences
+					getPluginPreferences().setToDefault(PreferenceConstants.CODEASSIST_LRU_HISTORY);
+					fContentAssistHistory= null;
+				}
 			}
 
 			uninstallPreferenceStoreBackwardsCompatibility();
@@ -656,6 +686,18 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 
 			QualifiedTypeNameHistory.getDefault().save();
 
+			QualifiedNameIndex.shutdown();
+
+			ClassFileIndex.shutdown();
+
+			NLSKeyReferenceIndex.shutdown();
+
+			JavadocContentCache.shutdown();
+
+			OpenTypeCache.shutdown();
+
+			JavaCorrectionProcessor.shutdown();
+
 			// must add here to guarantee that it is the first in the listener list
 
 			OpenTypeHistory.shutdown();
@@ -1064,17 +1106,74 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 	 * @since 3.2
 	 */
 	public ContentAssistHistory getContentAssistHistory() {
-		if (fContentAssistHistory == null) {
-			try {
-				fContentAssistHistory= ContentAssistHistory.load(getPluginPreferences(), PreferenceConstants.CODEASSIST_LRU_HISTORY);
-			} catch (CoreException x) {
-				log(x);
+		ContentAssistHistory history= fContentAssistHistory;
+		if (history != null)
+			return history;
+
+		synchronized (fContentAssistHistoryLock) {
+			if (fContentAssistHistory == null) {
+				try {
+					history= ContentAssistHistory.load(getContentAssistHistoryFile());
+					if (history == null)
+						history= ContentAssistHistory.load(getPluginPreferences(), PreferenceConstants.CODEASSIST_LRU_HISTORY);
+				} catch (CoreException x) {
+					log(x);
+				}
+				if (history == null)
+					history= new ContentAssistHistory();
+				fContentAssistHistory= history;
 			}
-			if (fContentAssistHistory == null)
-				fContentAssistHistory= new ContentAssistHistory();
+			return fContentAssistHistory;
 		}
+	}
+
+	/**
+	 * Returns the Java content assist history without waiting for it while it
+	 * is loaded in the background.
+	 *
+	 * @return the Java content assist history, or an empty history while it
+	 *         is being loaded
+	 * @since 3.12
+	 */
+	public ContentAssistHistory getContentAssistHistoryIfLoaded() {
+		ContentAssistHistory history= fContentAssistHistory;
+		if (history != null)
+			return history;
+		if (fContentAssistHistoryLoading)
+			return new ContentAssistHistory();
+		return getContentAssistHistory();
+	}
+
+	/**
+	 * Loads the Java content assist history in the background, so that the first
+	 * content assist invocation does not have to wait for it.
+	 *
+	 * @since 3.12
+	 */
+	public void loadContentAssistHistoryInBackground() {
+		synchronized (fContentAssistHistoryLock) {
+			if (fContentAssistHistory != null || fContentAssistHistoryLoading)
+				return;
+			fContentAssistHistoryLoading= true;
+		}
+		Job job= new Job(JavaUIMessages.JavaPlugin_loading_content_assist_history) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					getContentAssistHistory();
+				} finally {
+					fContentAssistHistoryLoading= false;
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+		job.setPriority(Job.SHORT);
+		job.schedule();
+	}
 
-		return fContentAssistHistory;
+	private File getContentAssistHistoryFile() {
+		return getStateLocation().append(CONTENT_ASSIST_HISTORY_FILE).toFile();
 	}
 
 	/**
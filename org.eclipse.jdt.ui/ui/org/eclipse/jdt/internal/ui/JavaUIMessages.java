@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -30,6 +30,7 @@ public final class JavaUIMessages extends NLS {
 	public static String JavaPlugin_additionalInfo_affordance;
 	public static String JavaPlugin_internal_error;
 	public static String JavaPlugin_initializing_ui;
+	public static String JavaPlugin_loading_content_assist_history;
 
 	public static String JavaElementProperties_name;
 
@@ -237,6 +238,7 @@ public final class JavaUIMessages extends NLS {
 	public static String FilteredTypesSelectionDialog_error_type_doesnot_exist;
 	public static String FilteredTypesSelectionDialog_library_name_format;
 	public static String FilteredTypesSelectionDialog_searchJob_taskName;
+	public static String FilteredTypesSelectionDialog_limitMatchesAction_label;
 	public static String FilteredTypeSelectionDialog_showContainerForDuplicatesAction;
 	public static String FilteredTypeSelectionDialog_titleFormat;
 
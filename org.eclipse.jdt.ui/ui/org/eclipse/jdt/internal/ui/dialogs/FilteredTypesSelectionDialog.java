@@ -16,10 +16,14 @@ import java.io.StringWriter;
 import java.lang.reflect.InvocationTargetException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.TextStyle;
@@ -33,6 +37,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
@@ -60,6 +65,8 @@ import org.eclipse.jface.viewers.LabelProvider;
 import org.eclipse.jface.viewers.LabelProviderChangedEvent;
 import org.eclipse.jface.viewers.StyledString;
 import org.eclipse.jface.viewers.StyledString.Styler;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.jface.viewers.ViewerFilter;
 
 import org.eclipse.jface.text.ITextSelection;
 import org.eclipse.jface.text.contentassist.BoldStylerProvider;
@@ -91,6 +98,7 @@ import org.eclipse.jdt.core.search.TypeNameRequestor;
 
 import org.eclipse.jdt.internal.corext.util.CollectionsUtil;
 import org.eclipse.jdt.internal.corext.util.Messages;
+import org.eclipse.jdt.internal.corext.util.OpenTypeCache;
 import org.eclipse.jdt.internal.corext.util.OpenTypeHistory;
 import org.eclipse.jdt.internal.corext.util.Strings;
 import org.eclipse.jdt.internal.corext.util.TypeFilter;
@@ -138,6 +146,25 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 
 	private static final String SHOW_CONTAINER_FOR_DUPLICATES= "ShowContainerForDuplicates"; //$NON-NLS-1$
 
+	private static final String LIMIT_MATCHES= "LimitMatches"; //$NON-NLS-1$
+
+	/**
+	 * The number of matches shown if the matches are limited to the best ones.
+	 */
+	private static final int MAX_BEST_MATCHES= 1000;
+
+	/**
+	 * The number of matches after which the list is refreshed for the first
+	 * time while the search is still running.
+	 */
+	private static final int FIRST_PAGE_SIZE= 50;
+
+	/**
+	 * The minimal time in milliseconds between two refreshes of the list
+	 * while the search is running.
+	 */
+	private static final long REFRESH_INTERVAL= 200;
+
 	private static final String WORKINGS_SET_SETTINGS= "WorkingSet"; //$NON-NLS-1$
 
 	private WorkingSetFilterActionGroup fFilterActionGroup;
@@ -148,6 +175,22 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 
 	private ShowContainerForDuplicatesAction fShowContainerForDuplicatesAction;
 
+	private LimitMatchesAction fLimitMatchesAction;
+
+	private volatile boolean fLimitMatches;
+
+	/**
+	 * The best matches of the last search, or <code>null</code> if the
+	 * matches were not limited
+	 */
+	private volatile BestMatches fBestMatches;
+
+	/**
+	 * The cached matches that were shown while the indexes were not ready, but
+	 * were not found by the last search, or <code>null</code> if none
+	 */
+	private volatile Set<TypeNameMatch> fStaleMatches;
+
 	private IJavaSearchScope fSearchScope;
 
 	private boolean fAllowScopeSwitching;
@@ -264,6 +307,9 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 		setDetailsLabelProvider(new TypeItemDetailsLabelProvider(fTypeInfoUtil));
 
 		fTypeItemsComparator= new TypeItemsComparator();
+
+		addListFilter(new BestMatchesFilter());
+		addListFilter(new StaleMatchesFilter());
 	}
 
 	@Override
@@ -304,6 +350,7 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 		if (! BUG_184693) {
 			settings.put(SHOW_CONTAINER_FOR_DUPLICATES, fShowContainerForDuplicatesAction.isChecked());
 		}
+		settings.put(LIMIT_MATCHES, fLimitMatches);
 
 		if (fFilterActionGroup != null) {
 			XMLMemento memento= XMLMemento.createWriteRoot("workingSet"); //$NON-NLS-1$
@@ -332,6 +379,9 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 			fTypeInfoLabelProvider.setContainerInfo(true);
 		}
 
+		fLimitMatches= settings.getBoolean(LIMIT_MATCHES);
+		fLimitMatchesAction.setChecked(fLimitMatches);
+
 		if (fAllowScopeSwitching) {
 			String setting= settings.get(WORKINGS_SET_SETTINGS);
 			if (setting != null) {
@@ -369,6 +419,8 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 			fShowContainerForDuplicatesAction= new ShowContainerForDuplicatesAction();
 			menuManager.add(fShowContainerForDuplicatesAction);
 		}
+		fLimitMatchesAction= new LimitMatchesAction();
+		menuManager.add(fLimitMatchesAction);
 		if (fAllowScopeSwitching) {
 			fFilterActionGroup= new WorkingSetFilterActionGroup(getShell(), JavaPlugin.getActivePage(), new IPropertyChangeListener() {
 				@Override
@@ -499,9 +551,11 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 	@Override
 	protected void fillContentProvider(AbstractContentProvider provider, ItemsFilter itemsFilter, IProgressMonitor progressMonitor) throws CoreException {
 		TypeItemsFilter typeSearchFilter= (TypeItemsFilter) itemsFilter;
-		TypeSearchRequestor requestor= new TypeSearchRequestor(provider, typeSearchFilter);
-		SearchEngine engine= new SearchEngine((WorkingCopyOwner) null);
-		String packPattern= typeSearchFilter.getPackagePattern();
+		BestMatches bestMatches= fLimitMatches ? new BestMatches(fTypeItemsComparator, MAX_BEST_MATCHES) : null;
+		fBestMatches= bestMatches;
+		fStaleMatches= null;
+		TypeSearchRequestor requestor= new TypeSearchRequestor(provider, typeSearchFilter, bestMatches, this);
+		OpenTypeCache cache= OpenTypeCache.getDefault();
 		progressMonitor.setTaskName(JavaUIMessages.FilteredTypesSelectionDialog_searchJob_taskName);
 
 		/*
@@ -511,23 +565,40 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 		 * a terminator, the filter is not set to match everything mode because
 		 * jdt.core's SearchPattern does not support that case.
 		 */
-		String typePattern= typeSearchFilter.getNamePattern();
-		int matchRule= typeSearchFilter.getMatchRule();
 		typeSearchFilter.setMatchEverythingMode(true);
 
 		try {
-			engine.searchAllTypeNames(packPattern == null ? null : packPattern.toCharArray(),
-					typeSearchFilter.getPackageFlags(),
-					typePattern.toCharArray(),
-					matchRule,
-					typeSearchFilter.getElementKind(),
-					typeSearchFilter.getSearchScope(),
-					requestor,
-					IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH,
-					progressMonitor);
+			try {
+				searchAllTypeNames(typeSearchFilter, requestor, IJavaSearchConstants.CANCEL_IF_NOT_READY_TO_SEARCH, progressMonitor);
+			} catch (OperationCanceledException e) {
+				if (progressMonitor.isCanceled())
+					throw e;
+				// the indexes are not ready yet, show the cached types until the search can run
+				requestor.acceptCachedMatches(cache.getFilteredTypeInfos(typeSearchFilter.fTypeInfoFilter));
+				searchAllTypeNames(typeSearchFilter, requestor, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, progressMonitor);
+			}
 		} finally {
+			requestor.flush(false);
 			typeSearchFilter.setMatchEverythingMode(false);
 		}
+		if (bestMatches != null)
+			typeSearchFilter.setTruncated(bestMatches.isTruncated());
+		fStaleMatches= requestor.getUnconfirmedMatches();
+	}
+
+	private void searchAllTypeNames(TypeItemsFilter typeSearchFilter, TypeSearchRequestor requestor, int waitingPolicy, IProgressMonitor progressMonitor) throws CoreException {
+		SearchEngine engine= new SearchEngine((WorkingCopyOwner) null);
+		String packPattern= typeSearchFilter.getPackagePattern();
+		String typePattern= typeSearchFilter.getNamePattern();
+		engine.searchAllTypeNames(packPattern == null ? null : packPattern.toCharArray(),
+				typeSearchFilter.getPackageFlags(),
+				typePattern.toCharArray(),
+				typeSearchFilter.getMatchRule(),
+				typeSearchFilter.getElementKind(),
+				typeSearchFilter.getSearchScope(),
+				requestor,
+				waitingPolicy,
+				progressMonitor);
 	}
 
 	@Override
@@ -675,6 +746,51 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 		}
 	}
 
+	/**
+	 * The <code>LimitMatchesAction</code> limits the list to the best matches,
+	 * which are shown while the search is still running.
+	 */
+	private class LimitMatchesAction extends Action {
+
+		public LimitMatchesAction() {
+			super(JavaUIMessages.FilteredTypesSelectionDialog_limitMatchesAction_label, IAction.AS_CHECK_BOX);
+		}
+
+		@Override
+		public void run() {
+			fLimitMatches= isChecked();
+			triggerSearch();
+		}
+	}
+
+	/**
+	 * Hides the matches that were shown while the search was running but are
+	 * no longer among the best matches.
+	 */
+	private class BestMatchesFilter extends ViewerFilter {
+
+		@Override
+		public boolean select(Viewer viewer, Object parentElement, Object element) {
+			BestMatches bestMatches= fBestMatches;
+			if (bestMatches == null || !(element instanceof TypeNameMatch))
+				return true;
+			return bestMatches.contains(element) || getSelectionHistory().contains(element);
+		}
+	}
+
+	/**
+	 * Hides the cached matches that were shown while the indexes were not
+	 * ready, but were not found by the search.
+	 */
+	private class StaleMatchesFilter extends ViewerFilter {
+
+		@Override
+		public boolean select(Viewer viewer, Object parentElement, Object element) {
+			Set<TypeNameMatch> staleMatches= fStaleMatches;
+			return staleMatches == null || !staleMatches.contains(element);
+		}
+	}
+
 	private class TypeFiltersPreferencesAction extends Action {
 
 		public TypeFiltersPreferencesAction() {
@@ -985,6 +1101,8 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 
 		private boolean fMatchEverything= false;
 
+		private volatile boolean fTruncated= false;
+
 		private final int fMyTypeFilterVersion= fTypeFilterVersion;
 
 		private final TypeInfoFilter fTypeInfoFilter;
@@ -1011,6 +1129,9 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 			TypeItemsFilter typeItemsFilter= (TypeItemsFilter) filter;
 			if (fMyTypeFilterVersion != typeItemsFilter.getMyTypeFilterVersion())
 				return false;
+			// the matches of a truncated search cannot be narrowed down
+			if (fTruncated || typeItemsFilter.fTruncated)
+				return false;
 
 			//Caveat: This method is defined the wrong way 'round in FilteredItemsSelectionDialog!
 			//WRONG (has reverse meaning!): return fTypeInfoFilter.isSubFilter(filter.getPattern());
@@ -1073,6 +1194,15 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 			fMatchEverything= matchEverything;
 		}
 
+		/**
+		 * Marks the matches of this filter as truncated to the best matches.
+		 *
+		 * @param truncated <code>true</code> if not all matches were kept
+		 */
+		public void setTruncated(boolean truncated) {
+			fTruncated= truncated;
+		}
+
 		@Override
 		public boolean isConsistentItem(Object item) {
 			return true;
@@ -1152,6 +1282,11 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 	 * <code>TypeItemsFilter</code>. The attached content provider is filled
 	 * on the basis of the collected entries (instances of
 	 * <code>TypeNameMatch</code>).
+	 * <p>
+	 * If the matches are limited to the best matches, only the matches that
+	 * are among the best ones when they arrive are added, and the list is
+	 * refreshed while the search is running.
+	 * </p>
 	 */
 	private static class TypeSearchRequestor extends TypeNameMatchRequestor {
 		private volatile boolean fStop;
@@ -1160,22 +1295,168 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 
 		private final TypeItemsFilter fTypeItemsFilter;
 
-		public TypeSearchRequestor(AbstractContentProvider contentProvider, TypeItemsFilter typeItemsFilter) {
+		private final BestMatches fBestMatches;
+
+		private final FilteredTypesSelectionDialog fDialog;
+
+		/** The best matches that have not been added to the content provider yet */
+		private final List<TypeNameMatch> fPendingMatches= new ArrayList<>();
+
+		/**
+		 * The cached matches that have not been found by the search yet, or
+		 * <code>null</code> if no cached matches were added
+		 */
+		private Set<TypeNameMatch> fCachedMatches;
+
+		private long fLastRefresh;
+
+		private boolean fRefreshed;
+
+		public TypeSearchRequestor(AbstractContentProvider contentProvider, TypeItemsFilter typeItemsFilter, BestMatches bestMatches, FilteredTypesSelectionDialog dialog) {
 			super();
 			fContentProvider= contentProvider;
 			fTypeItemsFilter= typeItemsFilter;
+			fBestMatches= bestMatches;
+			fDialog= dialog;
+			fLastRefresh= System.currentTimeMillis();
 		}
 
 		@Override
 		public void acceptTypeNameMatch(TypeNameMatch match) {
+			if (fCachedMatches != null)
+				fCachedMatches.remove(match);
+			addMatch(match);
+		}
+
+		/**
+		 * Adds matches from the {@link OpenTypeCache} and refreshes the list.
+		 * The matches must already be filtered by the type info filter.
+		 *
+		 * @param matches the cached matches
+		 */
+		public void acceptCachedMatches(TypeNameMatch[] matches) {
+			fCachedMatches= new HashSet<>();
+			for (int i= 0; i < matches.length && !fStop; i++) {
+				fCachedMatches.add(matches[i]);
+				addMatch(matches[i]);
+			}
+			flush(true);
+			fRefreshed= true;
+			fLastRefresh= System.currentTimeMillis();
+			if (fBestMatches == null)
+				fDialog.scheduleRefresh();
+		}
+
+		/**
+		 * @return the cached matches that were not found by the search, or
+		 *         <code>null</code> if there are none
+		 */
+		public Set<TypeNameMatch> getUnconfirmedMatches() {
+			return fCachedMatches == null || fCachedMatches.isEmpty() ? null : fCachedMatches;
+		}
+
+		private void addMatch(TypeNameMatch match) {
 			if (fStop)
 				return;
 			if (TypeFilter.isFiltered(match))
 				return;
-			if (fTypeItemsFilter.matchesFilterExtension(match))
+			if (!fTypeItemsFilter.matchesFilterExtension(match))
+				return;
+			if (fBestMatches == null) {
 				fContentProvider.add(match, fTypeItemsFilter);
+				return;
+			}
+			if (!fBestMatches.add(match))
+				return;
+			fPendingMatches.add(match);
+			long now= System.currentTimeMillis();
+			if (fRefreshed ? now - fLastRefresh >= REFRESH_INTERVAL : fPendingMatches.size() >= FIRST_PAGE_SIZE) {
+				flush(true);
+				fLastRefresh= now;
+				fRefreshed= true;
+			}
+		}
+
+		/**
+		 * Adds the pending matches that are still among the best matches to the
+		 * content provider.
+		 *
+		 * @param refresh <code>true</code> to refresh the list afterwards
+		 */
+		public void flush(boolean refresh) {
+			if (fPendingMatches.isEmpty())
+				return;
+			for (int i= 0; i < fPendingMatches.size(); i++) {
+				TypeNameMatch match= fPendingMatches.get(i);
+				if (fBestMatches.contains(match))
+					fContentProvider.add(match, fTypeItemsFilter);
+			}
+			fPendingMatches.clear();
+			if (refresh)
+				fDialog.scheduleRefresh();
+		}
+	}
+
+	/**
+	 * The best matches of a search by the order of the {@link TypeItemsComparator}.
+	 * Only a bounded number of matches is kept, so the matches never have to
+	 * be sorted all at once.
+	 */
+	private static class BestMatches {
+
+		/** The kept matches, with the worst one at the head */
+		private final PriorityQueue<TypeNameMatch> fQueue;
+
+		private final Set<TypeNameMatch> fMatches;
+
+		private final Comparator<TypeNameMatch> fComparator;
+
+		private final int fLimit;
+
+		private boolean fTruncated;
+
+		public BestMatches(Comparator<TypeNameMatch> comparator, int limit) {
+			fComparator= comparator;
+			fLimit= limit;
+			fQueue= new PriorityQueue<>(limit + 1, Collections.reverseOrder(comparator));
+			fMatches= new HashSet<>(limit * 2);
 		}
 
+		/**
+		 * Adds a match if it is among the best matches.
+		 *
+		 * @param match the match
+		 * @return <code>true</code> if the match was kept
+		 */
+		public synchronized boolean add(TypeNameMatch match) {
+			if (fQueue.size() == fLimit) {
+				if (fComparator.compare(match, fQueue.peek()) >= 0) {
+					fTruncated= true;
+					return false;
+				}
+				if (fMatches.contains(match))
+					return false;
+				fMatches.remove(fQueue.poll());
+				fTruncated= true;
+			} else if (fMatches.contains(match)) {
+				return false;
+			}
+			fQueue.add(match);
+			fMatches.add(match);
+			return true;
+		}
+
+		public synchronized boolean contains(Object match) {
+			return fMatches.contains(match);
+		}
+
+		/**
+		 * @return <code>true</code> if matches were dropped because they were
+		 *         not among the best matches
+		 */
+		public synchronized boolean isTruncated() {
+			return fTruncated;
+		}
 	}
 
 	/**
@@ -149,6 +149,7 @@ import org.eclipse.jdt.internal.ui.javaeditor.JavaEditor;
 import org.eclipse.jdt.internal.ui.text.java.hover.JavadocHover;
 import org.eclipse.jdt.internal.ui.text.java.hover.JavadocHover.FallbackInformationPresenter;
 import org.eclipse.jdt.internal.ui.text.javadoc.JavadocContentAccess2;
+import org.eclipse.jdt.internal.ui.text.javadoc.JavadocContentCache;
 import org.eclipse.jdt.internal.ui.viewsupport.BasicElementLabels;
 import org.eclipse.jdt.internal.ui.viewsupport.BindingLinkedLabelComposer;
 import org.eclipse.jdt.internal.ui.viewsupport.JavaElementLinks;
@@ -1010,7 +1011,7 @@ public class JavadocView extends AbstractInfoView {
 						content= JavadocContentAccess2.getHTMLContent((IPackageDeclaration) curr);
 					} else if (curr instanceof IPackageFragment) {
 						JavadocHover.addAnnotations(buffer, curr, null, null);
-						content= JavadocContentAccess2.getHTMLContent((IPackageFragment) curr);
+						content= JavadocContentCache.getDefault().getHTMLContent(curr);
 					}
 				} catch (CoreException e) {
 					reader= new StringReader(JavaDocLocations.handleFailedJavadocFetch(e));
@@ -1070,7 +1071,7 @@ public class JavadocView extends AbstractInfoView {
 
 				Reader reader= null;
 				try {
-					String content= JavadocContentAccess2.getHTMLContent(element, true);
+					String content= JavadocContentCache.getDefault().getHTMLContent(element);
 					IPackageFragmentRoot root= (IPackageFragmentRoot) element.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
 					if (content != null) {
 						IMember member;
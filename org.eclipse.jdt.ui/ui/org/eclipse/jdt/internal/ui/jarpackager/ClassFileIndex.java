@@ -0,0 +1,257 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.jarpackager;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.filesystem.EFS;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+
+import org.eclipse.jdt.core.ToolFactory;
+import org.eclipse.jdt.core.util.IClassFileReader;
+import org.eclipse.jdt.core.util.ISourceAttribute;
+
+import org.eclipse.jdt.internal.corext.util.Messages;
+import org.eclipse.jdt.internal.corext.util.PersistentFileIndex;
+import org.eclipse.jdt.internal.corext.util.Resources;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.viewsupport.BasicElementLabels;
+
+/**
+ * Persistent index from the source file names to the class files in an output
+ * folder. It is used by {@link JarFileExportOperation} to find the class files
+ * of a compilation unit without reading all class files of its output folder
+ * on every export.
+ * <p>
+ * The <code>SourceFile</code> attribute of a class file is read again when
+ * the file differs from the indexed {@link PersistentFileIndex.FileState}, so
+ * looking up a folder only lists its members. Resource deltas remove deleted
+ * and changed class files.
+ * </p>
+ *
+ * @since 3.12
+ */
+public class ClassFileIndex extends PersistentFileIndex<ClassFileIndex.ClassFileEntry> {
+
+	/**
+	 * The class files of an output folder by the name of their source file.
+	 */
+	public static final class FolderIndex {
+
+		private final Map<String, List<IFile>> fClassFiles;
+		private final IFile fClassFileWithoutSource;
+
+		private FolderIndex(Map<String, List<IFile>> classFiles, IFile classFileWithoutSource) {
+			fClassFiles= classFiles;
+			fClassFileWithoutSource= classFileWithoutSource;
+		}
+
+		/**
+		 * Returns the class files compiled from the source file with the given
+		 * name.
+		 *
+		 * @param sourceName the name of the source file, like
+		 *            <code>A.java</code>
+		 * @return the class files, or <code>null</code> if there are none
+		 */
+		public List<IFile> getClassFiles(String sourceName) {
+			return fClassFiles.get(sourceName);
+		}
+
+		/**
+		 * Returns a class file of the folder that has no <code>SourceFile</code>
+		 * attribute. If there is such a class file, the index of the folder is
+		 * incomplete.
+		 *
+		 * @return a class file without source attribute, or <code>null</code>
+		 */
+		public IFile getClassFileWithoutSource() {
+			return fClassFileWithoutSource;
+		}
+	}
+
+	private static final String FILE_NAME= "ClassFileIndex.dat"; //$NON-NLS-1$
+
+	private static final String CLASS_FILE_EXTENSION= "class"; //$NON-NLS-1$
+
+	private static final int FORMAT_VERSION= 2;
+
+	private static ClassFileIndex fgInstance;
+
+	static class ClassFileEntry {
+
+		private final FileState fState;
+		/** The source file name, or <code>null</code> if the class file has no source attribute */
+		private final String fSourceName;
+
+		public ClassFileEntry(FileState state, String sourceName) {
+			fState= state;
+			fSourceName= sourceName;
+		}
+	}
+
+	public static synchronized ClassFileIndex getDefault() {
+		if (fgInstance == null) {
+			fgInstance= new ClassFileIndex();
+			fgInstance.open();
+		}
+		return fgInstance;
+	}
+
+	public static synchronized void shutdown() {
+		if (fgInstance != null) {
+			fgInstance.close();
+			fgInstance= null;
+		}
+	}
+
+	private ClassFileIndex() {
+		super(FILE_NAME, FORMAT_VERSION);
+	}
+
+	/**
+	 * Returns the index of the class files directly contained in the given
+	 * folder. The class files are read without holding the lock of the index.
+	 *
+	 * @param container the output folder
+	 * @param monitor the progress monitor
+	 * @return the index of the folder
+	 * @throws CoreException if a class file could not be read
+	 */
+	public FolderIndex getFolderIndex(IContainer container, IProgressMonitor monitor) throws CoreException {
+		if (container == null || !container.isAccessible())
+			return new FolderIndex(Collections.<String, List<IFile>> emptyMap(), null);
+		IResource[] members= container.members();
+		List<IFile> classFiles= new ArrayList<>(members.length);
+		for (int i= 0; i < members.length; i++) {
+			if (isClassFile(members[i]))
+				classFiles.add((IFile) members[i]);
+		}
+
+		ClassFileEntry[] entries= new ClassFileEntry[classFiles.size()];
+		for (int i= 0; i < entries.length; i++) {
+			IFile classFile= classFiles.get(i);
+			ClassFileEntry entry= get(classFile.getFullPath());
+			if (entry != null && entry.fState.matches(classFile))
+				entries[i]= entry;
+		}
+
+		for (int i= 0; i < entries.length; i++) {
+			if (entries[i] == null) {
+				IFile classFile= classFiles.get(i);
+				entries[i]= readClassFile(classFile, monitor);
+				if (entries[i] != null)
+					put(classFile.getFullPath(), entries[i]);
+			}
+		}
+
+		Map<String, List<IFile>> map= new HashMap<>(entries.length);
+		IFile classFileWithoutSource= null;
+		for (int i= 0; i < entries.length; i++) {
+			ClassFileEntry entry= entries[i];
+			if (entry == null)
+				continue;
+			IFile classFile= classFiles.get(i);
+			if (entry.fSourceName == null) {
+				if (classFileWithoutSource == null)
+					classFileWithoutSource= classFile;
+				continue;
+			}
+			List<IFile> sourceClassFiles= map.get(entry.fSourceName);
+			if (sourceClassFiles == null) {
+				sourceClassFiles= new ArrayList<>(3);
+				map.put(entry.fSourceName, sourceClassFiles);
+			}
+			sourceClassFiles.add(classFile);
+		}
+		return new FolderIndex(map, classFileWithoutSource);
+	}
+
+	@Override
+	protected boolean isIndexed(IResource file) {
+		return isClassFile(file);
+	}
+
+	private static boolean isClassFile(IResource resource) {
+		return resource.getType() == IResource.FILE && CLASS_FILE_EXTENSION.equalsIgnoreCase(resource.getFileExtension());
+	}
+
+	/**
+	 * Reads the <code>SourceFile</code> attribute of the given class file.
+	 *
+	 * @param classFile the class file
+	 * @param monitor the progress monitor
+	 * @return the entry for the class file, or <code>null</code> if the class
+	 *         file cannot be read
+	 * @throws CoreException if the class file cannot be accessed
+	 */
+	private static ClassFileEntry readClassFile(IFile classFile, IProgressMonitor monitor) throws CoreException {
+		URI location= classFile.getLocationURI();
+		if (location == null)
+			return null;
+		FileState state= FileState.create(classFile);
+		if (state == null)
+			return null;
+		IClassFileReader cfReader;
+		InputStream contents= null;
+		try {
+			contents= EFS.getStore(location).openInputStream(EFS.NONE, monitor);
+			cfReader= ToolFactory.createDefaultClassFileReader(contents, IClassFileReader.CLASSFILE_ATTRIBUTES);
+		} finally {
+			try {
+				if (contents != null)
+					contents.close();
+			} catch (IOException e) {
+				throw new CoreException(new Status(IStatus.ERROR, JavaPlugin.getPluginId(), IStatus.ERROR,
+					Messages.format(JarPackagerMessages.JarFileExportOperation_errorCannotCloseConnection, BasicElementLabels.getURLPart(Resources.getLocationString(classFile))),
+					e));
+			}
+		}
+		if (cfReader == null)
+			return null;
+		ISourceAttribute sourceAttribute= cfReader.getSourceFileAttribute();
+		return new ClassFileEntry(state, sourceAttribute != null ? new String(sourceAttribute.getSourceFileName()) : null);
+	}
+
+	@Override
+	protected ClassFileEntry readEntry(DataInputStream in) throws IOException {
+		FileState state= FileState.read(in);
+		String sourceName= in.readBoolean() ? in.readUTF() : null;
+		return new ClassFileEntry(state, sourceName);
+	}
+
+	@Override
+	protected void writeEntry(DataOutputStream out, ClassFileEntry entry) throws IOException {
+		entry.fState.write(out);
+		out.writeBoolean(entry.fSourceName != null);
+		if (entry.fSourceName != null)
+			out.writeUTF(entry.fSourceName);
+	}
+}
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.jarpackager;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipException;
+
+/**
+ * Gives access to the compressed data of the entries of an existing archive,
+ * so that they can be copied to another archive without inflating and
+ * deflating them again.
+ * <p>
+ * Only the central directory is read when the reader is created. Encrypted
+ * entries are not accessible.
+ * </p>
+ *
+ * @see JarArchiveWriter#putRawEntry(java.util.zip.ZipEntry, FileChannel, long)
+ * @since 3.12
+ */
+public class JarArchiveReader implements Closeable {
+
+	private static final int LOCAL_HEADER_SIGNATURE= 0x04034b50;
+	private static final int CENTRAL_HEADER_SIGNATURE= 0x02014b50;
+	private static final int END_SIGNATURE= 0x06054b50;
+	private static final int ZIP64_END_SIGNATURE= 0x06064b50;
+	private static final int ZIP64_LOCATOR_SIGNATURE= 0x07064b50;
+
+	private static final int LOCAL_HEADER_SIZE= 30;
+	private static final int CENTRAL_HEADER_SIZE= 46;
+	private static final int END_SIZE= 22;
+	private static final int ZIP64_LOCATOR_SIZE= 20;
+	private static final int MAX_COMMENT_SIZE= 0xFFFF;
+
+	private static final int ENCRYPTED_FLAG= 0x0001;
+	private static final int ZIP64_EXTRA_ID= 0x0001;
+	private static final long ZIP64_LIMIT= 0xFFFFFFFFL;
+
+	private final RandomAccessFile fFile;
+	private final FileChannel fChannel;
+
+	/** The offsets of the local headers by entry name */
+	private final Map<String, Long> fOffsets= new HashMap<>();
+
+	/**
+	 * Opens the archive at the given location and reads its central directory.
+	 *
+	 * @param file the archive file
+	 * @throws IOException if the file cannot be read or is not an archive
+	 */
+	public JarArchiveReader(File file) throws IOException {
+		fFile= new RandomAccessFile(file, "r"); //$NON-NLS-1$
+		fChannel= fFile.getChannel();
+		try {
+			readCentralDirectory();
+		} catch (IOException e) {
+			fFile.close();
+			throw e;
+		} catch (RuntimeException e) {
+			// truncated or corrupt archive
+			fFile.close();
+			throw new ZipException(file.getName());
+		}
+	}
+
+	/**
+	 * Returns the channel of the archive file.
+	 *
+	 * @return the channel
+	 */
+	public FileChannel getChannel() {
+		return fChannel;
+	}
+
+	/**
+	 * Returns the position of the compressed data of the given entry.
+	 *
+	 * @param name the name of the entry
+	 * @return the position in the archive file, or <code>-1</code> if there
+	 *         is no such entry or the entry is encrypted
+	 * @throws IOException if an I/O error occurs
+	 */
+	public long getDataOffset(String name) throws IOException {
+		Long offset= fOffsets.get(name);
+		if (offset == null)
+			return -1;
+		ByteBuffer header= read(offset.longValue(), LOCAL_HEADER_SIZE);
+		if (header.getInt(0) != LOCAL_HEADER_SIGNATURE)
+			return -1;
+		int nameLength= header.getShort(26) & 0xFFFF;
+		int extraLength= header.getShort(28) & 0xFFFF;
+		return offset.longValue() + LOCAL_HEADER_SIZE + nameLength + extraLength;
+	}
+
+	@Override
+	public void close() throws IOException {
+		fFile.close();
+	}
+
+	private void readCentralDirectory() throws IOException {
+		long length= fChannel.size();
+		int tailLength= (int) Math.min(length, END_SIZE + MAX_COMMENT_SIZE);
+		ByteBuffer tail= read(length - tailLength, tailLength);
+		int end= -1;
+		for (int position= tailLength - END_SIZE; position >= 0; position--) {
+			if (tail.getInt(position) == END_SIGNATURE) {
+				end= position;
+				break;
+			}
+		}
+		if (end == -1)
+			throw new ZipException();
+
+		long count= tail.getShort(end + 10) & 0xFFFF;
+		long start= tail.getInt(end + 16) & ZIP64_LIMIT;
+		long endOffset= length - tailLength + end;
+		if (endOffset >= ZIP64_LOCATOR_SIZE) {
+			ByteBuffer locator= read(endOffset - ZIP64_LOCATOR_SIZE, ZIP64_LOCATOR_SIZE);
+			if (locator.getInt(0) == ZIP64_LOCATOR_SIGNATURE) {
+				ByteBuffer record= read(locator.getLong(8), 56);
+				if (record.getInt(0) != ZIP64_END_SIGNATURE)
+					throw new ZipException();
+				count= record.getLong(32);
+				start= record.getLong(48);
+			}
+		}
+
+		ByteBuffer directory= read(start, (int) (endOffset - start));
+		int position= 0;
+		for (long index= 0; index < count; index++) {
+			if (directory.getInt(position) != CENTRAL_HEADER_SIGNATURE)
+				throw new ZipException();
+			int flags= directory.getShort(position + 8) & 0xFFFF;
+			int nameLength= directory.getShort(position + 28) & 0xFFFF;
+			int extraLength= directory.getShort(position + 30) & 0xFFFF;
+			int commentLength= directory.getShort(position + 32) & 0xFFFF;
+			long offset= directory.getInt(position + 42) & ZIP64_LIMIT;
+			byte[] name= new byte[nameLength];
+			directory.position(position + CENTRAL_HEADER_SIZE);
+			directory.get(name);
+			if (offset == ZIP64_LIMIT)
+				offset= getZip64Offset(directory, position, extraLength);
+			if ((flags & ENCRYPTED_FLAG) == 0)
+				fOffsets.put(new String(name, StandardCharsets.UTF_8), Long.valueOf(offset));
+			position+= CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+		}
+	}
+
+	/**
+	 * Returns the local header offset from the ZIP64 extra field of a central
+	 * directory header.
+	 */
+	private static long getZip64Offset(ByteBuffer directory, int header, int extraLength) throws ZipException {
+		// the ZIP64 field holds only the values that overflow, in this order
+		int skip= 0;
+		if ((directory.getInt(header + 24) & ZIP64_LIMIT) == ZIP64_LIMIT)
+			skip+= 8;
+		if ((directory.getInt(header + 20) & ZIP64_LIMIT) == ZIP64_LIMIT)
+			skip+= 8;
+		int position= header + CENTRAL_HEADER_SIZE + (directory.getShort(header + 28) & 0xFFFF);
+		int limit= position + extraLength;
+		while (position + 4 <= limit) {
+			int id= directory.getShort(position) & 0xFFFF;
+			int size= directory.getShort(position + 2) & 0xFFFF;
+			if (id == ZIP64_EXTRA_ID && skip + 8 <= size)
+				return directory.getLong(position + 4 + skip);
+			position+= 4 + size;
+		}
+		throw new ZipException();
+	}
+
+	private ByteBuffer read(long position, int length) throws IOException {
+		ByteBuffer buffer= ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		while (buffer.hasRemaining()) {
+			if (fChannel.read(buffer, position + buffer.position()) == -1)
+				throw new EOFException();
+		}
+		buffer.flip();
+		return buffer;
+	}
+}
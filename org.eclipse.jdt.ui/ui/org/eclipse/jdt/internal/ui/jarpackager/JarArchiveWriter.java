@@ -0,0 +1,644 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.jarpackager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * Writes a JAR archive.
+ * <p>
+ * Unlike {@link java.util.jar.JarOutputStream}, the contents of an entry are
+ * read once, computing the CRC on the way, and compressed entries are deflated
+ * on worker threads into per-entry buffers. The entries are written to the
+ * archive in the order they have been added. Entries larger than
+ * {@link #MAX_BUFFERED_ENTRY_SIZE} are streamed on the calling thread and their
+ * local header is completed once the data has been written.
+ * </p>
+ * <p>
+ * Entries of other archives can be copied without inflating and deflating
+ * them again, see {@link #putRawEntry(ZipEntry, FileChannel, long)}. Adding an
+ * entry whose name, CRC and size match an entry that has already been added is
+ * a no-op.
+ * </p>
+ *
+ * @since 3.12
+ */
+public class JarArchiveWriter {
+
+	/** Entries larger than this many bytes are streamed instead of buffered */
+	public static final int MAX_BUFFERED_ENTRY_SIZE= 4 * 1024 * 1024;
+
+	private static final int LOCAL_HEADER_SIGNATURE= 0x04034b50;
+	private static final int CENTRAL_HEADER_SIGNATURE= 0x02014b50;
+	private static final int END_SIGNATURE= 0x06054b50;
+	private static final int ZIP64_END_SIGNATURE= 0x06064b50;
+	private static final int ZIP64_LOCATOR_SIGNATURE= 0x07064b50;
+
+	private static final int LOCAL_HEADER_SIZE= 30;
+	private static final int CENTRAL_HEADER_SIZE= 46;
+
+	private static final int VERSION= 20;
+	private static final int ZIP64_VERSION= 45;
+	private static final int UTF8_FLAG= 0x0800;
+
+	private static final int ZIP64_EXTRA_ID= 0x0001;
+	private static final int JAR_MAGIC_ID= 0xCAFE;
+
+	private static final long ZIP64_LIMIT= 0xFFFFFFFFL;
+	private static final int ZIP64_COUNT_LIMIT= 0xFFFF;
+
+	/** The size of the buffers used to stream large entries */
+	private static final int STREAM_BUFFER_SIZE= 256 * 1024;
+
+	/** The maximum number of uncompressed bytes waiting to be written */
+	private static final long MAX_PENDING_BYTES= 32 * 1024 * 1024;
+
+	private static final int MAX_THREADS= 8;
+
+	/** Entries smaller than this many bytes are compressed on the calling thread */
+	private static final int MIN_PARALLEL_SIZE= 1024;
+
+	/**
+	 * An entry that has been added but not yet written.
+	 */
+	private static final class PendingEntry {
+
+		private final String fName;
+		private final int fMethod;
+		private final long fTime;
+		private final long fCrc;
+		private final long fSize;
+		private byte[] fData;
+		private Future<byte[]> fFuture;
+
+		private PendingEntry(String name, int method, long time, long crc, long size) {
+			fName= name;
+			fMethod= method;
+			fTime= time;
+			fCrc= crc;
+			fSize= size;
+		}
+
+		private boolean isDone() {
+			return fFuture == null || fFuture.isDone();
+		}
+	}
+
+	/**
+	 * The central directory information of a written entry.
+	 */
+	private static final class CentralEntry {
+
+		private final byte[] fName;
+		private final int fMethod;
+		private final int fDosTime;
+		private final long fCrc;
+		private final long fCompressedSize;
+		private final long fSize;
+		private final long fOffset;
+		private final boolean fJarMagic;
+
+		private CentralEntry(byte[] name, int method, int dosTime, long crc, long compressedSize, long size, long offset, boolean jarMagic) {
+			fName= name;
+			fMethod= method;
+			fDosTime= dosTime;
+			fCrc= crc;
+			fCompressedSize= compressedSize;
+			fSize= size;
+			fOffset= offset;
+			fJarMagic= jarMagic;
+		}
+	}
+
+	/**
+	 * Compresses the data of an entry on a worker thread.
+	 */
+	private static final class Compressor implements Callable<byte[]> {
+
+		private final byte[] fData;
+		private final int fLength;
+
+		private Compressor(byte[] data, int length) {
+			fData= data;
+			fLength= length;
+		}
+
+		@Override
+		public byte[] call() {
+			Deflater deflater= new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+			try {
+				deflater.setInput(fData, 0, fLength);
+				deflater.finish();
+				ByteArrayOutputStream output= new ByteArrayOutputStream(Math.max(64, fLength / 2));
+				byte[] buffer= new byte[Math.min(64 * 1024, Math.max(512, fLength))];
+				while (!deflater.finished()) {
+					int count= deflater.deflate(buffer);
+					output.write(buffer, 0, count);
+				}
+				return output.toByteArray();
+			} finally {
+				deflater.end();
+			}
+		}
+	}
+
+	private final RandomAccessFile fFile;
+	private final FileChannel fChannel;
+
+	/** The CRC and size of the added entries by name, <code>-1</code> if not yet known */
+	private final Map<String, long[]> fChecksums= new HashMap<>();
+	private final List<CentralEntry> fCentralEntries= new ArrayList<>();
+	private final ArrayDeque<PendingEntry> fPending= new ArrayDeque<>();
+	private long fPendingBytes= 0;
+
+	private ExecutorService fExecutor;
+	private final Calendar fCalendar= Calendar.getInstance();
+	private byte[] fComment;
+	private boolean fClosed= false;
+
+	/**
+	 * Creates a writer for a new archive at the given location. An existing
+	 * file is replaced.
+	 *
+	 * @param file the archive file
+	 * @throws IOException if the file cannot be created
+	 */
+	public JarArchiveWriter(File file) throws IOException {
+		fFile= new RandomAccessFile(file, "rw"); //$NON-NLS-1$
+		fFile.setLength(0);
+		fChannel= fFile.getChannel();
+	}
+
+	/**
+	 * Sets the archive comment.
+	 *
+	 * @param comment the comment, or <code>null</code>
+	 */
+	public void setComment(String comment) {
+		fComment= comment != null ? comment.getBytes(StandardCharsets.UTF_8) : null;
+	}
+
+	/**
+	 * Adds the manifest entry.
+	 *
+	 * @param manifest the manifest
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void putManifest(Manifest manifest) throws IOException {
+		ByteArrayOutputStream output= new ByteArrayOutputStream();
+		manifest.write(output);
+		ZipEntry entry= new ZipEntry(JarFile.MANIFEST_NAME);
+		entry.setTime(System.currentTimeMillis());
+		putEntry(entry, new ByteArrayInputStream(output.toByteArray()));
+	}
+
+	/**
+	 * Adds an entry. The name, time and method of the entry are used, its CRC
+	 * and sizes are computed from the contents. The contents are read to their
+	 * end but not closed.
+	 * <p>
+	 * If the CRC and size of the entry are set and match an entry with the
+	 * same name that has already been added, the entry is skipped without
+	 * reading the contents.
+	 * </p>
+	 *
+	 * @param entry the entry
+	 * @param contents the contents, or <code>null</code> for an empty entry
+	 * @throws ZipException if a different entry with the same name has already
+	 *             been added
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void putEntry(ZipEntry entry, InputStream contents) throws IOException {
+		String name= entry.getName();
+		long[] checksum= addChecksum(name, entry.getCrc(), entry.getSize());
+		if (checksum == null)
+			return;
+		int method= entry.getMethod() == ZipEntry.STORED ? ZipEntry.STORED : ZipEntry.DEFLATED;
+		long time= entry.getTime() != -1 ? entry.getTime() : System.currentTimeMillis();
+
+		byte[] data= new byte[0];
+		int length= 0;
+		if (contents != null) {
+			data= new byte[8192];
+			int count;
+			while (length <= MAX_BUFFERED_ENTRY_SIZE && (count= contents.read(data, length, data.length - length)) != -1) {
+				length+= count;
+				if (length == data.length && length <= MAX_BUFFERED_ENTRY_SIZE) {
+					byte[] larger= new byte[Math.min(data.length * 2, MAX_BUFFERED_ENTRY_SIZE + 1)];
+					System.arraycopy(data, 0, larger, 0, length);
+					data= larger;
+				}
+			}
+			if (length > MAX_BUFFERED_ENTRY_SIZE) {
+				flush(true);
+				writeStreamed(name, method, time, new SequenceInputStream(new ByteArrayInputStream(data, 0, length), contents), checksum);
+				return;
+			}
+		}
+
+		CRC32 crc= new CRC32();
+		crc.update(data, 0, length);
+		checksum[0]= crc.getValue();
+		checksum[1]= length;
+		PendingEntry pending= new PendingEntry(name, method, time, crc.getValue(), length);
+		if (method == ZipEntry.STORED) {
+			pending.fData= length == data.length ? data : copy(data, length);
+		} else if (length < MIN_PARALLEL_SIZE) {
+			pending.fData= new Compressor(data, length).call();
+		} else {
+			pending.fFuture= getExecutor().submit(new Compressor(data, length));
+		}
+		fPending.add(pending);
+		fPendingBytes+= length;
+		flush(false);
+	}
+
+	/**
+	 * Adds an entry whose data is copied unchanged from another archive. The
+	 * name, time, method, CRC and sizes of the entry are used and must be set.
+	 *
+	 * @param entry the entry
+	 * @param source the channel of the archive to copy the data from
+	 * @param position the position of the data of the entry in the source
+	 * @return <code>true</code> if the entry has been added,
+	 *         <code>false</code> if an identical entry has already been added
+	 * @throws ZipException if a different entry with the same name has already
+	 *             been added
+	 * @throws IOException if an I/O error occurs
+	 */
+	public boolean putRawEntry(ZipEntry entry, FileChannel source, long position) throws IOException {
+		String name= entry.getName();
+		long crc= entry.getCrc();
+		long size= entry.getSize();
+		long compressedSize= entry.getCompressedSize();
+		if (crc == -1 || size == -1 || compressedSize == -1)
+			throw new IllegalArgumentException(name);
+		long[] checksum= addChecksum(name, crc, size);
+		if (checksum == null)
+			return false;
+		int method= entry.getMethod() == ZipEntry.STORED ? ZipEntry.STORED : ZipEntry.DEFLATED;
+		long time= entry.getTime() != -1 ? entry.getTime() : System.currentTimeMillis();
+
+		if (compressedSize <= MAX_BUFFERED_ENTRY_SIZE) {
+			ByteBuffer data= ByteBuffer.allocate((int) compressedSize);
+			while (data.hasRemaining()) {
+				if (source.read(data, position + data.position()) == -1)
+					throw new EOFException(name);
+			}
+			PendingEntry pending= new PendingEntry(name, method, time, crc, size);
+			pending.fData= data.array();
+			fPending.add(pending);
+			fPendingBytes+= size;
+			flush(false);
+			return true;
+		}
+
+		flush(true);
+		byte[] nameBytes= name.getBytes(StandardCharsets.UTF_8);
+		int dosTime= toDosTime(time);
+		long offset= fChannel.position();
+		boolean jarMagic= fCentralEntries.isEmpty();
+		boolean zip64= size >= ZIP64_LIMIT || compressedSize >= ZIP64_LIMIT;
+		writeFully(createLocalHeader(nameBytes, method, dosTime, crc, compressedSize, size, zip64, jarMagic));
+		long transferred= 0;
+		while (transferred < compressedSize) {
+			long count= source.transferTo(position + transferred, compressedSize - transferred, fChannel);
+			if (count <= 0 && position + transferred >= source.size())
+				throw new EOFException(name);
+			transferred+= count;
+		}
+		fCentralEntries.add(new CentralEntry(nameBytes, method, dosTime, crc, compressedSize, size, offset, jarMagic));
+		return true;
+	}
+
+	/**
+	 * Writes all pending entries, the central directory and closes the archive.
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void close() throws IOException {
+		if (fClosed)
+			return;
+		fClosed= true;
+		try {
+			flush(true);
+			writeCentralDirectory();
+		} finally {
+			if (fExecutor != null)
+				fExecutor.shutdownNow();
+			fFile.close();
+		}
+	}
+
+	/**
+	 * Records an entry name.
+	 *
+	 * @return the checksum of the new entry, or <code>null</code> if an entry
+	 *         with the same name, CRC and size has already been added
+	 */
+	private long[] addChecksum(String name, long crc, long size) throws ZipException {
+		long[] existing= fChecksums.get(name);
+		if (existing == null) {
+			long[] checksum= new long[] { crc, size };
+			fChecksums.put(name, checksum);
+			return checksum;
+		}
+		if (crc != -1 && size != -1 && existing[0] == crc && existing[1] == size)
+			return null;
+		throw new ZipException("duplicate entry: " + name); //$NON-NLS-1$ same message as java.util.zip.ZipOutputStream
+	}
+
+	private ExecutorService getExecutor() {
+		if (fExecutor == null) {
+			int threads= Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+			fExecutor= Executors.newFixedThreadPool(threads, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread= new Thread(runnable, "JAR Export Compressor"); //$NON-NLS-1$
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return fExecutor;
+	}
+
+	/**
+	 * Writes the pending entries that are ready. Waits for entries to become
+	 * ready if <code>all</code> is set or too many entries are pending.
+	 *
+	 * @param all whether to write all pending entries
+	 * @throws IOException if an I/O error occurs
+	 */
+	private void flush(boolean all) throws IOException {
+		int limit= fExecutor != null ? 4 * MAX_THREADS : 0;
+		while (!fPending.isEmpty()) {
+			PendingEntry pending= fPending.peek();
+			if (!pending.isDone() && !all && fPending.size() <= limit && fPendingBytes <= MAX_PENDING_BYTES)
+				return;
+			fPending.poll();
+			fPendingBytes-= pending.fSize;
+			byte[] data= pending.fData;
+			if (pending.fFuture != null) {
+				try {
+					data= pending.fFuture.get();
+				} catch (InterruptedException e) {
+					throw new InterruptedIOException();
+				} catch (ExecutionException e) {
+					throw new IOException(e.getCause());
+				}
+			}
+			writeEntry(pending.fName, pending.fMethod, pending.fTime, pending.fCrc, pending.fSize, data);
+		}
+	}
+
+	private void writeEntry(String name, int method, long time, long crc, long size, byte[] data) throws IOException {
+		byte[] nameBytes= name.getBytes(StandardCharsets.UTF_8);
+		int dosTime= toDosTime(time);
+		long offset= fChannel.position();
+		boolean jarMagic= fCentralEntries.isEmpty();
+		ByteBuffer header= createLocalHeader(nameBytes, method, dosTime, crc, data.length, size, false, jarMagic);
+		writeFully(header);
+		writeFully(ByteBuffer.wrap(data));
+		fCentralEntries.add(new CentralEntry(nameBytes, method, dosTime, crc, data.length, size, offset, jarMagic));
+	}
+
+	/**
+	 * Streams a large entry to the archive and completes the local header
+	 * afterwards.
+	 */
+	private void writeStreamed(String name, int method, long time, InputStream contents, long[] checksum) throws IOException {
+		byte[] nameBytes= name.getBytes(StandardCharsets.UTF_8);
+		int dosTime= toDosTime(time);
+		long offset= fChannel.position();
+		boolean jarMagic= fCentralEntries.isEmpty();
+		// always reserve the ZIP64 sizes since the size is not known in advance
+		ByteBuffer header= createLocalHeader(nameBytes, method, dosTime, 0, 0, 0, true, jarMagic);
+		writeFully(header);
+
+		CRC32 crc= new CRC32();
+		long size= 0;
+		long start= fChannel.position();
+		byte[] buffer= new byte[STREAM_BUFFER_SIZE];
+		if (method == ZipEntry.STORED) {
+			ByteBuffer wrapper= ByteBuffer.wrap(buffer);
+			int count;
+			while ((count= contents.read(buffer)) != -1) {
+				crc.update(buffer, 0, count);
+				size+= count;
+				wrapper.clear().limit(count);
+				writeFully(wrapper);
+			}
+		} else {
+			Deflater deflater= new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+			try {
+				// the channel output stream must not be closed, since this would close the channel
+				OutputStream output= Channels.newOutputStream(fChannel);
+				DeflaterOutputStream deflating= new DeflaterOutputStream(output, deflater, STREAM_BUFFER_SIZE);
+				int count;
+				while ((count= contents.read(buffer)) != -1) {
+					crc.update(buffer, 0, count);
+					size+= count;
+					deflating.write(buffer, 0, count);
+				}
+				deflating.finish();
+			} finally {
+				deflater.end();
+			}
+		}
+		long end= fChannel.position();
+		long compressedSize= end - start;
+
+		ByteBuffer sizes= ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+		sizes.putInt((int) crc.getValue()).flip();
+		fChannel.position(offset + 14);
+		writeFully(sizes);
+		ByteBuffer zip64= ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+		zip64.putLong(size).putLong(compressedSize).flip();
+		fChannel.position(offset + LOCAL_HEADER_SIZE + nameBytes.length + 4);
+		writeFully(zip64);
+		fChannel.position(end);
+
+		checksum[0]= crc.getValue();
+		checksum[1]= size;
+		fCentralEntries.add(new CentralEntry(nameBytes, method, dosTime, crc.getValue(), compressedSize, size, offset, jarMagic));
+	}
+
+	private ByteBuffer createLocalHeader(byte[] name, int method, int dosTime, long crc, long compressedSize, long size, boolean zip64, boolean jarMagic) {
+		int extraLength= (zip64 ? 20 : 0) + (jarMagic ? 4 : 0);
+		ByteBuffer header= ByteBuffer.allocate(LOCAL_HEADER_SIZE + name.length + extraLength).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(LOCAL_HEADER_SIGNATURE);
+		header.putShort((short) (zip64 ? ZIP64_VERSION : VERSION));
+		header.putShort((short) UTF8_FLAG);
+		header.putShort((short) method);
+		header.putInt(dosTime);
+		header.putInt((int) crc);
+		header.putInt((int) (zip64 ? ZIP64_LIMIT : compressedSize));
+		header.putInt((int) (zip64 ? ZIP64_LIMIT : size));
+		header.putShort((short) name.length);
+		header.putShort((short) extraLength);
+		header.put(name);
+		if (zip64) {
+			header.putShort((short) ZIP64_EXTRA_ID);
+			header.putShort((short) 16);
+			header.putLong(size);
+			header.putLong(compressedSize);
+		}
+		if (jarMagic) {
+			header.putShort((short) JAR_MAGIC_ID);
+			header.putShort((short) 0);
+		}
+		header.flip();
+		return header;
+	}
+
+	private void writeCentralDirectory() throws IOException {
+		long start= fChannel.position();
+		for (int index= 0; index < fCentralEntries.size(); index++) {
+			CentralEntry entry= fCentralEntries.get(index);
+			boolean zip64Size= entry.fSize >= ZIP64_LIMIT || entry.fCompressedSize >= ZIP64_LIMIT;
+			boolean zip64Offset= entry.fOffset >= ZIP64_LIMIT;
+			int zip64Length= (zip64Size ? 16 : 0) + (zip64Offset ? 8 : 0);
+			int extraLength= (zip64Length > 0 ? 4 + zip64Length : 0) + (entry.fJarMagic ? 4 : 0);
+			ByteBuffer header= ByteBuffer.allocate(CENTRAL_HEADER_SIZE + entry.fName.length + extraLength).order(ByteOrder.LITTLE_ENDIAN);
+			int version= zip64Length > 0 ? ZIP64_VERSION : VERSION;
+			header.putInt(CENTRAL_HEADER_SIGNATURE);
+			header.putShort((short) version);
+			header.putShort((short) version);
+			header.putShort((short) UTF8_FLAG);
+			header.putShort((short) entry.fMethod);
+			header.putInt(entry.fDosTime);
+			header.putInt((int) entry.fCrc);
+			header.putInt((int) (zip64Size ? ZIP64_LIMIT : entry.fCompressedSize));
+			header.putInt((int) (zip64Size ? ZIP64_LIMIT : entry.fSize));
+			header.putShort((short) entry.fName.length);
+			header.putShort((short) extraLength);
+			header.putShort((short) 0); // comment length
+			header.putShort((short) 0); // disk number
+			header.putShort((short) 0); // internal attributes
+			header.putInt(0); // external attributes
+			header.putInt((int) (zip64Offset ? ZIP64_LIMIT : entry.fOffset));
+			header.put(entry.fName);
+			if (zip64Length > 0) {
+				header.putShort((short) ZIP64_EXTRA_ID);
+				header.putShort((short) zip64Length);
+				if (zip64Size) {
+					header.putLong(entry.fSize);
+					header.putLong(entry.fCompressedSize);
+				}
+				if (zip64Offset)
+					header.putLong(entry.fOffset);
+			}
+			if (entry.fJarMagic) {
+				header.putShort((short) JAR_MAGIC_ID);
+				header.putShort((short) 0);
+			}
+			header.flip();
+			writeFully(header);
+		}
+		long end= fChannel.position();
+		long size= end - start;
+		int count= fCentralEntries.size();
+
+		boolean zip64= count >= ZIP64_COUNT_LIMIT || start >= ZIP64_LIMIT || size >= ZIP64_LIMIT;
+		if (zip64) {
+			ByteBuffer record= ByteBuffer.allocate(56 + 20).order(ByteOrder.LITTLE_ENDIAN);
+			record.putInt(ZIP64_END_SIGNATURE);
+			record.putLong(44);
+			record.putShort((short) ZIP64_VERSION);
+			record.putShort((short) ZIP64_VERSION);
+			record.putInt(0);
+			record.putInt(0);
+			record.putLong(count);
+			record.putLong(count);
+			record.putLong(size);
+			record.putLong(start);
+			record.putInt(ZIP64_LOCATOR_SIGNATURE);
+			record.putInt(0);
+			record.putLong(end);
+			record.putInt(1);
+			record.flip();
+			writeFully(record);
+		}
+
+		int commentLength= fComment != null ? Math.min(fComment.length, 0xFFFF) : 0;
+		ByteBuffer record= ByteBuffer.allocate(22 + commentLength).order(ByteOrder.LITTLE_ENDIAN);
+		record.putInt(END_SIGNATURE);
+		record.putShort((short) 0);
+		record.putShort((short) 0);
+		record.putShort((short) Math.min(count, ZIP64_COUNT_LIMIT));
+		record.putShort((short) Math.min(count, ZIP64_COUNT_LIMIT));
+		record.putInt((int) Math.min(size, ZIP64_LIMIT));
+		record.putInt((int) Math.min(start, ZIP64_LIMIT));
+		record.putShort((short) commentLength);
+		if (commentLength > 0)
+			record.put(fComment, 0, commentLength);
+		record.flip();
+		writeFully(record);
+	}
+
+	private void writeFully(ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining())
+			fChannel.write(buffer);
+	}
+
+	private int toDosTime(long time) {
+		fCalendar.setTimeInMillis(time);
+		int year= fCalendar.get(Calendar.YEAR);
+		if (year < 1980)
+			return (1 << 21) | (1 << 16);
+		return (year - 1980) << 25
+				| (fCalendar.get(Calendar.MONTH) + 1) << 21
+				| fCalendar.get(Calendar.DAY_OF_MONTH) << 16
+				| fCalendar.get(Calendar.HOUR_OF_DAY) << 11
+				| fCalendar.get(Calendar.MINUTE) << 5
+				| fCalendar.get(Calendar.SECOND) >> 1;
+	}
+
+	private static byte[] copy(byte[] data, int length) {
+		byte[] result= new byte[length];
+		System.arraycopy(data, 0, result, 0, length);
+		return result;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,17 +16,13 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
-import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.jar.Manifest;
 import java.util.zip.ZipException;
@@ -34,8 +30,6 @@ import java.util.zip.ZipFile;
 
 import org.eclipse.swt.widgets.Shell;
 
-import org.eclipse.core.filesystem.EFS;
-
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -68,9 +62,6 @@ import org.eclipse.jdt.core.IRegion;
 import org.eclipse.jdt.core.ITypeRoot;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
-import org.eclipse.jdt.core.ToolFactory;
-import org.eclipse.jdt.core.util.IClassFileReader;
-import org.eclipse.jdt.core.util.ISourceAttribute;
 
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 import org.eclipse.jdt.internal.corext.util.Messages;
@@ -112,7 +103,7 @@ public class JarFileExportOperation extends WorkspaceModifyOperation implements
 	private JarPackageData fJarPackage;
 	private JarPackageData[] fJarPackages;
 	private Shell fParentShell;
-	private Map<String, ArrayList<IResource>> fJavaNameToClassFilesMap;
+	private ClassFileIndex.FolderIndex fClassFilesIndex;
 	private IContainer fClassFilesMapContainer;
 	private Set<IContainer> fExportedClassContainers;
 	private MessageMultiStatus fStatus;
@@ -768,8 +759,17 @@ public class JarFileExportOperation extends WorkspaceModifyOperation implements
 			// give the old code a last chance
 		}
 		if (fClassFilesMapContainer == null || !fClassFilesMapContainer.equals(classContainer)) {
-			fJavaNameToClassFilesMap= buildJavaToClassMap(classContainer, progressMonitor);
-			if (fJavaNameToClassFilesMap == null) {
+			fClassFilesIndex= ClassFileIndex.getDefault().getFolderIndex(classContainer, progressMonitor);
+			IFile classFileWithoutSource= fClassFilesIndex.getClassFileWithoutSource();
+			if (classFileWithoutSource != null) {
+				/*
+				 * Can't fully build the map because one or more
+				 * class file does not contain the name of its
+				 * source file.
+				 */
+				addWarning(Messages.format(
+					JarPackagerMessages.JarFileExportOperation_classFileWithoutSourceFileAttribute,
+					BasicElementLabels.getURLPart(Resources.getLocationString(classFileWithoutSource))), null);
 				// Could not fully build map. fallback is to export whole directory
 				String containerName= BasicElementLabels.getPathLabel(classContainer.getFullPath(), false);
 				String msg= Messages.format(JarPackagerMessages.JarFileExportOperation_missingSourceFileAttributeExportedAll, containerName);
@@ -779,7 +779,7 @@ public class JarFileExportOperation extends WorkspaceModifyOperation implements
 			}
 			fClassFilesMapContainer= classContainer;
 		}
-		ArrayList<IResource> classFileList= fJavaNameToClassFilesMap.get(file.getName());
+		List<IFile> classFileList= fClassFilesIndex.getClassFiles(file.getName());
 		if (classFileList == null || classFileList.isEmpty()) {
 			String msg= Messages.format(JarPackagerMessages.JarFileExportOperation_classFileOnClasspathNotAccessible, BasicElementLabels.getPathLabel(file.getFullPath(), false));
 			throw new CoreException(new Status(IStatus.ERROR, JavaPlugin.getPluginId(), IJavaStatusConstants.INTERNAL_ERROR, msg, null));
@@ -825,65 +825,6 @@ public class JarFileExportOperation extends WorkspaceModifyOperation implements
 			&& file.getFileExtension().equalsIgnoreCase("class"); //$NON-NLS-1$
 	}
 
-	/*
-	 * Builds and returns a map that has the class files
-	 * for each java file in a given directory
-	 */
-	private Map<String, ArrayList<IResource>> buildJavaToClassMap(IContainer container, IProgressMonitor monitor) throws CoreException {
-		if (container == null || !container.isAccessible())
-			return new HashMap<>(0);
-		/*
-		 * XXX: Bug 6584: Need a way to get class files for a java file (or CU)
-		 */
-		IClassFileReader cfReader= null;
-		IResource[] members= container.members();
-		Map<String, ArrayList<IResource>> map= new HashMap<>(members.length);
-		for (int i= 0;  i < members.length; i++) {
-			if (isClassFile(members[i])) {
-				IFile classFile= (IFile)members[i];
-				URI location= classFile.getLocationURI();
-				if (location != null) {
-					InputStream contents= null;
-					try {
-						contents= EFS.getStore(location).openInputStream(EFS.NONE, monitor);
-						cfReader= ToolFactory.createDefaultClassFileReader(contents, IClassFileReader.CLASSFILE_ATTRIBUTES);
-					} finally {
-						try {
-							if (contents != null)
-								contents.close();
-						} catch (IOException e) {
-							throw new CoreException(new Status(IStatus.ERROR, JavaPlugin.getPluginId(), IStatus.ERROR,
-								Messages.format(JarPackagerMessages.JarFileExportOperation_errorCannotCloseConnection, BasicElementLabels.getURLPart(Resources.getLocationString(classFile))),
-								e));
-						}
-					}
-					if (cfReader != null) {
-						ISourceAttribute sourceAttribute= cfReader.getSourceFileAttribute();
-						if (sourceAttribute == null) {
-							/*
-							 * Can't fully build the map because one or more
-							 * class file does not contain the name of its
-							 * source file.
-							 */
-							addWarning(Messages.format(
-								JarPackagerMessages.JarFileExportOperation_classFileWithoutSourceFileAttribute,
-								BasicElementLabels.getURLPart(Resources.getLocationString(classFile))), null);
-							return null;
-						}
-						String javaName= new String(sourceAttribute.getSourceFileName());
-						ArrayList<IResource> classFiles= map.get(javaName);
-						if (classFiles == null) {
-							classFiles= new ArrayList<>(3);
-							map.put(javaName, classFiles);
-						}
-						classFiles.add(classFile);
-					}
-				}
-			}
-		}
-		return map;
-	}
-
 	/**
 	 * Creates a folder resource handle for the folder with the given workspace path.
 	 *
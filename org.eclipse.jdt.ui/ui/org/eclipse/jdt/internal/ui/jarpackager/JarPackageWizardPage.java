@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -98,6 +98,7 @@ class JarPackageWizardPage extends AbstractJarDestinationWizardPage {
 	private Link fRefactoringLink;
 
 	private Button		fCompressCheckbox;
+	private Button		fIncrementalCheckbox;
 	private Button		fOverwriteCheckbox;
 	private Button		fIncludeDirectoryEntriesCheckbox;
 	private boolean	fInitiallySelecting= true;
@@ -111,6 +112,7 @@ class JarPackageWizardPage extends AbstractJarDestinationWizardPage {
 
 	private static final String STORE_REFACTORINGS= PAGE_NAME + ".REFACTORINGS"; //$NON-NLS-1$
 	private static final String STORE_COMPRESS= PAGE_NAME + ".COMPRESS"; //$NON-NLS-1$
+	private static final String STORE_INCREMENTAL= PAGE_NAME + ".INCREMENTAL"; //$NON-NLS-1$
 	private final static String STORE_OVERWRITE= PAGE_NAME + ".OVERWRITE"; //$NON-NLS-1$
 	private final static String STORE_INCLUDE_DIRECTORY_ENTRIES= PAGE_NAME + ".INCLUDE_DIRECTORY_ENTRIES"; //$NON-NLS-1$
 
@@ -194,6 +196,10 @@ class JarPackageWizardPage extends AbstractJarDestinationWizardPage {
 		fCompressCheckbox.setText(JarPackagerMessages.JarPackageWizardPage_compress_text);
 		fCompressCheckbox.addListener(SWT.Selection, this);
 
+		fIncrementalCheckbox= new Button(optionsGroup, SWT.CHECK | SWT.LEFT);
+		fIncrementalCheckbox.setText(JarPackagerMessages.JarPackageWizardPage_incremental_text);
+		fIncrementalCheckbox.addListener(SWT.Selection, this);
+
 		fIncludeDirectoryEntriesCheckbox= new Button(optionsGroup, SWT.CHECK | SWT.LEFT);
 		fIncludeDirectoryEntriesCheckbox.setText(JarPackagerMessages.JarPackageWizardPage_includeDirectoryEntries_text);
 		fIncludeDirectoryEntriesCheckbox.addListener(SWT.Selection, this);
@@ -234,6 +240,7 @@ class JarPackageWizardPage extends AbstractJarDestinationWizardPage {
 			// options
 			settings.put(STORE_REFACTORINGS, fJarPackage.isRefactoringAware());
 			settings.put(STORE_COMPRESS, fJarPackage.isCompressed());
+			settings.put(STORE_INCREMENTAL, fJarPackage.isIncremental());
 			settings.put(STORE_INCLUDE_DIRECTORY_ENTRIES, fJarPackage.areDirectoryEntriesIncluded());
 			settings.put(STORE_OVERWRITE, fJarPackage.allowOverwrite());
 		}
@@ -267,6 +274,7 @@ class JarPackageWizardPage extends AbstractJarDestinationWizardPage {
 		if (fExportRefactoringsCheckbox != null)
 			fExportRefactoringsCheckbox.setSelection(fJarPackage.isRefactoringAware());
 		fCompressCheckbox.setSelection(fJarPackage.isCompressed());
+		fIncrementalCheckbox.setSelection(fJarPackage.isIncremental());
 		fIncludeDirectoryEntriesCheckbox.setSelection(fJarPackage.areDirectoryEntriesIncluded());
 		fOverwriteCheckbox.setSelection(fJarPackage.allowOverwrite());
 	}
@@ -289,6 +297,7 @@ class JarPackageWizardPage extends AbstractJarDestinationWizardPage {
 			// options
 			fJarPackage.setRefactoringAware(settings.getBoolean(STORE_REFACTORINGS));
 			fJarPackage.setCompress(settings.getBoolean(STORE_COMPRESS));
+			fJarPackage.setIncremental(settings.getBoolean(STORE_INCREMENTAL));
 			fJarPackage.setIncludeDirectoryEntries(settings.getBoolean(STORE_INCLUDE_DIRECTORY_ENTRIES));
 			fJarPackage.setOverwrite(settings.getBoolean(STORE_OVERWRITE));
 		}
@@ -319,6 +328,7 @@ class JarPackageWizardPage extends AbstractJarDestinationWizardPage {
 		else
 			fJarPackage.setRefactoringAware(false);
 		fJarPackage.setCompress(fCompressCheckbox.getSelection());
+		fJarPackage.setIncremental(fIncrementalCheckbox.getSelection());
 		fJarPackage.setIncludeDirectoryEntries(fIncludeDirectoryEntriesCheckbox.getSelection());
 		fJarPackage.setOverwrite(fOverwriteCheckbox.getSelection());
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -273,6 +273,7 @@ public final class JarPackagerMessages extends NLS {
 	public static String JarPackageWizardPage_browseButton_text;
 
 	public static String JarPackageWizardPage_compress_text;
+	public static String JarPackageWizardPage_incremental_text;
 
 	public static String JarPackageWizardPage_configure_label;
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,14 +14,11 @@ package org.eclipse.jdt.internal.ui.jarpackager;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
-import java.util.zip.CRC32;
-import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
 
@@ -246,41 +243,6 @@ public final class JarPackagerUtil {
 		return false;
 	}
 
-	/**
-	 * Calculates the crc and size of the resource and updates the entry.
-	 *
-	 * @param entry
-	 *            the jar entry to update
-	 * @param stream
-	 *            the input stream
-	 * @param buffer
-	 *            a shared buffer to store temporary data
-	 *
-	 * @throws IOException
-	 *             if an input/output error occurs
-	 */
-	public static void calculateCrcAndSize(final ZipEntry entry, final InputStream stream, final byte[] buffer) throws IOException {
-		int size= 0;
-		final CRC32 crc= new CRC32();
-		int count;
-		try {
-			while ((count= stream.read(buffer, 0, buffer.length)) != -1) {
-				crc.update(buffer, 0, count);
-				size+= count;
-			}
-		} finally {
-			if (stream != null) {
-				try {
-					stream.close();
-				} catch (IOException exception) {
-					// Do nothing
-				}
-			}
-		}
-		entry.setSize(size);
-		entry.setCrc(crc.getValue());
-	}
-
 	/**
 	 * Opens the archive file at the given location.<br>
 	 * <em>Note: It is the caller's responsibility to close the returned
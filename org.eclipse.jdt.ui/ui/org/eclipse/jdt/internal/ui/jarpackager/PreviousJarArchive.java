@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.jarpackager;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The JAR file written by a previous export, used to update the JAR
+ * incrementally.
+ * <p>
+ * The previous JAR is moved aside before the new JAR is written. Entries
+ * whose CRC and size match the entry with the same name in the previous JAR
+ * are copied from there without compressing them again. If the CRC of an
+ * entry is not known, it is computed from the contents.
+ * </p>
+ *
+ * @since 3.12
+ */
+public final class PreviousJarArchive implements Closeable {
+
+	private static final String FILE_SUFFIX= ".previous"; //$NON-NLS-1$
+
+	/**
+	 * Moves the given JAR file aside and opens it.
+	 *
+	 * @param file the location of the JAR to be written
+	 * @return the previous JAR, or <code>null</code> if there is no readable
+	 *         JAR at the given location
+	 */
+	public static PreviousJarArchive open(File file) {
+		if (!file.isFile())
+			return null;
+		File previous= new File(file.getParentFile(), file.getName() + FILE_SUFFIX);
+		if (previous.exists() && !previous.delete())
+			return null;
+		if (!file.renameTo(previous))
+			return null;
+		ZipFile zipFile= null;
+		try {
+			zipFile= new ZipFile(previous);
+			return new PreviousJarArchive(previous, zipFile, new JarArchiveReader(previous));
+		} catch (IOException e) {
+			// not a JAR, write the new JAR from scratch
+			if (zipFile != null) {
+				try {
+					zipFile.close();
+				} catch (IOException ex) {
+					// ignore
+				}
+			}
+			previous.delete();
+			return null;
+		}
+	}
+
+	private final File fFile;
+	private final ZipFile fZipFile;
+	private final JarArchiveReader fReader;
+
+	private PreviousJarArchive(File file, ZipFile zipFile, JarArchiveReader reader) {
+		fFile= file;
+		fZipFile= zipFile;
+		fReader= reader;
+	}
+
+	/**
+	 * Adds an entry to the given writer. The entry is copied from the previous
+	 * JAR if it is unchanged, otherwise it is written with the given contents.
+	 * The contents are not closed.
+	 *
+	 * @param writer the writer of the new JAR
+	 * @param entry the entry, with name, method and time set
+	 * @param contents the contents, or <code>null</code> for an empty entry
+	 * @throws IOException if an I/O error occurs
+	 * @see JarArchiveWriter#putEntry(ZipEntry, InputStream)
+	 */
+	public void putEntry(JarArchiveWriter writer, ZipEntry entry, InputStream contents) throws IOException {
+		ZipEntry previous= contents != null ? fZipFile.getEntry(entry.getName()) : null;
+		if (previous == null || previous.isDirectory() || previous.getMethod() != entry.getMethod() || previous.getCrc() == -1) {
+			writer.putEntry(entry, contents);
+			return;
+		}
+
+		if (entry.getSize() != -1 && entry.getSize() != previous.getSize()) {
+			writer.putEntry(entry, contents);
+			return;
+		}
+		if (entry.getCrc() != -1 && entry.getSize() != -1) {
+			if (entry.getCrc() != previous.getCrc() || !copy(writer, entry, previous))
+				writer.putEntry(entry, contents);
+			return;
+		}
+
+		// a file can change without changing its time stamp, so the CRC is computed,
+		// which is still cheaper than compressing the contents again
+		byte[] data= new byte[(int) Math.min(Math.max(previous.getSize(), 0), JarArchiveWriter.MAX_BUFFERED_ENTRY_SIZE) + 1];
+		int length= 0;
+		int count;
+		while (length < data.length && (count= contents.read(data, length, data.length - length)) != -1)
+			length+= count;
+		if (length == previous.getSize()) {
+			CRC32 crc= new CRC32();
+			crc.update(data, 0, length);
+			if (crc.getValue() == previous.getCrc() && copy(writer, entry, previous))
+				return;
+		}
+		writer.putEntry(entry, new SequenceInputStream(new ByteArrayInputStream(data, 0, length), contents));
+	}
+
+	private boolean copy(JarArchiveWriter writer, ZipEntry entry, ZipEntry previous) throws IOException {
+		long offset= fReader.getDataOffset(previous.getName());
+		if (offset == -1)
+			return false;
+		ZipEntry copy= new ZipEntry(entry.getName());
+		copy.setMethod(previous.getMethod());
+		copy.setTime(entry.getTime() != -1 ? entry.getTime() : previous.getTime());
+		copy.setCrc(previous.getCrc());
+		copy.setSize(previous.getSize());
+		copy.setCompressedSize(previous.getCompressedSize());
+		writer.putRawEntry(copy, fReader.getChannel(), offset);
+		return true;
+	}
+
+	/**
+	 * Closes and deletes the previous JAR.
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			fZipFile.close();
+		} finally {
+			try {
+				fReader.close();
+			} finally {
+				fFile.delete();
+			}
+		}
+	}
+}
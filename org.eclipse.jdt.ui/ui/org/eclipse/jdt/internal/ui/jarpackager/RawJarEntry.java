@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.jarpackager;
+
+import java.nio.channels.FileChannel;
+import java.util.jar.JarEntry;
+
+/**
+ * A JAR entry whose compressed data is copied unchanged from another archive.
+ * The method, CRC and sizes of the entry must be set and describe the
+ * compressed data at the given position of the source.
+ * <p>
+ * {@link org.eclipse.jdt.ui.jarpackager.JarWriter3#addEntry(JarEntry, java.io.InputStream)}
+ * copies the data of such an entry instead of reading the given contents.
+ * </p>
+ *
+ * @see JarArchiveWriter#putRawEntry(java.util.zip.ZipEntry, FileChannel, long)
+ * @since 3.12
+ */
+public class RawJarEntry extends JarEntry {
+
+	private final FileChannel fSource;
+	private final long fPosition;
+
+	/**
+	 * Creates a new entry.
+	 *
+	 * @param name the name of the entry
+	 * @param source the channel of the archive to copy the data from
+	 * @param position the position of the compressed data in the source
+	 */
+	public RawJarEntry(String name, FileChannel source, long position) {
+		super(name);
+		fSource= source;
+		fPosition= position;
+	}
+
+	/**
+	 * Returns the channel of the archive to copy the data from.
+	 *
+	 * @return the source channel
+	 */
+	public FileChannel getSource() {
+		return fSource;
+	}
+
+	/**
+	 * Returns the position of the compressed data in the source.
+	 *
+	 * @return the position of the data
+	 */
+	public long getPosition() {
+		return fPosition;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2009 IBM Corporation and others.
+ * Copyright (c) 2007, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -33,8 +33,10 @@ import org.eclipse.jdt.internal.corext.util.Messages;
 import org.eclipse.jdt.ui.jarpackager.JarPackageData;
 import org.eclipse.jdt.ui.jarpackager.JarWriter3;
 
+import org.eclipse.jdt.internal.ui.jarpackager.JarArchiveReader;
 import org.eclipse.jdt.internal.ui.jarpackager.JarPackagerMessages;
 import org.eclipse.jdt.internal.ui.jarpackager.JarPackagerUtil;
+import org.eclipse.jdt.internal.ui.jarpackager.RawJarEntry;
 import org.eclipse.jdt.internal.ui.viewsupport.BasicElementLabels;
 
 
@@ -51,16 +53,43 @@ public class JarWriter4 extends JarWriter3 {
 	}
 
 	public void addZipEntry(ZipEntry zipEntry, ZipFile zipFile, String path) throws IOException {
+		addZipEntry(zipEntry, zipFile, null, path);
+	}
+
+	/**
+	 * Adds an entry of a library to the archive. If the entry is compressed
+	 * the same way as the exported entries, its compressed data is copied from
+	 * the library without inflating and deflating it again. Entries identical
+	 * to an already exported entry are skipped.
+	 *
+	 * @param zipEntry the entry of the library
+	 * @param zipFile the library
+	 * @param reader the reader for the compressed data of the library, or
+	 *            <code>null</code> to always inflate the entry
+	 * @param path the path of the entry in the archive
+	 * @throws IOException if an I/O error occurs
+	 * @since 3.12
+	 */
+	public void addZipEntry(ZipEntry zipEntry, ZipFile zipFile, JarArchiveReader reader, String path) throws IOException {
 		if (fJarPackage.areDirectoryEntriesIncluded())
 			addDirectories(path);
 
-		JarEntry newEntry= new JarEntry(path.replace(File.separatorChar, '/'));
-
-		if (fJarPackage.isCompressed())
-			newEntry.setMethod(ZipEntry.DEFLATED);
-			// Entry is filled automatically.
-		else {
-			newEntry.setMethod(ZipEntry.STORED);
+		String name= path.replace(File.separatorChar, '/');
+		int method= fJarPackage.isCompressed() ? ZipEntry.DEFLATED : ZipEntry.STORED;
+		long offset= -1;
+		if (reader != null && zipEntry.getMethod() == method && zipEntry.getSize() != -1 && zipEntry.getCrc() != -1 && zipEntry.getCompressedSize() != -1)
+			offset= reader.getDataOffset(zipEntry.getName());
+
+		JarEntry newEntry;
+		if (offset != -1) {
+			newEntry= new RawJarEntry(name, reader.getChannel(), offset);
+			newEntry.setCompressedSize(zipEntry.getCompressedSize());
+		} else {
+			newEntry= new JarEntry(name);
+		}
+		newEntry.setMethod(method);
+		// CRC and size allow to skip identical entries from other libraries
+		if (zipEntry.getSize() != -1 && zipEntry.getCrc() != -1) {
 			newEntry.setSize(zipEntry.getSize());
 			newEntry.setCrc(zipEntry.getCrc());
 		}
@@ -70,7 +99,28 @@ public class JarWriter4 extends JarWriter3 {
 		// Set modification time
 		newEntry.setTime(lastModified);
 
-		addEntry(newEntry, zipFile.getInputStream(zipEntry));
+		if (newEntry instanceof RawJarEntry)
+			addEntry(newEntry, null);
+		else
+			addEntry(newEntry, zipFile.getInputStream(zipEntry));
+	}
+
+	/**
+	 * Adds a library as a nested archive. The library is already compressed,
+	 * so it is always stored without deflating it again.
+	 *
+	 * @param file the library
+	 * @param path the path of the nested archive
+	 * @throws IOException if an I/O error occurs
+	 * @since 3.12
+	 */
+	public void addArchive(File file, String path) throws IOException {
+		if (fJarPackage.areDirectoryEntriesIncluded())
+			addDirectories(path);
+		JarEntry newEntry= new JarEntry(path.replace(File.separatorChar, '/'));
+		newEntry.setMethod(ZipEntry.STORED);
+		newEntry.setTime(System.currentTimeMillis());
+		addEntry(newEntry, new FileInputStream(file));
 	}
 
 	public void addZipEntryStream(ZipEntry zipEntry, InputStream is, String path) throws IOException {
@@ -113,13 +163,11 @@ public class JarWriter4 extends JarWriter3 {
 
 		JarEntry newEntry= new JarEntry(path.toString().replace(File.separatorChar, '/'));
 
+		// CRC and size are computed while writing the entry
 		if (fJarPackage.isCompressed())
 			newEntry.setMethod(ZipEntry.DEFLATED);
-			// Entry is filled automatically.
-		else {
+		else
 			newEntry.setMethod(ZipEntry.STORED);
-			JarPackagerUtil.calculateCrcAndSize(newEntry, new FileInputStream(file), new byte[4096]);
-		}
 
 		newEntry.setTime(file.lastModified());
 		addEntry(newEntry, new FileInputStream(file));
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2011 IBM Corporation and others.
+ * Copyright (c) 2007, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,7 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.jarpackagerfat;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Enumeration;
 import java.util.zip.ZipEntry;
@@ -25,6 +26,7 @@ import org.eclipse.jdt.internal.corext.util.Messages;
 
 import org.eclipse.jdt.ui.jarpackager.IManifestProvider;
 
+import org.eclipse.jdt.internal.ui.jarpackager.JarArchiveReader;
 import org.eclipse.jdt.internal.ui.viewsupport.BasicElementLabels;
 
 /**
@@ -63,27 +65,44 @@ public class UnpackFatJarBuilder extends FatJarBuilder {
 
 	@Override
 	public void writeArchive(ZipFile jarFile, IProgressMonitor progressMonitor) {
-		Enumeration<? extends ZipEntry> jarEntriesEnum= jarFile.entries();
-		while (jarEntriesEnum.hasMoreElements()) {
-			ZipEntry jarEntry= jarEntriesEnum.nextElement();
-			if (!jarEntry.isDirectory()) {
-				String entryName= jarEntry.getName();
-				addFile(entryName, jarEntry, jarFile);
+		// copies the compressed data of the entries instead of inflating and deflating them again
+		JarArchiveReader reader= null;
+		try {
+			reader= new JarArchiveReader(new File(jarFile.getName()));
+		} catch (IOException e) {
+			// fall back to inflating all entries
+		}
+		try {
+			Enumeration<? extends ZipEntry> jarEntriesEnum= jarFile.entries();
+			while (jarEntriesEnum.hasMoreElements()) {
+				ZipEntry jarEntry= jarEntriesEnum.nextElement();
+				if (!jarEntry.isDirectory()) {
+					String entryName= jarEntry.getName();
+					addFile(entryName, jarEntry, jarFile, reader);
+				}
+				progressMonitor.worked(1);
+				if (progressMonitor.isCanceled())
+					throw new OperationCanceledException();
+			}
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (IOException e) {
+					// ignore, the library has only been read
+				}
 			}
-			progressMonitor.worked(1);
-			if (progressMonitor.isCanceled())
-				throw new OperationCanceledException();
 		}
 	}
 
-	private void addFile(String destinationPath, ZipEntry jarEntry, ZipFile zipFile) {
+	private void addFile(String destinationPath, ZipEntry jarEntry, ZipFile zipFile, JarArchiveReader reader) {
 		// Handle META-INF/MANIFEST.MF
 		if (destinationPath.equalsIgnoreCase("META-INF/MANIFEST.MF") //$NON-NLS-1$
 				|| (isRemoveSigners() && destinationPath.startsWith("META-INF/") && destinationPath.endsWith(".SF"))) { //$NON-NLS-1$//$NON-NLS-2$
 			return;
 		}
 		try {
-			getJarWriter().addZipEntry(jarEntry, zipFile, destinationPath);
+			getJarWriter().addZipEntry(jarEntry, zipFile, reader, destinationPath);
 		} catch (IOException ex) {
 			if (ex instanceof ZipException && ex.getMessage() != null && ex.getMessage().startsWith("duplicate entry:")) {//$NON-NLS-1$
 				// ignore duplicates in META-INF (*.SF, *.RSA)
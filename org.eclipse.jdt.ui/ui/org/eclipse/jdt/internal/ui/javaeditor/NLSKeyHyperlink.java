@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2010 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,8 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.javaeditor;
 
+import java.io.IOException;
+
 import org.eclipse.swt.widgets.Display;
 
 import org.eclipse.core.runtime.Assert;
@@ -47,6 +49,8 @@ import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.internal.corext.refactoring.nls.AccessorClassReference;
 import org.eclipse.jdt.internal.corext.refactoring.nls.NLSHintHelper;
 import org.eclipse.jdt.internal.corext.refactoring.nls.NLSRefactoring;
+import org.eclipse.jdt.internal.corext.refactoring.nls.PropertiesFileCache;
+import org.eclipse.jdt.internal.corext.refactoring.nls.PropertiesFileCache.PropertiesFile;
 import org.eclipse.jdt.internal.corext.refactoring.nls.PropertyFileDocumentModel;
 import org.eclipse.jdt.internal.corext.util.Messages;
 
@@ -162,6 +166,10 @@ public class NLSKeyHyperlink implements IHyperlink {
 		boolean found= false;
 		IRegion region= null;
 		if (document != null) {
+			region= findCachedKeyRegion(keyName, propertiesFile, document);
+			found= region != null;
+		}
+		if (!found && document != null) {
 			FindReplaceDocumentAdapter finder= new FindReplaceDocumentAdapter(document);
 			PropertyKeyHyperlinkDetector detector= new PropertyKeyHyperlinkDetector();
 			detector.setContext(editor);
@@ -208,6 +216,40 @@ public class NLSKeyHyperlink implements IHyperlink {
 		}
 	}
 
+	/**
+	 * Returns the region of the key from the cached properties file if it
+	 * matches the given document.
+	 *
+	 * @param keyName the NLS key
+	 * @param propertiesFile the properties file
+	 * @param document the document of the properties file editor
+	 * @return the region of the key, or <code>null</code> if it is not known
+	 * @since 3.12
+	 */
+	private static IRegion findCachedKeyRegion(String keyName, IStorage propertiesFile, IDocument document) {
+		PropertiesFile file;
+		try {
+			file= PropertiesFileCache.getDefault().getPropertiesFile(propertiesFile);
+		} catch (CoreException e) {
+			return null;
+		} catch (IOException e) {
+			return null;
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+		IRegion region= file.getKeyRegion(keyName);
+		if (region == null || region.getOffset() + region.getLength() > document.getLength())
+			return null;
+		try {
+			// the editor document can differ from the file buffer, e.g. for files in archives
+			if (file.getKeyText(keyName).equals(document.get(region.getOffset(), region.getLength())))
+				return region;
+		} catch (BadLocationException e) {
+			// fall through
+		}
+		return null;
+	}
+
 	/**
 	 * Shows the given message as error on the status line.
 	 * 
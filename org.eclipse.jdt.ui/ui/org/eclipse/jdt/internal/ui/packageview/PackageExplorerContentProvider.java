@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,8 +12,10 @@ package org.eclipse.jdt.internal.ui.packageview;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Display;
@@ -83,7 +85,19 @@ public class PackageExplorerContentProvider extends StandardJavaElementContentPr
 	private boolean fShowLibrariesNode;
 	private boolean fFoldPackages;
 
-	private Collection<Runnable> fPendingUpdates;
+	/**
+	 * The delay in milliseconds before pending updates are run in the UI
+	 * thread, so that the updates of subsequent deltas can be merged.
+	 */
+	private static final long UPDATE_DELAY= 50;
+
+	/**
+	 * The maximal depth of the parent chains that are followed to merge
+	 * updates.
+	 */
+	private static final int MAX_ANCESTORS= 64;
+
+	private PendingUpdates fPendingUpdates;
 
 	private UIJob fUpdateJob;
 
@@ -140,12 +154,13 @@ public class PackageExplorerContentProvider extends StandardJavaElementContentPr
 			if (!hasPendingUpdates && ctrl.getDisplay().getThread() == Thread.currentThread() && !fViewer.isBusy()) {
 				runUpdates(runnables);
 			} else {
+				// compute the parent chains before locking, they may access the Java model
+				List<PendingUpdate> updates= createPendingUpdates(runnables);
 				synchronized (this) {
 					if (fPendingUpdates == null) {
-						fPendingUpdates= runnables;
-					} else {
-						fPendingUpdates.addAll(runnables);
+						fPendingUpdates= new PendingUpdates();
 					}
+					fPendingUpdates.addAll(updates);
 				}
 				postAsyncUpdate(ctrl.getDisplay());
 			}
@@ -167,14 +182,14 @@ public class PackageExplorerContentProvider extends StandardJavaElementContentPr
 			};
 			fUpdateJob.setSystem(true);
 		}
-		fUpdateJob.schedule();
+		fUpdateJob.schedule(UPDATE_DELAY);
 	}
 
 	/**
 	 * Run all of the runnables that are the widget updates. Must be called in the display thread.
 	 */
 	public void runPendingUpdates() {
-		Collection<Runnable> pendingUpdates;
+		PendingUpdates pendingUpdates;
 		synchronized (this) {
 			pendingUpdates= fPendingUpdates;
 			fPendingUpdates= null;
@@ -182,9 +197,52 @@ public class PackageExplorerContentProvider extends StandardJavaElementContentPr
 		if (pendingUpdates != null && fViewer != null) {
 			Control control = fViewer.getControl();
 			if (control != null && !control.isDisposed()) {
-				runUpdates(pendingUpdates);
+				runUpdates(pendingUpdates.getRunnables());
+			}
+		}
+	}
+
+	private List<PendingUpdate> createPendingUpdates(Collection<Runnable> runnables) {
+		List<PendingUpdate> updates= new ArrayList<>(runnables.size());
+		for (Iterator<Runnable> iter= runnables.iterator(); iter.hasNext();) {
+			Runnable runnable= iter.next();
+			if (runnable instanceof RefreshRunnable) {
+				RefreshRunnable refresh= (RefreshRunnable) runnable;
+				for (Iterator<Object> elements= refresh.fToRefresh.iterator(); elements.hasNext();) {
+					Object element= elements.next();
+					updates.add(new PendingUpdate(null, element, refresh.fUpdateLabels, getAncestors(element)));
+				}
+			} else if (runnable instanceof AddRunnable) {
+				Object parent= ((AddRunnable) runnable).fParent;
+				List<Object> ancestors= getAncestors(parent);
+				ancestors.add(parent);
+				updates.add(new PendingUpdate(runnable, null, false, ancestors));
+			} else if (runnable instanceof RemoveRunnable) {
+				updates.add(new PendingUpdate(runnable, null, false, getAncestors(((RemoveRunnable) runnable).fElement)));
+			} else {
+				updates.add(new PendingUpdate(runnable, null, false, null));
 			}
 		}
+		return updates;
+	}
+
+	/**
+	 * Returns the elements whose refresh also refreshes the given element.
+	 *
+	 * @param element the element
+	 * @return the parent chain of the element and the viewer input
+	 */
+	private List<Object> getAncestors(Object element) {
+		List<Object> ancestors= new ArrayList<>();
+		Object parent= element != null ? internalGetParent(element) : null;
+		while (parent != null && ancestors.size() < MAX_ANCESTORS) {
+			ancestors.add(parent);
+			parent= internalGetParent(parent);
+		}
+		Object input= fInput;
+		if (element != null && input != null && !input.equals(element) && !ancestors.contains(input))
+			ancestors.add(input);
+		return ancestors;
 	}
 
 	private void runUpdates(Collection<Runnable> runnables) {
@@ -929,48 +987,15 @@ public class PackageExplorerContentProvider extends StandardJavaElementContentPr
 	}
 
 	protected void postRefresh(final List<Object> toRefresh, final boolean updateLabels, Collection<Runnable> runnables) {
-		runnables.add(new Runnable() {
-			@Override
-			public void run() {
-				Object[] elements= toRefresh.toArray();
-				for (int i= 0; i < elements.length; i++) {
-					Object element= elements[i];
-					if (element == null || fViewer.testFindItems(element).length > 0) {
-						fViewer.refresh(element, updateLabels);
-					}
-				}
-			}
-		});
+		runnables.add(new RefreshRunnable(toRefresh, updateLabels));
 	}
 
 	protected void postAdd(final Object parent, final Object element, Collection<Runnable> runnables) {
-		runnables.add(new Runnable() {
-			@Override
-			public void run() {
-				Widget[] items= fViewer.testFindItems(element);
-				for (int i= 0; i < items.length; i++) {
-					Widget item= items[i];
-					if (item instanceof TreeItem && !item.isDisposed()) {
-						TreeItem parentItem= ((TreeItem) item).getParentItem();
-						if (parentItem != null && !parentItem.isDisposed() && parent.equals(parentItem.getData())) {
-							return; // no add, element already added (most likely by a refresh)
-						}
-					}
-				}
-				fViewer.add(parent, element);
-			}
-		});
+		runnables.add(new AddRunnable(parent, element));
 	}
 
 	protected void postRemove(final Object element, Collection<Runnable> runnables) {
-		runnables.add(new Runnable() {
-			@Override
-			public void run() {
-				if (fViewer.testFindItems(element).length > 0) {
-					fViewer.remove(element);
-				}
-			}
-		});
+		runnables.add(new RemoveRunnable(element));
 	}
 
 	protected void postProjectStateChanged(final Object root, Collection<Runnable> runnables) {
@@ -986,6 +1011,189 @@ public class PackageExplorerContentProvider extends StandardJavaElementContentPr
 	}
 
 
+	private void refresh(Object element, boolean updateLabels) {
+		if (element == null || fViewer.testFindItems(element).length > 0) {
+			fViewer.refresh(element, updateLabels);
+		}
+	}
+
+	private class RefreshRunnable implements Runnable {
+		private final List<Object> fToRefresh;
+		private final boolean fUpdateLabels;
+
+		public RefreshRunnable(List<Object> toRefresh, boolean updateLabels) {
+			fToRefresh= toRefresh;
+			fUpdateLabels= updateLabels;
+		}
+
+		@Override
+		public void run() {
+			Object[] elements= fToRefresh.toArray();
+			for (int i= 0; i < elements.length; i++) {
+				refresh(elements[i], fUpdateLabels);
+			}
+		}
+	}
+
+	private class AddRunnable implements Runnable {
+		private final Object fParent;
+		private final Object fElement;
+
+		public AddRunnable(Object parent, Object element) {
+			fParent= parent;
+			fElement= element;
+		}
+
+		@Override
+		public void run() {
+			Widget[] items= fViewer.testFindItems(fElement);
+			for (int i= 0; i < items.length; i++) {
+				Widget item= items[i];
+				if (item instanceof TreeItem && !item.isDisposed()) {
+					TreeItem parentItem= ((TreeItem) item).getParentItem();
+					if (parentItem != null && !parentItem.isDisposed() && fParent.equals(parentItem.getData())) {
+						return; // no add, element already added (most likely by a refresh)
+					}
+				}
+			}
+			fViewer.add(fParent, fElement);
+		}
+	}
+
+	private class RemoveRunnable implements Runnable {
+		private final Object fElement;
+
+		public RemoveRunnable(Object element) {
+			fElement= element;
+		}
+
+		@Override
+		public void run() {
+			if (fViewer.testFindItems(fElement).length > 0) {
+				fViewer.remove(fElement);
+			}
+		}
+	}
+
+	/**
+	 * An update that waits for the UI thread. It is either the refresh of
+	 * a single element, or a runnable.
+	 */
+	private static final class PendingUpdate {
+		/** The runnable, or <code>null</code> for a refresh */
+		private final Runnable fRunnable;
+		private final Object fElement;
+		private boolean fUpdateLabels;
+		/**
+		 * The elements whose refresh makes this update unnecessary, or
+		 * <code>null</code> if the update is always needed
+		 */
+		private final List<Object> fAncestors;
+
+		public PendingUpdate(Runnable runnable, Object element, boolean updateLabels, List<Object> ancestors) {
+			fRunnable= runnable;
+			fElement= element;
+			fUpdateLabels= updateLabels;
+			fAncestors= ancestors;
+		}
+	}
+
+	/**
+	 * The updates that wait for the UI thread, merged while they are posted:
+	 * an element is refreshed at most once, and a refresh replaces the
+	 * refreshes, adds and removes below the refreshed element. The updates run
+	 * in the order they were first posted, all of them read the current state
+	 * of the model.
+	 */
+	private final class PendingUpdates {
+		private List<PendingUpdate> fUpdates= new ArrayList<>();
+		/** The pending refreshes by element */
+		private final Map<Object, PendingUpdate> fRefreshes= new HashMap<>();
+
+		public void addAll(List<PendingUpdate> updates) {
+			for (Iterator<PendingUpdate> iter= updates.iterator(); iter.hasNext();) {
+				add(iter.next());
+			}
+		}
+
+		private void add(PendingUpdate update) {
+			if (update.fAncestors != null) {
+				PendingUpdate covering= findCoveringRefresh(update.fAncestors);
+				if (covering != null) {
+					covering.fUpdateLabels|= update.fUpdateLabels;
+					return;
+				}
+			}
+			if (update.fRunnable != null) {
+				fUpdates.add(update);
+				return;
+			}
+			PendingUpdate existing= fRefreshes.get(update.fElement);
+			if (existing != null) {
+				existing.fUpdateLabels|= update.fUpdateLabels;
+				return;
+			}
+			removeCoveredUpdates(update);
+			fUpdates.add(update);
+			fRefreshes.put(update.fElement, update);
+		}
+
+		private PendingUpdate findCoveringRefresh(List<Object> ancestors) {
+			if (fRefreshes.isEmpty())
+				return null;
+			for (Iterator<Object> iter= ancestors.iterator(); iter.hasNext();) {
+				PendingUpdate refresh= fRefreshes.get(iter.next());
+				if (refresh != null)
+					return refresh;
+			}
+			return null;
+		}
+
+		private void removeCoveredUpdates(PendingUpdate refresh) {
+			List<PendingUpdate> remaining= null;
+			for (int i= 0; i < fUpdates.size(); i++) {
+				PendingUpdate update= fUpdates.get(i);
+				boolean covered= update.fAncestors != null && update.fAncestors.contains(refresh.fElement);
+				if (covered) {
+					if (remaining == null) {
+						remaining= new ArrayList<>(fUpdates.subList(0, i));
+					}
+					refresh.fUpdateLabels|= update.fUpdateLabels;
+					if (update.fRunnable == null) {
+						fRefreshes.remove(update.fElement);
+					}
+				} else if (remaining != null) {
+					remaining.add(update);
+				}
+			}
+			if (remaining != null) {
+				fUpdates= remaining;
+			}
+		}
+
+		public boolean isEmpty() {
+			return fUpdates.isEmpty();
+		}
+
+		public List<Runnable> getRunnables() {
+			List<Runnable> runnables= new ArrayList<>(fUpdates.size());
+			for (Iterator<PendingUpdate> iter= fUpdates.iterator(); iter.hasNext();) {
+				final PendingUpdate update= iter.next();
+				if (update.fRunnable != null) {
+					runnables.add(update.fRunnable);
+				} else {
+					runnables.add(new Runnable() {
+						@Override
+						public void run() {
+							refresh(update.fElement, update.fUpdateLabels);
+						}
+					});
+				}
+			}
+			return runnables;
+		}
+	}
+
 	/*
 	 * @see org.eclipse.jface.util.IPropertyChangeListener#propertyChange(org.eclipse.jface.util.PropertyChangeEvent)
 	 */
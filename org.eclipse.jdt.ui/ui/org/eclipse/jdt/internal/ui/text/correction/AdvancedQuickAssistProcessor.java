@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -2397,10 +2397,6 @@ public class AdvancedQuickAssistProcessor implements IQuickAssistProcessor {
 	}
 
 	private static boolean getConvertSwitchToIfProposals(IInvocationContext context, ASTNode covering, Collection<ICommandAccess> resultingCollections, boolean preserveNPE) {
-		final AST ast= covering.getAST();
-		final ASTRewrite rewrite= ASTRewrite.create(ast);
-		final ImportRewrite importRewrite= StubUtility.createImportRewrite(context.getASTRoot(), true);
-		//
 		SwitchStatement switchStatement= (SwitchStatement) covering;
 		ITypeBinding expressionType= switchStatement.getExpression().resolveTypeBinding();
 		boolean isStringsInSwitch= expressionType != null && "java.lang.String".equals(expressionType.getQualifiedName()); //$NON-NLS-1$
@@ -2408,133 +2404,187 @@ public class AdvancedQuickAssistProcessor implements IQuickAssistProcessor {
 		if (!isStringsInSwitch && preserveNPE)
 			return false;
 
-		IfStatement firstIfStatement= null;
-		IfStatement currentIfStatement= null;
-		Block currentBlock= null;
-		boolean hasStopAsLastExecutableStatement= false;
-		Block defaultBlock= null;
-		Expression currentCondition= null;
-		boolean defaultFound= false;
-
-		ArrayList<Block> allBlocks= new ArrayList<>();
-		ImportRewriteContext importRewriteContext= new ContextSensitiveImportRewriteContext(ASTResolving.findParentBodyDeclaration(covering), importRewrite);
-
-		Expression switchExpression= switchStatement.getExpression();
-		Name varName;
-		VariableDeclarationStatement variableDeclarationStatement= null;
-		if (switchExpression instanceof Name) {
-			varName= (Name) switchExpression;
-		} else {
-			// Switch expression could have side effects, see bug 252040
-			VariableDeclarationFragment variableDeclarationFragment= ast.newVariableDeclarationFragment();
-			String[] varNames= StubUtility.getVariableNameSuggestions(NamingConventions.VK_LOCAL, context.getCompilationUnit().getJavaProject(), expressionType, switchExpression, null);
-			varName= ast.newSimpleName(varNames[0]);
-			variableDeclarationFragment.setName((SimpleName) varName);
-			variableDeclarationFragment.setStructuralProperty(VariableDeclarationFragment.INITIALIZER_PROPERTY, rewrite.createCopyTarget(switchExpression));
+		if (!isConvertibleToIf(switchStatement))
+			return false;
 
-			variableDeclarationStatement= ast.newVariableDeclarationStatement(variableDeclarationFragment);
-			Type type= importRewrite.addImport(expressionType, ast, importRewriteContext);
-			variableDeclarationStatement.setType(type);
-		}
+		// add correction proposal
+		String source= ASTNodes.asString(switchStatement.getExpression()).replaceAll("\r\n?|\n", " "); //$NON-NLS-1$ //$NON-NLS-2$
+		String label= preserveNPE ? Messages.format(CorrectionMessages.AdvancedQuickAssistProcessor_convertSwitchToIf_preserveNPE, source) : CorrectionMessages.AdvancedQuickAssistProcessor_convertSwitchToIf;
+		ASTRewriteCorrectionProposal proposal= new ConvertSwitchToIfProposal(label, context.getCompilationUnit(), IProposalRelevance.CONVERT_SWITCH_TO_IF_ELSE, switchStatement, expressionType, isStringsInSwitch, preserveNPE);
+		resultingCollections.add(proposal);
+		return true;
+	}
 
+	/**
+	 * Tells whether the given switch statement can be converted to if-else statements, i.e. no
+	 * statements fall through to the next case and 'default' is the last case.
+	 *
+	 * @param switchStatement the switch statement
+	 * @return <code>true</code> if the statement can be converted
+	 * @since 3.12
+	 */
+	private static boolean isConvertibleToIf(SwitchStatement switchStatement) {
+		boolean inCase= false;
+		boolean hasStopAsLastExecutableStatement= false;
+		boolean defaultFound= false;
 		for (Iterator<Statement> iter= switchStatement.statements().iterator(); iter.hasNext();) {
 			Statement statement= iter.next();
 			if (statement instanceof SwitchCase) {
-				SwitchCase switchCase= (SwitchCase) statement;
 				// special case: pass through
-				if (currentBlock != null) {
-					if (!hasStopAsLastExecutableStatement) {
-						return false;
-					}
-					currentBlock= null;
+				if (inCase && !hasStopAsLastExecutableStatement) {
+					return false;
 				}
-				
+				inCase= false;
 				if (defaultFound) {
 					// This gets too complicated. We only support 'default' as last SwitchCase.
 					return false;
 				}
-				if (switchCase.isDefault()) {
+				if (((SwitchCase) statement).isDefault()) {
 					defaultFound= true;
 				}
-				// prepare condition (is null for 'default')
-				Expression switchCaseCondition= createSwitchCaseCondition(ast, rewrite, importRewrite, importRewriteContext, varName, switchCase, isStringsInSwitch, preserveNPE);
-				if (currentCondition == null) {
-					currentCondition= switchCaseCondition;
-				} else {
-					InfixExpression condition= ast.newInfixExpression();
-					condition.setOperator(InfixExpression.Operator.CONDITIONAL_OR);
-					condition.setLeftOperand(currentCondition);
-					if (switchCaseCondition == null)
-						switchCaseCondition= ast.newBooleanLiteral(true);
-					condition.setRightOperand(switchCaseCondition);
-					currentCondition= condition;
-				}
+			} else if (statement instanceof BreakStatement) {
+				inCase= false;
 			} else {
-				// ensure that current block exists as 'then' statement of 'if'
-				if (currentBlock == null) {
-					if (currentCondition != null) {
-						IfStatement ifStatement;
-						if (firstIfStatement == null) {
-							firstIfStatement= ast.newIfStatement();
-							ifStatement= firstIfStatement;
+				inCase= true;
+				hasStopAsLastExecutableStatement= hasStopAsLastExecutableStatement(statement);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Converts a switch statement to if-else statements. The rewrite, which copies all statements
+	 * of the switch, is only created when the proposal is previewed or applied.
+	 *
+	 * @since 3.12
+	 */
+	private static final class ConvertSwitchToIfProposal extends ASTRewriteCorrectionProposal {
+
+		private final SwitchStatement fSwitchStatement;
+		private final ITypeBinding fExpressionType;
+		private final boolean fIsStringsInSwitch;
+		private final boolean fPreserveNPE;
+
+		public ConvertSwitchToIfProposal(String label, ICompilationUnit cu, int relevance, SwitchStatement switchStatement, ITypeBinding expressionType, boolean isStringsInSwitch, boolean preserveNPE) {
+			super(label, cu, null, relevance);
+			fSwitchStatement= switchStatement;
+			fExpressionType= expressionType;
+			fIsStringsInSwitch= isStringsInSwitch;
+			fPreserveNPE= preserveNPE;
+		}
+
+		@Override
+		protected ASTRewrite getRewrite() throws CoreException {
+			final AST ast= fSwitchStatement.getAST();
+			final ASTRewrite rewrite= ASTRewrite.create(ast);
+			final ImportRewrite importRewrite= createImportRewrite((CompilationUnit) fSwitchStatement.getRoot());
+
+			IfStatement firstIfStatement= null;
+			IfStatement currentIfStatement= null;
+			Block currentBlock= null;
+			Block defaultBlock= null;
+			Expression currentCondition= null;
+
+			ArrayList<Block> allBlocks= new ArrayList<>();
+			ImportRewriteContext importRewriteContext= new ContextSensitiveImportRewriteContext(ASTResolving.findParentBodyDeclaration(fSwitchStatement), importRewrite);
+
+			Expression switchExpression= fSwitchStatement.getExpression();
+			Name varName;
+			VariableDeclarationStatement variableDeclarationStatement= null;
+			if (switchExpression instanceof Name) {
+				varName= (Name) switchExpression;
+			} else {
+				// Switch expression could have side effects, see bug 252040
+				VariableDeclarationFragment variableDeclarationFragment= ast.newVariableDeclarationFragment();
+				String[] varNames= StubUtility.getVariableNameSuggestions(NamingConventions.VK_LOCAL, getCompilationUnit().getJavaProject(), fExpressionType, switchExpression, null);
+				varName= ast.newSimpleName(varNames[0]);
+				variableDeclarationFragment.setName((SimpleName) varName);
+				variableDeclarationFragment.setStructuralProperty(VariableDeclarationFragment.INITIALIZER_PROPERTY, rewrite.createCopyTarget(switchExpression));
+
+				variableDeclarationStatement= ast.newVariableDeclarationStatement(variableDeclarationFragment);
+				Type type= importRewrite.addImport(fExpressionType, ast, importRewriteContext);
+				variableDeclarationStatement.setType(type);
+			}
+
+			for (Iterator<Statement> iter= fSwitchStatement.statements().iterator(); iter.hasNext();) {
+				Statement statement= iter.next();
+				if (statement instanceof SwitchCase) {
+					SwitchCase switchCase= (SwitchCase) statement;
+					// the previous case ends with a stop, see isConvertibleToIf(..)
+					currentBlock= null;
+
+					// prepare condition (is null for 'default')
+					Expression switchCaseCondition= createSwitchCaseCondition(ast, rewrite, importRewrite, importRewriteContext, varName, switchCase, fIsStringsInSwitch, fPreserveNPE);
+					if (currentCondition == null) {
+						currentCondition= switchCaseCondition;
+					} else {
+						InfixExpression condition= ast.newInfixExpression();
+						condition.setOperator(InfixExpression.Operator.CONDITIONAL_OR);
+						condition.setLeftOperand(currentCondition);
+						if (switchCaseCondition == null)
+							switchCaseCondition= ast.newBooleanLiteral(true);
+						condition.setRightOperand(switchCaseCondition);
+						currentCondition= condition;
+					}
+				} else {
+					// ensure that current block exists as 'then' statement of 'if'
+					if (currentBlock == null) {
+						if (currentCondition != null) {
+							IfStatement ifStatement;
+							if (firstIfStatement == null) {
+								firstIfStatement= ast.newIfStatement();
+								ifStatement= firstIfStatement;
+							} else {
+								ifStatement= ast.newIfStatement();
+								currentIfStatement.setElseStatement(ifStatement);
+							}
+							currentIfStatement= ifStatement;
+							ifStatement.setExpression(currentCondition);
+							currentCondition= null;
+							currentBlock= ast.newBlock();
+							ifStatement.setThenStatement(currentBlock);
+							allBlocks.add(currentBlock);
 						} else {
-							ifStatement= ast.newIfStatement();
-							currentIfStatement.setElseStatement(ifStatement);
+							// case for default:
+							defaultBlock= ast.newBlock();
+							currentBlock= defaultBlock;
+							allBlocks.add(currentBlock);
+							// delay adding of default block
 						}
-						currentIfStatement= ifStatement;
-						ifStatement.setExpression(currentCondition);
-						currentCondition= null;
-						currentBlock= ast.newBlock();
-						ifStatement.setThenStatement(currentBlock);
-						allBlocks.add(currentBlock);
+					}
+					if (statement instanceof BreakStatement) {
+						currentBlock= null;
 					} else {
-						// case for default:
-						defaultBlock= ast.newBlock();
-						currentBlock= defaultBlock;
-						allBlocks.add(currentBlock);
-						// delay adding of default block
+						// add current statement in current block
+						Statement copyStatement= copyStatementExceptBreak(ast, rewrite, statement);
+
+						currentBlock.statements().add(copyStatement);
 					}
 				}
-				if (statement instanceof BreakStatement) {
-					currentBlock= null;
-				} else {
-					// add current statement in current block
-
-					hasStopAsLastExecutableStatement= hasStopAsLastExecutableStatement(statement);
-					Statement copyStatement= copyStatementExceptBreak(ast, rewrite, statement);
-
-					currentBlock.statements().add(copyStatement);
+			}
+			// check, may be we have delayed default block
+			if (defaultBlock != null) {
+				currentIfStatement.setElseStatement(defaultBlock);
+			}
+			// remove unnecessary blocks in blocks
+			for (int i= 0; i < allBlocks.size(); i++) {
+				Block block= allBlocks.get(i);
+				List<Statement> statements= block.statements();
+				if (statements.size() == 1 && statements.get(0) instanceof Block) {
+					Block innerBlock= (Block) statements.remove(0);
+					block.getParent().setStructuralProperty(block.getLocationInParent(), innerBlock);
 				}
 			}
-		}
-		// check, may be we have delayed default block
-		if (defaultBlock != null) {
-			currentIfStatement.setElseStatement(defaultBlock);
-		}
-		// remove unnecessary blocks in blocks
-		for (int i= 0; i < allBlocks.size(); i++) {
-			Block block= allBlocks.get(i);
-			List<Statement> statements= block.statements();
-			if (statements.size() == 1 && statements.get(0) instanceof Block) {
-				Block innerBlock= (Block) statements.remove(0);
-				block.getParent().setStructuralProperty(block.getLocationInParent(), innerBlock);
+
+			if (variableDeclarationStatement == null) {
+				// replace 'switch' with single if-else-if statement
+				rewrite.replace(fSwitchStatement, firstIfStatement, null);
+			} else {
+				new StatementRewrite(rewrite, new ASTNode[] { fSwitchStatement }).replace(new ASTNode[] { variableDeclarationStatement, firstIfStatement }, null);
 			}
-		}
 
-		if (variableDeclarationStatement == null) {
-			// replace 'switch' with single if-else-if statement
-			rewrite.replace(switchStatement, firstIfStatement, null);
-		} else {
-			new StatementRewrite(rewrite, new ASTNode[] { switchStatement }).replace(new ASTNode[] { variableDeclarationStatement, firstIfStatement }, null);
+			return rewrite;
 		}
-
-		// add correction proposal
-		String source= ASTNodes.asString(switchExpression).replaceAll("\r\n?|\n", " "); //$NON-NLS-1$ //$NON-NLS-2$
-		String label= preserveNPE ? Messages.format(CorrectionMessages.AdvancedQuickAssistProcessor_convertSwitchToIf_preserveNPE, source) : CorrectionMessages.AdvancedQuickAssistProcessor_convertSwitchToIf;
-		ASTRewriteCorrectionProposal proposal= new ASTRewriteCorrectionProposal(label, context.getCompilationUnit(), rewrite, IProposalRelevance.CONVERT_SWITCH_TO_IF_ELSE);
-		proposal.setImportRewrite(importRewrite);
-		resultingCollections.add(proposal);
-		return true;
 	}
 
 	private static Expression createSwitchCaseCondition(AST ast, ASTRewrite rewrite, ImportRewrite importRewrite, ImportRewriteContext importRewriteContext, Name switchExpression,
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -84,6 +84,14 @@ public final class ContributedProcessorDescriptor {
 		return map;
 	}
 
+	/**
+	 * @return the id of the contributed processor, or <code>null</code> if it has none
+	 * @since 3.12
+	 */
+	public String getId() {
+		return fConfigurationElement.getAttribute(ID);
+	}
+
 	public IStatus checkSyntax() {
 		IConfigurationElement[] children= fConfigurationElement.getChildren(ExpressionTagNames.ENABLEMENT);
 		if (children.length > 1) {
@@ -126,7 +134,7 @@ public final class ContributedProcessorDescriptor {
 		return false;
 	}
 
-	public Object getProcessor(ICompilationUnit cunit, Class<?> expectedType) {
+	public synchronized Object getProcessor(ICompilationUnit cunit, Class<?> expectedType) {
 		if (matches(cunit)) {
 			if (fProcessorInstance == null) {
 				try {
@@ -305,6 +305,7 @@ public final class CorrectionMessages extends NLS {
 	public static String JavaCorrectionProcessor_go_to_closest_using_key;
 	public static String JavaCorrectionProcessor_go_to_original_using_menu;
 	public static String JavaCorrectionProcessor_go_to_original_using_key;
+	public static String JavaCorrectionProcessor_processor_job;
 
 	public static String TaskMarkerProposal_description;
 	public static String TypeChangeCompletionProposal_field_name;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,16 +14,36 @@ package org.eclipse.jdt.internal.ui.text.correction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.IExtensionPoint;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IRegistryEventListener;
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.PerformanceStats;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
 
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.contentassist.ContentAssistEvent;
@@ -47,6 +67,8 @@ import org.eclipse.ui.texteditor.SimpleMarkerAnnotation;
 import org.eclipse.ltk.core.refactoring.NullChange;
 
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
 
 import org.eclipse.jdt.internal.corext.util.Messages;
 
@@ -69,10 +91,256 @@ public class JavaCorrectionProcessor implements org.eclipse.jface.text.quickassi
 	private static final String QUICKFIX_PROCESSOR_CONTRIBUTION_ID= "quickFixProcessors"; //$NON-NLS-1$
 	private static final String QUICKASSIST_PROCESSOR_CONTRIBUTION_ID= "quickAssistProcessors"; //$NON-NLS-1$
 
+	/**
+	 * Internal preference to run the contributed processors concurrently when collecting quick
+	 * fixes and quick assists. Processors that need the UI thread must not be contributed when
+	 * this is enabled.
+	 *
+	 * @since 3.12
+	 */
+	public static final String PREF_PARALLEL_COLLECTION= "quickfix_parallel_collection"; //$NON-NLS-1$
+
+	/**
+	 * Time in milliseconds a processor may take when the processors run concurrently. The
+	 * proposals of processors that are not done by then are dropped.
+	 *
+	 * @since 3.12
+	 */
+	private static final long PROCESSOR_TIME_BUDGET= 1000;
+
+	/**
+	 * The name of the performance event used to trace the processors.
+	 *
+	 * @since 3.12
+	 */
+	private static final String PERFORMANCE_EVENT= JavaPlugin.getPluginId() + "/perf/quickfix/processors"; //$NON-NLS-1$
+
+	/**
+	 * If <code>true</code>, execution time of processors is measured and the data forwarded to
+	 * core's {@link PerformanceStats} service.
+	 *
+	 * @since 3.12
+	 */
+	private static final boolean MEASURE_PERFORMANCE= PerformanceStats.isEnabled(PERFORMANCE_EVENT);
+
 	private static ContributedProcessorDescriptor[] fgContributedAssistProcessors= null;
 	private static ContributedProcessorDescriptor[] fgContributedCorrectionProcessors= null;
 
+	private static final int HAS_CORRECTIONS_CACHE_SIZE= 1000;
+
+	/**
+	 * Time in milliseconds a cached result of
+	 * {@link #hasCorrections(ICompilationUnit, int, String)} is used. Enablement expressions of
+	 * contributed processors may test state that is not part of the key.
+	 *
+	 * @since 3.12
+	 */
+	private static final long HAS_CORRECTIONS_CACHE_TIMEOUT= 60 * 1000;
+
+	/**
+	 * The cached results of {@link #hasCorrections(ICompilationUnit, int, String)}.
+	 *
+	 * @since 3.12
+	 */
+	private static final Map<HasCorrectionsKey, HasCorrectionsResult> fgHasCorrectionsCache= new LinkedHashMap<HasCorrectionsKey, HasCorrectionsResult>(HAS_CORRECTIONS_CACHE_SIZE, 0.75f, true) {
+		private static final long serialVersionUID= 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<HasCorrectionsKey, HasCorrectionsResult> eldest) {
+			return size() > HAS_CORRECTIONS_CACHE_SIZE;
+		}
+	};
+
+	/**
+	 * Incremented when the cache is cleared, so that a result computed with the old processors is
+	 * not cached. Guarded by {@link #fgHasCorrectionsCache}.
+	 *
+	 * @since 3.12
+	 */
+	private static int fgHasCorrectionsGeneration= 0;
+
+	private static IRegistryEventListener fgRegistryListener= null;
+
+	/**
+	 * The nature ids of the projects, as reading the description of a project copies it. Entries
+	 * are removed by the {@link #fgNaturesListener} when the description of a project changes.
+	 *
+	 * @since 3.12
+	 */
+	private static final Map<IProject, List<String>> fgProjectNatures= new HashMap<>();
+
+	/**
+	 * Incremented when an entry of {@link #fgProjectNatures} is removed, so that natures read
+	 * before a description change are not cached. Guarded by {@link #fgProjectNatures}.
+	 *
+	 * @since 3.12
+	 */
+	private static int fgProjectNaturesGeneration= 0;
+
+	private static IResourceChangeListener fgNaturesListener= null;
+
+	/**
+	 * Key of the {@link #fgHasCorrectionsCache}. The source level and the project natures are part
+	 * of the key, as they decide which processors are enabled for the compilation unit.
+	 *
+	 * @since 3.12
+	 */
+	private static final class HasCorrectionsKey {
+		private final ICompilationUnit fCompilationUnit;
+		private final String fSourceLevel;
+		private final List<String> fNatures;
+		private final int fProblemId;
+		private final String fMarkerType;
+
+		public HasCorrectionsKey(ICompilationUnit cu, String sourceLevel, List<String> natures, int problemId, String markerType) {
+			fCompilationUnit= cu;
+			fSourceLevel= sourceLevel;
+			fNatures= natures;
+			fProblemId= problemId;
+			fMarkerType= markerType;
+		}
+
+		@Override
+		public int hashCode() {
+			int result= fCompilationUnit.hashCode();
+			result= 31 * result + (fSourceLevel == null ? 0 : fSourceLevel.hashCode());
+			result= 31 * result + fNatures.hashCode();
+			result= 31 * result + fProblemId;
+			result= 31 * result + (fMarkerType == null ? 0 : fMarkerType.hashCode());
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof HasCorrectionsKey))
+				return false;
+			HasCorrectionsKey other= (HasCorrectionsKey) obj;
+			return fProblemId == other.fProblemId
+					&& fCompilationUnit.equals(other.fCompilationUnit)
+					&& (fSourceLevel == null ? other.fSourceLevel == null : fSourceLevel.equals(other.fSourceLevel))
+					&& fNatures.equals(other.fNatures)
+					&& (fMarkerType == null ? other.fMarkerType == null : fMarkerType.equals(other.fMarkerType));
+		}
+	}
+
+	/**
+	 * Value of the {@link #fgHasCorrectionsCache}.
+	 *
+	 * @since 3.12
+	 */
+	private static final class HasCorrectionsResult {
+		private final boolean fHasCorrections;
+		private final long fTime;
+
+		public HasCorrectionsResult(boolean hasCorrections, long time) {
+			fHasCorrections= hasCorrections;
+			fTime= time;
+		}
+	}
+
+	/**
+	 * Drops the processor descriptors and the cached results when processors are contributed or
+	 * removed.
+	 *
+	 * @since 3.12
+	 */
+	private static final class ProcessorRegistryListener implements IRegistryEventListener {
+
+		@Override
+		public void added(IExtension[] extensions) {
+			reset();
+		}
+
+		@Override
+		public void removed(IExtension[] extensions) {
+			reset();
+		}
+
+		@Override
+		public void added(IExtensionPoint[] extensionPoints) {
+			reset();
+		}
+
+		@Override
+		public void removed(IExtensionPoint[] extensionPoints) {
+			reset();
+		}
+	}
+
+	/**
+	 * Drops the cached natures of projects whose description changed, that were opened, closed or
+	 * removed.
+	 *
+	 * @since 3.12
+	 */
+	private static final class ProjectNaturesListener implements IResourceChangeListener {
+
+		@Override
+		public void resourceChanged(IResourceChangeEvent event) {
+			IResourceDelta delta= event.getDelta();
+			if (delta == null)
+				return;
+			IResourceDelta[] projectDeltas= delta.getAffectedChildren();
+			synchronized (fgProjectNatures) {
+				for (int i= 0; i < projectDeltas.length; i++) {
+					IResourceDelta projectDelta= projectDeltas[i];
+					if (projectDelta.getKind() != IResourceDelta.CHANGED || (projectDelta.getFlags() & (IResourceDelta.DESCRIPTION | IResourceDelta.OPEN)) != 0) {
+						fgProjectNatures.remove(projectDelta.getResource());
+						fgProjectNaturesGeneration++;
+					}
+				}
+			}
+		}
+	}
+
+	private static void reset() {
+		synchronized (fgHasCorrectionsCache) {
+			fgContributedAssistProcessors= null;
+			fgContributedCorrectionProcessors= null;
+			fgHasCorrectionsCache.clear();
+			fgHasCorrectionsGeneration++;
+		}
+	}
+
+	private static synchronized void installRegistryListener() {
+		if (fgRegistryListener == null) {
+			fgRegistryListener= new ProcessorRegistryListener();
+			Platform.getExtensionRegistry().addListener(fgRegistryListener, JavaUI.ID_PLUGIN + '.' + QUICKFIX_PROCESSOR_CONTRIBUTION_ID);
+			Platform.getExtensionRegistry().addListener(fgRegistryListener, JavaUI.ID_PLUGIN + '.' + QUICKASSIST_PROCESSOR_CONTRIBUTION_ID);
+		}
+	}
+
+	private static synchronized void installNaturesListener() {
+		if (fgNaturesListener == null) {
+			fgNaturesListener= new ProjectNaturesListener();
+			ResourcesPlugin.getWorkspace().addResourceChangeListener(fgNaturesListener, IResourceChangeEvent.POST_CHANGE);
+		}
+	}
+
+	/**
+	 * Removes the listener on the processor extension points and drops the processor descriptors
+	 * and the cached results. Called when the plug-in is stopped.
+	 *
+	 * @since 3.12
+	 */
+	public static synchronized void shutdown() {
+		if (fgRegistryListener != null) {
+			Platform.getExtensionRegistry().removeListener(fgRegistryListener);
+			fgRegistryListener= null;
+		}
+		if (fgNaturesListener != null) {
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(fgNaturesListener);
+			fgNaturesListener= null;
+		}
+		synchronized (fgProjectNatures) {
+			fgProjectNatures.clear();
+			fgProjectNaturesGeneration++;
+		}
+		reset();
+	}
+
 	private static ContributedProcessorDescriptor[] getProcessorDescriptors(String contributionId, boolean testMarkerTypes) {
+		installRegistryListener();
 		IConfigurationElement[] elements= Platform.getExtensionRegistry().getConfigurationElementsFor(JavaUI.ID_PLUGIN, contributionId);
 		ArrayList<ContributedProcessorDescriptor> res= new ArrayList<>(elements.length);
 
@@ -102,18 +370,73 @@ public class JavaCorrectionProcessor implements org.eclipse.jface.text.quickassi
 		return fgContributedAssistProcessors;
 	}
 
+	private static HasCorrectionsKey createHasCorrectionsKey(ICompilationUnit cu, int problemId, String markerType) {
+		IJavaProject project= cu.getJavaProject();
+		try {
+			List<String> natures= getNatures(project.getProject());
+			return new HasCorrectionsKey(cu, project.getOption(JavaCore.COMPILER_SOURCE, true), natures, problemId, markerType);
+		} catch (CoreException e) {
+			// the project is closed, the result is not cached
+			return null;
+		}
+	}
+
+	private static List<String> getNatures(IProject project) throws CoreException {
+		installNaturesListener();
+		int generation;
+		synchronized (fgProjectNatures) {
+			List<String> natures= fgProjectNatures.get(project);
+			if (natures != null)
+				return natures;
+			generation= fgProjectNaturesGeneration;
+		}
+		List<String> natures= Collections.unmodifiableList(Arrays.asList(project.getDescription().getNatureIds()));
+		synchronized (fgProjectNatures) {
+			// not cached if a description changed in the meantime
+			if (generation == fgProjectNaturesGeneration)
+				fgProjectNatures.put(project, natures);
+		}
+		return natures;
+	}
+
 	public static boolean hasCorrections(ICompilationUnit cu, int problemId, String markerType) {
+		HasCorrectionsKey key= createHasCorrectionsKey(cu, problemId, markerType);
+		int generation;
+		synchronized (fgHasCorrectionsCache) {
+			if (key != null) {
+				HasCorrectionsResult cached= fgHasCorrectionsCache.get(key);
+				if (cached != null) {
+					if (System.currentTimeMillis() - cached.fTime < HAS_CORRECTIONS_CACHE_TIMEOUT) {
+						return cached.fHasCorrections;
+					}
+					fgHasCorrectionsCache.remove(key);
+				}
+			}
+			generation= fgHasCorrectionsGeneration;
+		}
+
 		ContributedProcessorDescriptor[] processors= getCorrectionProcessors();
 		SafeHasCorrections collector= new SafeHasCorrections(cu, problemId);
+		boolean hasCorrections= false;
 		for (int i= 0; i < processors.length; i++) {
 			if (processors[i].canHandleMarkerType(markerType)) {
 				collector.process(processors[i]);
 				if (collector.hasCorrections()) {
-					return true;
+					hasCorrections= true;
+					break;
 				}
 			}
 		}
-		return false;
+		// the result is not remembered if a processor failed
+		if (key != null && collector.getStatus().isOK()) {
+			synchronized (fgHasCorrectionsCache) {
+				// not cached if the processors changed in the meantime
+				if (generation == fgHasCorrectionsGeneration) {
+					fgHasCorrectionsCache.put(key, new HasCorrectionsResult(hasCorrections, System.currentTimeMillis()));
+				}
+			}
+		}
+		return hasCorrections;
 	}
 
 	public static boolean isQuickFixableType(Annotation annotation) {
@@ -329,14 +652,21 @@ public class JavaCorrectionProcessor implements org.eclipse.jface.text.quickassi
 
 		public void process(ContributedProcessorDescriptor[] desc) {
 			for (int i= 0; i < desc.length; i++) {
-				fDescriptor= desc[i];
-				SafeRunner.run(this);
+				process(desc[i]);
 			}
 		}
 
 		public void process(ContributedProcessorDescriptor desc) {
 			fDescriptor= desc;
+			PerformanceStats stats= null;
+			if (MEASURE_PERFORMANCE) {
+				stats= PerformanceStats.getStats(PERFORMANCE_EVENT, String.valueOf(desc.getId()));
+				stats.startRun(getClass().getSimpleName());
+			}
 			SafeRunner.run(this);
+			if (stats != null) {
+				stats.endRun();
+			}
 		}
 
 		@Override
@@ -465,6 +795,21 @@ public class JavaCorrectionProcessor implements org.eclipse.jface.text.quickassi
 
 	public static IStatus collectCorrections(IInvocationContext context, IProblemLocation[] locations, Collection<IJavaCompletionProposal> proposals) {
 		ContributedProcessorDescriptor[] processors= getCorrectionProcessors();
+		if (isParallelCollection()) {
+			ProcessorJob[] jobs= new ProcessorJob[processors.length];
+			AssistContext jobContext= null;
+			for (int i= 0; i < processors.length; i++) {
+				IProblemLocation[] handled= getHandledProblems(locations, processors[i]);
+				if (handled != null) {
+					ArrayList<IJavaCompletionProposal> result= new ArrayList<>();
+					SafeCorrectionCollector collector= new SafeCorrectionCollector(jobContext != null ? jobContext : context, result);
+					collector.setProblemLocations(handled);
+					jobs[i]= new ProcessorJob(collector, processors[i], result, jobContext);
+					jobContext= createJobContext(context);
+				}
+			}
+			return runInParallel(jobs, proposals);
+		}
 		SafeCorrectionCollector collector= new SafeCorrectionCollector(context, proposals);
 		for (int i= 0; i < processors.length; i++) {
 			ContributedProcessorDescriptor curr= processors[i];
@@ -511,12 +856,163 @@ public class JavaCorrectionProcessor implements org.eclipse.jface.text.quickassi
 
 	public static IStatus collectAssists(IInvocationContext context, IProblemLocation[] locations, Collection<IJavaCompletionProposal> proposals) {
 		ContributedProcessorDescriptor[] processors= getAssistProcessors();
+		if (isParallelCollection()) {
+			ProcessorJob[] jobs= new ProcessorJob[processors.length];
+			AssistContext jobContext= null;
+			for (int i= 0; i < processors.length; i++) {
+				ArrayList<IJavaCompletionProposal> result= new ArrayList<>();
+				jobs[i]= new ProcessorJob(new SafeAssistCollector(jobContext != null ? jobContext : context, locations, result), processors[i], result, jobContext);
+				jobContext= createJobContext(context);
+			}
+			return runInParallel(jobs, proposals);
+		}
 		SafeAssistCollector collector= new SafeAssistCollector(context, locations, proposals);
 		collector.process(processors);
 
 		return collector.getStatus();
 	}
 
+	private static boolean isParallelCollection() {
+		JavaPlugin plugin= JavaPlugin.getDefault();
+		return plugin != null && plugin.getPreferenceStore().getBoolean(PREF_PARALLEL_COLLECTION);
+	}
+
+	/**
+	 * Creates a copy of the given context that gets its own AST. AST nodes and bindings are not
+	 * thread safe, so processors that run concurrently must not share an AST.
+	 *
+	 * @param context the invocation context
+	 * @return the copy, without an AST
+	 * @since 3.12
+	 */
+	private static AssistContext createJobContext(IInvocationContext context) {
+		ISourceViewer viewer= null;
+		IEditorPart editor= null;
+		if (context instanceof AssistContext) {
+			viewer= ((AssistContext) context).getSourceViewer();
+			editor= ((AssistContext) context).getEditor();
+		}
+		return new AssistContext(context.getCompilationUnit(), viewer, editor, context.getSelectionOffset(), context.getSelectionLength());
+	}
+
+	/**
+	 * Runs a single processor in a job, collecting its proposals into a separate list.
+	 *
+	 * @since 3.12
+	 */
+	private static class ProcessorJob extends Job {
+		private final SafeCorrectionProcessorAccess fCollector;
+		private final ContributedProcessorDescriptor fDescriptor;
+		private final List<IJavaCompletionProposal> fResult;
+		private final AssistContext fContext;
+		private CountDownLatch fLatch;
+		private volatile boolean fDone;
+
+		/**
+		 * Creates a new job.
+		 *
+		 * @param collector the collector running the processor
+		 * @param descriptor the processor
+		 * @param result the list the collector adds the proposals to
+		 * @param context the context of the collector that needs its own AST, or
+		 *            <code>null</code> if the collector uses the caller's context and runs in
+		 *            the calling thread
+		 */
+		public ProcessorJob(SafeCorrectionProcessorAccess collector, ContributedProcessorDescriptor descriptor, List<IJavaCompletionProposal> result, AssistContext context) {
+			super(CorrectionMessages.JavaCorrectionProcessor_processor_job);
+			fCollector= collector;
+			fDescriptor= descriptor;
+			fResult= result;
+			fContext= context;
+			setSystem(true);
+			setPriority(Job.INTERACTIVE);
+		}
+
+		public void schedule(CountDownLatch latch) {
+			fLatch= latch;
+			schedule();
+		}
+
+		public void process() {
+			fCollector.process(fDescriptor);
+			fDone= true;
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			try {
+				fContext.setASTRoot(ASTResolving.createQuickFixAST(fContext.getCompilationUnit(), monitor));
+				process();
+			} catch (OperationCanceledException e) {
+				return Status.CANCEL_STATUS;
+			} finally {
+				fLatch.countDown();
+			}
+			return Status.OK_STATUS;
+		}
+	}
+
+	/**
+	 * Runs the given processor jobs concurrently and adds the proposals of the jobs that are done
+	 * within {@link #PROCESSOR_TIME_BUDGET}, in the order of the jobs. The job that uses the
+	 * caller's context runs in the calling thread, so that the AST of the caller is never
+	 * accessed concurrently, not even by a job that is still running after the time budget.
+	 *
+	 * @param jobs the jobs, <code>null</code> entries are skipped
+	 * @param proposals the collection to add the proposals to
+	 * @return the merged status of the jobs that are done
+	 */
+	private static IStatus runInParallel(ProcessorJob[] jobs, Collection<IJavaCompletionProposal> proposals) {
+		long deadline= System.currentTimeMillis() + PROCESSOR_TIME_BUDGET;
+		int count= 0;
+		for (int i= 0; i < jobs.length; i++) {
+			if (jobs[i] != null && jobs[i].fContext != null) {
+				count++;
+			}
+		}
+		CountDownLatch latch= new CountDownLatch(count);
+		for (int i= 0; i < jobs.length; i++) {
+			if (jobs[i] != null && jobs[i].fContext != null) {
+				jobs[i].schedule(latch);
+			}
+		}
+		for (int i= 0; i < jobs.length; i++) {
+			if (jobs[i] != null && jobs[i].fContext == null) {
+				jobs[i].process();
+			}
+		}
+		try {
+			latch.await(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		MultiStatus status= null;
+		for (int i= 0; i < jobs.length; i++) {
+			ProcessorJob job= jobs[i];
+			if (job == null) {
+				continue;
+			}
+			if (!job.fDone) {
+				// too late, the proposals of the processor are dropped
+				job.cancel();
+				continue;
+			}
+			proposals.addAll(job.fResult);
+			IStatus curr= job.fCollector.getStatus();
+			if (!curr.isOK()) {
+				if (status == null) {
+					status= new MultiStatus(JavaUI.ID_PLUGIN, IStatus.OK, CorrectionMessages.JavaCorrectionProcessor_error_status, null);
+				}
+				status.merge(curr);
+			}
+		}
+		if (status == null) {
+			return Status.OK_STATUS;
+		}
+		return status;
+	}
+
 	/*
 	 * @see IContentAssistProcessor#getErrorMessage()
 	 */
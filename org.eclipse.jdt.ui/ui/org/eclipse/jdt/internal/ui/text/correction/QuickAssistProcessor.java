@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -1632,7 +1632,7 @@ public class QuickAssistProcessor implements IQuickAssistProcessor {
 			return true;
 		}
 
-		LinkedCorrectionProposal stringBufferProposal= getConvertToStringBufferProposal(context, ast, oldInfixExpression);
+		LinkedCorrectionProposal stringBufferProposal= getConvertToStringBufferProposal(context, oldInfixExpression);
 		resultingCollections.add(stringBufferProposal);
 
 		ASTRewriteCorrectionProposal messageFormatProposal= getConvertToMessageFormatProposal(context, ast, oldInfixExpression);
@@ -1642,7 +1642,7 @@ public class QuickAssistProcessor implements IQuickAssistProcessor {
 		return true;
 	}
 
-	private static LinkedCorrectionProposal getConvertToStringBufferProposal(IInvocationContext context, AST ast, InfixExpression oldInfixExpression) {
+	private static LinkedCorrectionProposal getConvertToStringBufferProposal(IInvocationContext context, InfixExpression oldInfixExpression) {
 		String bufferOrBuilderName;
 		ICompilationUnit cu= context.getCompilationUnit();
 		if (JavaModelUtil.is50OrHigher(cu.getJavaProject())) {
@@ -1651,125 +1651,151 @@ public class QuickAssistProcessor implements IQuickAssistProcessor {
 			bufferOrBuilderName= "StringBuffer"; //$NON-NLS-1$
 		}
 
-		ASTRewrite rewrite= ASTRewrite.create(ast);
-
 		SimpleName existingBuffer= getEnclosingAppendBuffer(oldInfixExpression);
 		
 		String mechanismName= BasicElementLabels.getJavaElementName(existingBuffer == null ? bufferOrBuilderName : existingBuffer.getIdentifier());
 		String label= Messages.format(CorrectionMessages.QuickAssistProcessor_convert_to_string_buffer_description, mechanismName);
 		Image image= JavaPluginImages.get(JavaPluginImages.IMG_CORRECTION_CHANGE);
-		LinkedCorrectionProposal proposal= new LinkedCorrectionProposal(label, cu, rewrite, IProposalRelevance.CONVERT_TO_STRING_BUFFER, image);
+		LinkedCorrectionProposal proposal= new ConvertToStringBufferProposal(label, cu, IProposalRelevance.CONVERT_TO_STRING_BUFFER, image, oldInfixExpression, existingBuffer, bufferOrBuilderName);
 		proposal.setCommandId(CONVERT_TO_STRING_BUFFER_ID);
+		return proposal;
+	}
 
-		Statement insertAfter;
-		String bufferName;
+	/**
+	 * Converts a string concatenation to appends to a buffer. The rewrite, which looks up the used
+	 * variable names for the buffer name suggestions, is only created when the proposal is
+	 * previewed or applied.
+	 *
+	 * @since 3.12
+	 */
+	private static final class ConvertToStringBufferProposal extends LinkedCorrectionProposal {
 
-		String groupID= "nameId"; //$NON-NLS-1$
-		ListRewrite listRewrite;
+		private final InfixExpression fOldInfixExpression;
+		private final SimpleName fExistingBuffer;
+		private final String fBufferOrBuilderName;
 
-		Statement enclosingStatement= ASTResolving.findParentStatement(oldInfixExpression);
+		public ConvertToStringBufferProposal(String label, ICompilationUnit cu, int relevance, Image image, InfixExpression oldInfixExpression, SimpleName existingBuffer, String bufferOrBuilderName) {
+			super(label, cu, null, relevance, image);
+			fOldInfixExpression= oldInfixExpression;
+			fExistingBuffer= existingBuffer;
+			fBufferOrBuilderName= bufferOrBuilderName;
+		}
 
-		if (existingBuffer != null) {
-			if (ASTNodes.isControlStatementBody(enclosingStatement.getLocationInParent())) {
-				Block newBlock= ast.newBlock();
-				listRewrite= rewrite.getListRewrite(newBlock, Block.STATEMENTS_PROPERTY);
-				insertAfter= null;
-				rewrite.replace(enclosingStatement, newBlock, null);
-			} else {
-				listRewrite= rewrite.getListRewrite(enclosingStatement.getParent(), (ChildListPropertyDescriptor) enclosingStatement.getLocationInParent());
-				insertAfter= enclosingStatement;
-			}
+		@Override
+		protected ASTRewrite getRewrite() throws CoreException {
+			AST ast= fOldInfixExpression.getAST();
+			ASTRewrite rewrite= ASTRewrite.create(ast);
 
-			bufferName= existingBuffer.getIdentifier();
+			Statement insertAfter;
+			String bufferName;
 
-		} else {
-			// create buffer
-			VariableDeclarationFragment frag= ast.newVariableDeclarationFragment();
-			// check if name is already in use and provide alternative
-			List<String> fExcludedVariableNames= Arrays.asList(ASTResolving.getUsedVariableNames(oldInfixExpression));
+			String groupID= "nameId"; //$NON-NLS-1$
+			ListRewrite listRewrite;
 
-			SimpleType bufferType= ast.newSimpleType(ast.newName(bufferOrBuilderName));
-			ClassInstanceCreation newBufferExpression= ast.newClassInstanceCreation();
+			Statement enclosingStatement= ASTResolving.findParentStatement(fOldInfixExpression);
 
-			String[] newBufferNames= StubUtility.getVariableNameSuggestions(NamingConventions.VK_LOCAL, cu.getJavaProject(), bufferOrBuilderName, 0, fExcludedVariableNames, true);
-			bufferName= newBufferNames[0];
+			if (fExistingBuffer != null) {
+				if (ASTNodes.isControlStatementBody(enclosingStatement.getLocationInParent())) {
+					Block newBlock= ast.newBlock();
+					listRewrite= rewrite.getListRewrite(newBlock, Block.STATEMENTS_PROPERTY);
+					insertAfter= null;
+					rewrite.replace(enclosingStatement, newBlock, null);
+				} else {
+					listRewrite= rewrite.getListRewrite(enclosingStatement.getParent(), (ChildListPropertyDescriptor) enclosingStatement.getLocationInParent());
+					insertAfter= enclosingStatement;
+				}
 
-			SimpleName bufferNameDeclaration= ast.newSimpleName(bufferName);
-			frag.setName(bufferNameDeclaration);
+				bufferName= fExistingBuffer.getIdentifier();
 
-			proposal.addLinkedPosition(rewrite.track(bufferNameDeclaration), true, groupID);
-			for (int i= 0; i < newBufferNames.length; i++) {
-				proposal.addLinkedPositionProposal(groupID, newBufferNames[i], null);
-			}
+			} else {
+				// create buffer
+				VariableDeclarationFragment frag= ast.newVariableDeclarationFragment();
+				// check if name is already in use and provide alternative
+				List<String> fExcludedVariableNames= Arrays.asList(ASTResolving.getUsedVariableNames(fOldInfixExpression));
 
+				SimpleType bufferType= ast.newSimpleType(ast.newName(fBufferOrBuilderName));
+				ClassInstanceCreation newBufferExpression= ast.newClassInstanceCreation();
 
-			newBufferExpression.setType(bufferType);
-			frag.setInitializer(newBufferExpression);
+				String[] newBufferNames= StubUtility.getVariableNameSuggestions(NamingConventions.VK_LOCAL, getCompilationUnit().getJavaProject(), fBufferOrBuilderName, 0, fExcludedVariableNames, true);
+				bufferName= newBufferNames[0];
 
+				SimpleName bufferNameDeclaration= ast.newSimpleName(bufferName);
+				frag.setName(bufferNameDeclaration);
 
-			VariableDeclarationStatement bufferDeclaration= ast.newVariableDeclarationStatement(frag);
-			bufferDeclaration.setType(ast.newSimpleType(ast.newName(bufferOrBuilderName)));
-			insertAfter= bufferDeclaration;
+				addLinkedPosition(rewrite.track(bufferNameDeclaration), true, groupID);
+				for (int i= 0; i < newBufferNames.length; i++) {
+					addLinkedPositionProposal(groupID, newBufferNames[i], null);
+				}
 
-			Statement statement= ASTResolving.findParentStatement(oldInfixExpression);
-			if (ASTNodes.isControlStatementBody(statement.getLocationInParent())) {
-				Block newBlock= ast.newBlock();
-				listRewrite= rewrite.getListRewrite(newBlock, Block.STATEMENTS_PROPERTY);
-				listRewrite.insertFirst(bufferDeclaration, null);
-				listRewrite.insertLast(rewrite.createMoveTarget(statement), null);
-				rewrite.replace(statement, newBlock, null);
-			} else {
-				listRewrite= rewrite.getListRewrite(statement.getParent(), (ChildListPropertyDescriptor) statement.getLocationInParent());
-				listRewrite.insertBefore(bufferDeclaration, statement, null);
-			}
-		}
 
-		List<Expression> operands= new ArrayList<>();
-		collectInfixPlusOperands(oldInfixExpression, operands);
-		
-		Statement lastAppend= insertAfter;
-		for (Iterator<Expression> iter= operands.iterator(); iter.hasNext();) {
-			Expression operand= iter.next();
+				newBufferExpression.setType(bufferType);
+				frag.setInitializer(newBufferExpression);
+
 
-			MethodInvocation appendIncovationExpression= ast.newMethodInvocation();
-			appendIncovationExpression.setName(ast.newSimpleName("append")); //$NON-NLS-1$
-			SimpleName bufferNameReference= ast.newSimpleName(bufferName);
+				VariableDeclarationStatement bufferDeclaration= ast.newVariableDeclarationStatement(frag);
+				bufferDeclaration.setType(ast.newSimpleType(ast.newName(fBufferOrBuilderName)));
+				insertAfter= bufferDeclaration;
 
-			// If there was an existing name, don't offer to rename it
-			if (existingBuffer == null) {
-				proposal.addLinkedPosition(rewrite.track(bufferNameReference), true, groupID);
+				Statement statement= ASTResolving.findParentStatement(fOldInfixExpression);
+				if (ASTNodes.isControlStatementBody(statement.getLocationInParent())) {
+					Block newBlock= ast.newBlock();
+					listRewrite= rewrite.getListRewrite(newBlock, Block.STATEMENTS_PROPERTY);
+					listRewrite.insertFirst(bufferDeclaration, null);
+					listRewrite.insertLast(rewrite.createMoveTarget(statement), null);
+					rewrite.replace(statement, newBlock, null);
+				} else {
+					listRewrite= rewrite.getListRewrite(statement.getParent(), (ChildListPropertyDescriptor) statement.getLocationInParent());
+					listRewrite.insertBefore(bufferDeclaration, statement, null);
+				}
 			}
 
-			appendIncovationExpression.setExpression(bufferNameReference);
-			appendIncovationExpression.arguments().add(rewrite.createCopyTarget(operand));
+			List<Expression> operands= new ArrayList<>();
+			collectInfixPlusOperands(fOldInfixExpression, operands);
+			
+			Statement lastAppend= insertAfter;
+			for (Iterator<Expression> iter= operands.iterator(); iter.hasNext();) {
+				Expression operand= iter.next();
 
-			ExpressionStatement appendExpressionStatement= ast.newExpressionStatement(appendIncovationExpression);
-			if (lastAppend == null) {
-				listRewrite.insertFirst(appendExpressionStatement, null);
-			} else {
-				listRewrite.insertAfter(appendExpressionStatement, lastAppend, null);
+				MethodInvocation appendIncovationExpression= ast.newMethodInvocation();
+				appendIncovationExpression.setName(ast.newSimpleName("append")); //$NON-NLS-1$
+				SimpleName bufferNameReference= ast.newSimpleName(bufferName);
+
+				// If there was an existing name, don't offer to rename it
+				if (fExistingBuffer == null) {
+					addLinkedPosition(rewrite.track(bufferNameReference), true, groupID);
+				}
+
+				appendIncovationExpression.setExpression(bufferNameReference);
+				appendIncovationExpression.arguments().add(rewrite.createCopyTarget(operand));
+
+				ExpressionStatement appendExpressionStatement= ast.newExpressionStatement(appendIncovationExpression);
+				if (lastAppend == null) {
+					listRewrite.insertFirst(appendExpressionStatement, null);
+				} else {
+					listRewrite.insertAfter(appendExpressionStatement, lastAppend, null);
+				}
+				lastAppend= appendExpressionStatement;
 			}
-			lastAppend= appendExpressionStatement;
-		}
 
-		if (existingBuffer != null) {
-			proposal.setEndPosition(rewrite.track(lastAppend));
-			if (insertAfter != null) {
-				rewrite.remove(enclosingStatement, null);
+			if (fExistingBuffer != null) {
+				setEndPosition(rewrite.track(lastAppend));
+				if (insertAfter != null) {
+					rewrite.remove(enclosingStatement, null);
+				}
+			} else {
+				// replace old expression with toString
+				MethodInvocation bufferToString= ast.newMethodInvocation();
+				bufferToString.setName(ast.newSimpleName("toString")); //$NON-NLS-1$
+				SimpleName bufferNameReference= ast.newSimpleName(bufferName);
+				bufferToString.setExpression(bufferNameReference);
+				addLinkedPosition(rewrite.track(bufferNameReference), true, groupID);
+
+				rewrite.replace(fOldInfixExpression, bufferToString, null);
+				setEndPosition(rewrite.track(bufferToString));
 			}
-		} else {
-			// replace old expression with toString
-			MethodInvocation bufferToString= ast.newMethodInvocation();
-			bufferToString.setName(ast.newSimpleName("toString")); //$NON-NLS-1$
-			SimpleName bufferNameReference= ast.newSimpleName(bufferName);
-			bufferToString.setExpression(bufferNameReference);
-			proposal.addLinkedPosition(rewrite.track(bufferNameReference), true, groupID);
 
-			rewrite.replace(oldInfixExpression, bufferToString, null);
-			proposal.setEndPosition(rewrite.track(bufferToString));
+			return rewrite;
 		}
-
-		return proposal;
 	}
 
 	private static void collectInfixPlusOperands(Expression expression, List<Expression> collector) {
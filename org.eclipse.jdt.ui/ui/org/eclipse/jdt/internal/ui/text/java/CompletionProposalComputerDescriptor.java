@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2012 IBM Corporation and others.
+ * Copyright (c) 2005, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -101,6 +101,23 @@ final class CompletionProposalComputerDescriptor {
 		PARTITION_SET= Collections.unmodifiableSet(partitions);
 	}
 
+	/**
+	 * The computers of this plug-in that only access the viewer through the invocation context and
+	 * can run in a job, see {@link ContentAssistProcessor#PREF_PARALLEL_COMPUTERS}.
+	 *
+	 * @since 3.12
+	 */
+	private static final Set<String> CONCURRENT_COMPUTERS;
+	static {
+		Set<String> computers= new HashSet<>();
+		computers.add("org.eclipse.jdt.internal.ui.text.java.JavaTypeCompletionProposalComputer"); //$NON-NLS-1$
+		computers.add("org.eclipse.jdt.internal.ui.text.java.JavaNoTypeCompletionProposalComputer"); //$NON-NLS-1$
+		computers.add("org.eclipse.jdt.internal.ui.text.java.JavaAllCompletionProposalComputer"); //$NON-NLS-1$
+		computers.add("org.eclipse.jdt.internal.ui.text.javadoc.JavadocCompletionProposalComputer"); //$NON-NLS-1$
+
+		CONCURRENT_COMPUTERS= Collections.unmodifiableSet(computers);
+	}
+
 	/** The identifier of the extension. */
 	private final String fId;
 	/** The name of the extension. */
@@ -129,6 +146,11 @@ final class CompletionProposalComputerDescriptor {
 	private boolean fIsReportingDelay= false;
 	/** The start of the last operation. */
 	private long fStart;
+	/**
+	 * The time in milliseconds the most recent proposal computation took, or <code>-1</code>.
+	 * @since 3.12
+	 */
+	private volatile long fLastLatency= -1;
 	/**
 	 * Tells whether we tried to load the computer.
 	 * @since 3.4
@@ -322,6 +344,7 @@ final class CompletionProposalComputerDescriptor {
 		if (!isEnabled())
 			return Collections.emptyList();
 
+		long start= System.currentTimeMillis();
 		IStatus status;
 		try {
 			IJavaCompletionProposalComputer computer= getComputer(true);
@@ -349,6 +372,7 @@ final class CompletionProposalComputerDescriptor {
 			status= createExceptionStatus(x);
 		} finally {
 			monitor.done();
+			fLastLatency= System.currentTimeMillis() - start;
 		}
 
 		fRegistry.informUser(this, status);
@@ -356,6 +380,18 @@ final class CompletionProposalComputerDescriptor {
 		return Collections.emptyList();
 	}
 
+	/**
+	 * Returns the time the most recent call to
+	 * {@link #computeCompletionProposals(ContentAssistInvocationContext, IProgressMonitor)} took.
+	 * Unlike the {@link PerformanceStats} tracing, this is always measured.
+	 *
+	 * @return the time in milliseconds, or <code>-1</code> if no proposals have been computed yet
+	 * @since 3.12
+	 */
+	public long getLastLatency() {
+		return fLastLatency;
+	}
+
 	/**
 	 * Safely computes context information objects through the described extension. If the extension
 	 * is disabled, throws an exception or otherwise does not adhere to the contract described in
@@ -588,4 +624,16 @@ final class CompletionProposalComputerDescriptor {
 	public boolean isSortingAfterFilteringNeeded() {
 		return fNeedsSortingAfterFiltering;
 	}
+
+	/**
+	 * Tells whether the described computer can compute its proposals outside of the UI thread.
+	 * Other computers may access the viewer or the workbench and must run in the UI thread.
+	 *
+	 * @return <code>true</code> if the computer can run in a job
+	 * @since 3.12
+	 */
+	public boolean isConcurrent() {
+		IContributor contributor= getContributor();
+		return contributor != null && JavaPlugin.getPluginId().equals(contributor.getName()) && CONCURRENT_COMPUTERS.contains(fClass);
+	}
 }
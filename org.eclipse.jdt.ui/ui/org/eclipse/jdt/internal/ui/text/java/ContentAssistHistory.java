@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2011 IBM Corporation and others.
+ * Copyright (c) 2005, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,13 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.text.java;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
@@ -19,7 +26,6 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -62,6 +68,10 @@ import org.eclipse.jdt.internal.ui.JavaUIStatus;
 
 /**
  * An LRU cache for code assist.
+ * <p>
+ * Since 3.12, the right hand sides of a left hand side are ranked by a score
+ * that counts their selections, with older selections decaying exponentially.
+ * </p>
  *
  * @since 3.2
  */
@@ -97,8 +107,8 @@ public final class ContentAssistHistory {
 					lhsElement.setAttribute(ATTRIBUTE_NAME, lhs);
 					rootElement.appendChild(lhsElement);
 
-					MRUSet<String> rightHandSides= history.fLHSCache.get(lhs);
-					for (Iterator<String> rhsIterator= rightHandSides.iterator(); rhsIterator.hasNext();) {
+					RHSCache rightHandSides= history.fLHSCache.get(lhs);
+					for (Iterator<String> rhsIterator= rightHandSides.keySet().iterator(); rhsIterator.hasNext();) {
 						String rhs= rhsIterator.next();
 						Element rhsElement= document.createElement(NODE_RHS);
 						rhsElement.setAttribute(ATTRIBUTE_NAME, rhs);
@@ -137,8 +147,9 @@ public final class ContentAssistHistory {
 			if (root == null || !root.getNodeName().equalsIgnoreCase(NODE_ROOT))
 				return null;
 
-			int maxLHS= parseNaturalInt(root.getAttribute(ATTRIBUTE_MAX_LHS), DEFAULT_TRACKED_LHS);
-			int maxRHS= parseNaturalInt(root.getAttribute(ATTRIBUTE_MAX_RHS), DEFAULT_TRACKED_RHS);
+			// histories stored by older versions use smaller default sizes
+			int maxLHS= Math.max(parseNaturalInt(root.getAttribute(ATTRIBUTE_MAX_LHS), DEFAULT_TRACKED_LHS), DEFAULT_TRACKED_LHS);
+			int maxRHS= Math.max(parseNaturalInt(root.getAttribute(ATTRIBUTE_MAX_RHS), DEFAULT_TRACKED_RHS), DEFAULT_TRACKED_RHS);
 
 			ContentAssistHistory history= new ContentAssistHistory(maxLHS, maxRHS);
 
@@ -151,7 +162,7 @@ public final class ContentAssistHistory {
 					if (lhsElement.getNodeName().equalsIgnoreCase(NODE_LHS)) {
 						String lhs= lhsElement.getAttribute(ATTRIBUTE_NAME);
 						if (lhs != null) {
-							Set<String> cache= history.getCache(lhs);
+							List<String> rightHandSides= new ArrayList<>();
 							NodeList children= lhsElement.getChildNodes();
 							int nRHS= children.getLength();
 							for (int j= 0; j < nRHS; j++) {
@@ -161,11 +172,18 @@ public final class ContentAssistHistory {
 									if (rhsElement.getNodeName().equalsIgnoreCase(NODE_RHS)) {
 										String rhs= rhsElement.getAttribute(ATTRIBUTE_NAME);
 										if (rhs != null) {
-											cache.add(rhs);
+											rightHandSides.add(rhs);
 										}
 									}
 								}
 							}
+
+							// the right hand sides are stored least recently used first, seed
+							// their scores as if they had been selected once in that order
+							RHSCache cache= history.getCache(lhs);
+							int count= rightHandSides.size();
+							for (int j= 0; j < count; j++)
+								cache.put(rightHandSides.get(j), new RHSEntry(1, history.fTime - (count - 1 - j)));
 						}
 					}
 				}
@@ -231,59 +249,144 @@ public final class ContentAssistHistory {
 	}
 
 	/**
-	 * Most recently used variant with capped size that orders the elements by addition.
-	 * This is implemented by always removing an element before it gets added back.
+	 * Compact binary persistence implementation. The type names are stored once
+	 * and referenced by their index.
 	 *
-	 * @since 3.2
+	 * @since 3.12
 	 */
-	private static final class MRUSet<E> extends LinkedHashSet<E> {
-		private static final long serialVersionUID= 1L;
-		private final int fMaxSize;
+	private static final class BinaryReaderWriter {
 
-		/**
-		 * Creates a new <code>MRUSet</code> with the given size.
-		 *
-		 * @param maxSize the maximum size of the cache, must be &gt; 0
-		 */
-		public MRUSet(int maxSize) {
-			Assert.isLegal(maxSize > 0);
-			fMaxSize= maxSize;
+		private static final int FORMAT_VERSION= 1;
+
+		public void store(ContentAssistHistory history, DataOutputStream out) throws IOException {
+			Map<String, Integer> names= new LinkedHashMap<>();
+			for (Iterator<Entry<String, RHSCache>> it= history.fLHSCache.entrySet().iterator(); it.hasNext();) {
+				Entry<String, RHSCache> entry= it.next();
+				addName(names, entry.getKey());
+				for (Iterator<String> rhsIterator= entry.getValue().keySet().iterator(); rhsIterator.hasNext();)
+					addName(names, rhsIterator.next());
+			}
+
+			out.writeInt(FORMAT_VERSION);
+			out.writeInt(history.fMaxLHS);
+			out.writeInt(history.fMaxRHS);
+			out.writeInt(history.fTime);
+			out.writeInt(names.size());
+			for (Iterator<String> it= names.keySet().iterator(); it.hasNext();)
+				out.writeUTF(it.next());
+
+			out.writeInt(history.fLHSCache.size());
+			for (Iterator<Entry<String, RHSCache>> it= history.fLHSCache.entrySet().iterator(); it.hasNext();) {
+				Entry<String, RHSCache> entry= it.next();
+				out.writeInt(names.get(entry.getKey()).intValue());
+				RHSCache rightHandSides= entry.getValue();
+				out.writeInt(rightHandSides.size());
+				for (Iterator<Entry<String, RHSEntry>> rhsIterator= rightHandSides.entrySet().iterator(); rhsIterator.hasNext();) {
+					Entry<String, RHSEntry> rhs= rhsIterator.next();
+					out.writeInt(names.get(rhs.getKey()).intValue());
+					out.writeFloat(rhs.getValue().fScore);
+					out.writeInt(rhs.getValue().fTime);
+				}
+			}
 		}
 
-		/*
-		 * @see java.util.HashSet#add(java.lang.Object)
-		 */
-		@Override
-		public boolean add(E o) {
-			if (remove(o)) {
-				super.add(o);
-				return false;
+		private void addName(Map<String, Integer> names, String name) {
+			if (!names.containsKey(name))
+				names.put(name, new Integer(names.size()));
+		}
+
+		public ContentAssistHistory load(DataInputStream in) throws IOException {
+			if (in.readInt() != FORMAT_VERSION)
+				return null;
+
+			int maxLHS= in.readInt();
+			int maxRHS= in.readInt();
+			if (maxLHS <= 0 || maxRHS <= 0)
+				throw new IOException();
+			ContentAssistHistory history= new ContentAssistHistory(maxLHS, maxRHS);
+			history.fTime= in.readInt();
+
+			String[] names= new String[in.readInt()];
+			for (int i= 0; i < names.length; i++)
+				names[i]= in.readUTF();
+
+			int nLHS= in.readInt();
+			for (int i= 0; i < nLHS; i++) {
+				RHSCache cache= history.getCache(getName(names, in.readInt()));
+				int nRHS= in.readInt();
+				for (int j= 0; j < nRHS; j++) {
+					String rhs= getName(names, in.readInt());
+					float score= in.readFloat();
+					int time= in.readInt();
+					cache.put(rhs, new RHSEntry(score, time));
+				}
 			}
+			return history;
+		}
 
-			if (size() >= fMaxSize)
-				remove(this.iterator().next());
+		private String getName(String[] names, int index) throws IOException {
+			if (index < 0 || index >= names.length)
+				throw new IOException();
+			return names[index];
+		}
+	}
+
+	/**
+	 * The score of a right hand side.
+	 *
+	 * @since 3.12
+	 */
+	private static final class RHSEntry {
+		/** The score at {@link #fTime} */
+		private final float fScore;
+		/** The time of the last selection */
+		private final int fTime;
+
+		public RHSEntry(float score, int time) {
+			fScore= score;
+			fTime= time;
+		}
 
-			super.add(o);
-			return true;
+		/**
+		 * Returns the score at the given time, decayed since the last selection.
+		 *
+		 * @param time the current time of the history
+		 * @return the decayed score
+		 */
+		public float getScore(int time) {
+			return fScore * (float) Math.pow(DECAY, time - fTime);
 		}
 	}
 
 	/**
-	 * A ranking of the most recently selected types.
+	 * The right hand sides of a left hand side, ordered by their last selection.
+	 *
+	 * @since 3.12
+	 */
+	private static final class RHSCache extends LinkedHashMap<String, RHSEntry> {
+		private static final long serialVersionUID= 1L;
+
+		/** The ranking of the right hand sides, or <code>null</code> if it has to be computed */
+		private RHSHistory fHistory;
+	}
+
+	/**
+	 * A ranking of the most recently and frequently selected types.
 	 *
 	 * @since 3.2
 	 */
 	public static final class RHSHistory {
-		private final LinkedHashMap<String, Integer> fHistory;
+		private final LinkedHashMap<String, Float> fHistory;
 		private List<String> fList;
 
-		RHSHistory(LinkedHashMap<String, Integer> history) {
+		RHSHistory(LinkedHashMap<String, Float> history) {
 			fHistory= history;
 		}
 
 		/**
-		 * Returns the rank of a type in the history in [0.0,&nbsp;1.0]. The rank of the most
-		 * recently selected type is 1.0, the rank of any type that is not remembered is zero.
+		 * Returns the rank of a type in the history in [0.0,&nbsp;1.0]. The rank of the type with
+		 * the highest decayed selection score is 1.0, the rank of any type that is not remembered
+		 * is zero.
 		 *
 		 * @param type the fully qualified type name to get the rank for
 		 * @return the rank of <code>type</code>
@@ -291,8 +394,8 @@ public final class ContentAssistHistory {
 		public float getRank(String type) {
 			if (fHistory == null)
 				return 0.0F;
-			Integer integer= fHistory.get(type);
-			return integer == null ? 0.0F : integer.floatValue() / fHistory.size();
+			Float rank= fHistory.get(type);
+			return rank == null ? 0.0F : rank.floatValue();
 		}
 
 		/**
@@ -321,8 +424,16 @@ public final class ContentAssistHistory {
 	}
 
 	private static final RHSHistory EMPTY_HISTORY= new RHSHistory(null);
-	private static final int DEFAULT_TRACKED_LHS= 100;
-	private static final int DEFAULT_TRACKED_RHS= 10;
+	private static final int DEFAULT_TRACKED_LHS= 500;
+	private static final int DEFAULT_TRACKED_RHS= 20;
+
+	/**
+	 * The number of selections after which the score of a selection is halved.
+	 *
+	 * @since 3.12
+	 */
+	private static final int HALF_LIFE= 100;
+	private static final double DECAY= Math.pow(0.5, 1.0 / HALF_LIFE);
 
 	private static final Set<String> UNCACHEABLE;
 	static {
@@ -334,9 +445,15 @@ public final class ContentAssistHistory {
 		UNCACHEABLE= Collections.unmodifiableSet(uncacheable);
 	}
 
-	private final LinkedHashMap<String, MRUSet<String>> fLHSCache;
+	private final LinkedHashMap<String, RHSCache> fLHSCache;
 	private final int fMaxLHS;
 	private final int fMaxRHS;
+	/**
+	 * The number of selections remembered by this history.
+	 *
+	 * @since 3.12
+	 */
+	private int fTime;
 
 	/**
 	 * Creates a new history.
@@ -379,9 +496,12 @@ public final class ContentAssistHistory {
 				// TODO remember for every member of the LHS hierarchy or not? Yes for now.
 				IType[] allLHSides= hierarchy.getAllSupertypes(lhs);
 				String rhsQualifiedName= rhs.getFullyQualifiedName();
-				for (int i= 0; i < allLHSides.length; i++)
-					rememberInternal(allLHSides[i], rhsQualifiedName);
-				rememberInternal(lhs, rhsQualifiedName);
+				synchronized (this) {
+					fTime++;
+					for (int i= 0; i < allLHSides.length; i++)
+						rememberInternal(allLHSides[i], rhsQualifiedName);
+					rememberInternal(lhs, rhsQualifiedName);
+				}
 			}
 		} catch (JavaModelException x) {
 			JavaPlugin.log(x);
@@ -396,31 +516,46 @@ public final class ContentAssistHistory {
 	 *        requested, or <code>null</code>
 	 * @return the right hand side history for the given type
 	 */
-	public RHSHistory getHistory(String lhs) {
-		MRUSet<String> rhsCache= fLHSCache.get(lhs);
+	public synchronized RHSHistory getHistory(String lhs) {
+		RHSCache rhsCache= fLHSCache.get(lhs);
 		if (rhsCache != null) {
-			int count= rhsCache.size();
-			LinkedHashMap<String, Integer> history= new LinkedHashMap<>((int) (count / 0.75));
-			int rank= 1;
-			for (Iterator<String> it= rhsCache.iterator(); it.hasNext(); rank++) {
-				String type= it.next();
-				history.put(type, new Integer(rank));
-			}
-			return new RHSHistory(history);
+			// the ranking only changes when a right hand side is selected for this left hand side
+			if (rhsCache.fHistory == null)
+				rhsCache.fHistory= createHistory(rhsCache);
+			return rhsCache.fHistory;
 		}
 		return EMPTY_HISTORY;
 	}
 
+	private RHSHistory createHistory(RHSCache rhsCache) {
+		int count= rhsCache.size();
+		float[] scores= new float[count];
+		float maxScore= 0;
+		int i= 0;
+		for (Iterator<RHSEntry> it= rhsCache.values().iterator(); it.hasNext(); i++) {
+			scores[i]= it.next().getScore(fTime);
+			maxScore= Math.max(maxScore, scores[i]);
+		}
+
+		LinkedHashMap<String, Float> history= new LinkedHashMap<>((int) (count / 0.75));
+		i= 0;
+		for (Iterator<String> it= rhsCache.keySet().iterator(); it.hasNext(); i++) {
+			String type= it.next();
+			history.put(type, new Float(maxScore > 0 ? scores[i] / maxScore : 1.0F));
+		}
+		return new RHSHistory(history);
+	}
+
 	/**
 	 * Returns a read-only map from {@link IType} to {@link RHSHistory}, where each value is the
 	 * history for the key type (see {@link #getHistory(String)}.
 	 *
 	 * @return the set of remembered right hand sides ordered by least recent selection
 	 */
-	public Map<String, RHSHistory> getEntireHistory() {
+	public synchronized Map<String, RHSHistory> getEntireHistory() {
 		HashMap<String, RHSHistory> map= new HashMap<>((int) (fLHSCache.size() / 0.75));
-		for ( Iterator<Entry<String, MRUSet<String>>> it= fLHSCache.entrySet().iterator(); it.hasNext();) {
-			Entry<String, MRUSet<String>> entry= it.next();
+		for ( Iterator<Entry<String, RHSCache>> it= fLHSCache.entrySet().iterator(); it.hasNext();) {
+			Entry<String, RHSCache> entry= it.next();
 			String lhs= entry.getKey();
 			map.put(lhs, getHistory(lhs));
 		}
@@ -429,8 +564,42 @@ public final class ContentAssistHistory {
 
 	private void rememberInternal(IType lhs, String rhsQualifiedName) throws JavaModelException {
 		String lhsQualifiedName= lhs.getFullyQualifiedName();
-		if (isCacheableLHS(lhs, lhsQualifiedName))
-			getCache(lhsQualifiedName).add(rhsQualifiedName);
+		if (!isCacheableLHS(lhs, lhsQualifiedName))
+			return;
+
+		RHSCache rhsCache= getCache(lhsQualifiedName);
+		// put it back to make it the most recently used left hand side
+		fLHSCache.put(lhsQualifiedName, rhsCache);
+
+		RHSEntry entry= rhsCache.remove(rhsQualifiedName);
+		float score= 1;
+		if (entry != null)
+			score+= entry.getScore(fTime);
+		else if (rhsCache.size() >= fMaxRHS)
+			rhsCache.remove(getLowestScoring(rhsCache));
+		rhsCache.put(rhsQualifiedName, new RHSEntry(score, fTime));
+		rhsCache.fHistory= null;
+	}
+
+	/**
+	 * Returns the right hand side with the lowest decayed score. Of several right
+	 * hand sides with the same score, the least recently selected one is returned.
+	 *
+	 * @param rhsCache the right hand sides
+	 * @return the lowest scoring right hand side
+	 */
+	private String getLowestScoring(RHSCache rhsCache) {
+		String lowest= null;
+		float lowestScore= Float.MAX_VALUE;
+		for (Iterator<Entry<String, RHSEntry>> it= rhsCache.entrySet().iterator(); it.hasNext();) {
+			Entry<String, RHSEntry> entry= it.next();
+			float score= entry.getValue().getScore(fTime);
+			if (lowest == null || score < lowestScore) {
+				lowest= entry.getKey();
+				lowestScore= score;
+			}
+		}
+		return lowest;
 	}
 
 	private boolean isCacheableLHS(IType type, String qualifiedName) throws JavaModelException {
@@ -441,10 +610,10 @@ public final class ContentAssistHistory {
 		return !type.isInterface() && !Flags.isAbstract(type.getFlags());
 	}
 
-	private Set<String> getCache(String lhs) {
-		MRUSet<String> rhsCache= fLHSCache.get(lhs);
+	private RHSCache getCache(String lhs) {
+		RHSCache rhsCache= fLHSCache.get(lhs);
 		if (rhsCache == null) {
-			rhsCache= new MRUSet<>(fMaxRHS);
+			rhsCache= new RHSCache();
 			fLHSCache.put(lhs, rhsCache);
 		}
 
@@ -466,7 +635,9 @@ public final class ContentAssistHistory {
 	 */
 	public static void store(ContentAssistHistory history, Preferences preferences, String key) throws CoreException {
 		StringWriter writer= new StringWriter();
-		new ReaderWriter().store(history, new StreamResult(writer));
+		synchronized (history) {
+			new ReaderWriter().store(history, new StreamResult(writer));
+		}
 		preferences.setValue(key, writer.toString());
 	}
 
@@ -488,4 +659,42 @@ public final class ContentAssistHistory {
 		}
 		return null;
 	}
+
+	/**
+	 * Stores the history in a compact binary format into the given file.
+	 *
+	 * @param history the history to store
+	 * @param file the file to store the history into
+	 * @throws CoreException if the file cannot be written
+	 * @see #load(File) on how to restore a history stored by this method
+	 * @since 3.12
+	 */
+	public static void store(ContentAssistHistory history, File file) throws CoreException {
+		try (DataOutputStream out= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			synchronized (history) {
+				new BinaryReaderWriter().store(history, out);
+			}
+		} catch (IOException e) {
+			throw new JavaUIException(JavaUIStatus.createError(IStatus.ERROR, JavaTextMessages.ContentAssistHistory_serialize_error, e));
+		}
+	}
+
+	/**
+	 * Loads a history from a file written by {@link #store(ContentAssistHistory, File)}.
+	 *
+	 * @param file the file to retrieve the history from
+	 * @return the deserialized history, or <code>null</code> if the file does not exist or has
+	 *         been written in an unknown format
+	 * @throws CoreException if deserialization fails
+	 * @since 3.12
+	 */
+	public static ContentAssistHistory load(File file) throws CoreException {
+		if (!file.isFile())
+			return null;
+		try (DataInputStream in= new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			return new BinaryReaderWriter().load(in);
+		} catch (IOException e) {
+			throw new JavaUIException(JavaUIStatus.createError(IStatus.ERROR, JavaTextMessages.ContentAssistHistory_deserialize_error, e));
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2014 IBM Corporation and others.
+ * Copyright (c) 2005, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,6 +20,8 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.SelectionAdapter;
@@ -35,9 +37,12 @@ import org.eclipse.swt.widgets.Shell;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.InvalidRegistryObjectException;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.jface.action.LegacyActionTools;
 import org.eclipse.jface.bindings.TriggerSequence;
@@ -217,6 +222,79 @@ public class ContentAssistProcessor implements IContentAssistProcessor {
 	 */
 	private static final String PREF_WARN_ABOUT_EMPTY_ASSIST_CATEGORY= "EmptyDefaultAssistCategory"; //$NON-NLS-1$
 
+	/**
+	 * Internal preference to run the proposal computers of the enabled categories concurrently.
+	 * Only the computers that can run outside of the UI thread run in jobs, see
+	 * {@link CompletionProposalComputerDescriptor#isConcurrent()}, the others run in the calling
+	 * thread.
+	 *
+	 * @since 3.12
+	 */
+	public static final String PREF_PARALLEL_COMPUTERS= "content_assist_parallel_computers"; //$NON-NLS-1$
+
+	/**
+	 * Time in milliseconds a proposal computer may take when the computers run concurrently. The
+	 * proposals of computers that are not done by then are dropped.
+	 *
+	 * @since 3.12
+	 */
+	private static final long COMPUTER_TIME_BUDGET= 2000;
+
+	/**
+	 * Computes the proposals of a single computer in a job.
+	 *
+	 * @since 3.12
+	 */
+	private static final class ComputerJob extends Job {
+		private final CompletionProposalCategory fCategory;
+		private final CompletionProposalComputerDescriptor fDescriptor;
+		private final ContentAssistInvocationContext fContext;
+		private CountDownLatch fLatch;
+		private volatile List<ICompletionProposal> fProposals;
+
+		public ComputerJob(CompletionProposalCategory category, CompletionProposalComputerDescriptor descriptor, ContentAssistInvocationContext context) {
+			super(JavaTextMessages.ContentAssistProcessor_computing_proposals);
+			fCategory= category;
+			fDescriptor= descriptor;
+			fContext= context;
+			setSystem(true);
+			setPriority(Job.INTERACTIVE);
+		}
+
+		public void schedule(CountDownLatch latch) {
+			fLatch= latch;
+			schedule();
+		}
+
+		/**
+		 * Computes the proposals in the calling thread instead of scheduling the job.
+		 *
+		 * @param latch the latch to count down when done
+		 * @param monitor the progress monitor
+		 */
+		public void compute(CountDownLatch latch, IProgressMonitor monitor) {
+			fLatch= latch;
+			run(monitor);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			try {
+				fProposals= fDescriptor.computeCompletionProposals(fContext, monitor);
+			} finally {
+				fLatch.countDown();
+			}
+			return Status.OK_STATUS;
+		}
+
+		/**
+		 * @return the computed proposals, or <code>null</code> if the computer is not done
+		 */
+		public List<ICompletionProposal> getProposals() {
+			return fProposals;
+		}
+	}
+
 	private static final Comparator<CompletionProposalCategory> ORDER_COMPARATOR= new Comparator<CompletionProposalCategory>() {
 
 		@Override
@@ -321,9 +399,12 @@ public class ContentAssistProcessor implements IContentAssistProcessor {
 	 * @return the list of proposals
 	 */
 	private List<ICompletionProposal> collectProposals(ITextViewer viewer, int offset, IProgressMonitor monitor, ContentAssistInvocationContext context) {
+		List<CompletionProposalCategory> providers= getCategories();
+		if (isParallelComputation())
+			return collectProposalsInParallel(viewer, offset, providers, monitor, context);
+
 		boolean needsSortingAfterFiltering= false;
 		List<ICompletionProposal> proposals= new ArrayList<>();
-		List<CompletionProposalCategory> providers= getCategories();
 		for (CompletionProposalCategory cat : providers) {
 			List<ICompletionProposal> computed= cat.computeCompletionProposals(context, fPartition, new SubProgressMonitor(monitor, 1));
 			proposals.addAll(computed);
@@ -331,10 +412,105 @@ public class ContentAssistProcessor implements IContentAssistProcessor {
 			if (fErrorMessage == null)
 				fErrorMessage= cat.getErrorMessage();
 		}
+		setNeedsSortingAfterFiltering(needsSortingAfterFiltering);
+		if (JavaPlugin.DEBUG_RESULT_COLLECTOR)
+			printComputerLatencies(providers);
+		return proposals;
+	}
+
+	private static boolean isParallelComputation() {
+		JavaPlugin plugin= JavaPlugin.getDefault();
+		return plugin != null && plugin.getPreferenceStore().getBoolean(PREF_PARALLEL_COMPUTERS);
+	}
+
+	/**
+	 * Collects the proposals by running the computers of the given categories concurrently. The
+	 * proposals of the computers that are done within {@link #COMPUTER_TIME_BUDGET} are returned in
+	 * the same order as when they are computed sequentially.
+	 * <p>
+	 * The invocation contexts compute their members lazily and are not thread safe. Each computer
+	 * that can run outside of the UI thread runs in a job with a context of its own, whose selection
+	 * is read from the viewer before the job is scheduled. The other computers run in the calling
+	 * thread with the given context. If all computers can run in jobs, the first one runs in the
+	 * calling thread instead.
+	 * </p>
+	 *
+	 * @param viewer the text viewer
+	 * @param offset the offset
+	 * @param providers the categories
+	 * @param monitor the progress monitor
+	 * @param context the code assist invocation context
+	 * @return the list of proposals
+	 * @since 3.12
+	 */
+	private List<ICompletionProposal> collectProposalsInParallel(ITextViewer viewer, int offset, List<CompletionProposalCategory> providers, IProgressMonitor monitor, ContentAssistInvocationContext context) {
+		List<ComputerJob> jobs= new ArrayList<>();
+		List<ComputerJob> inlineJobs= new ArrayList<>();
+		for (CompletionProposalCategory cat : providers) {
+			for (CompletionProposalComputerDescriptor desc : cat.getComputerDescriptors(fPartition)) {
+				ComputerJob job;
+				if (desc.isConcurrent()) {
+					ContentAssistInvocationContext jobContext= createContext(viewer, offset);
+					// the selection must be read in the UI thread
+					jobContext.getSelectedRange();
+					job= new ComputerJob(cat, desc, jobContext);
+				} else {
+					job= new ComputerJob(cat, desc, context);
+					inlineJobs.add(job);
+				}
+				jobs.add(job);
+			}
+		}
+		// keep the calling thread busy
+		if (inlineJobs.isEmpty() && !jobs.isEmpty())
+			inlineJobs.add(jobs.get(0));
+
+		long deadline= System.currentTimeMillis() + COMPUTER_TIME_BUDGET;
+		CountDownLatch latch= new CountDownLatch(jobs.size());
+		for (ComputerJob job : jobs) {
+			if (!inlineJobs.contains(job))
+				job.schedule(latch);
+		}
+		for (ComputerJob job : inlineJobs)
+			job.compute(latch, new SubProgressMonitor(monitor, 1));
+		try {
+			latch.await(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		monitor.worked(providers.size());
+
+		boolean needsSortingAfterFiltering= false;
+		List<ICompletionProposal> proposals= new ArrayList<>();
+		for (ComputerJob job : jobs) {
+			List<ICompletionProposal> computed= job.getProposals();
+			if (computed == null) {
+				// too late, the proposals of the computer are dropped
+				job.cancel();
+				continue;
+			}
+			proposals.addAll(computed);
+			needsSortingAfterFiltering= needsSortingAfterFiltering || (job.fCategory.isSortingAfterFilteringNeeded() && !computed.isEmpty());
+			if (fErrorMessage == null)
+				fErrorMessage= job.fDescriptor.getErrorMessage();
+		}
+		setNeedsSortingAfterFiltering(needsSortingAfterFiltering);
+		if (JavaPlugin.DEBUG_RESULT_COLLECTOR)
+			printComputerLatencies(providers);
+		return proposals;
+	}
+
+	private void setNeedsSortingAfterFiltering(boolean needsSortingAfterFiltering) {
 		if (fNeedsSortingAfterFiltering && !needsSortingAfterFiltering)
 			fAssistant.setSorter(null);
 		fNeedsSortingAfterFiltering= needsSortingAfterFiltering;
-		return proposals;
+	}
+
+	private void printComputerLatencies(List<CompletionProposalCategory> providers) {
+		for (CompletionProposalCategory cat : providers) {
+			for (CompletionProposalComputerDescriptor desc : cat.getComputerDescriptors(fPartition))
+				System.err.println("Code Assist (" + desc.getId() + "):\t" + desc.getLastLatency()); //$NON-NLS-1$ //$NON-NLS-2$
+		}
 	}
 
 	/**
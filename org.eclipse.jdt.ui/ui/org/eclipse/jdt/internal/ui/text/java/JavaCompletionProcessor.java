@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -29,6 +29,7 @@ import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.ui.text.java.ContentAssistInvocationContext;
 import org.eclipse.jdt.ui.text.java.JavaContentAssistInvocationContext;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.javaeditor.EditorUtility;
 
 
@@ -47,6 +48,7 @@ public class JavaCompletionProcessor extends ContentAssistProcessor {
 	public JavaCompletionProcessor(IEditorPart editor, ContentAssistant assistant, String partition) {
 		super(assistant, partition);
 		fEditor= editor;
+		JavaPlugin.getDefault().loadContentAssistHistoryInBackground();
 	}
 
 	/**
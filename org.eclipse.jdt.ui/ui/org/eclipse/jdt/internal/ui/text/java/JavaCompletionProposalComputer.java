@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,8 +16,10 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
+import org.eclipse.swt.custom.StyledText;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
 
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -26,6 +28,7 @@ import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jface.dialogs.ErrorDialog;
 import org.eclipse.jface.dialogs.MessageDialog;
 
+import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
@@ -49,6 +52,7 @@ import org.eclipse.jdt.ui.text.java.ContentAssistInvocationContext;
 import org.eclipse.jdt.ui.text.java.IJavaCompletionProposalComputer;
 import org.eclipse.jdt.ui.text.java.JavaContentAssistInvocationContext;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.text.JavaHeuristicScanner;
 import org.eclipse.jdt.internal.ui.text.Symbols;
 
@@ -125,10 +129,139 @@ public class JavaCompletionProposalComputer implements IJavaCompletionProposalCo
 		}
 	}
 
+	/**
+	 * The proposals computed in a content assist session. While the user
+	 * continues to type the prefix of the completion, the proposals are
+	 * filtered instead of being computed again.
+	 *
+	 * @since 3.12
+	 */
+	private static final class CompletionResult {
+
+		private final IDocument fDocument;
+		private final ICompilationUnit fUnit;
+		/** The document contents at the time of the computation */
+		private final String fText;
+		private final int fPrefixStart;
+		private final String fPrefix;
+		private final AbstractJavaCompletionProposal[] fProposals;
+		/** The replacement lengths of the proposals at the time of the computation */
+		private final int[] fReplacementLengths;
+
+		private CompletionResult(IDocument document, ICompilationUnit unit, String text, int prefixStart, String prefix, AbstractJavaCompletionProposal[] proposals) {
+			fDocument= document;
+			fUnit= unit;
+			fText= text;
+			fPrefixStart= prefixStart;
+			fPrefix= prefix;
+			fProposals= proposals;
+			fReplacementLengths= new int[proposals.length];
+			for (int i= 0; i < proposals.length; i++)
+				fReplacementLengths[i]= proposals[i].getReplacementLength();
+		}
+
+		/**
+		 * Creates the result of a computation that can be filtered later.
+		 *
+		 * @param context the invocation context
+		 * @param proposals the computed proposals
+		 * @return the result, or <code>null</code> if the proposals cannot be
+		 *         filtered
+		 */
+		public static CompletionResult create(JavaContentAssistInvocationContext context, List<ICompletionProposal> proposals) {
+			IDocument document= context.getDocument();
+			ICompilationUnit unit= context.getCompilationUnit();
+			if (document == null || unit == null || context.getSelectedRange().y > 0)
+				return null;
+
+			String prefix;
+			try {
+				prefix= context.computeIdentifierPrefix().toString();
+			} catch (BadLocationException e) {
+				return null;
+			}
+			// with an empty prefix, code assist does not propose all types that match a longer prefix
+			if (prefix.length() == 0)
+				return null;
+
+			AbstractJavaCompletionProposal[] javaProposals= new AbstractJavaCompletionProposal[proposals.size()];
+			for (int i= 0; i < javaProposals.length; i++) {
+				ICompletionProposal proposal= proposals.get(i);
+				if (!(proposal instanceof AbstractJavaCompletionProposal))
+					return null;
+				javaProposals[i]= (AbstractJavaCompletionProposal) proposal;
+			}
+			return new CompletionResult(document, unit, document.get(), context.getInvocationOffset() - prefix.length(), prefix, javaProposals);
+		}
+
+		/**
+		 * Filters the proposals for the given invocation context if only the
+		 * prefix of the completion has been extended since the computation.
+		 *
+		 * @param context the invocation context
+		 * @return the proposals that are still valid, or <code>null</code> if
+		 *         the proposals must be computed again
+		 */
+		public List<ICompletionProposal> filter(JavaContentAssistInvocationContext context) {
+			IDocument document= context.getDocument();
+			if (document != fDocument || !fUnit.equals(context.getCompilationUnit()) || context.getSelectedRange().y > 0)
+				return null;
+
+			int offset= context.getInvocationOffset();
+			String prefix;
+			try {
+				prefix= context.computeIdentifierPrefix().toString();
+			} catch (BadLocationException e) {
+				return null;
+			}
+			if (offset - prefix.length() != fPrefixStart || !prefix.startsWith(fPrefix))
+				return null;
+
+			// the rest of the document must not have changed
+			int delta= prefix.length() - fPrefix.length();
+			int end= fPrefixStart + fPrefix.length();
+			String text= document.get();
+			if (text.length() != fText.length() + delta
+					|| !text.regionMatches(0, fText, 0, end)
+					|| !text.regionMatches(offset, fText, end, fText.length() - end))
+				return null;
+
+			List<ICompletionProposal> proposals= new ArrayList<>();
+			for (int i= 0; i < fProposals.length; i++) {
+				AbstractJavaCompletionProposal proposal= fProposals[i];
+				if (proposal.validate(document, offset, null)) {
+					// the proposal popup adapts the replacement length of the valid proposals
+					// while the prefix is typed, the popup may still show them so they are not
+					// changed here
+					if (proposal.getReplacementLength() != fReplacementLengths[i] + delta)
+						return null;
+					proposals.add(proposal);
+				}
+			}
+			return proposals;
+		}
+	}
+
+	/**
+	 * Internal preference to filter the proposals of the previous computation in a content
+	 * assist session while the prefix of the completion is extended, instead of running code
+	 * assist again.
+	 *
+	 * @since 3.12
+	 */
+	public static final String PREF_REUSE_RESULTS= "content_assist_reuse_results"; //$NON-NLS-1$
+
 	private static final long JAVA_CODE_ASSIST_TIMEOUT= Long.getLong("org.eclipse.jdt.ui.codeAssistTimeout", 5000).longValue(); // ms //$NON-NLS-1$
 
 	private String fErrorMessage;
 
+	/**
+	 * The result of the last computation in this session, or <code>null</code>
+	 * 
+	 * @since 3.12
+	 */
+	private CompletionResult fLastResult;
+
 	private final IProgressMonitor fTimeoutProgressMonitor;
 
 	public JavaCompletionProposalComputer() {
@@ -209,18 +342,32 @@ public class JavaCompletionProposalComputer implements IJavaCompletionProposalCo
 	public List<ICompletionProposal> computeCompletionProposals(ContentAssistInvocationContext context, IProgressMonitor monitor) {
 		if (context instanceof JavaContentAssistInvocationContext) {
 			JavaContentAssistInvocationContext javaContext= (JavaContentAssistInvocationContext) context;
-			return internalComputeCompletionProposals(context.getInvocationOffset(), javaContext);
+			boolean reuseResults= isReuseResults();
+			if (fLastResult != null) {
+				List<ICompletionProposal> proposals= reuseResults ? fLastResult.filter(javaContext) : null;
+				if (proposals != null)
+					return proposals;
+				fLastResult= null;
+			}
+			List<ICompletionProposal> proposals= internalComputeCompletionProposals(context.getInvocationOffset(), javaContext);
+			// incomplete results, e.g. after a timeout, are not reused
+			if (reuseResults && fErrorMessage == null)
+				fLastResult= CompletionResult.create(javaContext, proposals);
+			return proposals;
 		}
 		return Collections.emptyList();
 	}
 
+	private static boolean isReuseResults() {
+		JavaPlugin plugin= JavaPlugin.getDefault();
+		return plugin != null && plugin.getPreferenceStore().getBoolean(PREF_REUSE_RESULTS);
+	}
+
 	private List<ICompletionProposal> internalComputeCompletionProposals(int offset, JavaContentAssistInvocationContext context) {
 		ICompilationUnit unit= context.getCompilationUnit();
 		if (unit == null)
 			return Collections.emptyList();
 
-		ITextViewer viewer= context.getViewer();
-
 		CompletionProposalCollector collector= createCollector(context);
 		collector.setInvocationContext(context);
 
@@ -244,7 +391,7 @@ public class JavaCompletionProposalComputer implements IJavaCompletionProposalCo
 		collector.setFavoriteReferences(getFavoriteStaticMembers());
 
 		try {
-			Point selection= viewer.getSelectedRange();
+			Point selection= context.getSelectedRange();
 			if (selection.y > 0)
 				collector.setReplacementLength(selection.y);
 			unit.codeComplete(offset, collector, fTimeoutProgressMonitor);
@@ -253,11 +400,7 @@ public class JavaCompletionProposalComputer implements IJavaCompletionProposalCo
 			String keyBinding= bindingSvc.getBestActiveBindingFormattedFor(IWorkbenchCommandConstants.EDIT_CONTENT_ASSIST);
 			fErrorMessage= Messages.format(JavaTextMessages.CompletionProcessor_error_javaCompletion_took_too_long_message, keyBinding);
 		} catch (JavaModelException x) {
-			Shell shell= viewer.getTextWidget().getShell();
-			if (x.isDoesNotExist() && !unit.getJavaProject().isOnClasspath(unit))
-				MessageDialog.openInformation(shell, JavaTextMessages.CompletionProcessor_error_notOnBuildPath_title, JavaTextMessages.CompletionProcessor_error_notOnBuildPath_message);
-			else
-				ErrorDialog.openError(shell, JavaTextMessages.CompletionProcessor_error_accessing_title, JavaTextMessages.CompletionProcessor_error_accessing_message, x.getStatus());
+			showError(context.getViewer(), unit, x);
 		}
 
 		ICompletionProposal[] javaProposals= collector.getJavaCompletionProposals();
@@ -280,6 +423,40 @@ public class JavaCompletionProposalComputer implements IJavaCompletionProposalCo
 		return proposals;
 	}
 
+	/**
+	 * Informs the user that code assist failed. The dialog is opened in the UI thread, since the
+	 * computer runs in a job when the computers run concurrently.
+	 *
+	 * @param viewer the viewer, or <code>null</code>
+	 * @param unit the compilation unit
+	 * @param x the exception
+	 * @since 3.12
+	 */
+	private static void showError(ITextViewer viewer, final ICompilationUnit unit, final JavaModelException x) {
+		final StyledText widget= viewer != null ? viewer.getTextWidget() : null;
+		if (widget == null || widget.isDisposed()) {
+			JavaPlugin.log(x);
+			return;
+		}
+		Runnable runnable= new Runnable() {
+			@Override
+			public void run() {
+				if (widget.isDisposed())
+					return;
+				Shell shell= widget.getShell();
+				if (x.isDoesNotExist() && !unit.getJavaProject().isOnClasspath(unit))
+					MessageDialog.openInformation(shell, JavaTextMessages.CompletionProcessor_error_notOnBuildPath_title, JavaTextMessages.CompletionProcessor_error_notOnBuildPath_message);
+				else
+					ErrorDialog.openError(shell, JavaTextMessages.CompletionProcessor_error_accessing_title, JavaTextMessages.CompletionProcessor_error_accessing_message, x.getStatus());
+			}
+		};
+		Display display= widget.getDisplay();
+		if (display.getThread() == Thread.currentThread())
+			runnable.run();
+		else
+			display.asyncExec(runnable);
+	}
+
 	/**
 	 * Returns a new progress monitor that get cancelled after the given timeout.
 	 * 
@@ -361,6 +538,7 @@ public class JavaCompletionProposalComputer implements IJavaCompletionProposalCo
 	 */
 	@Override
 	public void sessionStarted() {
+		fLastResult= null;
 	}
 
 	/*
@@ -369,5 +547,6 @@ public class JavaCompletionProposalComputer implements IJavaCompletionProposalCo
 	@Override
 	public void sessionEnded() {
 		fErrorMessage= null;
+		fLastResult= null;
 	}
 }
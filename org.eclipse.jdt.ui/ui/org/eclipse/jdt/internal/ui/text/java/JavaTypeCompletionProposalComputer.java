@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2012 IBM Corporation and others.
+ * Copyright (c) 2005, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -88,7 +88,7 @@ public class JavaTypeCompletionProposalComputer extends JavaCompletionProposalCo
 					}
 
 					// insert history types
-					List<String> history= JavaPlugin.getDefault().getContentAssistHistory().getHistory(expectedType.getFullyQualifiedName()).getTypes();
+					List<String> history= JavaPlugin.getDefault().getContentAssistHistoryIfLoaded().getHistory(expectedType.getFullyQualifiedName()).getTypes();
 					relevance-= history.size() + 1;
 					for (Iterator<String> it= history.iterator(); it.hasNext();) {
 						String type= it.next();
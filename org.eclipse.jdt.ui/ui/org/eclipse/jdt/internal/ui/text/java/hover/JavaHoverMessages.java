@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -37,6 +37,7 @@ final class JavaHoverMessages extends NLS {
 	public static String JavadocHover_forward_toElement_toolTip;
 	public static String JavadocHover_forward_toolTip;
 	public static String JavadocHover_openDeclaration;
+	public static String JavadocHover_prefetch_job;
 	public static String JavadocHover_showInJavadoc;
 	public static String JavaSourceHover_skippedLines;
 	public static String JavaSourceHover_skippedLinesSymbol;
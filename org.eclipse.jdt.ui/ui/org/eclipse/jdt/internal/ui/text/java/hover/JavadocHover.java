@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -19,18 +19,26 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 import org.osgi.framework.Bundle;
 
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.StyledText;
 import org.eclipse.swt.graphics.Drawable;
 import org.eclipse.swt.graphics.FontData;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.core.resources.IFile;
 
@@ -52,6 +60,7 @@ import org.eclipse.jface.text.IInformationControlExtension4;
 import org.eclipse.jface.text.IInputChangedListener;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.Region;
 import org.eclipse.jface.text.TextPresentation;
 
 import org.eclipse.ui.IEditorPart;
@@ -80,6 +89,7 @@ import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.ClassInstanceCreation;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.ConstructorInvocation;
@@ -115,6 +125,7 @@ import org.eclipse.jdt.internal.ui.javaeditor.ASTProvider;
 import org.eclipse.jdt.internal.ui.javaeditor.EditorUtility;
 import org.eclipse.jdt.internal.ui.packageview.PackageExplorerPart;
 import org.eclipse.jdt.internal.ui.text.javadoc.JavadocContentAccess2;
+import org.eclipse.jdt.internal.ui.text.javadoc.JavadocContentCache;
 import org.eclipse.jdt.internal.ui.viewsupport.BasicElementLabels;
 import org.eclipse.jdt.internal.ui.viewsupport.JavaElementLinks;
 
@@ -456,6 +467,105 @@ public class JavadocHover extends AbstractJavaEditorTextHover {
 		}
 	}
 
+	/**
+	 * Fetches the Javadoc of the library elements referenced in the visible region of an editor
+	 * into the {@link JavadocContentCache}.
+	 *
+	 * @since 3.12
+	 */
+	private static final class PrefetchJob extends Job {
+
+		/** The maximum number of elements fetched for a visible region */
+		private static final int MAX_ELEMENTS= 30;
+
+		/** The delay in milliseconds before fetching, so that scrolling fetches once */
+		private static final long DELAY= 500;
+
+		private ITypeRoot fInput;
+		private IRegion fVisibleRegion;
+
+		public PrefetchJob() {
+			super(JavaHoverMessages.JavadocHover_prefetch_job);
+			setSystem(true);
+			setPriority(Job.DECORATE);
+		}
+
+		/**
+		 * Fetches the Javadoc for the given visible region, unless it has been
+		 * fetched for it already.
+		 *
+		 * @param input the editor input
+		 * @param visibleRegion the visible region of the editor
+		 */
+		public synchronized void prefetch(ITypeRoot input, IRegion visibleRegion) {
+			if (input.equals(fInput) && visibleRegion.equals(fVisibleRegion))
+				return;
+			fInput= input;
+			fVisibleRegion= visibleRegion;
+			cancel();
+			schedule(DELAY);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			ITypeRoot input;
+			final IRegion region;
+			synchronized (this) {
+				input= fInput;
+				region= fVisibleRegion;
+			}
+			CompilationUnit ast= SharedASTProvider.getAST(input, SharedASTProvider.WAIT_NO, monitor);
+			if (ast == null) {
+				// try again with the next hover
+				synchronized (this) {
+					if (input.equals(fInput) && region.equals(fVisibleRegion))
+						fInput= null;
+				}
+				return Status.OK_STATUS;
+			}
+
+			final Set<IJavaElement> elements= new LinkedHashSet<>();
+			ast.accept(new ASTVisitor() {
+				@Override
+				public boolean preVisit2(ASTNode node) {
+					int start= node.getStartPosition();
+					return elements.size() < MAX_ELEMENTS && start < region.getOffset() + region.getLength() && region.getOffset() < start + node.getLength();
+				}
+
+				@Override
+				public boolean visit(SimpleName node) {
+					IBinding binding= node.resolveBinding();
+					if (binding != null && (binding.getKind() != IBinding.VARIABLE || ((IVariableBinding) binding).isField())) {
+						IJavaElement element= binding.getJavaElement();
+						if (element instanceof IMember && ((IMember) element).isBinary())
+							elements.add(element);
+					}
+					return false;
+				}
+			});
+
+			for (Iterator<IJavaElement> iter= elements.iterator(); iter.hasNext();) {
+				if (monitor.isCanceled())
+					return Status.CANCEL_STATUS;
+				try {
+					JavadocContentCache.getDefault().getHTMLContent(iter.next());
+				} catch (CoreException e) {
+					// the hover reports the failure
+				}
+			}
+			return Status.OK_STATUS;
+		}
+	}
+
+	/**
+	 * Internal preference to fetch the Javadoc of the library elements in the visible part of the
+	 * editor in the background after a hover, so that hovering them does not wait for attached
+	 * Javadoc.
+	 *
+	 * @since 3.12
+	 */
+	public static final String PREF_PREFETCH_JAVADOC= "javadoc_hover_prefetch"; //$NON-NLS-1$
+
 	private static final long LABEL_FLAGS=  JavaElementLabels.ALL_FULLY_QUALIFIED
 		| JavaElementLabels.M_PRE_RETURNTYPE | JavaElementLabels.M_PARAMETER_ANNOTATIONS | JavaElementLabels.M_PARAMETER_TYPES | JavaElementLabels.M_PARAMETER_NAMES | JavaElementLabels.M_EXCEPTIONS
 		| JavaElementLabels.F_PRE_TYPE_SIGNATURE | JavaElementLabels.M_PRE_TYPE_PARAMETERS | JavaElementLabels.T_TYPE_PARAMETERS
@@ -482,6 +592,12 @@ public class JavadocHover extends AbstractJavaEditorTextHover {
 	 * @since 3.2
 	 */
 	private IInformationControlCreator fPresenterControlCreator;
+	/**
+	 * The job that fetches the Javadoc of the visible elements.
+	 *
+	 * @since 3.12
+	 */
+	private final PrefetchJob fPrefetchJob= new PrefetchJob();
 
 	/*
 	 * @see org.eclipse.jdt.internal.ui.text.java.hover.AbstractJavaEditorTextHover#getInformationPresenterControlCreator()
@@ -624,7 +740,41 @@ public class JavadocHover extends AbstractJavaEditorTextHover {
 	 */
 	@Override
 	public Object getHoverInfo2(ITextViewer textViewer, IRegion hoverRegion) {
-		return internalGetHoverInfo(textViewer, hoverRegion);
+		JavadocBrowserInformationControlInput info= internalGetHoverInfo(textViewer, hoverRegion);
+		if (isPrefetchEnabled())
+			schedulePrefetch(textViewer);
+		return info;
+	}
+
+	private static boolean isPrefetchEnabled() {
+		JavaPlugin plugin= JavaPlugin.getDefault();
+		return plugin != null && plugin.getPreferenceStore().getBoolean(PREF_PREFETCH_JAVADOC);
+	}
+
+	/**
+	 * Schedules fetching the Javadoc of the elements in the visible region of the given viewer.
+	 *
+	 * @param textViewer the text viewer
+	 * @since 3.12
+	 */
+	private void schedulePrefetch(final ITextViewer textViewer) {
+		final ITypeRoot input= getEditorInputJavaElement();
+		final StyledText widget= textViewer.getTextWidget();
+		if (input == null || widget == null || widget.isDisposed())
+			return;
+
+		// the visible region can only be computed in the UI thread
+		widget.getDisplay().asyncExec(new Runnable() {
+			@Override
+			public void run() {
+				if (widget.isDisposed())
+					return;
+				int offset= textViewer.getTopIndexStartOffset();
+				int end= textViewer.getBottomIndexEndOffset();
+				if (offset >= 0 && end > offset)
+					fPrefetchJob.prefetch(input, new Region(offset, end - offset));
+			}
+		});
 	}
 
 	private JavadocBrowserInformationControlInput internalGetHoverInfo(ITextViewer textViewer, IRegion hoverRegion) {
@@ -655,7 +805,7 @@ public class JavadocHover extends AbstractJavaEditorTextHover {
 			try {
 				if (elements[i] instanceof IPackageFragment) {
 					IPackageFragment packageFragment= (IPackageFragment) elements[i];
-					if (JavadocContentAccess2.getHTMLContent(packageFragment) != null)
+					if (JavadocContentCache.getDefault().getHTMLContent(packageFragment) != null)
 						return new IJavaElement[] { packageFragment };
 				}
 			} catch (CoreException e) {
@@ -714,7 +864,7 @@ public class JavadocHover extends AbstractJavaEditorTextHover {
 				addAnnotations(buffer, element, editorInputElement, hoverRegion);
 				Reader reader= null;
 				try {
-					String content= JavadocContentAccess2.getHTMLContent(element, true);
+					String content= JavadocContentCache.getDefault().getHTMLContent(element);
 					IPackageFragmentRoot root= (IPackageFragmentRoot) element.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
 					boolean isBinary= root.exists() && root.getKind() == IPackageFragmentRoot.K_BINARY;
 					if (content != null) {
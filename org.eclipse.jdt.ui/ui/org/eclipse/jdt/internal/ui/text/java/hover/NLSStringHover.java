@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,8 +10,6 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.text.java.hover;
 
-import java.util.Properties;
-
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Shell;
 
@@ -52,6 +50,7 @@ import org.eclipse.jdt.core.dom.TypeDeclaration;
 
 import org.eclipse.jdt.internal.corext.refactoring.nls.AccessorClassReference;
 import org.eclipse.jdt.internal.corext.refactoring.nls.NLSHintHelper;
+import org.eclipse.jdt.internal.corext.refactoring.nls.PropertiesFileCache.PropertiesFile;
 
 import org.eclipse.jdt.ui.SharedASTProvider;
 
@@ -197,19 +196,19 @@ public class NLSStringHover extends AbstractJavaEditorTextHover {
 		}
 
 		final String propertiesFileName= propertiesFile.getName();
-		Properties properties= null;
+		PropertiesFile properties= null;
 		try {
-			properties= NLSHintHelper.getProperties(propertiesFile);
+			properties= NLSHintHelper.getPropertiesFile(propertiesFile);
 		} catch (IllegalArgumentException e) {
 			return new NLSHoverControlInput(toHtml(propertiesFileName, JavaHoverMessages.NLSStringHover_NLSStringHover_PropertiesFileCouldNotBeReadWarning, e.getLocalizedMessage(), false),
 					propertiesFile, identifier, getEditor());
 		}
 		if (properties == null)
 			return null;
-		if (properties.isEmpty())
+		if (properties.getKeys().isEmpty())
 			return new NLSHoverControlInput(toHtml(propertiesFileName, JavaHoverMessages.NLSStringHover_NLSStringHover_missingKeyWarning, null, false), propertiesFile, "", getEditor()); //$NON-NLS-1$
 
-		String value= properties.getProperty(identifier, null);
+		String value= properties.getProperty(identifier);
 		String buffer= toHtml(propertiesFileName, value, null, true);
 		return new NLSHoverControlInput(buffer, propertiesFile, identifier, getEditor());
 	}
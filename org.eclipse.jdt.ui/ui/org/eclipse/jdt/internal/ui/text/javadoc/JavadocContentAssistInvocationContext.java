@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2011 IBM Corporation and others.
+ * Copyright (c) 2005, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -52,7 +52,7 @@ public final class JavadocContentAssistInvocationContext extends JavaContentAssi
 	 * @return the selection length of the viewer
 	 */
 	public int getSelectionLength() {
-		return getViewer().getSelectedRange().y;
+		return getSelectedRange().y;
 	}
 
 	/*
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.text.javadoc;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.runtime.CoreException;
+
+import org.eclipse.core.resources.IResource;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+/**
+ * Cache of the Javadoc of library elements, shared by the Javadoc hover and
+ * the Javadoc view, so that attached Javadoc is not fetched and parsed again
+ * when the same API is shown repeatedly.
+ * <p>
+ * The HTML content is cached by the handle identifier of the element and is
+ * valid as long as the modification stamp of its package fragment root does
+ * not change. The cache is cleared when a classpath, which includes the
+ * Javadoc locations, the source attachment or the contents of a library
+ * change. The Javadoc of
+ * elements in source folders is not cached, since it changes with every edit.
+ * </p>
+ *
+ * @since 3.12
+ */
+public class JavadocContentCache {
+
+	private static final class CacheEntry {
+
+		private final long fStamp;
+		/** The HTML content, or <code>null</code> if the element has no Javadoc */
+		private final String fContent;
+
+		public CacheEntry(long stamp, String content) {
+			fStamp= stamp;
+			fContent= content;
+		}
+	}
+
+	private class LibraryDeltaListener implements IElementChangedListener {
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			if (affectsLibraries(event.getDelta()))
+				clear();
+		}
+
+		/**
+		 * Computes whether the delta may change the Javadoc of library elements.
+		 *
+		 * @param delta the Java element delta
+		 * @return <code>true</code> if the cache must be cleared
+		 */
+		private boolean affectsLibraries(IJavaElementDelta delta) {
+			IJavaElement element= delta.getElement();
+			boolean isChanged= delta.getKind() == IJavaElementDelta.CHANGED;
+			int flags= delta.getFlags();
+			switch (element.getElementType()) {
+				case IJavaElement.JAVA_MODEL:
+					return affectsLibraries(delta.getAffectedChildren());
+				case IJavaElement.JAVA_PROJECT:
+					if (!isChanged || (flags & (IJavaElementDelta.F_CLOSED | IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED)) != 0)
+						return true;
+					return affectsLibraries(delta.getAffectedChildren());
+				case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+					if (!isChanged || (flags & (IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH
+							| IJavaElementDelta.F_SOURCEATTACHED | IJavaElementDelta.F_SOURCEDETACHED)) != 0)
+						return true;
+					return affectsLibraries(delta.getAffectedChildren());
+				case IJavaElement.PACKAGE_FRAGMENT:
+					return affectsLibraries(delta.getAffectedChildren());
+				case IJavaElement.CLASS_FILE:
+					return true;
+				default:
+					// compilation units and their children
+					return false;
+			}
+		}
+
+		private boolean affectsLibraries(IJavaElementDelta[] children) {
+			for (int i= 0; i < children.length; i++) {
+				if (affectsLibraries(children[i]))
+					return true;
+			}
+			return false;
+		}
+	}
+
+	private static final int CACHE_SIZE= 64;
+
+	private static final long UNKNOWN_STAMP= IResource.NULL_STAMP;
+
+	private static JavadocContentCache fgInstance;
+
+	public static synchronized JavadocContentCache getDefault() {
+		if (fgInstance == null) {
+			fgInstance= new JavadocContentCache();
+			JavaCore.addElementChangedListener(fgInstance.fDeltaListener, ElementChangedEvent.POST_CHANGE);
+		}
+		return fgInstance;
+	}
+
+	public static synchronized void shutdown() {
+		if (fgInstance != null) {
+			JavaCore.removeElementChangedListener(fgInstance.fDeltaListener);
+			fgInstance= null;
+		}
+	}
+
+	private final IElementChangedListener fDeltaListener= new LibraryDeltaListener();
+
+	private final Map<String, CacheEntry> fEntries= new LinkedHashMap<String, CacheEntry>(CACHE_SIZE, 0.75f, true) {
+		private static final long serialVersionUID= 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	private JavadocContentCache() {
+	}
+
+	/**
+	 * Returns the Javadoc of the given element in HTML format, like
+	 * {@link JavadocContentAccess2#getHTMLContent(IJavaElement, boolean)} with
+	 * attached Javadoc.
+	 *
+	 * @param element the element
+	 * @return the Javadoc in HTML format, or <code>null</code> if the element has
+	 *         no Javadoc
+	 * @throws CoreException if the Javadoc cannot be accessed
+	 */
+	public String getHTMLContent(IJavaElement element) throws CoreException {
+		long stamp= getModificationStamp(element);
+		if (stamp == UNKNOWN_STAMP)
+			return JavadocContentAccess2.getHTMLContent(element, true);
+
+		String key= element.getHandleIdentifier();
+		synchronized (this) {
+			CacheEntry entry= fEntries.get(key);
+			if (entry != null && entry.fStamp == stamp)
+				return entry.fContent;
+		}
+
+		// failures, e.g. of a remote Javadoc location, are not cached
+		String content= JavadocContentAccess2.getHTMLContent(element, true);
+		synchronized (this) {
+			fEntries.put(key, new CacheEntry(stamp, content));
+		}
+		return content;
+	}
+
+	private synchronized void clear() {
+		fEntries.clear();
+	}
+
+	private static long getModificationStamp(IJavaElement element) throws JavaModelException {
+		IPackageFragmentRoot root= (IPackageFragmentRoot) element.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+		if (root == null || !root.exists() || root.getKind() != IPackageFragmentRoot.K_BINARY)
+			return UNKNOWN_STAMP;
+		IResource resource= root.getResource();
+		if (resource != null)
+			return resource.getModificationStamp();
+		File archive= root.getPath().toFile();
+		return archive.exists() ? archive.lastModified() : UNKNOWN_STAMP;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,9 +10,19 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.text.spelling;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
 import org.eclipse.core.runtime.AssertionFailedException;
 import org.eclipse.core.runtime.IProgressMonitor;
 
+import org.eclipse.jface.preference.IPreferenceStore;
+
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IRegion;
@@ -25,6 +35,9 @@ import org.eclipse.jdt.ui.PreferenceConstants;
 import org.eclipse.jdt.ui.text.IJavaPartitions;
 
 import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellEvent;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellEventListener;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.RankedWordProposal;
 
 
 /**
@@ -34,6 +47,117 @@ import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker;
  */
 public class JavaSpellingEngine extends SpellingEngine {
 
+	/**
+	 * Spell event of a cached partition.
+	 *
+	 * @since 3.12
+	 */
+	private static final class CachedSpellEvent implements ISpellEvent {
+
+		private final ISpellChecker fChecker;
+		private final String fWord;
+		private final int fBegin;
+		private final int fEnd;
+		private final boolean fSentence;
+		private final boolean fMatch;
+
+		public CachedSpellEvent(ISpellChecker checker, String word, int begin, int end, boolean sentence, boolean match) {
+			fChecker= checker;
+			fWord= word;
+			fBegin= begin;
+			fEnd= end;
+			fSentence= sentence;
+			fMatch= match;
+		}
+
+		@Override
+		public int getBegin() {
+			return fBegin;
+		}
+
+		@Override
+		public int getEnd() {
+			return fEnd;
+		}
+
+		@Override
+		public Set<RankedWordProposal> getProposals() {
+			return fChecker.getProposals(fWord, fSentence);
+		}
+
+		@Override
+		public String getWord() {
+			return fWord;
+		}
+
+		@Override
+		public boolean isMatch() {
+			return fMatch;
+		}
+
+		@Override
+		public boolean isStart() {
+			return fSentence;
+		}
+
+		/**
+		 * Returns a copy of this event moved by the given delta.
+		 *
+		 * @param delta the delta to move by
+		 * @return the moved event
+		 */
+		public CachedSpellEvent move(int delta) {
+			return new CachedSpellEvent(fChecker, fWord, fBegin + delta, fEnd + delta, fSentence, fMatch);
+		}
+	}
+
+	/**
+	 * Listener that remembers the events of a partition relative to the
+	 * partition start and forwards them.
+	 *
+	 * @since 3.12
+	 */
+	private static final class RecordingListener implements ISpellEventListener {
+
+		private final ISpellEventListener fListener;
+		private final ISpellChecker fChecker;
+		private final int fOffset;
+		private final List<CachedSpellEvent> fEvents= new ArrayList<>();
+
+		public RecordingListener(ISpellEventListener listener, ISpellChecker checker, int offset) {
+			fListener= listener;
+			fChecker= checker;
+			fOffset= offset;
+		}
+
+		@Override
+		public void handle(ISpellEvent event) {
+			fEvents.add(new CachedSpellEvent(fChecker, event.getWord(), event.getBegin() - fOffset, event.getEnd() - fOffset, event.isStart(), event.isMatch()));
+			fListener.handle(event);
+		}
+	}
+
+	/**
+	 * The spell events of the checked partitions of a document, keyed by the
+	 * partition type and contents, so that only partitions that changed since
+	 * the previous check are checked again.
+	 *
+	 * @since 3.12
+	 */
+	private static final class PartitionCache {
+
+		private ISpellChecker fChecker;
+		private long fStamp;
+		private String fSettings;
+		private Map<String, List<CachedSpellEvent>> fEvents= new HashMap<>();
+	}
+
+	/**
+	 * The partition caches by document.
+	 *
+	 * @since 3.12
+	 */
+	private static final Map<IDocument, PartitionCache> fgPartitionCaches= Collections.synchronizedMap(new WeakHashMap<IDocument, PartitionCache>());
 
 	/*
 	 * @see org.eclipse.jdt.internal.ui.text.spelling.SpellingEngine#check(org.eclipse.jface.text.IDocument, org.eclipse.jface.text.IRegion[], org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker, org.eclipse.ui.texteditor.spelling.ISpellingProblemCollector, org.eclipse.core.runtime.IProgressMonitor)
@@ -42,6 +166,9 @@ public class JavaSpellingEngine extends SpellingEngine {
 	protected void check(IDocument document, IRegion[] regions, ISpellChecker checker, ISpellingProblemCollector collector, IProgressMonitor monitor) {
 		SpellEventListener listener= new SpellEventListener(collector, document);
 		boolean isIgnoringJavaStrings= PreferenceConstants.getPreferenceStore().getBoolean(PreferenceConstants.SPELLING_IGNORE_JAVA_STRINGS);
+		Map<String, List<CachedSpellEvent>> cached= getCachedEvents(document, checker);
+		Map<String, List<CachedSpellEvent>> checked= new HashMap<>();
+		boolean complete= false;
 		try {
 			for (int i= 0; i < regions.length; i++) {
 				IRegion region= regions[i];
@@ -59,14 +186,107 @@ public class JavaSpellingEngine extends SpellingEngine {
 					if (isIgnoringJavaStrings && type.equals(IJavaPartitions.JAVA_STRING))
 						continue;
 
-					if (!type.equals(IDocument.DEFAULT_CONTENT_TYPE) && !type.equals(IJavaPartitions.JAVA_CHARACTER))
-						checker.execute(listener, new SpellCheckIterator(document, partition, checker.getLocale()));
+					if (!type.equals(IDocument.DEFAULT_CONTENT_TYPE) && !type.equals(IJavaPartitions.JAVA_CHARACTER)) {
+						String key= type + ':' + document.get(partition.getOffset(), partition.getLength());
+						List<CachedSpellEvent> events= cached.get(key);
+						if (events != null) {
+							for (int event= 0; event < events.size(); event++)
+								listener.handle(events.get(event).move(partition.getOffset()));
+						} else {
+							RecordingListener recorder= new RecordingListener(listener, checker, partition.getOffset());
+							checker.execute(recorder, new SpellCheckIterator(document, partition, checker.getLocale()));
+							// the checker stops early once the problems threshold has been reached
+							if (listener.isProblemsThresholdReached() || monitor != null && monitor.isCanceled())
+								continue;
+							events= recorder.fEvents;
+						}
+						checked.put(key, events);
+					}
 				}
 			}
+			complete= true;
 		} catch (BadLocationException x) {
 			// ignore: the document has been changed in another thread and will be checked again
 		} catch (AssertionFailedException x) {
 			// ignore: the document has been changed in another thread and will be checked again
+		} finally {
+			updateCachedEvents(document, checker, checked, complete);
+		}
+	}
+
+	/**
+	 * Returns the cached spell events of the given document, or an empty map if
+	 * the spell checker or its settings changed since they have been cached.
+	 *
+	 * @param document the document
+	 * @param checker the spell checker
+	 * @return the cached events by partition type and contents
+	 * @since 3.12
+	 */
+	private static Map<String, List<CachedSpellEvent>> getCachedEvents(IDocument document, ISpellChecker checker) {
+		PartitionCache cache= fgPartitionCaches.get(document);
+		if (cache == null)
+			return Collections.emptyMap();
+		synchronized (cache) {
+			if (cache.fChecker != checker || cache.fStamp != checker.getModificationStamp() || !cache.fSettings.equals(getSettings()))
+				return Collections.emptyMap();
+			return new HashMap<>(cache.fEvents);
+		}
+	}
+
+	/**
+	 * Remembers the spell events of the checked partitions.
+	 *
+	 * @param document the document
+	 * @param checker the spell checker
+	 * @param checked the spell events by partition type and contents
+	 * @param complete <code>true</code> if all partitions have been checked
+	 *            and the events of other partitions can be discarded
+	 * @since 3.12
+	 */
+	private static void updateCachedEvents(IDocument document, ISpellChecker checker, Map<String, List<CachedSpellEvent>> checked, boolean complete) {
+		PartitionCache cache;
+		synchronized (fgPartitionCaches) {
+			cache= fgPartitionCaches.get(document);
+			if (cache == null) {
+				cache= new PartitionCache();
+				fgPartitionCaches.put(document, cache);
+			}
+		}
+		long stamp= checker.getModificationStamp();
+		String settings= getSettings();
+		synchronized (cache) {
+			if (cache.fChecker != checker || cache.fStamp != stamp || !settings.equals(cache.fSettings)) {
+				cache.fChecker= checker;
+				cache.fStamp= stamp;
+				cache.fSettings= settings;
+				cache.fEvents= new HashMap<>();
+			}
+			if (complete)
+				cache.fEvents= checked;
+			else
+				cache.fEvents.putAll(checked);
 		}
 	}
+
+	/**
+	 * Returns the spelling preferences that affect the spell events of a
+	 * partition.
+	 *
+	 * @return the spelling preferences
+	 * @since 3.12
+	 */
+	private static String getSettings() {
+		IPreferenceStore store= PreferenceConstants.getPreferenceStore();
+		StringBuffer buffer= new StringBuffer();
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_DIGITS));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_MIXED));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_SENTENCE));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_UPPER));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_URLS));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_NON_LETTERS));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_SINGLE_LETTERS));
+		buffer.append(store.getInt(PreferenceConstants.SPELLING_PROBLEMS_THRESHOLD));
+		return buffer.toString();
+	}
 }
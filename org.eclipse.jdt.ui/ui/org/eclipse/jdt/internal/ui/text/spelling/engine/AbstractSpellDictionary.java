@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,7 @@
 package org.eclipse.jdt.internal.ui.text.spelling.engine;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -27,8 +28,10 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -119,6 +122,23 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	 */
 	protected static final float LOAD_FACTOR= 0.85f;
 
+	/**
+	 * Counts the modifications of the words of all dictionaries.
+	 * @since 3.12
+	 */
+	private static final AtomicInteger fgModificationCount= new AtomicInteger();
+
+	/**
+	 * Returns the number of modifications of the words of all dictionaries.
+	 * Spell checkers use it to invalidate cached results.
+	 *
+	 * @return the modification count
+	 * @since 3.12
+	 */
+	static int getModificationCount() {
+		return fgModificationCount.get();
+	}
+
 	/** The phonetic distance algorithm */
 	private IPhoneticDistanceAlgorithm fDistanceAlgorithm= new DefaultPhoneticDistanceAlgorithm();
 
@@ -128,6 +148,14 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	/** The phonetic hash provider */
 	private IPhoneticHashProvider fHashProvider= new DefaultPhoneticHashProvider();
 
+	/**
+	 * The memory-mapped image of the word list, or <code>null</code> if the
+	 * word list is held in {@link #fHashBuckets}. Words added after the image
+	 * has been mapped are held in {@link #fHashBuckets}.
+	 * @since 3.12
+	 */
+	private CompiledSpellDictionary fCompiled;
+
 	/** Is the dictionary already loaded? */
 	private boolean fLoaded= false;
 	/**
@@ -167,7 +195,33 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 			JavaPlugin.log(e);
 			return null;
 		}
-		return fHashBuckets.get(hashBytes);
+		Object candidates= fHashBuckets.get(hashBytes);
+		CompiledSpellDictionary compiled= fCompiled;
+		if (compiled == null)
+			return candidates;
+		Object compiledCandidates= compiled.getCandidates(hashBytes.byteArray);
+		if (candidates == null)
+			return compiledCandidates;
+		if (compiledCandidates == null)
+			return candidates;
+		ArrayList<Object> merged= new ArrayList<>(BUCKET_CAPACITY);
+		addCandidates(merged, compiledCandidates);
+		addCandidates(merged, candidates);
+		return merged;
+	}
+
+	/**
+	 * Adds the given candidates to the list.
+	 *
+	 * @param list the list to add the candidates to
+	 * @param candidates a <code>byte[]</code> or a list of <code>byte[]</code>
+	 * @since 3.12
+	 */
+	private static void addCandidates(ArrayList<Object> list, Object candidates) {
+		if (candidates instanceof byte[])
+			list.add(candidates);
+		else
+			list.addAll((ArrayList<?>)candidates);
 	}
 
 	/**
@@ -325,7 +379,7 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	 * @since 3.3
 	 */
 	protected boolean isEmpty() {
-		return fHashBuckets.size() == 0;
+		return fHashBuckets.size() == 0 && (fCompiled == null || fCompiled.isEmpty());
 	}
 
 	/**
@@ -489,6 +543,7 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 		}
 
 		Object bucket= fHashBuckets.get(hashBytes);
+		fgModificationCount.incrementAndGet();
 
 		if (bucket == null) {
 			fHashBuckets.put(hashBytes, wordBytes);
@@ -565,7 +620,10 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	 */
 	@Override
 	public void setStripNonLetters(boolean state) {
-		fIsStrippingNonLetters= state;
+		if (fIsStrippingNonLetters != state) {
+			fIsStrippingNonLetters= state;
+			fgModificationCount.incrementAndGet();
+		}
 	}
 
 	/**
@@ -600,7 +658,7 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	 */
 	@Override
 	public synchronized final boolean isLoaded() {
-		return fLoaded || fHashBuckets.size() > 0;
+		return fLoaded || fHashBuckets.size() > 0 || fCompiled != null;
 	}
 
 	/**
@@ -615,6 +673,22 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 		 if (!fMustLoad)
 			 return fLoaded;
 
+		String key= null;
+		long stamp= -1;
+		File file= null;
+		if (url != null) {
+			key= getCompiledKey(url);
+			stamp= CompiledSpellDictionary.getStamp(url);
+			if (stamp != -1)
+				file= CompiledSpellDictionary.getFile(key);
+			fCompiled= CompiledSpellDictionary.open(file, key, stamp);
+			if (fCompiled != null) {
+				fMustLoad= false;
+				fgModificationCount.incrementAndGet();
+				return true;
+			}
+		}
+
 		if (url != null) {
 			InputStream stream= null;
 			int line= 0;
@@ -651,6 +725,8 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 						if (doRead)
 							hashWord(word);
 					}
+					if (file != null)
+						compile(file, key, stamp);
 					return true;
 				}
 			} catch (FileNotFoundException ex) {
@@ -683,6 +759,47 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 		return false;
 	}
 
+	/**
+	 * Returns the key identifying the image of the word list at the given URL.
+	 *
+	 * @param url the URL of the word list
+	 * @return the key of the image
+	 * @since 3.12
+	 */
+	private String getCompiledKey(URL url) {
+		return url.toExternalForm() + '|' + getEncoding() + '|' + fHashProvider.getClass().getName();
+	}
+
+	/**
+	 * Writes the words hashed so far to the given image file and, if successful,
+	 * replaces them by the memory-mapped image.
+	 *
+	 * @param file the image file
+	 * @param key the key identifying the word list
+	 * @param stamp the stamp of the word list
+	 * @since 3.12
+	 */
+	private void compile(File file, String key, long stamp) {
+		List<byte[]> hashes= new ArrayList<>(fHashBuckets.size());
+		List<Object> buckets= new ArrayList<>(fHashBuckets.size());
+		for (Iterator<Map.Entry<ByteArrayWrapper, Object>> iter= fHashBuckets.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry<ByteArrayWrapper, Object> entry= iter.next();
+			hashes.add(entry.getKey().byteArray);
+			buckets.add(entry.getValue());
+		}
+		try {
+			CompiledSpellDictionary.write(file, key, stamp, hashes, buckets);
+		} catch (IOException e) {
+			JavaPlugin.log(e);
+			return;
+		}
+		CompiledSpellDictionary compiled= CompiledSpellDictionary.open(file, key, stamp);
+		if (compiled != null) {
+			fCompiled= compiled;
+			fHashBuckets.clear();
+		}
+	}
+
 	/**
 	 * Compacts the dictionary.
 	 *
@@ -725,6 +842,8 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 		fLoaded= false;
 		fMustLoad= true;
 		fHashBuckets.clear();
+		fCompiled= null;
+		fgModificationCount.incrementAndGet();
 	}
 
 	/*
@@ -0,0 +1,373 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.text.spelling.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
+
+/**
+ * Read-only image of a dictionary word list that is memory-mapped from the
+ * plug-in state location.
+ * <p>
+ * The image is created from a loaded word list the first time a dictionary is
+ * used and is then mapped on later sessions instead of parsing the word list
+ * again. It consists of an open addressing table from phonetic hashes to
+ * buckets, the buckets, the word offsets and an arena holding the UTF-8 encoded
+ * hashes and words. The image is only used as long as the stamp of the word
+ * list it was created from is unchanged.
+ * </p>
+ * <p>
+ * The image file is named after a digest of the key identifying the word list.
+ * Images that have not been used for {@link #MAX_UNUSED_TIME} are deleted
+ * whenever a new image is written.
+ * </p>
+ *
+ * @since 3.12
+ */
+final class CompiledSpellDictionary {
+
+	/** The name of the folder in the state location holding the images */
+	private static final String FOLDER_NAME= "spelling"; //$NON-NLS-1$
+
+	/** The file extension of the images */
+	private static final String FILE_EXTENSION= ".dict"; //$NON-NLS-1$
+
+	/** The magic number identifying an image */
+	private static final int MAGIC= 0x4A534443;
+
+	/** The version of the image format */
+	private static final int VERSION= 1;
+
+	/** The size of a bucket record in bytes */
+	private static final int BUCKET_SIZE= 16;
+
+	/** The time after which an unused image is deleted, in milliseconds */
+	private static final long MAX_UNUSED_TIME= 30 * 24 * 60 * 60 * 1000L;
+
+	/** The interval in which the modification time of a used image is updated, in milliseconds */
+	private static final long TOUCH_INTERVAL= 24 * 60 * 60 * 1000L;
+
+	/**
+	 * Returns the image file for the given key, or <code>null</code> if there
+	 * is no state location.
+	 *
+	 * @param key the key identifying the word list
+	 * @return the image file or <code>null</code>
+	 */
+	static File getFile(String key) {
+		JavaPlugin plugin= JavaPlugin.getDefault();
+		if (plugin == null)
+			return null;
+		File folder= plugin.getStateLocation().append(FOLDER_NAME).toFile();
+		return new File(folder, getDigest(key) + FILE_EXTENSION);
+	}
+
+	/**
+	 * Returns the hexadecimal SHA-1 digest of the given key.
+	 *
+	 * @param key the key identifying the word list
+	 * @return the digest of the key
+	 */
+	private static String getDigest(String key) {
+		byte[] digest;
+		try {
+			digest= MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform supports SHA-1
+			throw new IllegalStateException(e);
+		}
+		StringBuilder buffer= new StringBuilder(2 * digest.length);
+		for (int index= 0; index < digest.length; index++) {
+			buffer.append(Character.forDigit((digest[index] >> 4) & 0xF, 16));
+			buffer.append(Character.forDigit(digest[index] & 0xF, 16));
+		}
+		return buffer.toString();
+	}
+
+	/**
+	 * Deletes the images in the given folder that have not been used for
+	 * {@link #MAX_UNUSED_TIME}.
+	 *
+	 * @param folder the folder holding the images
+	 */
+	private static void deleteUnusedImages(File folder) {
+		File[] files= folder.listFiles();
+		if (files == null)
+			return;
+		long limit= System.currentTimeMillis() - MAX_UNUSED_TIME;
+		for (int index= 0; index < files.length; index++) {
+			File file= files[index];
+			if (file.getName().endsWith(FILE_EXTENSION) && file.lastModified() < limit)
+				file.delete();
+		}
+	}
+
+	/**
+	 * Returns the stamp of the word list at the given URL.
+	 *
+	 * @param url the URL of the word list
+	 * @return the stamp, or <code>-1</code> if it cannot be determined
+	 */
+	static long getStamp(URL url) {
+		if ("file".equals(url.getProtocol())) { //$NON-NLS-1$
+			File file= new File(url.getPath());
+			if (!file.isFile())
+				return -1;
+			return file.lastModified() * 31 + file.length();
+		}
+		try {
+			URLConnection connection= url.openConnection();
+			long modified= connection.getLastModified();
+			if (modified == 0)
+				return -1;
+			return modified * 31 + connection.getContentLengthLong();
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Maps the image from the given file.
+	 *
+	 * @param file the image file
+	 * @param key the key identifying the word list
+	 * @param stamp the stamp of the word list
+	 * @return the mapped image, or <code>null</code> if the file does not
+	 *         exist or has been created from a different word list
+	 */
+	static CompiledSpellDictionary open(File file, String key, long stamp) {
+		if (file == null || !file.isFile())
+			return null;
+		try (RandomAccessFile input= new RandomAccessFile(file, "r")) { //$NON-NLS-1$
+			MappedByteBuffer buffer= input.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, input.length());
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+				return null;
+			byte[] keyBytes= new byte[buffer.getInt()];
+			buffer.get(keyBytes);
+			if (!key.equals(new String(keyBytes, StandardCharsets.UTF_8)) || buffer.getLong() != stamp)
+				return null;
+			CompiledSpellDictionary compiled= new CompiledSpellDictionary(buffer);
+			long now= System.currentTimeMillis();
+			if (file.lastModified() < now - TOUCH_INTERVAL)
+				file.setLastModified(now);
+			return compiled;
+		} catch (IOException e) {
+			return null;
+		} catch (RuntimeException e) {
+			// truncated or corrupt image
+			return null;
+		}
+	}
+
+	/**
+	 * Writes an image for the given buckets.
+	 *
+	 * @param file the image file
+	 * @param key the key identifying the word list
+	 * @param stamp the stamp of the word list
+	 * @param hashes the UTF-8 encoded phonetic hashes
+	 * @param buckets the words of each hash, either a <code>byte[]</code> or a
+	 *            list of <code>byte[]</code>
+	 * @throws IOException if the image could not be written
+	 */
+	static void write(File file, String key, long stamp, List<byte[]> hashes, List<Object> buckets) throws IOException {
+		int bucketCount= hashes.size();
+		int tableSize= Integer.highestOneBit(Math.max(1, bucketCount) * 2 - 1) << 1;
+		int[] table= new int[tableSize];
+		int wordCount= 0;
+		int arenaSize= 0;
+		for (int index= 0; index < bucketCount; index++) {
+			byte[] hash= hashes.get(index);
+			int slot= hashCode(hash, 0, hash.length) & (tableSize - 1);
+			while (table[slot] != 0)
+				slot= (slot + 1) & (tableSize - 1);
+			table[slot]= index + 1;
+			arenaSize+= hash.length;
+			for (byte[] word : getWords(buckets.get(index))) {
+				arenaSize+= word.length;
+				wordCount++;
+			}
+		}
+
+		File folder= file.getParentFile();
+		folder.mkdirs();
+		deleteUnusedImages(folder);
+		File temp= File.createTempFile("dictionary", null, folder); //$NON-NLS-1$
+		try {
+			try (DataOutputStream output= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+				byte[] keyBytes= key.getBytes(StandardCharsets.UTF_8);
+				output.writeInt(MAGIC);
+				output.writeInt(VERSION);
+				output.writeInt(keyBytes.length);
+				output.write(keyBytes);
+				output.writeLong(stamp);
+				output.writeInt(bucketCount);
+				output.writeInt(tableSize);
+				output.writeInt(wordCount);
+				output.writeInt(arenaSize);
+				for (int slot= 0; slot < tableSize; slot++)
+					output.writeInt(table[slot]);
+
+				// the words are stored after all hashes in the arena
+				int arenaOffset= 0;
+				int wordOffset= 0;
+				for (int index= 0; index < bucketCount; index++) {
+					byte[] hash= hashes.get(index);
+					int count= getWords(buckets.get(index)).size();
+					output.writeInt(arenaOffset);
+					output.writeInt(hash.length);
+					output.writeInt(wordOffset);
+					output.writeInt(count);
+					arenaOffset+= hash.length;
+					wordOffset+= count;
+				}
+				for (int index= 0; index < bucketCount; index++) {
+					for (byte[] word : getWords(buckets.get(index))) {
+						output.writeInt(arenaOffset);
+						arenaOffset+= word.length;
+					}
+				}
+				output.writeInt(arenaOffset);
+				for (int index= 0; index < bucketCount; index++)
+					output.write(hashes.get(index));
+				for (int index= 0; index < bucketCount; index++) {
+					for (byte[] word : getWords(buckets.get(index)))
+						output.write(word);
+				}
+			}
+			if (file.exists() && !file.delete())
+				throw new IOException(file.getPath());
+			if (!temp.renameTo(file))
+				throw new IOException(file.getPath());
+		} finally {
+			temp.delete();
+		}
+	}
+
+	private static List<byte[]> getWords(Object bucket) {
+		if (bucket instanceof byte[]) {
+			List<byte[]> words= new ArrayList<>(1);
+			words.add((byte[]) bucket);
+			return words;
+		}
+		@SuppressWarnings("unchecked")
+		List<byte[]> words= (List<byte[]>) bucket;
+		return words;
+	}
+
+	private static int hashCode(byte[] bytes, int offset, int length) {
+		int result= 1;
+		for (int index= offset; index < offset + length; index++)
+			result= 31 * result + bytes[index];
+		return result ^ (result >>> 16);
+	}
+
+	/** The mapped image, positioned after the header key and stamp */
+	private final ByteBuffer fBuffer;
+
+	private final int fBucketCount;
+	private final int fTableSize;
+	private final int fTableOffset;
+	private final int fBucketsOffset;
+	private final int fWordsOffset;
+	private final int fArenaOffset;
+
+	private CompiledSpellDictionary(ByteBuffer buffer) {
+		fBuffer= buffer;
+		fBucketCount= buffer.getInt();
+		fTableSize= buffer.getInt();
+		int wordCount= buffer.getInt();
+		int arenaSize= buffer.getInt();
+		fTableOffset= buffer.position();
+		fBucketsOffset= fTableOffset + 4 * fTableSize;
+		fWordsOffset= fBucketsOffset + BUCKET_SIZE * fBucketCount;
+		fArenaOffset= fWordsOffset + 4 * (wordCount + 1);
+		if (fArenaOffset + arenaSize != buffer.limit() || Integer.bitCount(fTableSize) != 1)
+			throw new IllegalStateException();
+	}
+
+	/**
+	 * Tells whether this image contains no words.
+	 *
+	 * @return <code>true</code> if the image is empty
+	 */
+	boolean isEmpty() {
+		return fBucketCount == 0;
+	}
+
+	/**
+	 * Returns the words with the given phonetic hash.
+	 *
+	 * @param hash the UTF-8 encoded phonetic hash
+	 * @return a <code>byte[]</code> if there is a single word, a list of
+	 *         <code>byte[]</code> if there are several words, or
+	 *         <code>null</code> if there is no word with this hash
+	 */
+	Object getCandidates(byte[] hash) {
+		int mask= fTableSize - 1;
+		int slot= hashCode(hash, 0, hash.length) & mask;
+		while (true) {
+			int bucket= fBuffer.getInt(fTableOffset + 4 * slot);
+			if (bucket == 0)
+				return null;
+			int record= fBucketsOffset + BUCKET_SIZE * (bucket - 1);
+			if (matches(fArenaOffset + fBuffer.getInt(record), fBuffer.getInt(record + 4), hash))
+				return getWords(fBuffer.getInt(record + 8), fBuffer.getInt(record + 12));
+			slot= (slot + 1) & mask;
+		}
+	}
+
+	private boolean matches(int offset, int length, byte[] hash) {
+		if (length != hash.length)
+			return false;
+		for (int index= 0; index < length; index++) {
+			if (fBuffer.get(offset + index) != hash[index])
+				return false;
+		}
+		return true;
+	}
+
+	private Object getWords(int first, int count) {
+		if (count == 1)
+			return getWord(first);
+		ArrayList<byte[]> words= new ArrayList<>(count);
+		for (int index= first; index < first + count; index++)
+			words.add(getWord(index));
+		return words;
+	}
+
+	private byte[] getWord(int index) {
+		int start= fBuffer.getInt(fWordsOffset + 4 * index);
+		int end= fBuffer.getInt(fWordsOffset + 4 * (index + 1));
+		byte[] word= new byte[end - start];
+		ByteBuffer view= fBuffer.duplicate();
+		view.position(fArenaOffset + start);
+		view.get(word);
+		return word;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,7 +13,9 @@ package org.eclipse.jdt.internal.ui.text.spelling.engine;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.runtime.Assert;
@@ -30,6 +32,40 @@ import org.eclipse.jdt.ui.PreferenceConstants;
  */
 public class DefaultSpellChecker implements ISpellChecker {
 
+	/**
+	 * A map that keeps the most recently used entries up to a given size.
+	 *
+	 * @since 3.12
+	 */
+	private static final class LRUCache<K, V> extends LinkedHashMap<K, V> {
+
+		private static final long serialVersionUID= 1L;
+
+		private final int fMaximumSize;
+
+		public LRUCache(int maximumSize) {
+			super(16, 0.75f, true);
+			fMaximumSize= maximumSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+			return size() > fMaximumSize;
+		}
+	}
+
+	/**
+	 * The maximum number of words whose correctness is cached.
+	 * @since 3.12
+	 */
+	private static final int WORD_CACHE_SIZE= 8192;
+
+	/**
+	 * The maximum number of words whose proposals are cached.
+	 * @since 3.12
+	 */
+	private static final int PROPOSAL_CACHE_SIZE= 128;
+
 	/** Array of URL prefixes */
 	public static final String[] URL_PREFIXES= new String[] { "http://", "https://", "www.", "ftp://", "ftps://", "news://", "mailto://" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
 
@@ -143,6 +179,34 @@ public class DefaultSpellChecker implements ISpellChecker {
 	 */
 	private Locale fLocale;
 
+	/**
+	 * The cached results of {@link #isCorrect(String)} for the dictionaries,
+	 * without considering ignored words. Access is synchronized on the cache.
+	 * @since 3.12
+	 */
+	private final Map<String, Boolean> fCorrectWords= new LRUCache<>(WORD_CACHE_SIZE);
+
+	/**
+	 * The cached proposals by word and sentence start. Access is synchronized
+	 * on {@link #fCorrectWords}.
+	 * @since 3.12
+	 */
+	private final Map<String, Set<RankedWordProposal>> fProposals= new LRUCache<>(PROPOSAL_CACHE_SIZE);
+
+	/**
+	 * The dictionary modification count the caches are valid for. Access is
+	 * synchronized on {@link #fCorrectWords}.
+	 * @since 3.12
+	 */
+	private int fDictionaryModificationCount= AbstractSpellDictionary.getModificationCount();
+
+	/**
+	 * The modification stamp of this checker. Access is synchronized on
+	 * {@link #fCorrectWords}.
+	 * @since 3.12
+	 */
+	private long fModificationStamp= 0;
+
 	/**
 	 * Creates a new default spell checker.
 	 *
@@ -164,6 +228,7 @@ public class DefaultSpellChecker implements ISpellChecker {
 	public final void addDictionary(final ISpellDictionary dictionary) {
 		// synchronizing is necessary as this is a write access
 		fDictionaries.add(dictionary);
+		invalidateCaches();
 	}
 
 	/*
@@ -206,7 +271,7 @@ public class DefaultSpellChecker implements ISpellChecker {
 			if (dictionary.acceptsWords())
 				dictionary.addWord(addable);
 		}
-
+		invalidateCaches();
 	}
 
 	/*
@@ -216,6 +281,7 @@ public class DefaultSpellChecker implements ISpellChecker {
 	public final void checkWord(final String word) {
 		// synchronizing is necessary as this is a write access
 		fIgnored.remove(word.toLowerCase());
+		invalidateCaches();
 	}
 
 	/*
@@ -282,6 +348,16 @@ public class DefaultSpellChecker implements ISpellChecker {
 	@Override
 	public Set<RankedWordProposal> getProposals(final String word, final boolean sentence) {
 
+		final String key= (sentence ? '+' : '-') + word;
+		int modificationCount;
+		synchronized (fCorrectWords) {
+			validateCaches();
+			Set<RankedWordProposal> cached= fProposals.get(key);
+			if (cached != null)
+				return copy(cached);
+			modificationCount= fDictionaryModificationCount;
+		}
+
 		// synchronizing might not be needed here since getProposals is
 		// a read-only access and only called in the same thread as
 		// the modifing methods add/removeDictionary (?)
@@ -298,9 +374,31 @@ public class DefaultSpellChecker implements ISpellChecker {
 			dictionary= iterator.next();
 			proposals.addAll(dictionary.getProposals(word, sentence));
 		}
+
+		synchronized (fCorrectWords) {
+			validateCaches();
+			if (modificationCount == fDictionaryModificationCount)
+				fProposals.put(key, copy(proposals));
+		}
 		return proposals;
 	}
 
+	/**
+	 * Copies the given proposals, since clients may change their rank.
+	 *
+	 * @param proposals the proposals to copy
+	 * @return the copied proposals
+	 * @since 3.12
+	 */
+	private static Set<RankedWordProposal> copy(Set<RankedWordProposal> proposals) {
+		final HashSet<RankedWordProposal> result= new HashSet<>(proposals.size());
+		for (final Iterator<RankedWordProposal> iterator= proposals.iterator(); iterator.hasNext();) {
+			RankedWordProposal proposal= iterator.next();
+			result.add(new RankedWordProposal(proposal.getText(), proposal.getRank()));
+		}
+		return result;
+	}
+
 	/*
 	 * @see org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker#ignoreWord(java.lang.String)
 	 */
@@ -308,6 +406,7 @@ public class DefaultSpellChecker implements ISpellChecker {
 	public final void ignoreWord(final String word) {
 		// synchronizing is necessary as this is a write access
 		fIgnored.add(word.toLowerCase());
+		invalidateCaches();
 	}
 
 	/*
@@ -315,23 +414,84 @@ public class DefaultSpellChecker implements ISpellChecker {
 	 */
 	@Override
 	public final boolean isCorrect(final String word) {
+		if (fIgnored.contains(word.toLowerCase()))
+			return true;
+
+		int modificationCount;
+		synchronized (fCorrectWords) {
+			validateCaches();
+			Boolean cached= fCorrectWords.get(word);
+			if (cached != null)
+				return cached.booleanValue();
+			modificationCount= fDictionaryModificationCount;
+		}
+
 		// synchronizing is necessary as this is called from execute
 		Set<ISpellDictionary> copy;
 		synchronized (fDictionaries) {
 			copy= new HashSet<>(fDictionaries);
 		}
 
-		if (fIgnored.contains(word.toLowerCase()))
-			return true;
-
+		boolean correct= false;
 		ISpellDictionary dictionary= null;
 		for (final Iterator<ISpellDictionary> iterator= copy.iterator(); iterator.hasNext();) {
 
 			dictionary= iterator.next();
-			if (dictionary.isCorrect(word))
-				return true;
+			if (dictionary.isCorrect(word)) {
+				correct= true;
+				break;
+			}
+		}
+
+		synchronized (fCorrectWords) {
+			// do not cache the result if the dictionaries have been modified meanwhile
+			validateCaches();
+			if (modificationCount == fDictionaryModificationCount)
+				fCorrectWords.put(word, Boolean.valueOf(correct));
+		}
+		return correct;
+	}
+
+	/*
+	 * @see org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker#getModificationStamp()
+	 * @since 3.12
+	 */
+	@Override
+	public long getModificationStamp() {
+		synchronized (fCorrectWords) {
+			validateCaches();
+			return fModificationStamp;
+		}
+	}
+
+	/**
+	 * Clears the cached results if a dictionary has been modified since they
+	 * have been computed. Must be called while synchronized on {@link #fCorrectWords}.
+	 *
+	 * @since 3.12
+	 */
+	private void validateCaches() {
+		int modificationCount= AbstractSpellDictionary.getModificationCount();
+		if (modificationCount != fDictionaryModificationCount) {
+			fCorrectWords.clear();
+			fProposals.clear();
+			fDictionaryModificationCount= modificationCount;
+			fModificationStamp++;
+		}
+	}
+
+	/**
+	 * Clears the cached results.
+	 *
+	 * @since 3.12
+	 */
+	private void invalidateCaches() {
+		synchronized (fCorrectWords) {
+			fCorrectWords.clear();
+			fProposals.clear();
+			fDictionaryModificationCount= AbstractSpellDictionary.getModificationCount();
+			fModificationStamp++;
 		}
-		return false;
 	}
 
 	/*
@@ -341,6 +501,7 @@ public class DefaultSpellChecker implements ISpellChecker {
 	public final void removeDictionary(final ISpellDictionary dictionary) {
 		// synchronizing is necessary as this is a write access
 		fDictionaries.remove(dictionary);
+		invalidateCaches();
 	}
 
 	/*
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -107,4 +107,14 @@ public interface ISpellChecker {
 	 * @since 3.3
 	 */
 	Locale getLocale();
+
+	/**
+	 * Returns a stamp that changes whenever the result of checking a word may
+	 * have changed, for example because a word has been added or ignored, or
+	 * because a dictionary has been added, removed or modified.
+	 *
+	 * @return the modification stamp of this checker
+	 * @since 3.12
+	 */
+	long getModificationStamp();
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -141,6 +141,46 @@ public class JavaElementLabelComposer {
 		}
 	}
 
+	/**
+	 * A buffer backed by an unsynchronized {@link StringBuilder}.
+	 *
+	 * @since 3.12
+	 */
+	public static class FlexibleStringBuilder extends FlexibleBuffer {
+		private final StringBuilder fStringBuilder;
+
+		public FlexibleStringBuilder(StringBuilder stringBuilder) {
+			fStringBuilder= stringBuilder;
+		}
+
+		@Override
+		public FlexibleBuffer append(char ch) {
+			fStringBuilder.append(ch);
+			return this;
+		}
+
+		@Override
+		public FlexibleBuffer append(String string) {
+			fStringBuilder.append(string);
+			return this;
+		}
+
+		@Override
+		public int length() {
+			return fStringBuilder.length();
+		}
+
+		@Override
+		public void setStyle(int offset, int length, Styler styler) {
+			// no style
+		}
+
+		@Override
+		public String toString() {
+			return fStringBuilder.toString();
+		}
+	}
+
 	public static class FlexibleStyledString extends FlexibleBuffer {
 		private final StyledString fStyledString;
 
@@ -11,7 +11,12 @@
 package org.eclipse.jdt.internal.ui.viewsupport;
 
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.swt.widgets.Display;
@@ -22,6 +27,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.ListenerList;
 import org.eclipse.core.runtime.Status;
 
+import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IMarkerDelta;
 import org.eclipse.core.resources.IProject;
@@ -57,8 +63,11 @@ public class ProblemMarkerManager implements IResourceChangeListener, IAnnotatio
 
 		private HashSet<IResource> fChangedElements;
 
-		public ProjectErrorVisitor(HashSet<IResource> changedElements) {
+		private List<IProject> fOpenedOrClosedProjects;
+
+		public ProjectErrorVisitor(HashSet<IResource> changedElements, List<IProject> openedOrClosedProjects) {
 			fChangedElements= changedElements;
+			fOpenedOrClosedProjects= openedOrClosedProjects;
 		}
 
 		@Override
@@ -66,6 +75,9 @@ public class ProblemMarkerManager implements IResourceChangeListener, IAnnotatio
 			IResource res= delta.getResource();
 			if (res instanceof IProject && delta.getKind() == IResourceDelta.CHANGED) {
 				IProject project= (IProject) res;
+				if ((delta.getFlags() & IResourceDelta.OPEN) != 0) {
+					fOpenedOrClosedProjects.add(project);
+				}
 				if (!project.isAccessible()) {
 					// only track open Java projects
 					return false;
@@ -111,6 +123,20 @@ public class ProblemMarkerManager implements IResourceChangeListener, IAnnotatio
 
 	private UIJob fNotifierJob;
 
+	/**
+	 * The maximal problem severity of the containers that have been queried,
+	 * including the markers of their members. The severities of the containers
+	 * below a queried container are cached by the same walk over its markers.
+	 * Only valid while this manager listens to resource changes.
+	 */
+	private final Map<IResource, Integer> fContainerSeverities= new HashMap<>();
+
+	/**
+	 * Incremented when severities are invalidated, so that a severity that was
+	 * computed concurrently is not cached.
+	 */
+	private int fSeverityStamp;
+
 	public ProblemMarkerManager() {
 		fListeners= new ListenerList<>();
 		fResourcesWithMarkerChanges= new HashSet<>();
@@ -123,15 +149,20 @@ public class ProblemMarkerManager implements IResourceChangeListener, IAnnotatio
 	@Override
 	public void resourceChanged(IResourceChangeEvent event) {
 		HashSet<IResource> changedElements= new HashSet<>();
+		List<IProject> openedOrClosedProjects= new ArrayList<>();
 
 		try {
 			IResourceDelta delta= event.getDelta();
 			if (delta != null)
-				delta.accept(new ProjectErrorVisitor(changedElements));
+				delta.accept(new ProjectErrorVisitor(changedElements, openedOrClosedProjects));
 		} catch (CoreException e) {
 			JavaPlugin.log(e.getStatus());
 		}
 
+		if (!changedElements.isEmpty() || !openedOrClosedProjects.isEmpty()) {
+			invalidateSeverities(changedElements, openedOrClosedProjects);
+		}
+
 		if (!changedElements.isEmpty()) {
 			boolean hasChanges= false;
 			synchronized (this) {
@@ -192,6 +223,105 @@ public class ProblemMarkerManager implements IResourceChangeListener, IAnnotatio
 		if (fListeners.isEmpty()) {
 			JavaPlugin.getWorkspace().removeResourceChangeListener(this);
 			JavaPlugin.getDefault().getCompilationUnitDocumentProvider().removeGlobalAnnotationModelListener(this);
+			synchronized (this) {
+				fContainerSeverities.clear();
+				fSeverityStamp++;
+			}
+		}
+	}
+
+	/**
+	 * Returns the maximal severity of the problem markers on the given resource
+	 * and its members, like
+	 * <code>resource.findMaxProblemSeverity(IMarker.PROBLEM, true, IResource.DEPTH_INFINITE)</code>.
+	 * <p>
+	 * While listeners are registered, the severities of containers are cached
+	 * until the problem markers below them change.
+	 * </p>
+	 *
+	 * @param resource the resource
+	 * @return the maximal severity, or <code>-1</code> if there are no problem
+	 *         markers
+	 * @throws CoreException if the markers cannot be accessed
+	 * @since 3.12
+	 */
+	public int findMaxProblemSeverity(IResource resource) throws CoreException {
+		if (!(resource instanceof IContainer)) {
+			return resource.findMaxProblemSeverity(IMarker.PROBLEM, true, IResource.DEPTH_ZERO);
+		}
+		if (fListeners.isEmpty()) {
+			// not listening to changes, the cache would not be updated
+			return resource.findMaxProblemSeverity(IMarker.PROBLEM, true, IResource.DEPTH_INFINITE);
+		}
+		int stamp;
+		synchronized (this) {
+			Integer severity= fContainerSeverities.get(resource);
+			if (severity != null) {
+				return severity.intValue();
+			}
+			stamp= fSeverityStamp;
+		}
+		Map<IContainer, Integer> severities= computeMaxProblemSeverities((IContainer) resource);
+		Integer severity= severities.get(resource);
+		synchronized (this) {
+			if (stamp == fSeverityStamp) {
+				fContainerSeverities.putAll(severities);
+			}
+		}
+		return severity.intValue();
+	}
+
+	/**
+	 * Computes the maximal problem severities of the given container and of
+	 * the containers below it that have problem markers. All problem markers
+	 * are fetched at once, instead of querying each member.
+	 *
+	 * @param container the container
+	 * @return the severities by container, contains at least the given
+	 *         container
+	 * @throws CoreException if the markers cannot be accessed
+	 */
+	private static Map<IContainer, Integer> computeMaxProblemSeverities(IContainer container) throws CoreException {
+		Map<IContainer, Integer> severities= new HashMap<>();
+		severities.put(container, Integer.valueOf(-1));
+		// markers of closed projects are not found
+		IMarker[] markers= container.findMarkers(IMarker.PROBLEM, true, IResource.DEPTH_INFINITE);
+		for (int i= 0; i < markers.length; i++) {
+			int severity= markers[i].getAttribute(IMarker.SEVERITY, -1);
+			IResource resource= markers[i].getResource();
+			IContainer parent= resource instanceof IContainer ? (IContainer) resource : resource.getParent();
+			while (parent != null) {
+				Integer current= severities.get(parent);
+				if (current != null && current.intValue() >= severity) {
+					// the parents up to the container have at least this severity
+					break;
+				}
+				severities.put(parent, Integer.valueOf(severity));
+				if (parent.equals(container)) {
+					break;
+				}
+				parent= parent.getParent();
+			}
+		}
+		return severities;
+	}
+
+	private synchronized void invalidateSeverities(Set<IResource> changedElements, List<IProject> openedOrClosedProjects) {
+		fSeverityStamp++;
+		if (fContainerSeverities.isEmpty()) {
+			return;
+		}
+		// the changed elements include all parents, except the workspace root
+		fContainerSeverities.remove(JavaPlugin.getWorkspace().getRoot());
+		for (Iterator<IResource> iter= changedElements.iterator(); iter.hasNext();) {
+			fContainerSeverities.remove(iter.next());
+		}
+		if (!openedOrClosedProjects.isEmpty()) {
+			for (Iterator<IResource> iter= fContainerSeverities.keySet().iterator(); iter.hasNext();) {
+				if (openedOrClosedProjects.contains(iter.next().getProject())) {
+					iter.remove();
+				}
+			}
 		}
 	}
 
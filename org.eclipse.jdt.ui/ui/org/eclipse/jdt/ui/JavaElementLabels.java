@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -48,6 +48,7 @@ import org.eclipse.jdt.internal.ui.JavaUIMessages;
 import org.eclipse.jdt.internal.ui.packageview.ClassPathContainer;
 import org.eclipse.jdt.internal.ui.viewsupport.BasicElementLabels;
 import org.eclipse.jdt.internal.ui.viewsupport.JavaElementLabelComposer;
+import org.eclipse.jdt.internal.ui.viewsupport.JavaElementLabelComposer.FlexibleStringBuilder;
 
 
 /**
@@ -487,8 +488,8 @@ public class JavaElementLabels {
 	 * @return the label of the Java element
 	 */
 	public static String getElementLabel(IJavaElement element, long flags) {
-		StringBuffer result= new StringBuffer();
-		getElementLabel(element, flags, result);
+		StringBuilder result= new StringBuilder();
+		new JavaElementLabelComposer(new FlexibleStringBuilder(result)).appendElementLabel(element, flags);
 		return Strings.markJavaElementLabelLTR(result.toString());
 	}
 
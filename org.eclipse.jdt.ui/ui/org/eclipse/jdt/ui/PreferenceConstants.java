@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -3688,6 +3688,10 @@ public class PreferenceConstants {
 	 * <p>
 	 * Value is an XML encoded version of the history.
 	 * </p>
+	 * <p>
+	 * Since 3.12, the history is stored in the state location of the plug-in
+	 * and this preference is only read to migrate an existing history.
+	 * </p>
 	 *
 	 * @see org.eclipse.jdt.internal.ui.text.java.ContentAssistHistory#load(org.eclipse.core.runtime.Preferences, String)
 	 * @since 3.2
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2010 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -83,6 +83,7 @@ public class JarPackageData {
 	private IPath		fJarLocation; // external location
 	private boolean	fOverwrite;
 	private boolean	fCompress;
+	private boolean	fIncremental;
 
 	private boolean	fSaveDescription;
 	private IPath		fDescriptionLocation; // internal location
@@ -194,6 +195,30 @@ public class JarPackageData {
 		fCompress= state;
 	}
 
+	/**
+	 * Tells whether an existing JAR is updated incrementally. Entries whose
+	 * contents did not change since the last export are then copied from the
+	 * existing JAR instead of being compressed again.
+	 *
+	 * @return	<code>true</code> if an existing JAR is updated incrementally
+	 *
+	 * @since 3.12
+	 */
+	public boolean isIncremental() {
+		return fIncremental;
+	}
+
+	/**
+	 * Set whether an existing JAR is updated incrementally.
+	 *
+	 * @param state a boolean indicating the new state
+	 *
+	 * @since 3.12
+	 */
+	public void setIncremental(boolean state) {
+		fIncremental= state;
+	}
+
 	/**
 	 * Tells whether files can be overwritten without warning.
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -29,7 +29,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.jar.JarEntry;
-import java.util.jar.JarOutputStream;
 import java.util.jar.Manifest;
 import java.util.zip.ZipEntry;
 
@@ -59,8 +58,11 @@ import org.eclipse.ltk.core.refactoring.RefactoringDescriptorProxy;
 import org.eclipse.jdt.internal.corext.util.Messages;
 
 import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.jarpackager.JarArchiveWriter;
 import org.eclipse.jdt.internal.ui.jarpackager.JarPackagerMessages;
 import org.eclipse.jdt.internal.ui.jarpackager.JarPackagerUtil;
+import org.eclipse.jdt.internal.ui.jarpackager.PreviousJarArchive;
+import org.eclipse.jdt.internal.ui.jarpackager.RawJarEntry;
 import org.eclipse.jdt.internal.ui.viewsupport.BasicElementLabels;
 
 
@@ -77,7 +79,9 @@ public class JarWriter3 {
 
 	private Set<String> fDirectories= new HashSet<>();
 
-	private JarOutputStream fJarOutputStream;
+	private JarArchiveWriter fJarArchiveWriter;
+
+	private PreviousJarArchive fPreviousArchive;
 
 	private JarPackageData fJarPackage;
 
@@ -100,23 +104,32 @@ public class JarWriter3 {
 		if (!canCreateJar(parent))
 			throw new OperationCanceledException();
 
+		boolean initialized= false;
 		try {
-			if (fJarPackage.usesManifest() && fJarPackage.areGeneratedFilesExported()) {
-				Manifest manifest= fJarPackage.getManifestProvider().create(fJarPackage);
-				fJarOutputStream= new JarOutputStream(new BufferedOutputStream(new FileOutputStream(fJarPackage.getAbsoluteJarLocation().toFile())), manifest);
-			} else
-				fJarOutputStream= new JarOutputStream(new BufferedOutputStream(new FileOutputStream(fJarPackage.getAbsoluteJarLocation().toFile())));
+			Manifest manifest= null;
+			if (fJarPackage.usesManifest() && fJarPackage.areGeneratedFilesExported())
+				manifest= fJarPackage.getManifestProvider().create(fJarPackage);
+			File jarFile= fJarPackage.getAbsoluteJarLocation().toFile();
+			if (fJarPackage.isIncremental())
+				fPreviousArchive= PreviousJarArchive.open(jarFile);
+			fJarArchiveWriter= new JarArchiveWriter(jarFile);
+			if (manifest != null)
+				fJarArchiveWriter.putManifest(manifest);
 			String comment= jarPackage.getComment();
 			if (comment != null)
-				fJarOutputStream.setComment(comment);
+				fJarArchiveWriter.setComment(comment);
 			if (fJarPackage.isRefactoringAware()) {
 				Assert.isTrue(fJarPackage.areDirectoryEntriesIncluded());
 				final IPath metaPath= new Path(JarPackagerUtil.getMetaEntry());
 				addDirectories(metaPath);
 				addHistory(fJarPackage, new Path(JarPackagerUtil.getRefactoringsEntry()), new NullProgressMonitor());
 			}
+			initialized= true;
 		} catch (IOException exception) {
 			throw JarPackagerUtil.createCoreException(exception.getLocalizedMessage(), exception);
+		} finally {
+			if (!initialized)
+				closeAfterFailure();
 		}
 	}
 	
@@ -159,7 +172,7 @@ public class JarWriter3 {
 		}
 
 		for (int i= directories.size() - 1; i >= 0; --i) {
-			fJarOutputStream.putNextEntry(directories.get(i));
+			fJarArchiveWriter.putEntry(directories.get(i), null);
 		}
 	}
 
@@ -207,7 +220,7 @@ public class JarWriter3 {
 		}
 
 		for (int i= directories.size() - 1; i >= 0; --i) {
-			fJarOutputStream.putNextEntry(directories.get(i));
+			fJarArchiveWriter.putEntry(directories.get(i), null);
 		}
 	}
 
@@ -223,15 +236,12 @@ public class JarWriter3 {
 	 */
 	protected void addFile(IFile resource, IPath path) throws IOException, CoreException {
 		JarEntry newEntry= new JarEntry(path.toString().replace(File.separatorChar, '/'));
-		byte[] readBuffer= new byte[4096];
 
+		// CRC and size are computed while writing the entry
 		if (fJarPackage.isCompressed())
 			newEntry.setMethod(ZipEntry.DEFLATED);
-			// Entry is filled automatically.
-		else {
+		else
 			newEntry.setMethod(ZipEntry.STORED);
-			JarPackagerUtil.calculateCrcAndSize(newEntry, resource.getContents(false), readBuffer);
-		}
 
 		long lastModified= System.currentTimeMillis();
 		URI locationURI= resource.getLocationURI();
@@ -261,23 +271,17 @@ public class JarWriter3 {
 	 * @since 3.4
 	 */
 	protected void addEntry(JarEntry entry, InputStream content) throws IOException {
-		byte[] readBuffer= new byte[4096];
 		try {
-			fJarOutputStream.putNextEntry(entry);
-			int count;
-			while ((count= content.read(readBuffer, 0, readBuffer.length)) != -1)
-				fJarOutputStream.write(readBuffer, 0, count);
+			if (entry instanceof RawJarEntry) {
+				RawJarEntry rawEntry= (RawJarEntry) entry;
+				fJarArchiveWriter.putRawEntry(rawEntry, rawEntry.getSource(), rawEntry.getPosition());
+			} else if (fPreviousArchive != null)
+				fPreviousArchive.putEntry(fJarArchiveWriter, entry, content);
+			else
+				fJarArchiveWriter.putEntry(entry, content);
 		} finally  {
 			if (content != null)
 				content.close();
-
-			/*
-			 * Commented out because some JREs throw an NPE if a stream
-			 * is closed twice. This works because
-			 * a) putNextEntry closes the previous entry
-			 * b) closing the stream closes the last entry
-			 */
-			// fJarOutputStream.closeEntry();
 		}
 	}
 
@@ -383,15 +387,44 @@ public class JarWriter3 {
 	 *             used to return information in the status object.
 	 */
 	public void close() throws CoreException {
-		if (fJarOutputStream != null)
+		if (fJarArchiveWriter != null)
 			try {
-				fJarOutputStream.close();
+				fJarArchiveWriter.close();
 				registerInWorkspaceIfNeeded();
 			} catch (IOException ex) {
 				throw JarPackagerUtil.createCoreException(ex.getLocalizedMessage(), ex);
+			} finally {
+				closePreviousArchive();
 			}
 	}
 
+	/**
+	 * Closes the archive and the previous archive after the archive could
+	 * not be initialized.
+	 */
+	private void closeAfterFailure() {
+		try {
+			if (fJarArchiveWriter != null)
+				fJarArchiveWriter.close();
+		} catch (IOException ex) {
+			// the original exception is reported
+		} finally {
+			closePreviousArchive();
+		}
+	}
+
+	private void closePreviousArchive() {
+		if (fPreviousArchive != null) {
+			try {
+				fPreviousArchive.close();
+			} catch (IOException ex) {
+				// the previous JAR has only been read
+				JavaPlugin.log(ex);
+			}
+			fPreviousArchive= null;
+		}
+	}
+
 	private void registerInWorkspaceIfNeeded() {
 		IPath jarPath= fJarPackage.getAbsoluteJarLocation();
 		IProject[] projects= ResourcesPlugin.getWorkspace().getRoot().getProjects();
@@ -462,20 +495,14 @@ public class JarWriter3 {
 		Assert.isNotNull(file);
 		Assert.isNotNull(path);
 		final JarEntry entry= new JarEntry(path.toString().replace(File.separatorChar, '/'));
-		byte[] buffer= new byte[4096];
 		if (data.isCompressed())
 			entry.setMethod(ZipEntry.DEFLATED);
-		else {
+		else
 			entry.setMethod(ZipEntry.STORED);
-			JarPackagerUtil.calculateCrcAndSize(entry, new BufferedInputStream(new FileInputStream(file)), buffer);
-		}
 		entry.setTime(System.currentTimeMillis());
 		final InputStream stream= new BufferedInputStream(new FileInputStream(file));
 		try {
-			fJarOutputStream.putNextEntry(entry);
-			int count;
-			while ((count= stream.read(buffer, 0, buffer.length)) != -1)
-				fJarOutputStream.write(buffer, 0, count);
+			fJarArchiveWriter.putEntry(entry, stream);
 		} finally {
 			try {
 				stream.close();
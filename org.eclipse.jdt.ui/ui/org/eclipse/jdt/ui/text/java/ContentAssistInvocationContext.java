@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2011 IBM Corporation and others.
+ * Copyright (c) 2005, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.jdt.ui.text.java;
 
+import org.eclipse.swt.graphics.Point;
+
 import org.eclipse.core.runtime.Assert;
 
 import org.eclipse.jface.text.BadLocationException;
@@ -39,6 +41,7 @@ public class ContentAssistInvocationContext {
 
 	/* cached additional info */
 	private CharSequence fPrefix;
+	private Point fSelection;
 
 	/**
 	 * Equivalent to
@@ -118,6 +121,25 @@ public class ContentAssistInvocationContext {
 		return fDocument;
 	}
 
+	/**
+	 * Returns the selected range of the viewer, or an empty range at the invocation offset if there
+	 * is no viewer. The selection is read from the viewer on the first call and cached, so a context
+	 * on which this method has been called in the UI thread can be passed to a computer that runs in
+	 * another thread.
+	 *
+	 * @return the selected range, see {@link ITextViewer#getSelectedRange()}
+	 * @since 3.12
+	 */
+	public Point getSelectedRange() {
+		if (fSelection == null) {
+			if (fViewer == null)
+				fSelection= new Point(fOffset, 0);
+			else
+				fSelection= fViewer.getSelectedRange();
+		}
+		return new Point(fSelection.x, fSelection.y);
+	}
+
 	/**
 	 * Computes the identifier (as specified by {@link Character#isJavaIdentifierPart(char)}) that
 	 * immediately precedes the invocation offset.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2012 IBM Corporation and others.
+ * Copyright (c) 2005, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -206,11 +206,11 @@ public class JavaContentAssistInvocationContext extends ContentAssistInvocationC
 				char[][] expectedTypes= context.getExpectedTypesSignatures();
 				if (expectedTypes != null && expectedTypes.length > 0) {
 					String expected= SignatureUtil.stripSignatureToFQN(String.valueOf(expectedTypes[0]));
-					fRHSHistory= JavaPlugin.getDefault().getContentAssistHistory().getHistory(expected);
+					fRHSHistory= JavaPlugin.getDefault().getContentAssistHistoryIfLoaded().getHistory(expected);
 				}
 			}
 			if (fRHSHistory == null)
-				fRHSHistory= JavaPlugin.getDefault().getContentAssistHistory().getHistory(null);
+				fRHSHistory= JavaPlugin.getDefault().getContentAssistHistoryIfLoaded().getHistory(null);
 		}
 		return fRHSHistory;
 	}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests.participants;
+
+import java.util.Arrays;
+
+import org.eclipse.core.expressions.EvaluationContext;
+import org.eclipse.core.expressions.IEvaluationContext;
+
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.Platform;
+
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.internal.core.refactoring.ParticipantDescriptor;
+
+import junit.framework.TestCase;
+
+public class ParticipantEnablementTests extends TestCase {
+
+	private static final String RENAME_PARTICIPANTS= "org.eclipse.ltk.core.refactoring.renameParticipants";
+
+	private static ParticipantDescriptor createDescriptor(String id) {
+		IConfigurationElement[] elements= Platform.getExtensionRegistry().getConfigurationElementsFor(RENAME_PARTICIPANTS);
+		for (int i= 0; i < elements.length; i++) {
+			if (id.equals(elements[i].getAttribute("id")))
+				return new ParticipantDescriptor(elements[i]);
+		}
+		fail("participant not found: " + id);
+		return null;
+	}
+
+	private static IEvaluationContext createContext(Object element, String processorIdentifier) {
+		EvaluationContext context= new EvaluationContext(null, element);
+		context.addVariable(ParticipantDescriptor.ELEMENT, element);
+		context.addVariable(ParticipantDescriptor.AFFECTED_NATURES, Arrays.asList(new String[0]));
+		context.addVariable(ParticipantDescriptor.PROCESSOR_IDENTIFIER, processorIdentifier);
+		return context;
+	}
+
+	public void testEnablementPerElementType() throws Exception {
+		ParticipantDescriptor descriptor= createDescriptor("org.eclipse.ltk.core.refactoring.tests.participants.WorkingParticipantPre");
+		RefactoringStatus status= new RefactoringStatus();
+		for (int i= 0; i < 3; i++) {
+			assertTrue(descriptor.matches(createContext(new ElementWorkingPre(), "processor"), null, status));
+			assertFalse(descriptor.matches(createContext(new Element(), "processor"), null, status));
+			assertFalse(descriptor.matches(createContext(new ElementWorkingPreAlways(), "processor"), null, status));
+		}
+		assertTrue(status.isOK());
+	}
+
+	public void testEnablementForManyProcessors() throws Exception {
+		ParticipantDescriptor descriptor= createDescriptor("org.eclipse.ltk.core.refactoring.tests.participants.WorkingParticipantPre");
+		RefactoringStatus status= new RefactoringStatus();
+		// more combinations than are cached per element type
+		for (int i= 0; i < 100; i++) {
+			assertTrue(descriptor.matches(createContext(new ElementWorkingPre(), "processor" + i), null, status));
+			assertFalse(descriptor.matches(createContext(new Element(), "processor" + i), null, status));
+		}
+		assertTrue(status.isOK());
+	}
+}
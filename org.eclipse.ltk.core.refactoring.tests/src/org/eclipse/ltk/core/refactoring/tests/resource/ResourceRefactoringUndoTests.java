@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2015 IBM Corporation and others.
+ * Copyright (c) 2008, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -33,6 +33,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
 
 import org.eclipse.core.resources.IFile;
@@ -40,6 +41,7 @@ import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceDescription;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 
@@ -57,6 +59,9 @@ import org.eclipse.ltk.core.refactoring.tests.participants.ElementRenameProcesso
 import org.eclipse.ltk.core.refactoring.tests.participants.ElementRenameRefactoring;
 import org.eclipse.ltk.core.refactoring.tests.util.SimpleTestProject;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
+import org.eclipse.ltk.internal.core.refactoring.UndoMemoryEstimator;
+import org.eclipse.ltk.internal.core.refactoring.resource.UndoDeleteResourceChange;
+import org.eclipse.ltk.internal.core.refactoring.resource.undostates.ResourceUndoState;
 
 import junit.framework.Test;
 import junit.framework.TestCase;
@@ -228,6 +233,56 @@ public class ResourceRefactoringUndoTests extends TestCase {
 		assertFalse("Redo delete failed", testFile.exists());
 	}
 
+	public void testFileDeleteBeyondHistorySizeUndoRedoLTK() throws ExecutionException, CoreException {
+		IWorkspaceDescription description= ResourcesPlugin.getWorkspace().getDescription();
+		long maxFileStateSize= description.getMaxFileStateSize();
+		description.setMaxFileStateSize(1);
+		ResourcesPlugin.getWorkspace().setDescription(description);
+		try {
+			RefactoringContribution renameContribution= RefactoringCore.getRefactoringContribution(DeleteResourcesDescriptor.ID);
+			DeleteResourcesDescriptor desc= (DeleteResourcesDescriptor) renameContribution.createDescriptor();
+			desc.setResourcePaths(new IPath[] { testFolder.getFullPath() });
+
+			PerformRefactoringOperation op= new PerformRefactoringOperation(desc.createRefactoringContext(new RefactoringStatus()), CheckConditionsOperation.ALL_CONDITIONS);
+
+			FileSnapshot snap= new FileSnapshot(testFile);
+
+			execute(op);
+
+			assertFalse("Folder delete failed", testFolder.exists());
+			undo();
+			assertTrue("File recreation failed", testFile.exists());
+			assertTrue("File CONTENT was not restored on undo", snap.isValid(testFile.getParent()));
+			redo();
+			assertFalse("Redo delete failed", testFolder.exists());
+		} finally {
+			description.setMaxFileStateSize(maxFileStateSize);
+			ResourcesPlugin.getWorkspace().setDescription(description);
+		}
+	}
+
+	public void testFileDeleteUndoMemory() throws CoreException {
+		IWorkspaceDescription description= ResourcesPlugin.getWorkspace().getDescription();
+		long maxFileStateSize= description.getMaxFileStateSize();
+		description.setMaxFileStateSize(1);
+		ResourcesPlugin.getWorkspace().setDescription(description);
+		try {
+			ResourceUndoState state= ResourceUndoState.fromResource(testFile);
+			UndoDeleteResourceChange undo= new UndoDeleteResourceChange(state);
+			long size= UndoMemoryEstimator.estimate(undo);
+			assertTrue("undo state not estimated", size > 0);
+
+			state.recordStateFromContents(testFile, new NullProgressMonitor());
+			assertTrue("recorded contents not estimated", UndoMemoryEstimator.estimate(undo) > size);
+
+			undo.dispose();
+			assertEquals("released contents still estimated", size, UndoMemoryEstimator.estimate(undo));
+		} finally {
+			description.setMaxFileStateSize(maxFileStateSize);
+			ResourcesPlugin.getWorkspace().setDescription(description);
+		}
+	}
+
 	public void testFileLinkedDeleteUndoRedoLTK() throws ExecutionException, CoreException {
 		RefactoringContribution renameContribution= RefactoringCore.getRefactoringContribution(DeleteResourcesDescriptor.ID);
 		DeleteResourcesDescriptor desc= (DeleteResourcesDescriptor) renameContribution.createDescriptor();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -178,4 +178,18 @@ public interface IUndoManager {
 	 * Shut down the undo manager.
 	 */
 	public void shutdown();
+
+	/**
+	 * Returns the estimated number of bytes retained by the changes on the undo
+	 * and redo stacks.
+	 * <p>
+	 * Once the estimate exceeds the configured budget, the undo manager discards
+	 * the oldest undo changes. The most recent undo change is always kept.
+	 * </p>
+	 *
+	 * @return the estimated memory use of the undo and redo stacks in bytes
+	 *
+	 * @since 3.7
+	 */
+	public long getUndoMemoryUsage();
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2010 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -281,6 +281,19 @@ public class UndoTextFileChange extends Change {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The undo change adapts to the {@link UndoEdit} it applies.
+	 * </p>
+	 */
+	@Override
+	public <T> T getAdapter(Class<T> adapter) {
+		if (UndoEdit.class.equals(adapter))
+			return adapter.cast(fUndo);
+		return super.getAdapter(adapter);
+	}
+
 	private boolean needsSaving() {
 		return (fSaveMode & TextFileChange.FORCE_SAVE) != 0 || !fDirty && (fSaveMode & TextFileChange.KEEP_SAVE_STATE) != 0;
 	}
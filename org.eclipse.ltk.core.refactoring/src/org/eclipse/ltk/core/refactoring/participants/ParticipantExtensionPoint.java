@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -164,9 +164,9 @@ public class ParticipantExtensionPoint {
 	private static EvaluationContext createEvaluationContext(RefactoringProcessor processor, Object element, String[] affectedNatures) {
 		EvaluationContext result= new EvaluationContext(null, element);
 		result.setAllowPluginActivation(true);
-		result.addVariable("element", element); //$NON-NLS-1$
-		result.addVariable("affectedNatures", Arrays.asList(affectedNatures)); //$NON-NLS-1$
-		result.addVariable("processorIdentifier", processor.getIdentifier()); //$NON-NLS-1$
+		result.addVariable(ParticipantDescriptor.ELEMENT, element);
+		result.addVariable(ParticipantDescriptor.AFFECTED_NATURES, Arrays.asList(affectedNatures));
+		result.addVariable(ParticipantDescriptor.PROCESSOR_IDENTIFIER, processor.getIdentifier());
 		return result;
 	}
 }
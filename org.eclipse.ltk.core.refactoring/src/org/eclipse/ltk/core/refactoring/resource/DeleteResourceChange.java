@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2012 IBM Corporation and others.
+ * Copyright (c) 2007, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -120,7 +120,7 @@ public class DeleteResourceChange extends ResourceChange {
 		if (pm == null)
 			pm= new NullProgressMonitor();
 
-		pm.beginTask("", 10); //$NON-NLS-1$
+		pm.beginTask("", 15); //$NON-NLS-1$
 		pm.setTaskName(RefactoringCoreMessages.DeleteResourceChange_deleting);
 
 		try {
@@ -152,7 +152,7 @@ public class DeleteResourceChange extends ResourceChange {
 
 			ResourceUndoState desc= ResourceUndoState.fromResource(resource);
 			if (resource instanceof IProject) {
-				((IProject) resource).delete(fDeleteContent, fForceOutOfSync, new SubProgressMonitor(pm, 10));
+				((IProject) resource).delete(fDeleteContent, fForceOutOfSync, new SubProgressMonitor(pm, 15));
 			} else {
 				int updateFlags;
 				if (fForceOutOfSync) {
@@ -160,6 +160,7 @@ public class DeleteResourceChange extends ResourceChange {
 				} else {
 					updateFlags= IResource.KEEP_HISTORY;
 				}
+				desc.recordStateFromContents(resource, new SubProgressMonitor(pm, 5));
 				resource.delete(updateFlags, new SubProgressMonitor(pm, 5));
 				desc.recordStateFromHistory(resource, new SubProgressMonitor(pm, 5));
 			}
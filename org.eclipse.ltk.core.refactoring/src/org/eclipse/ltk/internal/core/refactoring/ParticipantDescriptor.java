@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,12 @@
  *******************************************************************************/
 package org.eclipse.ltk.internal.core.refactoring;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
 import org.eclipse.core.expressions.EvaluationResult;
 import org.eclipse.core.expressions.Expression;
 import org.eclipse.core.expressions.ExpressionConverter;
@@ -36,6 +42,24 @@ public class ParticipantDescriptor {
 	private static final String CLASS= "class"; //$NON-NLS-1$
 	private static final String PROCESS_ON_CANCEL= "processOnCancel";  //$NON-NLS-1$
 
+	private static final String VARIABLE= "variable"; //$NON-NLS-1$
+	/** Name of the variable holding the element */
+	public static final String ELEMENT= "element"; //$NON-NLS-1$
+	/** Name of the variable holding the list of affected natures */
+	public static final String AFFECTED_NATURES= "affectedNatures"; //$NON-NLS-1$
+	/** Name of the variable holding the processor identifier */
+	public static final String PROCESSOR_IDENTIFIER= "processorIdentifier"; //$NON-NLS-1$
+
+	/** The maximal number of cached results per element type */
+	private static final int MAX_CACHED_RESULTS= 32;
+
+	private Expression fExpression;
+	/**
+	 * The cached results by element type, and by affected natures and processor.
+	 * Element types are held weakly so that their class loaders can be collected.
+	 */
+	private Map<Class<?>, Map<List<Object>, Boolean>> fEnablementCache;
+
 	public ParticipantDescriptor(IConfigurationElement element) {
 		fConfigurationElement= element;
 		fEnabled= true;
@@ -68,12 +92,7 @@ public class ParticipantDescriptor {
 	}
 
 	public boolean matches(IEvaluationContext context, IParticipantDescriptorFilter filter, RefactoringStatus status) throws CoreException {
-		IConfigurationElement[] elements= fConfigurationElement.getChildren(ExpressionTagNames.ENABLEMENT);
-		if (elements.length == 0)
-			return false;
-		Assert.isTrue(elements.length == 1);
-		Expression exp= ExpressionConverter.getDefault().perform(elements[0]);
-		if (!convert(exp.evaluate(context)))
+		if (!isEnabledFor(context))
 			return false;
 		if (filter != null && !filter.select(fConfigurationElement, status))
 			return false;
@@ -81,6 +100,94 @@ public class ParticipantDescriptor {
 		return true;
 	}
 
+	/**
+	 * Evaluates the enablement expression. If the expression only depends on
+	 * the type of the element, the affected natures and the processor, the
+	 * result is cached for that combination.
+	 *
+	 * @param context the evaluation context
+	 * @return whether the participant is enabled
+	 * @throws CoreException if the expression could not be evaluated
+	 */
+	private boolean isEnabledFor(IEvaluationContext context) throws CoreException {
+		Expression expression;
+		Class<?> type= null;
+		List<Object> key= null;
+		synchronized (this) {
+			if (fExpression == null) {
+				IConfigurationElement[] elements= fConfigurationElement.getChildren(ExpressionTagNames.ENABLEMENT);
+				if (elements.length == 0)
+					return false;
+				Assert.isTrue(elements.length == 1);
+				fExpression= ExpressionConverter.getDefault().perform(elements[0]);
+				if (isTypeDependentOnly(elements[0], true))
+					fEnablementCache= new WeakHashMap<>();
+			}
+			expression= fExpression;
+			Object element= context.getDefaultVariable();
+			if (fEnablementCache != null && element != null) {
+				type= element.getClass();
+				key= Arrays.asList(context.getVariable(AFFECTED_NATURES), context.getVariable(PROCESSOR_IDENTIFIER));
+				Map<List<Object>, Boolean> results= fEnablementCache.get(type);
+				Boolean cached= results != null ? results.get(key) : null;
+				if (cached != null)
+					return cached.booleanValue();
+			}
+		}
+		boolean result= convert(expression.evaluate(context));
+		if (type != null) {
+			synchronized (this) {
+				Map<List<Object>, Boolean> results= fEnablementCache.get(type);
+				if (results == null) {
+					results= new HashMap<>();
+					fEnablementCache.put(type, results);
+				} else if (results.size() >= MAX_CACHED_RESULTS) {
+					results.clear();
+				}
+				results.put(key, Boolean.valueOf(result));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns whether the given expression element only tests the type of the
+	 * element, or values of the affected natures and the processor identifier.
+	 *
+	 * @param element the expression element
+	 * @param elementContext whether the element is the current default variable
+	 * @return <code>true</code> if the result of the expression can be cached per type
+	 */
+	private static boolean isTypeDependentOnly(IConfigurationElement element, boolean elementContext) {
+		String name= element.getName();
+		boolean childContext= elementContext;
+		if (ExpressionTagNames.WITH.equals(name)) {
+			String variable= element.getAttribute(VARIABLE);
+			if (ELEMENT.equals(variable))
+				childContext= true;
+			else if (AFFECTED_NATURES.equals(variable) || PROCESSOR_IDENTIFIER.equals(variable))
+				childContext= false;
+			else
+				return false;
+		} else if (ExpressionTagNames.INSTANCEOF.equals(name)) {
+			return true;
+		} else if (ExpressionTagNames.EQUALS.equals(name) || ExpressionTagNames.COUNT.equals(name)) {
+			return !elementContext;
+		} else if (ExpressionTagNames.ITERATE.equals(name)) {
+			if (elementContext)
+				return false;
+		} else if (!ExpressionTagNames.ENABLEMENT.equals(name) && !ExpressionTagNames.AND.equals(name)
+				&& !ExpressionTagNames.OR.equals(name) && !ExpressionTagNames.NOT.equals(name)) {
+			return false;
+		}
+		IConfigurationElement[] children= element.getChildren();
+		for (int i= 0; i < children.length; i++) {
+			if (!isTypeDependentOnly(children[i], childContext))
+				return false;
+		}
+		return true;
+	}
+
 	public RefactoringParticipant createParticipant() throws CoreException {
 		return (RefactoringParticipant)fConfigurationElement.createExecutableExtension(CLASS);
 	}
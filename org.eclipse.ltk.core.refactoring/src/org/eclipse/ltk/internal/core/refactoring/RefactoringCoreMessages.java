@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -246,6 +246,8 @@ public final class RefactoringCoreMessages extends NLS {
 
 	public static String TextChanges_error_read_only;
 
+	public static String UndoContentStore_error_storing_contents;
+
 	public static String UndoDeleteResourceChange_already_exists;
 
 	public static String UndoDeleteResourceChange_cannot_restore;
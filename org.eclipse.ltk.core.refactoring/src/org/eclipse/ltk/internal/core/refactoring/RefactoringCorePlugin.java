@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -32,6 +32,7 @@ import org.eclipse.ltk.core.refactoring.history.IRefactoringHistoryListener;
 import org.eclipse.ltk.internal.core.refactoring.history.RefactoringContributionManager;
 import org.eclipse.ltk.internal.core.refactoring.history.RefactoringHistorySerializer;
 import org.eclipse.ltk.internal.core.refactoring.history.RefactoringHistoryService;
+import org.eclipse.ltk.internal.core.refactoring.resource.undostates.UndoContentStore;
 
 public class RefactoringCorePlugin extends Plugin {
 
@@ -130,6 +131,7 @@ public class RefactoringCorePlugin extends Plugin {
 		}
 		if (fgUndoManager != null)
 			fgUndoManager.shutdown();
+		UndoContentStore.shutdownDefault();
 		final RefactoringHistoryService service= RefactoringHistoryService.getInstance();
 		service.disconnect();
 		if (fRefactoringHistoryListener != null)
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2008 IBM Corporation and others.
+ * Copyright (c) 2005, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,6 +20,18 @@ public final class RefactoringPreferenceConstants {
 	/** The shared refactoring history preference */
 	public static final String PREFERENCE_SHARED_REFACTORING_HISTORY= "org.eclipse.ltk.core.refactoring.enable.project.refactoring.history"; //$NON-NLS-1$
 
+	/**
+	 * The memory budget in kilobytes for file contents kept to undo resource
+	 * deletions before they are spilled to disk
+	 */
+	public static final String PREFERENCE_UNDO_CONTENT_MEMORY_BUDGET= "org.eclipse.ltk.core.refactoring.undo.content.memory.budget"; //$NON-NLS-1$
+
+	/**
+	 * The memory budget in kilobytes for the changes on the refactoring undo
+	 * and redo stacks, or <code>0</code> for no limit
+	 */
+	public static final String PREFERENCE_UNDO_MEMORY_BUDGET= "org.eclipse.ltk.core.refactoring.undo.memory.budget"; //$NON-NLS-1$
+
 	private RefactoringPreferenceConstants() {
 		// Not for instantiation
 	}
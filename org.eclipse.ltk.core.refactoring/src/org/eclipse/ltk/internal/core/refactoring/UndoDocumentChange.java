@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2010 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -41,6 +41,15 @@ public class UndoDocumentChange extends Change {
 		fDocument= document;
 	}
 
+	/**
+	 * Returns the undo edit applied by this change.
+	 *
+	 * @return the undo edit
+	 */
+	public UndoEdit getUndoEdit() {
+		return fUndo;
+	}
+
 	@Override
 	public String getName() {
 		return fName;
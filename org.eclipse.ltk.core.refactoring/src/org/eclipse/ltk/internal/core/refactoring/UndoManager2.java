@@ -10,9 +10,13 @@
  *******************************************************************************/
 package org.eclipse.ltk.internal.core.refactoring;
 
+import java.util.Map;
+import java.util.WeakHashMap;
+
 import org.eclipse.core.commands.ExecutionException;
 import org.eclipse.core.commands.operations.IOperationHistory;
 import org.eclipse.core.commands.operations.IOperationHistoryListener;
+import org.eclipse.core.commands.operations.IUndoContext;
 import org.eclipse.core.commands.operations.IUndoableOperation;
 import org.eclipse.core.commands.operations.OperationHistoryEvent;
 import org.eclipse.core.commands.operations.OperationHistoryFactory;
@@ -24,6 +28,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.ListenerList;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.Status;
 
@@ -35,6 +40,9 @@ import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 
 public class UndoManager2 implements IUndoManager {
 
+	/** The default budget for the undo and redo stacks in kilobytes */
+	public static final int DEFAULT_UNDO_MEMORY_BUDGET= 64 * 1024;
+
 	private class OperationHistoryListener implements IOperationHistoryListener {
 		@Override
 		public void historyNotification(OperationHistoryEvent event) {
@@ -112,6 +120,9 @@ public class UndoManager2 implements IUndoManager {
 
 	private ListenerList<IUndoManagerListener> fListeners;
 
+	/** The estimated sizes of the undo and redo changes, computed on demand */
+	private final Map<Change, Long> fChangeSizes= new WeakHashMap<>();
+
 	public UndoManager2() {
 		fOperationHistory= OperationHistoryFactory.getOperationHistory();
 	}
@@ -174,6 +185,68 @@ public class UndoManager2 implements IUndoManager {
 			operation.setLabel(name);
 			fOperationHistory.add(fActiveOperation);
 			fActiveOperation= null;
+			discardUndosOverBudget();
+		}
+	}
+
+	@Override
+	public long getUndoMemoryUsage() {
+		IUndoContext context= RefactoringCorePlugin.getUndoContext();
+		return getMemoryUsage(fOperationHistory.getUndoHistory(context)) + getMemoryUsage(fOperationHistory.getRedoHistory(context));
+	}
+
+	private long getMemoryUsage(IUndoableOperation[] operations) {
+		long result= 0;
+		for (int i= 0; i < operations.length; i++) {
+			result+= getMemoryUsage(operations[i]);
+		}
+		return result;
+	}
+
+	private synchronized long getMemoryUsage(IUndoableOperation operation) {
+		UndoableOperation2ChangeAdapter changeOperation= getUnwrappedOperation(operation);
+		if (changeOperation == null)
+			return 0;
+		Change change= changeOperation.getChange();
+		if (change == null)
+			return 0;
+		Long size= fChangeSizes.get(change);
+		if (size == null) {
+			size= Long.valueOf(UndoMemoryEstimator.estimate(change));
+			fChangeSizes.put(change, size);
+		}
+		return size.longValue();
+	}
+
+	/**
+	 * Discards the oldest refactoring undos until the memory used by the undo
+	 * and redo stacks fits into the configured budget. The most recent undo is
+	 * never discarded.
+	 * <p>
+	 * The undos are discarded by temporarily lowering the limit of the undo
+	 * context, so that the operation history removes and disposes them the
+	 * same way as the undos over its limit.
+	 * </p>
+	 */
+	private void discardUndosOverBudget() {
+		long budget= Platform.getPreferencesService().getInt(RefactoringCorePlugin.getPluginId(), RefactoringPreferenceConstants.PREFERENCE_UNDO_MEMORY_BUDGET, DEFAULT_UNDO_MEMORY_BUDGET, null) * 1024L;
+		if (budget <= 0)
+			return;
+		long usage= getUndoMemoryUsage();
+		if (usage <= budget)
+			return;
+		IUndoContext context= RefactoringCorePlugin.getUndoContext();
+		IUndoableOperation[] undos= fOperationHistory.getUndoHistory(context);
+		int kept= undos.length;
+		for (int i= 0; i < undos.length - 1 && usage > budget; i++) {
+			usage-= getMemoryUsage(undos[i]);
+			kept--;
+		}
+		if (kept < undos.length) {
+			// adding the undo has flushed the redo stack, so only undos are removed
+			int limit= fOperationHistory.getLimit(context);
+			fOperationHistory.setLimit(context, kept);
+			fOperationHistory.setLimit(context, limit);
 		}
 	}
 
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.internal.core.refactoring;
+
+import org.eclipse.text.edits.InsertEdit;
+import org.eclipse.text.edits.ReplaceEdit;
+import org.eclipse.text.edits.TextEdit;
+import org.eclipse.text.edits.UndoEdit;
+
+import org.eclipse.ltk.core.refactoring.Change;
+import org.eclipse.ltk.core.refactoring.CompositeChange;
+import org.eclipse.ltk.core.refactoring.TextChange;
+import org.eclipse.ltk.core.refactoring.UndoTextFileChange;
+import org.eclipse.ltk.internal.core.refactoring.resource.undostates.ResourceUndoState;
+
+/**
+ * Estimates the number of bytes retained by the change objects kept on the
+ * refactoring undo and redo stacks.
+ * <p>
+ * The estimate accounts for the text held by text edits, which dominates the
+ * memory of large refactoring undos, the contents and markers recorded by the
+ * undo states of deleted resources, plus a fixed overhead per change and per
+ * edit.
+ * </p>
+ *
+ * @since 3.7
+ */
+public final class UndoMemoryEstimator {
+
+	private static final int CHANGE_OVERHEAD= 64;
+
+	private static final int EDIT_OVERHEAD= 48;
+
+	/**
+	 * Returns the estimated number of bytes retained by the given change and
+	 * its children.
+	 *
+	 * @param change the change, or <code>null</code>
+	 * @return the estimated size in bytes
+	 */
+	public static long estimate(Change change) {
+		if (change == null)
+			return 0;
+		long size= CHANGE_OVERHEAD;
+		if (change instanceof CompositeChange) {
+			Change[] children= ((CompositeChange) change).getChildren();
+			for (int i= 0; i < children.length; i++) {
+				size+= estimate(children[i]);
+			}
+		} else if (change instanceof UndoTextFileChange) {
+			size+= estimate(change.getAdapter(UndoEdit.class));
+		} else if (change instanceof UndoDocumentChange) {
+			size+= estimate(((UndoDocumentChange) change).getUndoEdit());
+		} else if (change instanceof MultiStateUndoChange) {
+			UndoEdit[] undos= ((MultiStateUndoChange) change).getUndoEdits();
+			for (int i= 0; i < undos.length; i++) {
+				size+= estimate(undos[i]);
+			}
+		} else if (change instanceof TextChange) {
+			size+= estimate(((TextChange) change).getEdit());
+		} else {
+			ResourceUndoState state= change.getAdapter(ResourceUndoState.class);
+			if (state != null)
+				size+= state.getRetainedSize();
+		}
+		return size;
+	}
+
+	private static long estimate(TextEdit edit) {
+		if (edit == null)
+			return 0;
+		long size= EDIT_OVERHEAD;
+		if (edit instanceof ReplaceEdit) {
+			size+= 2L * ((ReplaceEdit) edit).getText().length();
+		} else if (edit instanceof InsertEdit) {
+			size+= 2L * ((InsertEdit) edit).getText().length();
+		}
+		TextEdit[] children= edit.getChildren();
+		for (int i= 0; i < children.length; i++) {
+			size+= estimate(children[i]);
+		}
+		return size;
+	}
+
+	private UndoMemoryEstimator() {
+		// Not for instantiation
+	}
+}
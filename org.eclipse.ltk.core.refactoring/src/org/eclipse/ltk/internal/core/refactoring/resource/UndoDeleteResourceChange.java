@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2008 IBM Corporation and others.
+ * Copyright (c) 2007, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -79,6 +79,18 @@ public class UndoDeleteResourceChange extends Change {
 		return change;
 	}
 
+	@Override
+	public <T> T getAdapter(Class<T> adapter) {
+		if (ResourceUndoState.class.equals(adapter))
+			return adapter.cast(fResourceState);
+		return super.getAdapter(adapter);
+	}
+
+	@Override
+	public void dispose() {
+		fResourceState.dispose();
+	}
+
 	@Override
 	public String toString() {
 		return Messages.format(RefactoringCoreMessages.UndoDeleteResourceChange_revert_resource, fResourceState.getName());
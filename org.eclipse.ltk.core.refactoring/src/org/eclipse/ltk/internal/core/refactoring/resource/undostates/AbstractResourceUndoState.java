@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2008 IBM Corporation and others.
+ * Copyright (c) 2006, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -33,6 +33,10 @@ import org.eclipse.core.resources.ResourcesPlugin;
  */
 abstract class AbstractResourceUndoState extends ResourceUndoState {
 
+	private static final int STATE_OVERHEAD= 64;
+
+	private static final int MARKER_OVERHEAD= 128;
+
 	protected IContainer parent;
 	protected long localTimeStamp= IResource.NULL_STAMP;
 
@@ -76,6 +80,11 @@ abstract class AbstractResourceUndoState extends ResourceUndoState {
 	}
 
 
+	@Override
+	public long getRetainedSize() {
+		return STATE_OVERHEAD + (markerDescriptions != null ? markerDescriptions.length * (long) MARKER_OVERHEAD : 0);
+	}
+
 	@Override
 	public IResource createResource(IProgressMonitor monitor) throws CoreException {
 		IResource resource= createResourceHandle();
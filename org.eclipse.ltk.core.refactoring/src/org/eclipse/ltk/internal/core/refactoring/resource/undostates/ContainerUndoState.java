@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2008 IBM Corporation and others.
+ * Copyright (c) 2006, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -197,6 +197,50 @@ public abstract class ContainerUndoState extends AbstractResourceUndoState {
 		monitor.done();
 	}
 
+	@Override
+	protected void recordStateFromContents(IResource resource,
+			long maxFileStateSize, IProgressMonitor monitor) throws CoreException {
+		monitor.beginTask(
+				RefactoringCoreMessages.FolderDescription_SavingUndoInfoProgress, 100);
+		if (members != null && location == null) {
+			IContainer container = (IContainer) resource;
+			for (int i = 0; i < members.length; i++) {
+				if (members[i] instanceof FileUndoState) {
+					IFile fileHandle = container.getFile(new Path(
+							((FileUndoState) members[i]).name));
+					members[i].recordStateFromContents(fileHandle, maxFileStateSize,
+							new SubProgressMonitor(monitor, 100 / members.length));
+				} else if (members[i] instanceof FolderUndoState) {
+					IFolder folderHandle = container.getFolder(new Path(
+							((FolderUndoState) members[i]).name));
+					members[i].recordStateFromContents(folderHandle, maxFileStateSize,
+							new SubProgressMonitor(monitor, 100 / members.length));
+				}
+			}
+		}
+		monitor.done();
+	}
+
+	@Override
+	public long getRetainedSize() {
+		long size = super.getRetainedSize();
+		if (members != null) {
+			for (int i = 0; i < members.length; i++) {
+				size += members[i].getRetainedSize();
+			}
+		}
+		return size;
+	}
+
+	@Override
+	public void dispose() {
+		if (members != null) {
+			for (int i = 0; i < members.length; i++) {
+				members[i].dispose();
+			}
+		}
+	}
+
 	/**
 	 * Return the name of the container described by this ContainerState.
 	 *
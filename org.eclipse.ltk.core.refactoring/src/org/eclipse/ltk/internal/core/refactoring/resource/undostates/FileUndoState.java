@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,8 @@ import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.net.URI;
 
+import org.eclipse.core.filesystem.EFS;
+
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
@@ -101,6 +103,10 @@ public class FileUndoState extends AbstractResourceUndoState {
 			// file is linked, no need to record any history
 			return;
 		}
+		if (fileContentDescription != null) {
+			// contents have already been recorded before the file was deleted
+			return;
+		}
 		IFileState[] states= ((IFile) resource).getHistory(monitor);
 		if (states.length > 0) {
 			final IFileState state= getMatchingFileState(states);
@@ -123,6 +129,48 @@ public class FileUndoState extends AbstractResourceUndoState {
 		}
 	}
 
+	@Override
+	protected void recordStateFromContents(IResource resource, long maxFileStateSize, IProgressMonitor monitor) throws CoreException {
+		Assert.isLegal(resource.getType() == IResource.FILE);
+
+		monitor.beginTask("", 1); //$NON-NLS-1$
+		try {
+			if (location != null || fileContentDescription != null) {
+				// linked files keep their contents, recorded files are done
+				return;
+			}
+			URI fileLocation= resource.getLocationURI();
+			if (fileLocation == null) {
+				return;
+			}
+			long length= EFS.getStore(fileLocation).fetchInfo().getLength();
+			if (length <= maxFileStateSize) {
+				// the local history is able to restore the contents
+				return;
+			}
+			IFile file= (IFile) resource;
+			fileContentDescription= UndoContentStore.getDefault().store(file.getContents(true), charset);
+		} finally {
+			monitor.done();
+		}
+	}
+
+	@Override
+	public long getRetainedSize() {
+		long size= super.getRetainedSize();
+		if (fileContentDescription != null) {
+			size+= UndoContentStore.getDefault().getMemorySize(fileContentDescription);
+		}
+		return size;
+	}
+
+	@Override
+	public void dispose() {
+		if (fileContentDescription != null) {
+			UndoContentStore.getDefault().release(fileContentDescription);
+		}
+	}
+
 	@Override
 	public IResource createResourceHandle() {
 		IWorkspaceRoot workspaceRoot= parent.getWorkspace().getRoot();
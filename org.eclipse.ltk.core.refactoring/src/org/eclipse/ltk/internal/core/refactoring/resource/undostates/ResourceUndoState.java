@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2008 IBM Corporation and others.
+ * Copyright (c) 2007, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -111,6 +111,52 @@ public abstract class ResourceUndoState {
 	 */
 	public abstract void recordStateFromHistory(IResource resource, IProgressMonitor monitor) throws CoreException;
 
+	/**
+	 * Record the contents of files that will not be available from the
+	 * resource history once the resource has been deleted. This method must be
+	 * called before the resource is deleted.
+	 *
+	 * @param resource
+	 *            the resource whose contents are to be recorded.
+	 * @param monitor
+	 *            the progress monitor to be used
+	 * @throws CoreException if the contents could not be read
+	 */
+	public void recordStateFromContents(IResource resource, IProgressMonitor monitor) throws CoreException {
+		recordStateFromContents(resource, resource.getWorkspace().getDescription().getMaxFileStateSize(), monitor);
+	}
+
+	/**
+	 * Record the contents of files that are larger than the given maximum
+	 * size of the resource history. This method must be called before the
+	 * resource is deleted.
+	 *
+	 * @param resource
+	 *            the resource whose contents are to be recorded.
+	 * @param maxFileStateSize
+	 *            the maximum size of a file that the resource history keeps
+	 * @param monitor
+	 *            the progress monitor to be used
+	 * @throws CoreException if the contents could not be read
+	 */
+	protected abstract void recordStateFromContents(IResource resource, long maxFileStateSize, IProgressMonitor monitor) throws CoreException;
+
+	/**
+	 * Returns the estimated number of bytes this resource state retains in
+	 * memory, including the recorded contents of files that are held in memory.
+	 *
+	 * @return the estimated size in bytes
+	 */
+	public abstract long getRetainedSize();
+
+	/**
+	 * Release any contents recorded by this resource state. The state cannot be
+	 * used to create a resource afterwards.
+	 */
+	public void dispose() {
+		// do nothing
+	}
+
 	/**
 	 * Return a boolean indicating whether this state represents an
 	 * existent resource.
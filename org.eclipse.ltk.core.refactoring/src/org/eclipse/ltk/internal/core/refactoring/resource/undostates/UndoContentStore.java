@@ -0,0 +1,356 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.internal.core.refactoring.resource.undostates;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+
+import org.eclipse.ltk.internal.core.refactoring.RefactoringCoreMessages;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringPreferenceConstants;
+
+/**
+ * {@link UndoContentStore} keeps the contents of deleted files that cannot be
+ * restored from the local history.
+ * <p>
+ * Contents are stored compressed and are shared between all undo states that
+ * refer to identical bytes. Once the compressed contents held in memory exceed
+ * the configured budget, the oldest entries are spilled to the plug-in state
+ * location and read back from there on undo.
+ * </p>
+ *
+ * This class is not intended to be instantiated or used by clients.
+ *
+ * @since 3.7
+ */
+public final class UndoContentStore {
+
+	/** The default memory budget in kilobytes */
+	public static final int DEFAULT_MEMORY_BUDGET= 16 * 1024;
+
+	private static final String NAME_STORE_FOLDER= ".undo"; //$NON-NLS-1$
+
+	private static final String DIGEST_ALGORITHM= "SHA-1"; //$NON-NLS-1$
+
+	private static UndoContentStore fgInstance= null;
+
+	/**
+	 * Returns the shared content store.
+	 *
+	 * @return the shared content store
+	 */
+	public static synchronized UndoContentStore getDefault() {
+		if (fgInstance == null) {
+			int budget= Platform.getPreferencesService().getInt(RefactoringCorePlugin.getPluginId(), RefactoringPreferenceConstants.PREFERENCE_UNDO_CONTENT_MEMORY_BUDGET, DEFAULT_MEMORY_BUDGET, null);
+			fgInstance= new UndoContentStore(getStoreFolder(), Math.max(0, budget) * 1024L);
+			// remove spill files left over by a previous session
+			fgInstance.deleteSpillFiles();
+		}
+		return fgInstance;
+	}
+
+	/**
+	 * Shuts down the shared content store, if it has been created, and removes
+	 * its spill files.
+	 */
+	public static synchronized void shutdownDefault() {
+		if (fgInstance != null) {
+			fgInstance.shutdown();
+			fgInstance= null;
+		}
+	}
+
+	private static File getStoreFolder() {
+		RefactoringCorePlugin plugin= RefactoringCorePlugin.getDefault();
+		if (plugin != null)
+			return plugin.getStateLocation().append(NAME_STORE_FOLDER).toFile();
+		return new File(System.getProperty("java.io.tmpdir"), NAME_STORE_FOLDER); //$NON-NLS-1$
+	}
+
+	/**
+	 * A stored content. The compressed bytes are either held in memory or in a
+	 * spill file.
+	 */
+	private static final class Entry {
+
+		private final String fKey;
+		private byte[] fData;
+		private File fFile;
+		private int fReferences;
+
+		private Entry(String key, byte[] data) {
+			fKey= key;
+			fData= data;
+		}
+	}
+
+	/**
+	 * File content description backed by an entry of the store.
+	 */
+	private final class StoredContentDescription implements IFileContentDescription {
+
+		private Entry fEntry;
+		private final String fCharset;
+
+		private StoredContentDescription(Entry entry, String charset) {
+			fEntry= entry;
+			fCharset= charset;
+		}
+
+		@Override
+		public InputStream getContents() throws CoreException {
+			Entry entry= fEntry;
+			if (entry == null)
+				throw createException(null);
+			return openContents(entry);
+		}
+
+		@Override
+		public boolean exists() {
+			Entry entry= fEntry;
+			return entry != null && (entry.fData != null || entry.fFile != null && entry.fFile.isFile());
+		}
+
+		@Override
+		public String getCharset() throws CoreException {
+			return fCharset;
+		}
+
+		private void release() {
+			if (fEntry != null) {
+				UndoContentStore.this.release(fEntry);
+				fEntry= null;
+			}
+		}
+	}
+
+	private final File fFolder;
+	private final long fMemoryBudget;
+
+	/** The entries in insertion order, used to choose entries to spill */
+	private final Map<String, Entry> fEntries= new LinkedHashMap<>();
+
+	private long fMemoryUsed= 0;
+	private int fFileCounter= 0;
+
+	/**
+	 * Creates a new content store.
+	 *
+	 * @param folder the folder to spill contents to
+	 * @param memoryBudget the maximum number of compressed bytes to hold in memory
+	 */
+	public UndoContentStore(File folder, long memoryBudget) {
+		fFolder= folder;
+		fMemoryBudget= memoryBudget;
+	}
+
+	/**
+	 * Stores the given contents and returns a description that can be used to
+	 * restore them. The stream is read to its end and closed.
+	 *
+	 * @param contents the contents to store
+	 * @param charset the charset of the contents, or <code>null</code>
+	 * @return the description of the stored contents
+	 * @throws CoreException if the contents could not be read or stored
+	 */
+	public IFileContentDescription store(InputStream contents, String charset) throws CoreException {
+		ByteArrayOutputStream buffer= new ByteArrayOutputStream();
+		MessageDigest digest;
+		try {
+			digest= MessageDigest.getInstance(DIGEST_ALGORITHM);
+			Deflater deflater= new Deflater(Deflater.BEST_SPEED);
+			try (InputStream input= contents) {
+				DeflaterOutputStream output= new DeflaterOutputStream(buffer, deflater);
+				byte[] bytes= new byte[8192];
+				int read;
+				while ((read= input.read(bytes)) != -1) {
+					digest.update(bytes, 0, read);
+					output.write(bytes, 0, read);
+				}
+				output.finish();
+			} finally {
+				deflater.end();
+			}
+		} catch (IOException e) {
+			throw createException(e);
+		} catch (NoSuchAlgorithmException e) {
+			throw createException(e);
+		}
+		String key= toHex(digest.digest());
+		synchronized (this) {
+			Entry entry= fEntries.get(key);
+			if (entry == null) {
+				entry= new Entry(key, buffer.toByteArray());
+				fEntries.put(key, entry);
+				fMemoryUsed+= entry.fData.length;
+				spillIfNeeded();
+			}
+			entry.fReferences++;
+			return new StoredContentDescription(entry, charset);
+		}
+	}
+
+	/**
+	 * Releases the contents referenced by the given description. The contents
+	 * are discarded once no description refers to them anymore.
+	 *
+	 * @param description the description to release
+	 */
+	public void release(IFileContentDescription description) {
+		if (description instanceof StoredContentDescription)
+			((StoredContentDescription) description).release();
+	}
+
+	/**
+	 * Returns the number of compressed bytes of the given contents that are
+	 * held in memory.
+	 *
+	 * @param description the contents, or <code>null</code>
+	 * @return the number of bytes held in memory, or <code>0</code> if the
+	 *         contents have been spilled to disk or are not held by this store
+	 */
+	public synchronized long getMemorySize(IFileContentDescription description) {
+		if (!(description instanceof StoredContentDescription))
+			return 0;
+		Entry entry= ((StoredContentDescription) description).fEntry;
+		return entry != null && entry.fData != null ? entry.fData.length : 0;
+	}
+
+	/**
+	 * Returns the number of compressed bytes currently held in memory.
+	 *
+	 * @return the number of bytes held in memory
+	 */
+	public synchronized long getMemoryUsed() {
+		return fMemoryUsed;
+	}
+
+	/**
+	 * Returns the number of distinct contents currently stored.
+	 *
+	 * @return the number of stored contents
+	 */
+	public synchronized int getEntryCount() {
+		return fEntries.size();
+	}
+
+	/**
+	 * Discards all stored contents and deletes the spill files.
+	 */
+	public synchronized void shutdown() {
+		for (Iterator<Entry> iterator= fEntries.values().iterator(); iterator.hasNext();) {
+			discard(iterator.next());
+		}
+		fEntries.clear();
+		fMemoryUsed= 0;
+		deleteSpillFiles();
+	}
+
+	private void deleteSpillFiles() {
+		File[] files= fFolder.listFiles();
+		if (files != null) {
+			for (int i= 0; i < files.length; i++) {
+				files[i].delete();
+			}
+		}
+	}
+
+	private synchronized void release(Entry entry) {
+		if (--entry.fReferences <= 0) {
+			fEntries.remove(entry.fKey);
+			discard(entry);
+		}
+	}
+
+	private void discard(Entry entry) {
+		if (entry.fData != null) {
+			fMemoryUsed-= entry.fData.length;
+			entry.fData= null;
+		}
+		if (entry.fFile != null) {
+			entry.fFile.delete();
+			entry.fFile= null;
+		}
+	}
+
+	private void spillIfNeeded() {
+		for (Iterator<Entry> iterator= fEntries.values().iterator(); fMemoryUsed > fMemoryBudget && iterator.hasNext();) {
+			Entry entry= iterator.next();
+			if (entry.fData == null)
+				continue;
+			try {
+				fFolder.mkdirs();
+				File file= new File(fFolder, Integer.toString(fFileCounter++));
+				try (OutputStream output= new FileOutputStream(file)) {
+					output.write(entry.fData);
+				}
+				entry.fFile= file;
+				fMemoryUsed-= entry.fData.length;
+				entry.fData= null;
+			} catch (IOException e) {
+				// keep the contents in memory
+				RefactoringCorePlugin.log(e);
+				return;
+			}
+		}
+	}
+
+	private synchronized InputStream openContents(Entry entry) throws CoreException {
+		InputStream input;
+		if (entry.fData != null) {
+			input= new ByteArrayInputStream(entry.fData);
+		} else if (entry.fFile != null) {
+			try {
+				input= new BufferedInputStream(new FileInputStream(entry.fFile));
+			} catch (IOException e) {
+				throw createException(e);
+			}
+		} else {
+			throw createException(null);
+		}
+		return new InflaterInputStream(input);
+	}
+
+	private static CoreException createException(Throwable throwable) {
+		return new CoreException(new Status(IStatus.ERROR, RefactoringCorePlugin.getPluginId(), RefactoringCoreMessages.UndoContentStore_error_storing_contents, throwable));
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder buffer= new StringBuilder(bytes.length * 2);
+		for (int i= 0; i < bytes.length; i++) {
+			int value= bytes[i] & 0xff;
+			if (value < 0x10)
+				buffer.append('0');
+			buffer.append(Integer.toHexString(value));
+		}
+		return buffer.toString();
+	}
+}